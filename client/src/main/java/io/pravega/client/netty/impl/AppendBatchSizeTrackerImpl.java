@@ -13,8 +13,11 @@ import io.pravega.common.ExponentialMovingAverage;
 import io.pravega.common.MathHelpers;
 import io.pravega.shared.protocol.netty.AppendBatchSizeTracker;
 
+import java.util.HashMap;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
+import javax.annotation.concurrent.GuardedBy;
 
 /**
  * See {@link AppendBatchSizeTracker}.
@@ -22,7 +25,7 @@ import java.util.function.Supplier;
  * This implementation tracks three things:
  * 1. The time between appends
  * 2. The size of each append
- * 3. The number of unackedAppends there are outstanding
+ * 3. The number of unackedAppends there are outstanding (across all the writers using the connection)
  * 
  * If the number of unacked appends is <= 1 batching is disabled. This improves latency for low volume and synchronus writers.
  * Otherwise the batch size is set to the amount of data that will be written in the next {@link #TARGET_BATCH_TIME_MILLIS}
@@ -33,31 +36,46 @@ class AppendBatchSizeTrackerImpl implements AppendBatchSizeTracker {
     private static final int MAX_BATCH_SIZE = 32 * 1024;
 
     private final Supplier<Long> clock;
-    private final AtomicLong lastAppendNumber;
     private final AtomicLong lastAppendTime;
-    private final AtomicLong lastAckNumber;
+    @GuardedBy("writers")
+    private final HashMap<UUID, WriterProgress> writers = new HashMap<>();
+    private final AtomicLong numInflight = new AtomicLong(0);
     private final ExponentialMovingAverage eventSize = new ExponentialMovingAverage(1024, 0.1, true);
     private final ExponentialMovingAverage millisBetweenAppends = new ExponentialMovingAverage(10, 0.1, false);
 
     AppendBatchSizeTrackerImpl() {
         clock = System::currentTimeMillis;
         lastAppendTime = new AtomicLong(clock.get());
-        lastAckNumber = new AtomicLong(0);
-        lastAppendNumber = new AtomicLong(0);
     }
 
     @Override
-    public void recordAppend(long eventNumber, int size) {
+    public void recordAppend(UUID writerId, long eventNumber, int size) {
         long now = Math.max(lastAppendTime.get(), clock.get());
         long last = lastAppendTime.getAndSet(now);
-        lastAppendNumber.set(eventNumber);
+        synchronized (writers) {
+            WriterProgress progress = writers.computeIfAbsent(writerId, id -> new WriterProgress(eventNumber - 1));
+            numInflight.addAndGet(eventNumber - progress.lastAppendNumber);
+            progress.lastAppendNumber = eventNumber;
+        }
         millisBetweenAppends.addNewSample(now - last);
         eventSize.addNewSample(size);
     }
 
     @Override
-    public void recordAck(long eventNumber) {
-        lastAckNumber.getAndSet(eventNumber);
+    public void recordAck(UUID writerId, long eventNumber) {
+        synchronized (writers) {
+            WriterProgress progress = writers.get(writerId);
+            if (progress == null) {
+                return;
+            }
+            numInflight.addAndGet(progress.lastAckNumber - eventNumber);
+            progress.lastAckNumber = eventNumber;
+            if (progress.lastAckNumber >= progress.lastAppendNumber) {
+                // Nothing outstanding for this writer; stop tracking it so the map does not grow with closed writers.
+                numInflight.addAndGet(progress.lastAckNumber - progress.lastAppendNumber);
+                writers.remove(writerId);
+            }
+        }
     }
 
     /**
@@ -65,8 +83,7 @@ class AppendBatchSizeTrackerImpl implements AppendBatchSizeTracker {
      */
     @Override
     public int getAppendBlockSize() {
-        long numInflight = lastAppendNumber.get() - lastAckNumber.get();
-        if (numInflight <= 1) {
+        if (numInflight.get() <= 1) {
             return 0;
         }
         return (int) MathHelpers.minMax((long) (TARGET_BATCH_TIME_MILLIS / millisBetweenAppends.getCurrentValue()
@@ -77,4 +94,14 @@ class AppendBatchSizeTrackerImpl implements AppendBatchSizeTracker {
     public int getBatchTimeout() {
         return MAX_BATCH_TIME_MILLIS;
     }
+
+    private static final class WriterProgress {
+        private long lastAppendNumber;
+        private long lastAckNumber;
+
+        WriterProgress(long initialEventNumber) {
+            this.lastAppendNumber = initialEventNumber;
+            this.lastAckNumber = initialEventNumber;
+        }
+    }
 }
@@ -92,7 +92,8 @@ public class ClientConnectionInboundHandler extends ChannelInboundHandlerAdapter
         Reply cmd = (Reply) msg;
         log.debug(connectionName + " processing reply: {}", cmd);
         if (cmd instanceof WireCommands.DataAppended) {
-            batchSizeTracker.recordAck(((WireCommands.DataAppended) cmd).getEventNumber());
+            WireCommands.DataAppended dataAppended = (WireCommands.DataAppended) cmd;
+            batchSizeTracker.recordAck(dataAppended.getWriterId(), dataAppended.getEventNumber());
         }
         try {
             cmd.process(processor);
@@ -115,7 +116,7 @@ public class ClientConnectionInboundHandler extends ChannelInboundHandlerAdapter
     @Override
     public void send(Append append) throws ConnectionFailedException {
         recentMessage.set(true);
-        batchSizeTracker.recordAppend(append.getEventNumber(), append.getData().readableBytes());
+        batchSizeTracker.recordAppend(append.getWriterId(), append.getEventNumber(), append.getData().readableBytes());
         Futures.getAndHandleExceptions(getChannel().writeAndFlush(append), ConnectionFailedException::new);
     }
 
@@ -142,7 +143,7 @@ public class ClientConnectionInboundHandler extends ChannelInboundHandlerAdapter
         }
         PromiseCombiner combiner = new PromiseCombiner();
         for (Append append : appends) {
-            batchSizeTracker.recordAppend(append.getEventNumber(), append.getData().readableBytes());
+            batchSizeTracker.recordAppend(append.getWriterId(), append.getEventNumber(), append.getData().readableBytes());
             combiner.add(ch.write(append));
         }
         ch.flush();
@@ -30,6 +30,20 @@ public interface ConnectionFactory extends AutoCloseable {
      */
     CompletableFuture<ClientConnection> establishConnection(PravegaNodeUri endpoint, ReplyProcessor rp);
 
+    /**
+     * Establishes a connection for a segment writer, which may be multiplexed over a connection shared with other
+     * writers to the same endpoint. Replies to appends are routed to the given Reply Processor based on the writer
+     * ids it sets up appends for. Closing the returned connection only detaches it from the shared one.
+     * Implementations that do not share connections simply establish a dedicated one.
+     *
+     * @param endpoint The Pravega Node URI.
+     * @param rp       Reply Processor instance.
+     * @return An instance of client connection.
+     */
+    default CompletableFuture<ClientConnection> establishWriterConnection(PravegaNodeUri endpoint, ReplyProcessor rp) {
+        return establishConnection(endpoint, rp);
+    }
+
     /**
      * Get the internal executor which is used by the client.
      * @return A ScheduledExecutorService.
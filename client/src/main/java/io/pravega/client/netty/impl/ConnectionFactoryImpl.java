@@ -39,9 +39,12 @@ import io.pravega.shared.protocol.netty.PravegaNodeUri;
 import io.pravega.shared.protocol.netty.ReplyProcessor;
 import io.pravega.shared.protocol.netty.WireCommands;
 import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.concurrent.GuardedBy;
 import javax.net.ssl.SSLException;
 import lombok.extern.slf4j.Slf4j;
 
@@ -51,7 +54,12 @@ public final class ConnectionFactoryImpl implements ConnectionFactory {
     private static final Integer POOL_SIZE = Integer.valueOf(
             System.getProperty("pravega.client.internal.threadpool.size",
                     String.valueOf(Runtime.getRuntime().availableProcessors())));
+    private static final boolean SHARE_WRITER_CONNECTIONS = Boolean.parseBoolean(
+            System.getProperty("pravega.client.connection.shareWriterConnections", "false"));
     private final boolean ssl;
+    private final boolean shareWriterConnections;
+    @GuardedBy("sharedConnections")
+    private final Map<PravegaNodeUri, SharedConnection> sharedConnections = new HashMap<>();
     private EventLoopGroup group;
     private boolean nio = false;
     private final AtomicBoolean closed = new AtomicBoolean(false);
@@ -64,7 +72,19 @@ public final class ConnectionFactoryImpl implements ConnectionFactory {
      * @param ssl Whether connection should use SSL or not.
      */
     public ConnectionFactoryImpl(boolean ssl) {
+        this(ssl, SHARE_WRITER_CONNECTIONS);
+    }
+
+    /**
+     * Actual implementation of ConnectionFactory interface.
+     *
+     * @param ssl                    Whether connection should use SSL or not.
+     * @param shareWriterConnections Whether segment writers to the same endpoint should share a single connection
+     *                               (see {@link #establishWriterConnection}).
+     */
+    public ConnectionFactoryImpl(boolean ssl, boolean shareWriterConnections) {
         this.ssl = ssl;
+        this.shareWriterConnections = shareWriterConnections;
         try {
             this.group = new EpollEventLoopGroup();
         } catch (ExceptionInInitializerError | UnsatisfiedLinkError | NoClassDefFoundError e) {
@@ -140,6 +160,42 @@ public final class ConnectionFactoryImpl implements ConnectionFactory {
         return connectionComplete.thenCombine(channelRegisteredFuture, (clientConnection, v) -> clientConnection);
     }
 
+    @Override
+    public CompletableFuture<ClientConnection> establishWriterConnection(PravegaNodeUri location, ReplyProcessor rp) {
+        if (!shareWriterConnections) {
+            return establishConnection(location, rp);
+        }
+        Preconditions.checkNotNull(location);
+        Exceptions.checkNotClosed(closed.get(), this);
+        while (true) {
+            SharedConnection shared;
+            boolean created = false;
+            synchronized (sharedConnections) {
+                shared = sharedConnections.get(location);
+                if (shared == null) {
+                    shared = new SharedConnection(location, this::sharedConnectionClosed);
+                    sharedConnections.put(location, shared);
+                    created = true;
+                }
+            }
+            if (created) {
+                shared.connect(this);
+            }
+            CompletableFuture<ClientConnection> session = shared.newSession(rp);
+            if (session != null) {
+                return session;
+            }
+            // Closed in the meantime (it removes itself from sharedConnections, but may not have done so yet). Try again.
+            sharedConnectionClosed(shared);
+        }
+    }
+
+    private void sharedConnectionClosed(SharedConnection shared) {
+        synchronized (sharedConnections) {
+            sharedConnections.remove(shared.getLocation(), shared);
+        }
+    }
+
     @Override
     public ScheduledExecutorService getInternalExecutor() {
         return executor;
@@ -0,0 +1,442 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.client.netty.impl;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.concurrent.Futures;
+import io.pravega.shared.protocol.netty.Append;
+import io.pravega.shared.protocol.netty.ConnectionFailedException;
+import io.pravega.shared.protocol.netty.FailingReplyProcessor;
+import io.pravega.shared.protocol.netty.PravegaNodeUri;
+import io.pravega.shared.protocol.netty.ReplyProcessor;
+import io.pravega.shared.protocol.netty.WireCommand;
+import io.pravega.shared.protocol.netty.WireCommands;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import javax.annotation.concurrent.GuardedBy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A single connection to a Segment Store that is shared by many segment writers.
+ *
+ * Each caller gets its own {@link ClientConnection} (a session) with its own {@link ReplyProcessor}. Commands from all
+ * the sessions go out over the same channel, and replies are routed back to the right session:
+ * - Append acknowledgements and errors are routed by writer id, which is registered when a session sends SetupAppend.
+ * - Errors about a whole segment (sealed, missing, wrong host) go to every session that has a writer on that segment.
+ * - Connection-wide events (hello, drops, processing failures) go to every session.
+ *
+ * When a session is closed while the connection stays open, each of its writers is removed from the Segment Store with
+ * a RemoveWriter command, which also drops any of its appends that have not been written yet. Replies for that writer
+ * are discarded until the Segment Store confirms the removal (with WriterRemoved), and if the same writer sets up
+ * appends on this connection again in the meantime, that is deferred until then, so that late replies from before can
+ * never be mistaken for replies to its new appends.
+ *
+ * Only appends can be demultiplexed this way: other replies are keyed by request ids or offsets that are not unique
+ * across callers, so readers and metadata clients keep using dedicated connections.
+ */
+@Slf4j
+class SharedConnection extends FailingReplyProcessor {
+    private static final int REMOVE_WRITER_WIRE_VERSION = 7;
+    private final PravegaNodeUri location;
+    private final Consumer<SharedConnection> onClose;
+    private final CompletableFuture<ClientConnection> connection = new CompletableFuture<>();
+    @GuardedBy("sessions")
+    private final Set<Session> sessions = new HashSet<>();
+    @GuardedBy("sessions")
+    private boolean closed = false;
+    private final ConcurrentHashMap<UUID, WriterState> writers = new ConcurrentHashMap<>();
+    @GuardedBy("removals")
+    private final Map<UUID, Removal> removals = new HashMap<>();
+    private volatile int serverVersion = -1;
+
+    /**
+     * Creates a new instance of the SharedConnection class.
+     *
+     * @param location The endpoint this connection is for.
+     * @param onClose  A callback to invoke once this connection is closed and may no longer be handed out.
+     */
+    SharedConnection(PravegaNodeUri location, Consumer<SharedConnection> onClose) {
+        this.location = Preconditions.checkNotNull(location, "location");
+        this.onClose = Preconditions.checkNotNull(onClose, "onClose");
+    }
+
+    //region Connection management
+
+    /**
+     * Establishes the underlying connection. Must be invoked exactly once, before any sessions may be used.
+     *
+     * @param factory The ConnectionFactory to establish the underlying connection with.
+     */
+    void connect(ConnectionFactory factory) {
+        Futures.completeAfter(() -> factory.establishConnection(this.location, this), this.connection);
+        this.connection.exceptionally(ex -> {
+            close();
+            return null;
+        });
+    }
+
+    /**
+     * Creates a new session on this connection.
+     *
+     * @param processor The ReplyProcessor to send the session's replies to.
+     * @return A future that completes with the session once the underlying connection is established, or null if
+     * this connection has been closed and a new one must be established instead.
+     */
+    CompletableFuture<ClientConnection> newSession(ReplyProcessor processor) {
+        Session session = new Session(processor);
+        synchronized (this.sessions) {
+            if (this.closed) {
+                return null;
+            }
+            this.sessions.add(session);
+        }
+
+        return this.connection.thenApply(c -> session);
+    }
+
+    PravegaNodeUri getLocation() {
+        return this.location;
+    }
+
+    /**
+     * Closes the underlying connection. All sessions are notified that their connection has been dropped.
+     */
+    void close() {
+        synchronized (this.sessions) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+        }
+
+        this.onClose.accept(this);
+        if (Futures.isSuccessful(this.connection)) {
+            this.connection.join().close();
+        }
+    }
+
+    private void sessionClosed(Session session) {
+        boolean last;
+        synchronized (this.sessions) {
+            if (!this.sessions.remove(session)) {
+                return;
+            }
+            last = this.sessions.isEmpty();
+        }
+
+        List<WriterState> detached = new ArrayList<>();
+        for (WriterState writer : this.writers.values()) {
+            if (writer.session == session && this.writers.remove(writer.writerId, writer)) {
+                detached.add(writer);
+            }
+        }
+
+        if (last) {
+            close();
+            return;
+        }
+
+        for (WriterState writer : detached) {
+            if (this.serverVersion >= REMOVE_WRITER_WIRE_VERSION) {
+                removeWriter(writer);
+            } else if (writer.hasUnackedAppends()) {
+                // The Segment Store cannot be told to forget about this writer. It will retransmit its unacknowledged
+                // appends on its next connection, and if that happened on this channel, the Segment Store could see them
+                // twice (once from here, once from the retransmission). Start over.
+                log.info("Closing shared connection to {} since a writer left it with unacknowledged appends.", this.location);
+                close();
+                return;
+            }
+        }
+    }
+
+    private void removeWriter(WriterState writer) {
+        synchronized (this.removals) {
+            this.removals.put(writer.writerId, new Removal());
+        }
+
+        // This may be invoked from a Netty thread (i.e., from a reply processor), so it must not block.
+        try {
+            this.connection.join().sendAsync(new WireCommands.RemoveWriter(writer.writerId, writer.segment));
+        } catch (ConnectionFailedException ex) {
+            // The connection is going away, and with it everything the Segment Store knows about this writer.
+            log.debug("Unable to remove writer {} from connection to {}.", writer.writerId, this.location, ex);
+        }
+    }
+
+    private Set<Session> getSessions() {
+        synchronized (this.sessions) {
+            return new HashSet<>(this.sessions);
+        }
+    }
+
+    //endregion
+
+    //region Reply routing
+
+    private void forWriter(UUID writerId, Consumer<ReplyProcessor> action) {
+        WriterState writer = this.writers.get(writerId);
+        if (writer == null) {
+            // This includes late replies for writers that have been (or are being) removed.
+            log.debug("Dropping reply for writer {} which is no longer using the connection to {}.", writerId, this.location);
+        } else {
+            action.accept(writer.session.processor);
+        }
+    }
+
+    private void forSegment(String segment, Consumer<ReplyProcessor> action) {
+        Set<Session> targets = new HashSet<>();
+        this.writers.values().stream()
+                    .filter(w -> w.segment.equals(segment))
+                    .forEach(w -> targets.add(w.session));
+        targets.forEach(s -> action.accept(s.processor));
+    }
+
+    private void forAll(Consumer<ReplyProcessor> action) {
+        getSessions().forEach(s -> action.accept(s.processor));
+    }
+
+    @Override
+    public void hello(WireCommands.Hello hello) {
+        this.serverVersion = hello.getHighVersion();
+        forAll(p -> p.hello(hello));
+    }
+
+    @Override
+    public void keepAlive(WireCommands.KeepAlive keepAlive) {
+        forAll(p -> p.keepAlive(keepAlive));
+    }
+
+    @Override
+    public void connectionDropped() {
+        close();
+        forAll(ReplyProcessor::connectionDropped);
+    }
+
+    @Override
+    public void processingFailure(Exception error) {
+        forAll(p -> p.processingFailure(error));
+    }
+
+    @Override
+    public void operationUnsupported(WireCommands.OperationUnsupported operationUnsupported) {
+        forAll(p -> p.operationUnsupported(operationUnsupported));
+    }
+
+    @Override
+    public void appendSetup(WireCommands.AppendSetup appendSetup) {
+        WriterState writer = this.writers.get(appendSetup.getWriterId());
+        if (writer != null) {
+            writer.acked(appendSetup.getLastEventNumber());
+        }
+        forWriter(appendSetup.getWriterId(), p -> p.appendSetup(appendSetup));
+    }
+
+    @Override
+    public void dataAppended(WireCommands.DataAppended dataAppended) {
+        WriterState writer = this.writers.get(dataAppended.getWriterId());
+        if (writer != null) {
+            writer.acked(dataAppended.getEventNumber());
+        }
+        forWriter(dataAppended.getWriterId(), p -> p.dataAppended(dataAppended));
+    }
+
+    @Override
+    public void conditionalCheckFailed(WireCommands.ConditionalCheckFailed dataNotAppended) {
+        WriterState writer = this.writers.get(dataNotAppended.getWriterId());
+        if (writer != null) {
+            writer.acked(dataNotAppended.getEventNumber());
+        }
+        forWriter(dataNotAppended.getWriterId(), p -> p.conditionalCheckFailed(dataNotAppended));
+    }
+
+    @Override
+    public void writerRemoved(WireCommands.WriterRemoved writerRemoved) {
+        Removal removal;
+        synchronized (this.removals) {
+            removal = this.removals.remove(writerRemoved.getWriterId());
+        }
+
+        if (removal != null && removal.nextSetup != null) {
+            // The writer has set up appends again while it was being removed. It is now safe to let that through. This
+            // runs on a Netty thread, so it must not block.
+            log.debug("Resuming deferred SetupAppend for writer {} on {}.", writerRemoved.getWriterId(), this.location);
+            try {
+                removal.nextSession.sendAsync(removal.nextSetup);
+            } catch (ConnectionFailedException ex) {
+                // The session or the connection has been closed in the meantime; whoever owns it will find out.
+                log.debug("Unable to send deferred SetupAppend for writer {}.", writerRemoved.getWriterId(), ex);
+            }
+        }
+    }
+
+    @Override
+    public void invalidEventNumber(WireCommands.InvalidEventNumber invalidEventNumber) {
+        forWriter(invalidEventNumber.getWriterId(), p -> p.invalidEventNumber(invalidEventNumber));
+    }
+
+    @Override
+    public void wrongHost(WireCommands.WrongHost wrongHost) {
+        forSegment(wrongHost.getSegment(), p -> p.wrongHost(wrongHost));
+    }
+
+    @Override
+    public void segmentIsSealed(WireCommands.SegmentIsSealed segmentIsSealed) {
+        forSegment(segmentIsSealed.getSegment(), p -> p.segmentIsSealed(segmentIsSealed));
+    }
+
+    @Override
+    public void noSuchSegment(WireCommands.NoSuchSegment noSuchSegment) {
+        forSegment(noSuchSegment.getSegment(), p -> p.noSuchSegment(noSuchSegment));
+    }
+
+    @Override
+    public void segmentAlreadyExists(WireCommands.SegmentAlreadyExists segmentAlreadyExists) {
+        forSegment(segmentAlreadyExists.getSegment(), p -> p.segmentAlreadyExists(segmentAlreadyExists));
+    }
+
+    //endregion
+
+    //region Session
+
+    /**
+     * A caller's view of the shared connection. Closing it detaches the caller; the underlying connection is closed
+     * only once the last session is gone.
+     */
+    @RequiredArgsConstructor
+    private final class Session implements ClientConnection {
+        private final ReplyProcessor processor;
+
+        @Override
+        public void send(WireCommand cmd) throws ConnectionFailedException {
+            ClientConnection c = getConnection();
+            if (track(cmd)) {
+                c.send(cmd);
+            }
+        }
+
+        @Override
+        public void send(Append append) throws ConnectionFailedException {
+            track(append);
+            getConnection().send(append);
+        }
+
+        @Override
+        public void sendAsync(WireCommand cmd) throws ConnectionFailedException {
+            ClientConnection c = getConnection();
+            if (track(cmd)) {
+                c.sendAsync(cmd);
+            }
+        }
+
+        @Override
+        public void sendAsync(List<Append> appends, CompletedCallback callback) {
+            ClientConnection c;
+            try {
+                c = getConnection();
+            } catch (ConnectionFailedException e) {
+                callback.complete(e);
+                return;
+            }
+            appends.forEach(this::track);
+            c.sendAsync(new ArrayList<>(appends), callback);
+        }
+
+        @Override
+        public void close() {
+            sessionClosed(this);
+        }
+
+        private ClientConnection getConnection() throws ConnectionFailedException {
+            synchronized (sessions) {
+                if (closed || !sessions.contains(this)) {
+                    throw new ConnectionFailedException("Connection to " + location + " is closed.");
+                }
+            }
+            return connection.join();
+        }
+
+        /**
+         * Registers the writer of a SetupAppend with this session.
+         *
+         * @return True if the command should be sent now, or false if it has been deferred until the writer's previous
+         * removal from this connection has completed (see {@link #writerRemoved}).
+         */
+        private boolean track(WireCommand cmd) {
+            if (cmd instanceof WireCommands.SetupAppend) {
+                WireCommands.SetupAppend setup = (WireCommands.SetupAppend) cmd;
+                synchronized (removals) {
+                    Removal removal = removals.get(setup.getWriterId());
+                    if (removal != null) {
+                        removal.nextSetup = setup;
+                        removal.nextSession = this;
+                        return false;
+                    }
+                    writers.put(setup.getWriterId(), new WriterState(setup.getWriterId(), setup.getSegment(), this));
+                }
+            }
+            return true;
+        }
+
+        private void track(Append append) {
+            WriterState writer = writers.get(append.getWriterId());
+            if (writer != null) {
+                writer.sent(append.getEventNumber());
+            }
+        }
+    }
+
+    /**
+     * Tracks which session a writer belongs to, and whether it has appends that have not been acknowledged yet.
+     */
+    @RequiredArgsConstructor
+    private static final class WriterState {
+        private final UUID writerId;
+        private final String segment;
+        private final Session session;
+        @GuardedBy("this")
+        private long lastSent = Long.MIN_VALUE;
+        @GuardedBy("this")
+        private long lastAcked = Long.MIN_VALUE;
+
+        synchronized void sent(long eventNumber) {
+            this.lastSent = Math.max(this.lastSent, eventNumber);
+        }
+
+        synchronized void acked(long eventNumber) {
+            this.lastAcked = Math.max(this.lastAcked, eventNumber);
+        }
+
+        synchronized boolean hasUnackedAppends() {
+            return this.lastSent > this.lastAcked;
+        }
+    }
+
+    /**
+     * A writer that is being removed from this connection, along with the SetupAppend (if any) that it sent since.
+     */
+    private static final class Removal {
+        @GuardedBy("SharedConnection.removals")
+        private WireCommands.SetupAppend nextSetup;
+        @GuardedBy("SharedConnection.removals")
+        private Session nextSession;
+    }
+
+    //endregion
+}
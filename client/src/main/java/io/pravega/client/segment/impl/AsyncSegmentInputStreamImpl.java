@@ -21,6 +21,7 @@ import io.pravega.common.util.Retry.RetryWithBackoff;
 import io.pravega.shared.protocol.netty.ConnectionFailedException;
 import io.pravega.shared.protocol.netty.FailingReplyProcessor;
 import io.pravega.shared.protocol.netty.PravegaNodeUri;
+import io.pravega.shared.protocol.netty.WireCommand;
 import io.pravega.shared.protocol.netty.WireCommands;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentIsTruncated;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentRead;
@@ -35,8 +36,19 @@ import javax.annotation.concurrent.GuardedBy;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Reads from a Segment by sending ReadSegment requests, or, if the Segment Store supports it, by subscribing to the
+ * Segment (SubscribeSegment) and letting the Segment Store push data as it becomes available. In the latter case, each
+ * call to read() returns data that has already been pushed (or will be pushed) for that offset, and grants the
+ * Segment Store as many credits as the size of the data it returns, so the amount of data in flight is bounded by
+ * the length of the first read.
+ */
 @Slf4j
 class AsyncSegmentInputStreamImpl extends AsyncSegmentInputStream {
+    /**
+     * The first wire protocol version that supports Segment subscriptions.
+     */
+    private static final int SUBSCRIPTION_WIRE_VERSION = 5;
 
     private final RetryWithBackoff backoffSchedule = Retry.withExpBackoff(1, 10, 9, 30000);
     private final ConnectionFactory connectionFactory;
@@ -46,6 +58,12 @@ class AsyncSegmentInputStreamImpl extends AsyncSegmentInputStream {
     private CompletableFuture<ClientConnection> connection = null;
     @GuardedBy("lock")
     private final Map<Long, CompletableFuture<WireCommands.SegmentRead>> outstandingRequests = new HashMap<>();
+    @GuardedBy("lock")
+    private final Map<Long, CompletableFuture<WireCommands.SegmentRead>> pushedReads = new HashMap<>();
+    @GuardedBy("lock")
+    private boolean subscriptionsSupported = false;
+    @GuardedBy("lock")
+    private long subscriptionOffset = -1; // The offset the next read is expected at if subscribed, -1 otherwise.
 
     private final ResponseProcessor responseProcessor = new ResponseProcessor();
     private final AtomicBoolean closed = new AtomicBoolean(false);
@@ -53,6 +71,16 @@ class AsyncSegmentInputStreamImpl extends AsyncSegmentInputStream {
 
     private final class ResponseProcessor extends FailingReplyProcessor {
 
+        @Override
+        public void hello(WireCommands.Hello hello) {
+            super.hello(hello);
+            if (hello.getHighVersion() >= SUBSCRIPTION_WIRE_VERSION) {
+                synchronized (lock) {
+                    subscriptionsSupported = true;
+                }
+            }
+        }
+
         @Override
         public void connectionDropped() {
             closeConnection(new ConnectionFailedException());
@@ -106,7 +134,13 @@ class AsyncSegmentInputStreamImpl extends AsyncSegmentInputStream {
         private CompletableFuture<SegmentRead> grabFuture(String segment, long requestId) {
             checkSegment(segment);
             synchronized (lock) {
-                return outstandingRequests.remove(requestId);
+                CompletableFuture<SegmentRead> future = outstandingRequests.remove(requestId);
+                if (future == null && subscriptionOffset >= 0 && requestId >= subscriptionOffset) {
+                    // Pushed by the Segment Store ahead of the corresponding read() call. Hold on to it until then.
+                    future = new CompletableFuture<>();
+                    pushedReads.put(requestId, future);
+                }
+                return future;
             }
         }
 
@@ -149,8 +183,6 @@ class AsyncSegmentInputStreamImpl extends AsyncSegmentInputStream {
     @Override
     public CompletableFuture<SegmentRead> read(long offset, int length) {
         Exceptions.checkNotClosed(closed.get(), this);
-        WireCommands.ReadSegment request = new WireCommands.ReadSegment(segmentId.getScopedName(), offset, length);
-
         return backoffSchedule.retryingOn(Exception.class)
                 .throwingOn(ConnectionClosedException.class)
                 .runAsync(() -> {
@@ -161,24 +193,80 @@ class AsyncSegmentInputStreamImpl extends AsyncSegmentInputStream {
                                             "node", ex);
                                     closeConnection(new ConnectionFailedException(ex));
                                 }
-                            }).thenCompose(c -> sendRequestOverConnection(request, c));
+                            }).thenCompose(c -> sendRequestOverConnection(offset, length, c));
                 }, connectionFactory.getInternalExecutor());
     }
     
     @SneakyThrows(ConnectionFailedException.class)
-    private CompletableFuture<SegmentRead> sendRequestOverConnection(WireCommands.ReadSegment request, ClientConnection c) {
-        CompletableFuture<WireCommands.SegmentRead> result = new CompletableFuture<>();            
+    private CompletableFuture<SegmentRead> sendRequestOverConnection(long offset, int length, ClientConnection c) {
+        WireCommand request = null;
+        CompletableFuture<WireCommands.SegmentRead> result = null;
+        boolean subscribed;
         synchronized (lock) {
-            outstandingRequests.put(request.getOffset(), result);
+            subscribed = subscriptionsSupported;
+            if (subscribed) {
+                if (subscriptionOffset != offset) {
+                    // We either have no subscription, or the caller moved to a different offset. (Re)subscribe from here.
+                    pushedReads.clear();
+                    subscriptionOffset = offset;
+                    request = new WireCommands.SubscribeSegment(segmentId.getScopedName(), offset, length);
+                } else {
+                    result = pushedReads.remove(offset);
+                }
+            } else {
+                request = new WireCommands.ReadSegment(segmentId.getScopedName(), offset, length);
+            }
+
+            if (result == null) {
+                result = new CompletableFuture<>();
+                outstandingRequests.put(offset, result);
+            }
         }
         if (closed.get()) {
             throw new ConnectionClosedException();
         }
-        log.trace("Sending read request {}", request);
-        c.sendAsync(request);
+        if (request != null) {
+            log.trace("Sending read request {}", request);
+            c.sendAsync(request);
+        }
+        if (subscribed) {
+            result.whenComplete((segmentRead, ex) -> subscriptionReadComplete(offset, segmentRead, ex, c));
+        }
         return result;
     }
 
+    /**
+     * Updates the subscription once the read at the given offset has been handed over to the caller, and gives the
+     * Segment Store credits for as much data as was consumed.
+     */
+    private void subscriptionReadComplete(long offset, SegmentRead segmentRead, Throwable ex, ClientConnection c) {
+        int credits = 0;
+        synchronized (lock) {
+            if (subscriptionOffset != offset) {
+                // Subscription has been reset in the meantime.
+                return;
+            }
+
+            if (ex == null && !segmentRead.isEndOfSegment()) {
+                credits = segmentRead.getData().remaining();
+                subscriptionOffset = offset + credits;
+            } else {
+                // The Segment Store ends the subscription after any error or upon reaching the end of the Segment.
+                subscriptionOffset = -1;
+                pushedReads.clear();
+            }
+        }
+
+        if (credits > 0) {
+            try {
+                c.sendAsync(new WireCommands.GrantReadCredit(segmentId.getScopedName(), credits));
+            } catch (ConnectionFailedException e) {
+                log.warn("Unable to grant read credits for segment {}.", segmentId, e);
+                closeConnection(e);
+            }
+        }
+    }
+
     private void closeConnection(Exception exceptionToInflightRequests) {
         if (closed.get()) {
             log.info("Closing connection to segment: {}", segmentId);
@@ -189,6 +277,8 @@ class AsyncSegmentInputStreamImpl extends AsyncSegmentInputStream {
         synchronized (lock) {
             c = connection;
             connection = null;
+            subscriptionsSupported = false;
+            subscriptionOffset = -1;
         }
         if (c != null && Futures.isSuccessful(c)) {
             try {
@@ -223,6 +313,7 @@ class AsyncSegmentInputStreamImpl extends AsyncSegmentInputStream {
         synchronized (lock) {
             readsToFail = new ArrayList<>(outstandingRequests.values());
             outstandingRequests.clear();
+            pushedReads.clear();
         }
         for (CompletableFuture<WireCommands.SegmentRead> read : readsToFail) {
             read.completeExceptionally(e);
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.client.segment.impl;
+
+import com.google.common.base.Preconditions;
+import io.pravega.client.stream.impl.ConnectionClosedException;
+import io.pravega.common.Exceptions;
+import io.pravega.common.util.Retry;
+import io.pravega.common.util.Retry.RetryWithBackoff;
+import io.pravega.shared.protocol.netty.WireCommands.SegmentRead;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads from a Segment through a {@link SegmentReadBatcher}, which shares connections and coalesces requests with the
+ * reads of all other Segments on the same Segment Store.
+ */
+@Slf4j
+class BatchedAsyncSegmentInputStreamImpl extends AsyncSegmentInputStream {
+    private final RetryWithBackoff backoffSchedule = Retry.withExpBackoff(1, 10, 9, 30000);
+    private final SegmentReadBatcher batcher;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final Set<CompletableFuture<SegmentRead>> outstanding = ConcurrentHashMap.newKeySet();
+
+    BatchedAsyncSegmentInputStreamImpl(SegmentReadBatcher batcher, ScheduledExecutorService executor, Segment segment) {
+        super(segment);
+        this.batcher = Preconditions.checkNotNull(batcher, "batcher");
+        this.executor = Preconditions.checkNotNull(executor, "executor");
+    }
+
+    @Override
+    public CompletableFuture<SegmentRead> read(long offset, int length) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        return this.backoffSchedule.retryingOn(Exception.class)
+                                   .throwingOn(ConnectionClosedException.class)
+                                   .runAsync(() -> {
+                                       if (this.closed.get()) {
+                                           throw new ConnectionClosedException();
+                                       }
+                                       CompletableFuture<SegmentRead> read = this.batcher.read(this.segmentId, offset, length);
+                                       this.outstanding.add(read);
+                                       read.whenComplete((r, ex) -> this.outstanding.remove(read));
+                                       if (this.closed.get()) {
+                                           // Closed while we were registering it.
+                                           cancel(read);
+                                       }
+                                       return read;
+                                   }, this.executor);
+    }
+
+    @Override
+    public void close() {
+        // The connections are shared with other Segments and owned by the batcher. Only abandon our own reads.
+        log.info("Closing reader for {}", this.segmentId);
+        if (!this.closed.getAndSet(true)) {
+            new ArrayList<>(this.outstanding).forEach(this::cancel);
+        }
+    }
+
+    private void cancel(CompletableFuture<SegmentRead> read) {
+        read.completeExceptionally(new ConnectionClosedException());
+        this.batcher.cancel(this.segmentId, read);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.closed.get();
+    }
+}
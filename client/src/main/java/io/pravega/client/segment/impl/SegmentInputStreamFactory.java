@@ -15,7 +15,7 @@ import io.pravega.client.stream.EventStreamReader;
 /**
  * Creates {@link SegmentInputStream} for reading from existing segments.
  */
-public interface SegmentInputStreamFactory {
+public interface SegmentInputStreamFactory extends AutoCloseable {
     /**
      * Opens an existing segment for reading. This operation will fail if the
      * segment does not exist.
@@ -44,4 +44,21 @@ public interface SegmentInputStreamFactory {
      * @return A segment input stream.
      */
     SegmentInputStream createInputStreamForSegment(Segment segment, int bufferSize);
+
+    /**
+     * Opens an existing segment for reading, sharing connections (and batching read requests) with all the other
+     * segments opened this way that are owned by the same Segment Store. This is meant for readers that own many
+     * segments, each of which sees little traffic.
+     *
+     * @param segment The segment to create an input for.
+     * @return New instance of SegmentInputStream for reading.
+     */
+    SegmentInputStream createBatchedInputStreamForSegment(Segment segment);
+
+    /**
+     * Closes the resources shared by the segment input streams created by this factory (i.e., the connections used by
+     * those created with {@link #createBatchedInputStreamForSegment}). Any reads still pending on them will fail.
+     */
+    @Override
+    void close();
 }
@@ -15,6 +15,7 @@ import io.pravega.client.stream.impl.Controller;
 import io.pravega.common.Exceptions;
 import com.google.common.annotations.VisibleForTesting;
 
+import javax.annotation.concurrent.GuardedBy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -25,6 +26,10 @@ public class SegmentInputStreamFactoryImpl implements SegmentInputStreamFactory
 
     private final Controller controller;
     private final ConnectionFactory cf;
+    @GuardedBy("this")
+    private SegmentReadBatcher batcher;
+    @GuardedBy("this")
+    private boolean closed;
     
     @Override
     public SegmentInputStream createInputStreamForSegment(Segment segment) {
@@ -41,4 +46,31 @@ public class SegmentInputStreamFactoryImpl implements SegmentInputStreamFactory
         }
         return new SegmentInputStreamImpl(result, 0, bufferSize);
     }
+
+    @Override
+    public SegmentInputStream createBatchedInputStreamForSegment(Segment segment) {
+        AsyncSegmentInputStream result = new BatchedAsyncSegmentInputStreamImpl(getBatcher(), cf.getInternalExecutor(), segment);
+        return new SegmentInputStreamImpl(result, 0);
+    }
+
+    @Override
+    public void close() {
+        SegmentReadBatcher toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = batcher;
+            batcher = null;
+        }
+        if (toClose != null) {
+            toClose.close();
+        }
+    }
+
+    private synchronized SegmentReadBatcher getBatcher() {
+        Exceptions.checkNotClosed(closed, this);
+        if (batcher == null) {
+            batcher = new SegmentReadBatcher(controller, cf);
+        }
+        return batcher;
+    }
 }
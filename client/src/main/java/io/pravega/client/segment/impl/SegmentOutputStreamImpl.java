@@ -354,6 +354,7 @@ class SegmentOutputStreamImpl implements SegmentOutputStream {
             List<Append> toRetransmit = state.getAllInflight()
                                              .stream()
                                              .map(entry -> new Append(segmentName, writerId, entry.getKey(),
+                                                                      entry.getValue().getEventCount(),
                                                                       Unpooled.wrappedBuffer(entry.getValue()
                                                                                                   .getData()),
                                                                       entry.getValue().getExpectedOffset()))
@@ -431,8 +432,8 @@ class SegmentOutputStreamImpl implements SegmentOutputStream {
             }
             long eventNumber = state.addToInflight(event);
             try {
-                Append append = new Append(segmentName, writerId, eventNumber, Unpooled.wrappedBuffer(event.getData()),
-                        event.getExpectedOffset());
+                Append append = new Append(segmentName, writerId, eventNumber, event.getEventCount(),
+                        Unpooled.wrappedBuffer(event.getData()), event.getExpectedOffset());
                 log.trace("Sending append request: {}", append);
                 connection.send(append);
             } catch (ConnectionFailedException e) {
@@ -523,7 +524,7 @@ class SegmentOutputStreamImpl implements SegmentOutputStream {
                      log.info("Fetching endpoint for segment {}, writerID: {}", segmentName, writerId);
                      return controller.getEndpointForSegment(segmentName).thenComposeAsync((PravegaNodeUri uri) -> {
                          log.info("Establishing connection to {} for {}, writerID: {}", uri, segmentName, writerId);
-                         return connectionFactory.establishConnection(uri, responseProcessor);
+                         return connectionFactory.establishWriterConnection(uri, responseProcessor);
                      }, connectionFactory.getInternalExecutor()).thenComposeAsync(connection -> {
                          CompletableFuture<Void> connectionSetupFuture = state.newConnection(connection);
                          SetupAppend cmd = new SetupAppend(requestIdGenerator.get(), writerId, segmentName);
@@ -0,0 +1,386 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.client.segment.impl;
+
+import com.google.common.base.Preconditions;
+import io.pravega.client.netty.impl.ClientConnection;
+import io.pravega.client.netty.impl.ConnectionFactory;
+import io.pravega.client.stream.impl.ConnectionClosedException;
+import io.pravega.client.stream.impl.Controller;
+import io.pravega.common.Exceptions;
+import io.pravega.common.concurrent.Futures;
+import io.pravega.shared.protocol.netty.ConnectionFailedException;
+import io.pravega.shared.protocol.netty.FailingReplyProcessor;
+import io.pravega.shared.protocol.netty.PravegaNodeUri;
+import io.pravega.shared.protocol.netty.WireCommands;
+import io.pravega.shared.protocol.netty.WireCommands.ReadSegment;
+import io.pravega.shared.protocol.netty.WireCommands.SegmentRead;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import javax.annotation.concurrent.GuardedBy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coalesces reads for many Segments into as few requests as possible. Reads for Segments owned by the same Segment
+ * Store share a single connection, and all the reads issued against a Segment Store while a previous batch is being
+ * sent are combined into a single ReadSegments request. The replies (which the Segment Store may also batch into
+ * SegmentsRead) are then handed out to the individual callers.
+ */
+@Slf4j
+class SegmentReadBatcher implements AutoCloseable {
+    /**
+     * The first wire protocol version that supports ReadSegments.
+     */
+    private static final int BATCH_READ_WIRE_VERSION = 6;
+
+    private final Controller controller;
+    private final ConnectionFactory connectionFactory;
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private final Map<PravegaNodeUri, HostReader> hosts = new HashMap<>();
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    SegmentReadBatcher(Controller controller, ConnectionFactory connectionFactory) {
+        this.controller = Preconditions.checkNotNull(controller, "controller");
+        this.connectionFactory = Preconditions.checkNotNull(connectionFactory, "connectionFactory");
+    }
+
+    /**
+     * Reads from the given Segment at the specified offset. The request is sent along with any other reads that are
+     * pending for the same Segment Store.
+     *
+     * @param segment The Segment to read from.
+     * @param offset  The offset in the Segment to read from.
+     * @param length  The suggested number of bytes to read.
+     * @return A future for the result of the read call. If the connection to the Segment Store fails, this will
+     * complete with a ConnectionFailedException and the read may be retried. If this SegmentReadBatcher is closed, it
+     * will complete with a ConnectionClosedException. This future may be passed to {@link #cancel} to abandon the read.
+     */
+    CompletableFuture<SegmentRead> read(Segment segment, long offset, int length) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        CompletableFuture<SegmentRead> result = new CompletableFuture<>();
+        this.controller.getEndpointForSegment(segment.getScopedName())
+                       .thenAccept(uri -> {
+                           HostReader host = getHostReader(uri);
+                           if (host == null) {
+                               result.completeExceptionally(new ConnectionClosedException());
+                           } else {
+                               host.read(segment.getScopedName(), offset, length, result);
+                           }
+                       })
+                       .exceptionally(ex -> {
+                           result.completeExceptionally(ex);
+                           return null;
+                       });
+        return result;
+    }
+
+    /**
+     * Abandons a read that was issued using {@link #read}, so that its reply (if any) is discarded. The read is not sent
+     * at all if it had not been sent yet (and nobody else is waiting on the same read).
+     *
+     * @param segment The Segment the read was issued for.
+     * @param read    The future that was returned by {@link #read}. This should be completed by the caller, and it
+     *                must be completed before invoking this method.
+     */
+    void cancel(Segment segment, CompletableFuture<SegmentRead> read) {
+        Preconditions.checkArgument(read.isDone(), "read must be completed before it is cancelled.");
+        List<HostReader> hosts;
+        synchronized (this.lock) {
+            hosts = new ArrayList<>(this.hosts.values());
+        }
+
+        hosts.forEach(h -> h.cancel(segment.getScopedName(), read));
+    }
+
+    @Override
+    public void close() {
+        if (this.closed.compareAndSet(false, true)) {
+            List<HostReader> toClose;
+            synchronized (this.lock) {
+                toClose = new ArrayList<>(this.hosts.values());
+                this.hosts.clear();
+            }
+
+            toClose.forEach(h -> h.close(new ConnectionClosedException()));
+        }
+    }
+
+    private HostReader getHostReader(PravegaNodeUri uri) {
+        HostReader host;
+        synchronized (this.lock) {
+            if (this.closed.get()) {
+                return null;
+            }
+
+            host = this.hosts.get(uri);
+            if (host != null) {
+                return host;
+            }
+
+            host = new HostReader(uri);
+            this.hosts.put(uri, host);
+        }
+
+        // Done outside of the lock, since this may complete (and clean up after itself) synchronously.
+        host.connect();
+        return host;
+    }
+
+    private void hostFailed(HostReader host) {
+        synchronized (this.lock) {
+            this.hosts.remove(host.uri, host);
+        }
+    }
+
+    //region HostReader
+
+    /**
+     * Batches reads for a single Segment Store and processes the replies it sends back.
+     */
+    private final class HostReader extends FailingReplyProcessor {
+        private final PravegaNodeUri uri;
+        private final CompletableFuture<ClientConnection> connection = new CompletableFuture<>();
+        @GuardedBy("this")
+        private final Map<ReadKey, List<CompletableFuture<SegmentRead>>> outstanding = new HashMap<>();
+        @GuardedBy("this")
+        private List<ReadSegment> pending = new ArrayList<>();
+        @GuardedBy("this")
+        private boolean flushScheduled = false;
+        @GuardedBy("this")
+        private boolean batchingSupported = false;
+        @GuardedBy("this")
+        private boolean failed = false;
+
+        HostReader(PravegaNodeUri uri) {
+            this.uri = uri;
+        }
+
+        void connect() {
+            connectionFactory.establishConnection(this.uri, this)
+                             .whenComplete((c, ex) -> {
+                                 if (ex == null) {
+                                     this.connection.complete(c);
+                                     synchronized (this) {
+                                         if (!this.failed) {
+                                             return;
+                                         }
+                                     }
+
+                                     // We got closed while connecting.
+                                     c.close();
+                                 } else {
+                                     log.warn("Exception while establishing connection with Pravega node {}.", this.uri, ex);
+                                     close(new ConnectionFailedException(ex));
+                                     this.connection.completeExceptionally(ex);
+                                 }
+                             });
+        }
+
+        void read(String segment, long offset, int length, CompletableFuture<SegmentRead> result) {
+            boolean scheduleFlush = false;
+            synchronized (this) {
+                if (result.isDone()) {
+                    // Cancelled before it got here.
+                    return;
+                }
+
+                if (this.failed) {
+                    result.completeExceptionally(new ConnectionFailedException("Connection to " + this.uri + " has failed."));
+                    return;
+                }
+
+                List<CompletableFuture<SegmentRead>> waiting = this.outstanding.get(new ReadKey(segment, offset));
+                if (waiting == null) {
+                    waiting = new ArrayList<>(1);
+                    this.outstanding.put(new ReadKey(segment, offset), waiting);
+                    this.pending.add(new ReadSegment(segment, offset, length));
+                    scheduleFlush = !this.flushScheduled;
+                    this.flushScheduled = true;
+                }
+
+                // If another caller is already waiting on this exact read, this one simply piggybacks on it.
+                waiting.add(result);
+            }
+
+            if (scheduleFlush) {
+                this.connection.thenAcceptAsync(this::flush, connectionFactory.getInternalExecutor());
+            }
+        }
+
+        synchronized void cancel(String segment, CompletableFuture<SegmentRead> read) {
+            ReadKey key = null;
+            for (Map.Entry<ReadKey, List<CompletableFuture<SegmentRead>>> e : this.outstanding.entrySet()) {
+                if (e.getKey().getSegment().equals(segment) && e.getValue().remove(read)) {
+                    key = e.getValue().isEmpty() ? e.getKey() : null;
+                    break;
+                }
+            }
+
+            if (key != null) {
+                // Nobody else is waiting on this read. If it has not been sent yet, there is no need to send it at all.
+                this.outstanding.remove(key);
+                ReadKey k = key;
+                this.pending.removeIf(r -> r.getSegment().equals(k.getSegment()) && r.getOffset() == k.getOffset());
+            }
+        }
+
+        private void flush(ClientConnection c) {
+            List<ReadSegment> toSend;
+            boolean batch;
+            synchronized (this) {
+                toSend = this.pending;
+                this.pending = new ArrayList<>();
+                this.flushScheduled = false;
+                batch = this.batchingSupported;
+            }
+
+            try {
+                if (toSend.size() > 1 && batch) {
+                    log.trace("Sending {} read requests to {}.", toSend.size(), this.uri);
+                    c.sendAsync(new WireCommands.ReadSegments(toSend));
+                } else {
+                    for (ReadSegment r : toSend) {
+                        c.sendAsync(r);
+                    }
+                }
+            } catch (ConnectionFailedException ex) {
+                close(ex);
+            }
+        }
+
+        void close(Exception failure) {
+            List<CompletableFuture<SegmentRead>> toFail = new ArrayList<>();
+            synchronized (this) {
+                this.failed = true;
+                this.outstanding.values().forEach(toFail::addAll);
+                this.outstanding.clear();
+                this.pending.clear();
+            }
+
+            hostFailed(this);
+            if (Futures.isSuccessful(this.connection)) {
+                try {
+                    this.connection.join().close();
+                } catch (Exception e) {
+                    log.warn("Exception tearing down connection: ", e);
+                }
+            }
+
+            toFail.forEach(f -> f.completeExceptionally(failure));
+        }
+
+        private List<CompletableFuture<SegmentRead>> grabFutures(String segment, long offset) {
+            synchronized (this) {
+                return this.outstanding.remove(new ReadKey(segment, offset));
+            }
+        }
+
+        //region ReplyProcessor Implementation
+
+        @Override
+        public void hello(WireCommands.Hello hello) {
+            super.hello(hello);
+            if (hello.getHighVersion() >= BATCH_READ_WIRE_VERSION) {
+                synchronized (this) {
+                    this.batchingSupported = true;
+                }
+            }
+        }
+
+        @Override
+        public void connectionDropped() {
+            close(new ConnectionFailedException());
+        }
+
+        @Override
+        public void wrongHost(WireCommands.WrongHost wrongHost) {
+            // The Segment has moved. Fail its reads so the callers look it up again; other Segments are unaffected.
+            log.info("Received wrongHost {}", wrongHost);
+            complete(grabFutures(wrongHost.getSegment(), wrongHost.getRequestId()),
+                    f -> f.completeExceptionally(new ConnectionFailedException(wrongHost.toString())));
+        }
+
+        @Override
+        public void noSuchSegment(WireCommands.NoSuchSegment noSuchSegment) {
+            log.info("Received noSuchSegment {}", noSuchSegment);
+            complete(grabFutures(noSuchSegment.getSegment(), noSuchSegment.getRequestId()),
+                    f -> f.completeExceptionally(new SegmentTruncatedException("Segment no longer exists.")));
+        }
+
+        @Override
+        public void segmentIsTruncated(WireCommands.SegmentIsTruncated segmentIsTruncated) {
+            log.info("Received segmentIsTruncated {}", segmentIsTruncated);
+            complete(grabFutures(segmentIsTruncated.getSegment(), segmentIsTruncated.getRequestId()),
+                    f -> f.completeExceptionally(new SegmentTruncatedException()));
+        }
+
+        @Override
+        public void segmentIsSealed(WireCommands.SegmentIsSealed segmentIsSealed) {
+            log.info("Received segmentSealed {}", segmentIsSealed);
+            complete(grabFutures(segmentIsSealed.getSegment(), segmentIsSealed.getRequestId()),
+                    f -> f.complete(new SegmentRead(segmentIsSealed.getSegment(), segmentIsSealed.getRequestId(),
+                            true, true, ByteBuffer.allocate(0))));
+        }
+
+        @Override
+        public void segmentRead(SegmentRead segmentRead) {
+            log.trace("Received read result {}", segmentRead);
+            List<CompletableFuture<SegmentRead>> futures = grabFutures(segmentRead.getSegment(), segmentRead.getOffset());
+            if (futures == null) {
+                return;
+            }
+
+            // Each caller consumes the data it is given, so they each need their own view of it (and these must be
+            // taken before any caller is handed the original).
+            ByteBuffer data = segmentRead.getData();
+            List<SegmentRead> replies = new ArrayList<>(futures.size());
+            replies.add(segmentRead);
+            for (int i = 1; i < futures.size(); i++) {
+                replies.add(new SegmentRead(segmentRead.getSegment(), segmentRead.getOffset(), segmentRead.isAtTail(),
+                        segmentRead.isEndOfSegment(), data.duplicate()));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                futures.get(i).complete(replies.get(i));
+            }
+        }
+
+        @Override
+        public void processingFailure(Exception error) {
+            log.warn("Processing failure: ", error);
+            close(error);
+        }
+
+        private void complete(List<CompletableFuture<SegmentRead>> futures,
+                              Consumer<CompletableFuture<SegmentRead>> action) {
+            if (futures != null) {
+                futures.forEach(action);
+            }
+        }
+
+        //endregion
+    }
+
+    @Data
+    private static class ReadKey {
+        private final String segment;
+        private final long offset;
+    }
+
+    //endregion
+}
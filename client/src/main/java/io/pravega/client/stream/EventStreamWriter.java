@@ -9,6 +9,7 @@
  */
 package io.pravega.client.stream;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -59,6 +60,24 @@ public interface EventStreamWriter<Type> extends AutoCloseable {
      */
     CompletableFuture<Void> writeEvent(String routingKey, Type event);
 
+    /**
+     * Write a batch of events to the stream, all with the same routing key. This is equivalent to calling
+     * {@link #writeEvent(String, Object)} for each of the events in order, but allows the implementation to send and
+     * track them together, which is considerably cheaper when writing many small events.
+     *
+     * @param routingKey A free form string that is used to route messages to readers. The events are read in the
+     *        order they appear in the list, and after any event previously written with the same routing key.
+     * @param events The events to be written to the stream (Null is disallowed)
+     * @return A completableFuture that will complete when all the events have been durably stored on the configured
+     *         number of replicas, and are available for readers to see. As with {@link #writeEvent(String, Object)},
+     *         it completes exceptionally only if this cannot happen.
+     */
+    default CompletableFuture<Void> writeEvents(String routingKey, List<Type> events) {
+        return CompletableFuture.allOf(events.stream()
+                                             .map(event -> writeEvent(routingKey, event))
+                                             .toArray(CompletableFuture[]::new));
+    }
+
     /**
      * Start a new transaction on this stream. This allows events written to the transaction be written an committed atomically.
      * Note that transactions can only be open for {@link EventWriterConfig#getTransactionTimeoutTime()}.
@@ -20,9 +20,17 @@ public class ReaderConfig implements Serializable {
 
     private static final long serialVersionUID = 1L;
     private final long initialAllocationDelay;
+
+    /**
+     * If true, the reader's segments share their connections to each Segment Store, and their read requests are
+     * batched together. This cuts down on requests for readers that own many low-volume segments, but requires a
+     * Segment Store that supports batched reads to be effective.
+     */
+    private final boolean batchSegmentReads;
     
     public static class ReaderConfigBuilder {
         private long initialAllocationDelay = 0;
+        private boolean batchSegmentReads = false;
     }
     
 }
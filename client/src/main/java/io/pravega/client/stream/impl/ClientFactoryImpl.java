@@ -176,6 +176,7 @@ public class ClientFactoryImpl implements ClientFactory {
 
     @Override
     public void close() {
+        inFactory.close();
         connectionFactory.close();
     }
 
@@ -186,7 +186,9 @@ public class EventStreamReaderImpl<Type> implements EventStreamReader<Type> {
         if (!newSegments.isEmpty()) {
             log.info("{} acquiring segments {}", this, newSegments);
             for (Entry<Segment, Long> newSegment : newSegments.entrySet()) {
-                SegmentInputStream in = inputStreamFactory.createInputStreamForSegment(newSegment.getKey());
+                SegmentInputStream in = config.isBatchSegmentReads()
+                        ? inputStreamFactory.createBatchedInputStreamForSegment(newSegment.getKey())
+                        : inputStreamFactory.createInputStreamForSegment(newSegment.getKey());
                 in.setOffset(newSegment.getValue());
                 readers.add(in);
             }
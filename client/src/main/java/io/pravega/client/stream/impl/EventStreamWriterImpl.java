@@ -22,8 +22,11 @@ import io.pravega.client.stream.Transaction;
 import io.pravega.client.stream.Transaction.Status;
 import io.pravega.client.stream.TxnFailedException;
 import io.pravega.common.Exceptions;
+import io.pravega.shared.protocol.netty.WireCommandType;
+import io.pravega.shared.protocol.netty.WireCommands;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,7 +35,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import javax.annotation.concurrent.GuardedBy;
@@ -52,30 +54,33 @@ import static io.pravega.common.concurrent.Futures.getAndHandleExceptions;
 public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
 
     /**
-     * This lock is used to enforce the following behaviour
+     * Together with sealLock, this lock is used to enforce the following behaviour
      *
      * a. When a Write is happening, segmentSealedCallback cannot be executed concurrently, this is used to handle
      * missing event.
-     * b. When a Write is happening, a newer write cannot be executed concurrently.
+     * b. When a Write is happening, other writes can be executed concurrently. Events with the same routing key go to
+     * the same SegmentOutputStream, which keeps them in the order they were written.
      * c. When a Write is happening, flush cannot be executed concurrently.
      * d. When a Flush is being invoked, segmentSealedCallback can be executed concurrently.
      * e. When a Flush is being invoked, write cannot be executed concurrently.
-     * f. When a Close is being invoked, write cannot be executed concurrently.
-     * g. When a Close is being invoked, Flush and segmentSealedCallback can be executed concurrently.
+     * f. When a Close is being invoked, write and Flush cannot be executed concurrently.
+     * g. When a Close is being invoked, segmentSealedCallback can be executed concurrently.
+     *
+     * Writes hold the read lock, Flush and Close hold the write lock.
      */
     private final ReadWriteLock writeFlushLock = new ReentrantReadWriteLock();
     /*
-     * This lock is to ensure two segmentSealed Callbacks (for different segments) are not invoked simultaneously.
+     * Writes hold the read lock, segmentSealedCallbacks and segment refreshes hold the write lock. This prevents two
+     * segmentSealedCallbacks (for different segments) from being invoked simultaneously, and since the lock is fair,
+     * waiting segmentSealedCallbacks are invoked before any write that comes after them.
      */
-    @GuardedBy("writeFlushLock")
-    private final ReentrantLock segmentSealedLock = new ReentrantLock();
+    private final ReentrantReadWriteLock sealLock = new ReentrantReadWriteLock(true);
     private final Stream stream;
     private final Serializer<Type> serializer;
     private final SegmentOutputStreamFactory outputStreamFactory;
     private final Controller controller;
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final EventWriterConfig config;
-    @GuardedBy("writeFlushLock")
     private final SegmentSelector selector;
     private final Consumer<Segment> segmentSealedCallBack;
     private final ExecutorService retransmitPool;
@@ -116,19 +121,82 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
         Exceptions.checkNotClosed(closed.get(), this);
         ByteBuffer data = serializer.serialize(event);
         CompletableFuture<Boolean> ackFuture = new CompletableFuture<Boolean>();
-        writeFlushLock.writeLock().lock();
+        write(routingKey, Collections.singletonList(new PendingEvent(routingKey, data, ackFuture)));
+        return toWriteResult(ackFuture);
+    }
+
+    /**
+     * Serializes the events into as few PendingEvents as possible (each no larger than
+     * {@link PendingEvent#MAX_WRITE_SIZE}), so that each group is sent, tracked and acknowledged as a single append.
+     */
+    @Override
+    public CompletableFuture<Void> writeEvents(String routingKey, List<Type> events) {
+        Preconditions.checkNotNull(routingKey);
+        Preconditions.checkNotNull(events);
+        Exceptions.checkNotClosed(closed.get(), this);
+        List<PendingEvent> toWrite = new ArrayList<>();
+        List<ByteBuffer> batch = new ArrayList<>();
+        int batchLength = 0;
+        for (Type event : events) {
+            Preconditions.checkNotNull(event);
+            ByteBuffer data = serializer.serialize(event);
+            int length = WireCommands.TYPE_PLUS_LENGTH_SIZE + data.remaining();
+            if (!batch.isEmpty() && batchLength + length > PendingEvent.MAX_WRITE_SIZE) {
+                toWrite.add(createBatch(routingKey, batch, batchLength));
+                batch = new ArrayList<>();
+                batchLength = 0;
+            }
+            batch.add(data);
+            batchLength += length;
+        }
+        if (!batch.isEmpty()) {
+            toWrite.add(createBatch(routingKey, batch, batchLength));
+        }
+        if (toWrite.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        write(routingKey, toWrite);
+        return CompletableFuture.allOf(toWrite.stream()
+                                              .map(event -> toWriteResult(event.getAckFuture()))
+                                              .toArray(CompletableFuture[]::new));
+    }
+
+    private PendingEvent createBatch(String routingKey, List<ByteBuffer> events, int length) {
+        CompletableFuture<Boolean> ackFuture = new CompletableFuture<Boolean>();
+        if (events.size() == 1) {
+            return new PendingEvent(routingKey, events.get(0), ackFuture);
+        }
+
+        // Serialize each event the same way the wire protocol would, so they can be sent in a single append.
+        ByteBuffer data = ByteBuffer.allocate(length);
+        for (ByteBuffer event : events) {
+            data.putInt(WireCommandType.EVENT.getCode());
+            data.putInt(event.remaining());
+            data.put(event);
+        }
+        data.flip();
+        return new PendingEvent(routingKey, data, events.size(), ackFuture);
+    }
+
+    private void write(String routingKey, List<PendingEvent> toWrite) {
+        writeFlushLock.readLock().lock();
+        sealLock.readLock().lock();
         try {
             SegmentOutputStream segmentWriter = selector.getSegmentOutputStreamForKey(routingKey);
-            while (segmentWriter == null) {
-                log.info("Don't have a writer for segment: {}", selector.getSegmentForEvent(routingKey));
-                handleMissingLog();
-                segmentWriter = selector.getSegmentOutputStreamForKey(routingKey);
+            if (segmentWriter == null) {
+                segmentWriter = refreshMissingWriter(routingKey);
+            }
+            for (PendingEvent event : toWrite) {
+                segmentWriter.write(event);
             }
-            segmentWriter.write(new PendingEvent(routingKey, data, ackFuture));
         } finally {
-            writeFlushLock.writeLock().unlock();
+            sealLock.readLock().unlock();
+            writeFlushLock.readLock().unlock();
         }
+    }
 
+    private CompletableFuture<Void> toWriteResult(CompletableFuture<Boolean> ackFuture) {
         CompletableFuture<Void> result = new CompletableFuture<>();
         ackFuture.whenComplete((bool, exception) -> {
             if (exception != null) {
@@ -146,7 +214,31 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
         return result;
     }
     
-    @GuardedBy("writeFlushLock")
+    /**
+     * Refreshes the segments until there is a writer for the given routing key. This must be invoked while holding the
+     * read lock of sealLock. The read lock is swapped for the write lock while refreshing, and is held again when this
+     * method returns.
+     */
+    private SegmentOutputStream refreshMissingWriter(String routingKey) {
+        sealLock.readLock().unlock();
+        sealLock.writeLock().lock();
+        try {
+            // Another writer may have refreshed the segments while we were waiting for the lock.
+            SegmentOutputStream segmentWriter = selector.getSegmentOutputStreamForKey(routingKey);
+            while (segmentWriter == null) {
+                log.info("Don't have a writer for segment: {}", selector.getSegmentForEvent(routingKey));
+                handleMissingLog();
+                segmentWriter = selector.getSegmentOutputStreamForKey(routingKey);
+            }
+            return segmentWriter;
+        } finally {
+            // Downgrade, so that no segmentSealedCallback can run before the event has been written.
+            sealLock.readLock().lock();
+            sealLock.writeLock().unlock();
+        }
+    }
+
+    @GuardedBy("sealLock")
     private void handleMissingLog() {
         List<PendingEvent> toResend = selector.refreshSegmentEventWriters(segmentSealedCallBack);
         resend(toResend);
@@ -158,24 +250,23 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
      */
     private void handleLogSealed(Segment segment) {
         retransmitPool.submit(() -> {
-            writeFlushLock.readLock().lock();
-            /* Using segmentSealedLock the following behaviour is enforced
+            /* Using sealLock the following behaviour is enforced
                - Prevent concurrent segmentSealedCallback for different segments from being invoked concurrently.
+               - Prevent writes from being invoked concurrently with a segmentSealedCallback.
                - Ensure waiting segmentSealedCallbacks are invoked before the next write is invoked.
                This ensures that resend() would be invoked again if we observe a segment sealed exception.
              */
-            segmentSealedLock.lock();
+            sealLock.writeLock().lock();
             try {
                 List<PendingEvent> toResend = selector.refreshSegmentEventWritersUponSealed(segment, segmentSealedCallBack);
                 resend(toResend);
             } finally {
-                segmentSealedLock.unlock();
-                writeFlushLock.readLock().unlock();
+                sealLock.writeLock().unlock();
             }
         });
     }
 
-    @GuardedBy("writeFlushLock")
+    @GuardedBy("sealLock")
     private void resend(List<PendingEvent> toResend) {
         while (!toResend.isEmpty()) {
             List<PendingEvent> unsent = new ArrayList<>();
@@ -342,7 +433,7 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
     }
     
     private void flushInternal() {
-        writeFlushLock.readLock().lock();
+        writeFlushLock.writeLock().lock();
         boolean success = false;
         try {
             while (!success) {
@@ -358,7 +449,7 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
                 }
             }
         } finally {
-            writeFlushLock.readLock().unlock();
+            writeFlushLock.writeLock().unlock();
         }
     }
 
@@ -368,7 +459,7 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
             return;
         }
         pinger.close();
-        writeFlushLock.readLock().lock();
+        writeFlushLock.writeLock().lock();
         try {
             boolean success = false;
             while (!success) {
@@ -384,7 +475,7 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
                 }
             }
         } finally {
-            writeFlushLock.readLock().unlock();
+            writeFlushLock.writeLock().unlock();
         }
         retransmitPool.shutdown();
     }
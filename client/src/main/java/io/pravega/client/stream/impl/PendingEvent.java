@@ -29,8 +29,14 @@ public class PendingEvent {
     private final String routingKey;
     /**
      * The data to be written. Note this is limited to {@value #MAX_WRITE_SIZE} bytes.
+     * If eventCount is greater than one, this holds that many events, each already serialized as a
+     * {@link io.pravega.shared.protocol.netty.WireCommands.Event}.
      */
     private final ByteBuffer data;
+    /**
+     * The number of events contained in data.
+     */
+    private final int eventCount;
     /**
      * Callback to be invoked when the data is written.
      */
@@ -45,11 +51,31 @@ public class PendingEvent {
     }
     
     public PendingEvent(String routingKey, ByteBuffer data, CompletableFuture<Boolean> ackFuture, Long expectedOffset) {
+        this(routingKey, data, 1, ackFuture, expectedOffset);
+    }
+
+    /**
+     * Creates a PendingEvent for a batch of events that are written and acknowledged together.
+     *
+     * @param routingKey The routing key of all the events in the batch.
+     * @param data       The events, each serialized as a {@link io.pravega.shared.protocol.netty.WireCommands.Event}
+     *                   (unless eventCount is 1, in which case this is the event itself).
+     * @param eventCount The number of events in data.
+     * @param ackFuture  Callback to be invoked when all the events are written.
+     */
+    public PendingEvent(String routingKey, ByteBuffer data, int eventCount, CompletableFuture<Boolean> ackFuture) {
+        this(routingKey, data, eventCount, ackFuture, null);
+    }
+
+    private PendingEvent(String routingKey, ByteBuffer data, int eventCount, CompletableFuture<Boolean> ackFuture,
+                         Long expectedOffset) {
         Preconditions.checkNotNull(data);
         Preconditions.checkNotNull(ackFuture);
         Preconditions.checkArgument(data.remaining() <= MAX_WRITE_SIZE, "Write size too large: %s", data.remaining());
+        Preconditions.checkArgument(eventCount > 0, "eventCount must be a positive number.");
         this.routingKey = routingKey;
         this.data = data;
+        this.eventCount = eventCount;
         this.ackFuture = ackFuture;
         this.expectedOffset = expectedOffset;
     }
@@ -28,7 +28,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Consumer;
 
 /**
@@ -45,11 +45,14 @@ public class SegmentSelector {
     private final Controller controller;
     private final SegmentOutputStreamFactory outputStreamFactory;
     @GuardedBy("$lock")
-    private final Random random = new Random();
-    @GuardedBy("$lock")
     private StreamSegments currentSegments;
     @GuardedBy("$lock")
     private final Map<Segment, SegmentOutputStream> writers = new HashMap<>();
+    /**
+     * An immutable copy of currentSegments and writers, republished after every update. Events are routed using this,
+     * so that concurrent writeEvent calls do not contend on the lock.
+     */
+    private volatile Snapshot snapshot = new Snapshot(null, Collections.emptyMap());
     private final EventWriterConfig config;
 
     /**
@@ -60,23 +63,26 @@ public class SegmentSelector {
      * @return The SegmentOutputStream for the segment that has been selected or null if
      *         {@link #refreshSegmentEventWriters()} needs to be called.
      */
-    @Synchronized
     public SegmentOutputStream getSegmentOutputStreamForKey(String routingKey) {
-        if (currentSegments == null) {
+        Snapshot current = this.snapshot;
+        if (current.segments == null) {
             return null;
         }
-        return writers.get(getSegmentForEvent(routingKey));
+        return current.writers.get(getSegmentForEvent(current, routingKey));
     }
 
-    @Synchronized
     public Segment getSegmentForEvent(String routingKey) {
-        if (currentSegments == null) {
+        return getSegmentForEvent(this.snapshot, routingKey);
+    }
+
+    private Segment getSegmentForEvent(Snapshot current, String routingKey) {
+        if (current.segments == null) {
             return null;
         }
         if (routingKey == null) {
-            return currentSegments.getSegmentForKey(random.nextDouble());
+            return current.segments.getSegmentForKey(ThreadLocalRandom.current().nextDouble());
         }
-        return currentSegments.getSegmentForKey(routingKey);
+        return current.segments.getSegmentForKey(routingKey);
     }
 
     public List<PendingEvent> refreshSegmentEventWritersUponSealed(Segment sealedSegment, Consumer<Segment>
@@ -120,6 +126,7 @@ public class SegmentSelector {
                 toResend.addAll(writer.getUnackedEventsOnSeal());
             }
         }
+        publishSnapshot();
         return toResend;
     }
 
@@ -131,9 +138,15 @@ public class SegmentSelector {
         log.trace("Fetch unacked events for segment :{}", sealedSegment);
         List<PendingEvent> toResend = writers.get(sealedSegment).getUnackedEventsOnSeal();
         writers.remove(sealedSegment); //remove this sealed segment writer.
+        publishSnapshot();
         return toResend;
     }
 
+    @GuardedBy("$lock")
+    private void publishSnapshot() {
+        snapshot = new Snapshot(currentSegments, new HashMap<>(writers));
+    }
+
     private void createMissingWriters(Consumer<Segment> segmentSealedCallBack) {
         for (Segment segment : currentSegments.getSegments()) {
             if (!writers.containsKey(segment)) {
@@ -156,4 +169,10 @@ public class SegmentSelector {
         return new ArrayList<>(writers.values());
     }
 
+    @RequiredArgsConstructor
+    private static final class Snapshot {
+        private final StreamSegments segments;
+        private final Map<Segment, SegmentOutputStream> writers;
+    }
+
 }
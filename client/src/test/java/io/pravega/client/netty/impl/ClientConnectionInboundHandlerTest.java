@@ -73,7 +73,7 @@ public class ClientConnectionInboundHandlerTest {
     public void setUp() throws Exception {
         when(buffer.readableBytes()).thenReturn(10);
         appendCmd = new Append("segment0", UUID.randomUUID(), 2, buffer, 10L);
-        doNothing().when(tracker).recordAppend(anyLong(), anyInt());
+        doNothing().when(tracker).recordAppend(any(UUID.class), anyLong(), anyInt());
 
         when(ctx.channel()).thenReturn(ch);
         when(ch.eventLoop()).thenReturn(loop);
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.client.netty.impl;
+
+import io.netty.buffer.Unpooled;
+import io.pravega.client.stream.mock.MockConnectionFactoryImpl;
+import io.pravega.shared.protocol.netty.Append;
+import io.pravega.shared.protocol.netty.PravegaNodeUri;
+import io.pravega.shared.protocol.netty.ReplyProcessor;
+import io.pravega.shared.protocol.netty.WireCommands;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class SharedConnectionTest {
+    private final PravegaNodeUri endpoint = new PravegaNodeUri("localhost", 12345);
+
+    /**
+     * Tests that replies are routed to the sessions they belong to, and that the underlying connection is only closed
+     * once the last session goes away.
+     */
+    @Test(timeout = 10000)
+    public void testReplyRouting() throws Exception {
+        MockConnectionFactoryImpl factory = new MockConnectionFactoryImpl();
+        ClientConnection physical = mock(ClientConnection.class);
+        factory.provideConnection(endpoint, physical);
+        AtomicBoolean closed = new AtomicBoolean(false);
+        SharedConnection shared = new SharedConnection(endpoint, c -> closed.set(true));
+        shared.connect(factory);
+
+        ReplyProcessor processor1 = mock(ReplyProcessor.class);
+        ReplyProcessor processor2 = mock(ReplyProcessor.class);
+        ClientConnection session1 = shared.newSession(processor1).join();
+        ClientConnection session2 = shared.newSession(processor2).join();
+        UUID writer1 = UUID.randomUUID();
+        UUID writer2 = UUID.randomUUID();
+        WireCommands.SetupAppend setup1 = new WireCommands.SetupAppend(1, writer1, "segment1");
+        WireCommands.SetupAppend setup2 = new WireCommands.SetupAppend(1, writer2, "segment2");
+        session1.send(setup1);
+        session2.send(setup2);
+        verify(physical).send(setup1);
+        verify(physical).send(setup2);
+
+        // Writer-specific replies only go to the session that owns the writer.
+        WireCommands.AppendSetup appendSetup = new WireCommands.AppendSetup(1, "segment1", writer1, 0);
+        shared.appendSetup(appendSetup);
+        verify(processor1).appendSetup(appendSetup);
+        Append append = new Append("segment1", writer1, 1, Unpooled.wrappedBuffer(new byte[1]), null);
+        session1.send(append);
+        WireCommands.DataAppended dataAppended = new WireCommands.DataAppended(writer1, 1, 0);
+        shared.dataAppended(dataAppended);
+        verify(processor1).dataAppended(dataAppended);
+
+        // Segment-wide errors go to all the sessions writing to that segment.
+        WireCommands.SegmentIsSealed sealed = new WireCommands.SegmentIsSealed(2, "segment2");
+        shared.segmentIsSealed(sealed);
+        verify(processor2).segmentIsSealed(sealed);
+
+        // Connection-wide events go to everyone.
+        WireCommands.Hello hello = new WireCommands.Hello(WireCommands.WIRE_VERSION, WireCommands.OLDEST_COMPATIBLE_VERSION);
+        shared.hello(hello);
+        verify(processor1).hello(hello);
+        verify(processor2).hello(hello);
+        verifyNoMoreInteractions(processor1, processor2);
+
+        // Closing one session (with nothing outstanding) leaves the connection to the other one.
+        session1.close();
+        verify(physical, never()).close();
+        assertFalse(closed.get());
+        session2.close();
+        verify(physical).close();
+        assertTrue(closed.get());
+        assertTrue(shared.newSession(processor1) == null);
+    }
+
+    /**
+     * Tests that a writer leaving with unacknowledged appends is removed from the Segment Store without affecting the
+     * other sessions, that late replies for it are discarded, and that it can only set up appends again once its removal
+     * has been confirmed.
+     */
+    @Test(timeout = 10000)
+    public void testRemoveWriter() throws Exception {
+        MockConnectionFactoryImpl factory = new MockConnectionFactoryImpl();
+        ClientConnection physical = mock(ClientConnection.class);
+        factory.provideConnection(endpoint, physical);
+        SharedConnection shared = new SharedConnection(endpoint, c -> { });
+        shared.connect(factory);
+        shared.hello(new WireCommands.Hello(WireCommands.WIRE_VERSION, WireCommands.OLDEST_COMPATIBLE_VERSION));
+
+        ReplyProcessor processor1 = mock(ReplyProcessor.class);
+        ClientConnection session1 = shared.newSession(processor1).join();
+        shared.newSession(mock(ReplyProcessor.class)).join();
+        UUID writer = UUID.randomUUID();
+        session1.send(new WireCommands.SetupAppend(1, writer, "segment"));
+        session1.send(new Append("segment", writer, 1, Unpooled.wrappedBuffer(new byte[1]), null));
+        session1.close();
+        verify(physical).sendAsync(new WireCommands.RemoveWriter(writer, "segment"));
+        verify(physical, never()).close();
+
+        // The same writer comes back before the removal has been confirmed: its SetupAppend is held back, and late
+        // replies from before are not delivered to anyone.
+        ReplyProcessor processor3 = mock(ReplyProcessor.class);
+        ClientConnection session3 = shared.newSession(processor3).join();
+        WireCommands.SetupAppend setup = new WireCommands.SetupAppend(2, writer, "segment");
+        session3.send(setup);
+        verify(physical, never()).send(setup);
+        verify(physical, never()).sendAsync(setup);
+        shared.dataAppended(new WireCommands.DataAppended(writer, 1, 0));
+        verify(processor1, never()).dataAppended(any());
+        verify(processor3, never()).dataAppended(any());
+
+        // Once the removal is confirmed, the SetupAppend goes out and replies are routed to the new session.
+        shared.writerRemoved(new WireCommands.WriterRemoved(writer, "segment"));
+        verify(physical).sendAsync(setup);
+        WireCommands.AppendSetup appendSetup = new WireCommands.AppendSetup(2, "segment", writer, 1);
+        shared.appendSetup(appendSetup);
+        verify(processor3).appendSetup(appendSetup);
+        verify(processor1, never()).appendSetup(any());
+        verify(physical, never()).close();
+    }
+
+    /**
+     * Tests that a writer leaving with unacknowledged appends closes the underlying connection if the Segment Store
+     * does not support removing writers.
+     */
+    @Test(timeout = 10000)
+    public void testCloseWithUnackedAppends() throws Exception {
+        MockConnectionFactoryImpl factory = new MockConnectionFactoryImpl();
+        ClientConnection physical = mock(ClientConnection.class);
+        factory.provideConnection(endpoint, physical);
+        SharedConnection shared = new SharedConnection(endpoint, c -> { });
+        shared.connect(factory);
+
+        ClientConnection session1 = shared.newSession(mock(ReplyProcessor.class)).join();
+        shared.newSession(mock(ReplyProcessor.class)).join();
+        UUID writer = UUID.randomUUID();
+        session1.send(new WireCommands.SetupAppend(1, writer, "segment"));
+        session1.send(new Append("segment", writer, 1, Unpooled.wrappedBuffer(new byte[1]), null));
+        session1.close();
+        verify(physical).close();
+    }
+}
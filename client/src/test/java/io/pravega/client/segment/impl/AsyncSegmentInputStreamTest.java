@@ -13,6 +13,7 @@ import io.pravega.client.netty.impl.ClientConnection;
 import io.pravega.client.stream.impl.ConnectionClosedException;
 import io.pravega.client.stream.mock.MockConnectionFactoryImpl;
 import io.pravega.client.stream.mock.MockController;
+import io.pravega.common.concurrent.ExecutorServiceHelpers;
 import io.pravega.common.concurrent.Futures;
 import io.pravega.shared.protocol.netty.ConnectionFailedException;
 import io.pravega.shared.protocol.netty.PravegaNodeUri;
@@ -23,8 +24,10 @@ import io.pravega.shared.protocol.netty.WireCommands.SegmentRead;
 import io.pravega.test.common.AssertExtensions;
 import io.pravega.test.common.Async;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import lombok.Cleanup;
 import org.junit.Test;
 import org.mockito.InOrder;
@@ -144,4 +147,129 @@ public class AsyncSegmentInputStreamTest {
         verifyNoMoreInteractions(c);
     }
 
+    @Test(timeout = 10000)
+    public void testBatchedReads() throws Exception {
+        Segment segment1 = new Segment("scope", "testBatchedReads", 0);
+        Segment segment2 = new Segment("scope", "testBatchedReads", 1);
+        PravegaNodeUri endpoint = new PravegaNodeUri("localhost", SERVICE_PORT);
+        @Cleanup("shutdown")
+        ScheduledExecutorService executor = ExecutorServiceHelpers.newScheduledThreadPool(1, "testBatchedReads");
+        MockConnectionFactoryImpl connectionFactory = new MockConnectionFactoryImpl();
+        connectionFactory.setExecutor(executor);
+        MockController controller = new MockController(endpoint.getEndpoint(), endpoint.getPort(), connectionFactory);
+        ClientConnection c = mock(ClientConnection.class);
+        connectionFactory.provideConnection(endpoint, c);
+        @Cleanup
+        SegmentReadBatcher batcher = new SegmentReadBatcher(controller, connectionFactory);
+
+        // Hold up the executor so that all the reads below end up in the same batch.
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+        executor.execute(blocker::join);
+        CompletableFuture<SegmentRead> read1 = batcher.read(segment1, 0, 100);
+        ReplyProcessor processor = connectionFactory.getProcessor(endpoint);
+        processor.hello(new WireCommands.Hello(WireCommands.WIRE_VERSION, WireCommands.OLDEST_COMPATIBLE_VERSION));
+        CompletableFuture<SegmentRead> read2 = batcher.read(segment2, 10, 100);
+        CompletableFuture<SegmentRead> read2Duplicate = batcher.read(segment2, 10, 100);
+        blocker.complete(null);
+
+        verify(c, Mockito.timeout(5000)).sendAsync(new WireCommands.ReadSegments(Arrays.asList(
+                new ReadSegment(segment1.getScopedName(), 0, 100), new ReadSegment(segment2.getScopedName(), 10, 100))));
+
+        // A batched reply is handed out to all the callers; identical reads each get their own copy of the data.
+        SegmentRead reply1 = new SegmentRead(segment1.getScopedName(), 0, false, false, ByteBuffer.allocate(10));
+        SegmentRead reply2 = new SegmentRead(segment2.getScopedName(), 10, true, false, ByteBuffer.allocate(5));
+        processor.segmentsRead(new WireCommands.SegmentsRead(Arrays.asList(reply1, reply2)));
+        assertEquals(reply1, read1.get());
+        assertEquals(reply2, read2.get());
+        assertEquals(reply2, read2Duplicate.get());
+        assertFalse(read2.get().getData() == read2Duplicate.get().getData());
+        verifyNoMoreInteractions(c);
+
+        // Errors only affect the reads they are for.
+        CompletableFuture<SegmentRead> read3 = batcher.read(segment1, 10, 100);
+        verify(c, Mockito.timeout(5000)).sendAsync(new ReadSegment(segment1.getScopedName(), 10, 100));
+        processor.segmentIsTruncated(new WireCommands.SegmentIsTruncated(10, segment1.getScopedName(), 20));
+        AssertExtensions.assertThrows("Truncation was not reported.", read3,
+                ex -> ex instanceof SegmentTruncatedException);
+    }
+
+    @Test(timeout = 10000)
+    public void testBatchedCloseAbortsRead() throws Exception {
+        Segment segment1 = new Segment("scope", "testBatchedCloseAbortsRead", 0);
+        Segment segment2 = new Segment("scope", "testBatchedCloseAbortsRead", 1);
+        PravegaNodeUri endpoint = new PravegaNodeUri("localhost", SERVICE_PORT);
+        @Cleanup("shutdown")
+        ScheduledExecutorService executor = ExecutorServiceHelpers.newScheduledThreadPool(1, "testBatchedCloseAbortsRead");
+        MockConnectionFactoryImpl connectionFactory = new MockConnectionFactoryImpl();
+        connectionFactory.setExecutor(executor);
+        MockController controller = new MockController(endpoint.getEndpoint(), endpoint.getPort(), connectionFactory);
+        ClientConnection c = mock(ClientConnection.class);
+        connectionFactory.provideConnection(endpoint, c);
+        SegmentReadBatcher batcher = new SegmentReadBatcher(controller, connectionFactory);
+        BatchedAsyncSegmentInputStreamImpl in1 = new BatchedAsyncSegmentInputStreamImpl(batcher, executor, segment1);
+        @Cleanup
+        BatchedAsyncSegmentInputStreamImpl in2 = new BatchedAsyncSegmentInputStreamImpl(batcher, executor, segment2);
+        CompletableFuture<SegmentRead> read1 = in1.read(0, 100);
+        CompletableFuture<SegmentRead> read2 = in2.read(0, 100);
+        verify(c, Mockito.timeout(5000)).sendAsync(new ReadSegment(segment1.getScopedName(), 0, 100));
+        verify(c, Mockito.timeout(5000)).sendAsync(new ReadSegment(segment2.getScopedName(), 0, 100));
+
+        // Closing one stream abandons its reads, but leaves the shared connection (and the other stream's reads) alone.
+        in1.close();
+        AssertExtensions.assertThrows(ConnectionClosedException.class, () -> Futures.getThrowingException(read1));
+        ReplyProcessor processor = connectionFactory.getProcessor(endpoint);
+        processor.segmentRead(new SegmentRead(segment1.getScopedName(), 0, false, false, ByteBuffer.allocate(10)));
+        assertFalse(read2.isDone());
+        SegmentRead reply2 = new SegmentRead(segment2.getScopedName(), 0, false, false, ByteBuffer.allocate(10));
+        processor.segmentRead(reply2);
+        assertEquals(reply2, read2.get());
+        verify(c, Mockito.never()).close();
+
+        // Closing the batcher fails whatever is still pending and closes the connection.
+        CompletableFuture<SegmentRead> read3 = in2.read(10, 100);
+        verify(c, Mockito.timeout(5000)).sendAsync(new ReadSegment(segment2.getScopedName(), 10, 100));
+        batcher.close();
+        AssertExtensions.assertThrows(ConnectionClosedException.class, () -> Futures.getThrowingException(read3));
+        verify(c).close();
+    }
+
+    @Test(timeout = 10000)
+    public void testSubscription() throws Exception {
+        Segment segment = new Segment("scope", "testSubscription", 0);
+        String name = segment.getScopedName();
+        PravegaNodeUri endpoint = new PravegaNodeUri("localhost", SERVICE_PORT);
+        MockConnectionFactoryImpl connectionFactory = new MockConnectionFactoryImpl();
+        MockController controller = new MockController(endpoint.getEndpoint(), endpoint.getPort(), connectionFactory);
+        @Cleanup
+        AsyncSegmentInputStreamImpl in = new AsyncSegmentInputStreamImpl(controller, connectionFactory, segment);
+        ClientConnection c = mock(ClientConnection.class);
+        connectionFactory.provideConnection(endpoint, c);
+        in.getConnection().get();
+        ReplyProcessor processor = connectionFactory.getProcessor(endpoint);
+        processor.hello(new WireCommands.Hello(WireCommands.WIRE_VERSION, WireCommands.OLDEST_COMPATIBLE_VERSION));
+
+        // The first read subscribes to the segment.
+        SegmentRead first = new SegmentRead(name, 0, false, false, ByteBuffer.allocate(10));
+        CompletableFuture<SegmentRead> readFuture = in.read(0, 100);
+        Async.testBlocking(() -> readFuture.get(), () -> processor.segmentRead(first));
+        assertEquals(first, readFuture.join());
+        verify(c).sendAsync(new WireCommands.SubscribeSegment(name, 0, 100));
+        verify(c).sendAsync(new WireCommands.GrantReadCredit(name, 10));
+
+        // Data pushed ahead of the read is returned without any request to the server (other than more credits).
+        SegmentRead second = new SegmentRead(name, 10, true, false, ByteBuffer.allocate(5));
+        processor.segmentRead(second);
+        assertEquals(second, in.read(10, 100).get());
+        verify(c).sendAsync(new WireCommands.GrantReadCredit(name, 5));
+        verifyNoMoreInteractions(c);
+
+        // Reading from a different offset resubscribes.
+        CompletableFuture<SegmentRead> seekFuture = in.read(1000, 100);
+        Async.testBlocking(() -> seekFuture.get(),
+                () -> processor.segmentRead(new SegmentRead(name, 1000, false, true, ByteBuffer.allocate(0))));
+        assertTrue(seekFuture.join().isEndOfSegment());
+        verify(c).sendAsync(new WireCommands.SubscribeSegment(name, 1000, 100));
+        verifyNoMoreInteractions(c);
+    }
+
 }
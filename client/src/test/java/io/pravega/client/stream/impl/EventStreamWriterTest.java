@@ -25,6 +25,7 @@ import io.pravega.common.util.ReusableLatch;
 import io.pravega.test.common.Async;
 import io.pravega.test.common.InlineExecutor;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -74,6 +75,32 @@ public class EventStreamWriterTest {
         }
     }
 
+    @Test
+    public void testWriteEvents() throws Exception {
+        String scope = "scope";
+        String streamName = "stream";
+        StreamImpl stream = new StreamImpl(scope, streamName);
+        Segment segment = new Segment(scope, streamName, 0);
+        EventWriterConfig config = EventWriterConfig.builder().build();
+        SegmentOutputStreamFactory streamFactory = Mockito.mock(SegmentOutputStreamFactory.class);
+        Controller controller = Mockito.mock(Controller.class);
+        Mockito.when(controller.getCurrentSegments(scope, streamName)).thenReturn(getSegmentsFuture(segment));
+        MockSegmentIoStreams outputStream = new MockSegmentIoStreams(segment);
+        Mockito.when(streamFactory.createOutputStreamForSegment(eq(segment), any(), any())).thenReturn(outputStream);
+        JavaSerializer<String> serializer = new JavaSerializer<>();
+        @Cleanup
+        EventStreamWriter<String> writer = new EventStreamWriterImpl<>(stream, controller, streamFactory, serializer,
+                config, new InlineExecutor());
+
+        writer.writeEvents("key", Arrays.asList("Foo", "Bar", "Baz")).get();
+        writer.writeEvents("key", Collections.singletonList("Single")).get();
+        assertTrue(writer.writeEvents("key", Collections.emptyList()).isDone());
+        assertEquals("Foo", serializer.deserialize(outputStream.read()));
+        assertEquals("Bar", serializer.deserialize(outputStream.read()));
+        assertEquals("Baz", serializer.deserialize(outputStream.read()));
+        assertEquals("Single", serializer.deserialize(outputStream.read()));
+    }
+
     private StreamSegments getSegments(Segment segment) {
         NavigableMap<Double, Segment> segments = new TreeMap<>();
         segments.put(1.0, segment);
@@ -633,4 +660,61 @@ public class EventStreamWriterTest {
         assertEquals("Foo", serializer.deserialize(outputStream3.getUnackedEventsOnSeal().get(0).getData()));
         assertEquals("Bar", serializer.deserialize(outputStream3.getUnackedEventsOnSeal().get(1).getData()));
     }
+
+    @Test(timeout = 10000)
+    public void testConcurrentWritesToDifferentSegments() throws Exception {
+        String scope = "scope";
+        String streamName = "stream";
+        StreamImpl stream = new StreamImpl(scope, streamName);
+        Segment segment1 = new Segment(scope, streamName, 0);
+        Segment segment2 = new Segment(scope, streamName, 1);
+        EventWriterConfig config = EventWriterConfig.builder().build();
+        SegmentOutputStreamFactory streamFactory = Mockito.mock(SegmentOutputStreamFactory.class);
+        Controller controller = Mockito.mock(Controller.class);
+        NavigableMap<Double, Segment> ranges = new TreeMap<>();
+        ranges.put(0.5, segment1);
+        ranges.put(1.0, segment2);
+        StreamSegments segments = new StreamSegments(ranges);
+        Mockito.when(controller.getCurrentSegments(scope, streamName)).thenReturn(CompletableFuture.completedFuture(segments));
+
+        // Writes to the first segment block until they are released.
+        ReusableLatch writeStarted = new ReusableLatch();
+        ReusableLatch releaseWrite = new ReusableLatch();
+        SegmentOutputStream outputStream1 = Mockito.mock(SegmentOutputStream.class);
+        Mockito.doAnswer(i -> {
+            writeStarted.release();
+            releaseWrite.await();
+            return null;
+        }).when(outputStream1).write(any());
+        FakeSegmentOutputStream outputStream2 = new FakeSegmentOutputStream(segment2);
+        Mockito.when(streamFactory.createOutputStreamForSegment(eq(segment1), any(), any())).thenReturn(outputStream1);
+        Mockito.when(streamFactory.createOutputStreamForSegment(eq(segment2), any(), any())).thenReturn(outputStream2);
+        JavaSerializer<String> serializer = new JavaSerializer<>();
+        @Cleanup
+        EventStreamWriter<String> writer = new EventStreamWriterImpl<>(stream, controller, streamFactory, serializer,
+                config, new InlineExecutor());
+
+        String key1 = getKeyForSegment(segments, segment1);
+        String key2 = getKeyForSegment(segments, segment2);
+        Thread blockedWriter = new Thread(() -> writer.writeEvent(key1, "Foo"));
+        blockedWriter.start();
+        writeStarted.await();
+
+        // A write to another segment is not held up by the one in progress.
+        writer.writeEvent(key2, "Bar");
+        assertEquals(1, outputStream2.getUnackedEventsOnSeal().size());
+        assertEquals("Bar", serializer.deserialize(outputStream2.getUnackedEventsOnSeal().get(0).getData()));
+
+        releaseWrite.release();
+        blockedWriter.join();
+        Mockito.verify(outputStream1).write(any());
+    }
+
+    private String getKeyForSegment(StreamSegments segments, Segment segment) {
+        for (int i = 0;; i++) {
+            if (segments.getSegmentForKey("key" + i).equals(segment)) {
+                return "key" + i;
+            }
+        }
+    }
 }
@@ -100,16 +100,34 @@ public class MockSegmentIoStreams implements SegmentOutputStream, SegmentInputSt
     @Synchronized
     public void write(PendingEvent event) {
         if (event.getExpectedOffset() == null || event.getExpectedOffset() == writeOffset) {
-            dataWritten.add(event.getData().slice());
-            offsetList.add(writeOffset);
-            eventsWritten++;
-            writeOffset += event.getData().remaining() + WireCommands.TYPE_PLUS_LENGTH_SIZE;
+            if (event.getEventCount() == 1) {
+                writeEvent(event.getData().slice());
+            } else {
+                // A batch of events that have already been serialized as WireCommands.Event.
+                ByteBuffer batch = event.getData().slice();
+                for (int i = 0; i < event.getEventCount(); i++) {
+                    batch.getInt();
+                    int length = batch.getInt();
+                    ByteBuffer data = batch.slice();
+                    data.limit(length);
+                    batch.position(batch.position() + length);
+                    writeEvent(data);
+                }
+            }
             event.getAckFuture().complete(true);
         } else {
             event.getAckFuture().complete(false);
         }
     }
     
+    @GuardedBy("$lock")
+    private void writeEvent(ByteBuffer data) {
+        dataWritten.add(data);
+        offsetList.add(writeOffset);
+        eventsWritten++;
+        writeOffset += data.remaining() + WireCommands.TYPE_PLUS_LENGTH_SIZE;
+    }
+
     @Override
     public void close() {
         close.set(true);
@@ -54,6 +54,16 @@ public class MockSegmentStreamFactory implements SegmentInputStreamFactory, Segm
         return getMockStream(segment);
     }
 
+    @Override
+    public SegmentInputStream createBatchedInputStreamForSegment(Segment segment) {
+        return createInputStreamForSegment(segment);
+    }
+
+    @Override
+    public void close() {
+        // Nothing to close.
+    }
+
     @Override
     public SegmentMetadataClient createSegmentMetadataClient(Segment segment) {
         return getMockStream(segment);
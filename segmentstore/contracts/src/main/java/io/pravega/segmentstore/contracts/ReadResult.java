@@ -65,6 +65,21 @@ public interface ReadResult extends Iterator<ReadResultEntry>, AutoCloseable {
      */
     boolean isClosed();
 
+    /**
+     * Gets a value indicating whether ReadResultEntries returned by this ReadResult contain copies of the data (true) or
+     * read-only views over data that is held elsewhere, such as in the Cache (false). In the latter case, the consumer
+     * must invoke ReadResultEntryContents.release() once done with each entry's contents. Default is true.
+     */
+    boolean isCopyOnRead();
+
+    /**
+     * Sets whether ReadResultEntries returned by subsequent calls to next() contain copies of the data or read-only views
+     * over it. See isCopyOnRead() for details.
+     *
+     * @param copyOnRead True if copies should be returned, false otherwise.
+     */
+    void setCopyOnRead(boolean copyOnRead);
+
     /**
      * Closes the ReadResult.
      */
@@ -95,6 +110,7 @@ public interface ReadResult extends Iterator<ReadResultEntry>, AutoCloseable {
             ReadResultEntryContents contents = entry.getContent().join();
             StreamHelpers.readAll(contents.getData(), target, bytesRead, Math.min(contents.getLength(), target.length - bytesRead));
             bytesRead += contents.getLength();
+            contents.release();
         }
 
         return bytesRead;
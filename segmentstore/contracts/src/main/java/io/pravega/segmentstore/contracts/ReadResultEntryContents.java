@@ -9,6 +9,8 @@
  */
 package io.pravega.segmentstore.contracts;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
 import java.io.InputStream;
 
 /**
@@ -17,6 +19,7 @@ import java.io.InputStream;
 public class ReadResultEntryContents {
     private final int length;
     private final InputStream data;
+    private final ByteBuf buffer;
 
     /**
      * Creates a new instance of the ReadResultEntryContents class.
@@ -27,6 +30,19 @@ public class ReadResultEntryContents {
     public ReadResultEntryContents(InputStream data, int length) {
         this.data = data;
         this.length = length;
+        this.buffer = null;
+    }
+
+    /**
+     * Creates a new instance of the ReadResultEntryContents class that is backed by the given ByteBuf. The ByteBuf is not
+     * copied; this instance takes over the reference held by the caller, which must be released using release().
+     *
+     * @param buffer              A ByteBuf containing the data to retrieve (between its reader and writer indices).
+     */
+    public ReadResultEntryContents(ByteBuf buffer) {
+        this.buffer = buffer;
+        this.length = buffer.readableBytes();
+        this.data = new ByteBufInputStream(buffer.duplicate());
     }
 
     /**
@@ -43,6 +59,24 @@ public class ReadResultEntryContents {
         return this.data;
     }
 
+    /**
+     * Gets a ByteBuf representing the Data that was retrieved, if these contents are backed by one (no copy is made),
+     * or null otherwise. The returned ByteBuf should not be modified and is only valid until release() is invoked.
+     */
+    public ByteBuf getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * Releases any resources (such as ByteBuf references) held by this instance. Has no effect if these contents are not
+     * backed by a ByteBuf.
+     */
+    public void release() {
+        if (this.buffer != null) {
+            this.buffer.release();
+        }
+    }
+
     @Override
     public String toString() {
         return String.format("Length = %d", getLength());
@@ -9,6 +9,8 @@
  */
 package io.pravega.segmentstore.contracts;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.UUID;
@@ -57,6 +59,43 @@ public interface StreamSegmentStore {
      */
     CompletableFuture<Void> append(String streamSegmentName, long offset, byte[] data, Collection<AttributeUpdate> attributeUpdates, Duration timeout);
 
+    /**
+     * Same as append(String, byte[], Collection, Duration), but the data is provided as a ByteBuf, which may avoid having
+     * to copy it into a byte array first.
+     *
+     * The ByteBuf is not copied (unless the implementation does not support it) and its reader index is not changed.
+     * The caller must not release or modify the ByteBuf until the returned CompletableFuture completes.
+     *
+     * @param streamSegmentName The name of the StreamSegment to append to.
+     * @param data              A ByteBuf containing the data to add (between its reader and writer indices).
+     * @param attributeUpdates  A Collection of Attribute-Values to set or update. May be null.
+     * @param timeout           Timeout for the operation
+     * @return A CompletableFuture that, will completed normally, if the add was added. If the
+     * operation failed, the future will be failed with the causing exception.
+     */
+    default CompletableFuture<Void> append(String streamSegmentName, ByteBuf data, Collection<AttributeUpdate> attributeUpdates, Duration timeout) {
+        return append(streamSegmentName, ByteBufUtil.getBytes(data), attributeUpdates, timeout);
+    }
+
+    /**
+     * Same as append(String, long, byte[], Collection, Duration), but the data is provided as a ByteBuf, which may avoid
+     * having to copy it into a byte array first.
+     *
+     * The ByteBuf is not copied (unless the implementation does not support it) and its reader index is not changed.
+     * The caller must not release or modify the ByteBuf until the returned CompletableFuture completes.
+     *
+     * @param streamSegmentName The name of the StreamSegment to append to.
+     * @param offset            The offset at which to append.
+     * @param data              A ByteBuf containing the data to add (between its reader and writer indices).
+     * @param attributeUpdates  A Collection of Attribute-Values to set or update. May be null.
+     * @param timeout           Timeout for the operation
+     * @return A CompletableFuture that, when completed normally, will indicate the append completed successfully.
+     * If the operation failed, the future will be failed with the causing exception.
+     */
+    default CompletableFuture<Void> append(String streamSegmentName, long offset, ByteBuf data, Collection<AttributeUpdate> attributeUpdates, Duration timeout) {
+        return append(streamSegmentName, offset, ByteBufUtil.getBytes(data), attributeUpdates, timeout);
+    }
+
     /**
      * Performs an attribute update operation on the given Segment.
      *
@@ -12,6 +12,7 @@ package io.pravega.segmentstore.server.host;
 import io.pravega.common.Exceptions;
 import io.pravega.common.cluster.Host;
 import io.pravega.segmentstore.contracts.StreamSegmentStore;
+import io.pravega.segmentstore.server.host.handler.AppendProcessorConfig;
 import io.pravega.segmentstore.server.host.handler.PravegaConnectionListener;
 import io.pravega.segmentstore.server.host.stat.AutoScalerConfig;
 import io.pravega.segmentstore.server.host.stat.SegmentStatsFactory;
@@ -21,8 +22,12 @@ import io.pravega.segmentstore.server.store.ServiceBuilderConfig;
 import io.pravega.segmentstore.server.store.ServiceConfig;
 import io.pravega.segmentstore.storage.impl.bookkeeper.BookKeeperConfig;
 import io.pravega.segmentstore.storage.impl.bookkeeper.BookKeeperLogFactory;
+import io.pravega.segmentstore.storage.impl.directmemory.DirectMemoryCacheConfig;
+import io.pravega.segmentstore.storage.impl.directmemory.DirectMemoryCacheFactory;
 import io.pravega.segmentstore.storage.impl.extendeds3.ExtendedS3StorageConfig;
 import io.pravega.segmentstore.storage.impl.extendeds3.ExtendedS3StorageFactory;
+import io.pravega.segmentstore.storage.impl.filelog.FileLogConfig;
+import io.pravega.segmentstore.storage.impl.filelog.FileLogFactory;
 import io.pravega.segmentstore.storage.impl.filesystem.FileSystemStorageConfig;
 import io.pravega.segmentstore.storage.impl.filesystem.FileSystemStorageFactory;
 import io.pravega.segmentstore.storage.impl.hdfs.HDFSStorageConfig;
@@ -31,6 +36,7 @@ import io.pravega.segmentstore.storage.impl.rocksdb.RocksDBCacheFactory;
 import io.pravega.segmentstore.storage.impl.rocksdb.RocksDBConfig;
 import io.pravega.segmentstore.storage.mocks.InMemoryDurableDataLogFactory;
 import io.pravega.segmentstore.storage.mocks.InMemoryStorageFactory;
+import io.pravega.segmentstore.storage.packing.PackedStorageConfig;
 import io.pravega.shared.metrics.MetricsConfig;
 import io.pravega.shared.metrics.MetricsProvider;
 import io.pravega.shared.metrics.StatsProvider;
@@ -54,6 +60,7 @@ public final class ServiceStarter {
     private PravegaConnectionListener listener;
     private SegmentStatsFactory segmentStatsFactory;
     private CuratorFramework zkClient;
+    private ExtendedS3StorageFactory extendedS3StorageFactory;
     private boolean closed;
 
     //endregion
@@ -69,7 +76,7 @@ public final class ServiceStarter {
     private ServiceBuilder createServiceBuilder() {
         ServiceBuilder builder = ServiceBuilder.newInMemoryBuilder(this.builderConfig);
         attachDataLogFactory(builder);
-        attachRocksDB(builder);
+        attachCache(builder);
         attachStorage(builder);
         attachZKSegmentManager(builder);
         return builder;
@@ -102,7 +109,8 @@ public final class ServiceStarter {
                 .createSegmentStatsRecorder(service, builderConfig.getConfig(AutoScalerConfig::builder));
 
         this.listener = new PravegaConnectionListener(false, this.serviceConfig.getListeningIPAddress(),
-                this.serviceConfig.getListeningPort(), service, statsRecorder);
+                this.serviceConfig.getListeningPort(), service, statsRecorder,
+                this.builderConfig.getConfig(AppendProcessorConfig::builder));
         this.listener.startListening();
         log.info("PravegaConnectionListener started successfully.");
         log.info("StreamSegmentService started.");
@@ -113,6 +121,11 @@ public final class ServiceStarter {
             this.serviceBuilder.close();
             log.info("StreamSegmentService shut down.");
 
+            if (this.extendedS3StorageFactory != null) {
+                this.extendedS3StorageFactory.close();
+                this.extendedS3StorageFactory = null;
+            }
+
             if (this.listener != null) {
                 this.listener.close();
                 log.info("PravegaConnectionListener closed.");
@@ -143,6 +156,8 @@ public final class ServiceStarter {
             switch (this.serviceConfig.getDataLogTypeImplementation()) {
                 case BOOKKEEPER:
                     return new BookKeeperLogFactory(setup.getConfig(BookKeeperConfig::builder), this.zkClient, setup.getCoreExecutor());
+                case FILESYSTEM:
+                    return new FileLogFactory(setup.getConfig(FileLogConfig::builder), setup.getCoreExecutor());
                 case INMEMORY:
                     return new InMemoryDurableDataLogFactory(setup.getCoreExecutor());
                 default:
@@ -151,22 +166,34 @@ public final class ServiceStarter {
         });
     }
 
-    private void attachRocksDB(ServiceBuilder builder) {
-        builder.withCacheFactory(setup -> new RocksDBCacheFactory(setup.getConfig(RocksDBConfig::builder)));
+    private void attachCache(ServiceBuilder builder) {
+        builder.withCacheFactory(setup -> {
+            switch (this.serviceConfig.getCacheImplementation()) {
+                case ROCKSDB:
+                    return new RocksDBCacheFactory(setup.getConfig(RocksDBConfig::builder));
+                case DIRECTMEMORY:
+                    return new DirectMemoryCacheFactory(setup.getConfig(DirectMemoryCacheConfig::builder));
+                default:
+                    throw new IllegalStateException("Unsupported cache implementation: " + this.serviceConfig.getCacheImplementation());
+            }
+        });
     }
 
     private void attachStorage(ServiceBuilder builder) {
         builder.withStorageFactory(setup -> {
+            PackedStorageConfig packingConfig = setup.getConfig(PackedStorageConfig::builder);
             switch (this.serviceConfig.getStorageImplementation()) {
                 case HDFS:
                     HDFSStorageConfig hdfsConfig = setup.getConfig(HDFSStorageConfig::builder);
-                    return new HDFSStorageFactory(hdfsConfig, setup.getStorageExecutor());
+                    return new HDFSStorageFactory(hdfsConfig, packingConfig, setup.getStorageExecutor());
                 case FILESYSTEM:
                     FileSystemStorageConfig fsConfig = setup.getConfig(FileSystemStorageConfig::builder);
-                    return new FileSystemStorageFactory(fsConfig, setup.getStorageExecutor());
+                    return new FileSystemStorageFactory(fsConfig, packingConfig, setup.getStorageExecutor());
                 case EXTENDEDS3:
                     ExtendedS3StorageConfig extendedS3Config = setup.getConfig(ExtendedS3StorageConfig::builder);
-                    return new ExtendedS3StorageFactory(extendedS3Config, setup.getStorageExecutor());
+                    this.extendedS3StorageFactory = new ExtendedS3StorageFactory(extendedS3Config, packingConfig,
+                            setup.getStorageExecutor());
+                    return this.extendedS3StorageFactory;
                 case INMEMORY:
                     return new InMemoryStorageFactory(setup.getStorageExecutor());
                 default:
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.host.handler;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Timer;
+import java.time.Duration;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Adaptive flow control for a single connection. Decides when the connection should stop (and resume) reading from its
+ * socket based on how many bytes it has buffered (waiting or in flight).
+ *
+ * The number of bytes a connection may buffer (its budget) is not fixed: it shrinks (multiplicatively) while the appends
+ * on this connection take longer than a target latency to be acknowledged and grows (also multiplicatively) while they
+ * are faster than that. Append latency includes the time spent in the Segment Container's operation queue and writing to
+ * Tier 1, so this pushes back on exactly those connections that feed slow (or throttling) Segment Containers, without
+ * affecting the others.
+ */
+@NotThreadSafe
+class AppendFlowController {
+    //region Members
+
+    /**
+     * Weight of the most recent sample in the (exponential moving) average latency.
+     */
+    private static final double LATENCY_SMOOTHING_FACTOR = 0.2;
+    private static final double DECREASE_FACTOR = 0.75;
+    private static final double INCREASE_FACTOR = 1.25;
+    private final int minBufferSize;
+    private final int maxBufferSize;
+    private final long targetLatencyNanos;
+    private int bufferSize;
+    private double averageLatencyNanos;
+    private Timer pauseTimer;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the AppendFlowController class.
+     *
+     * @param config The AppendProcessorConfig to use.
+     */
+    AppendFlowController(AppendProcessorConfig config) {
+        Preconditions.checkNotNull(config, "config");
+        this.minBufferSize = config.getMinBufferSize();
+        this.maxBufferSize = config.getMaxBufferSize();
+        this.targetLatencyNanos = config.getTargetLatency().toNanos();
+        this.bufferSize = this.minBufferSize;
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Gets the number of buffered bytes above which the connection should be paused.
+     */
+    int getHighWaterMark() {
+        return this.bufferSize;
+    }
+
+    /**
+     * Gets the number of buffered bytes below which a paused connection should be resumed.
+     */
+    int getLowWaterMark() {
+        return this.bufferSize / 2;
+    }
+
+    /**
+     * Gets a value indicating whether the connection is currently paused.
+     */
+    boolean isPaused() {
+        return this.pauseTimer != null;
+    }
+
+    /**
+     * Records the fact that an append has been acknowledged by the Segment Store and adjusts the budget accordingly.
+     *
+     * @param latency The time it took for the append to be acknowledged.
+     */
+    void recordLatency(Duration latency) {
+        long latencyNanos = latency.toNanos();
+        if (this.averageLatencyNanos == 0) {
+            this.averageLatencyNanos = latencyNanos;
+        } else {
+            this.averageLatencyNanos = LATENCY_SMOOTHING_FACTOR * latencyNanos + (1 - LATENCY_SMOOTHING_FACTOR) * this.averageLatencyNanos;
+        }
+
+        if (this.averageLatencyNanos > this.targetLatencyNanos) {
+            this.bufferSize = Math.max(this.minBufferSize, (int) (this.bufferSize * DECREASE_FACTOR));
+        } else {
+            this.bufferSize = (int) Math.min(this.maxBufferSize, (long) Math.ceil(this.bufferSize * INCREASE_FACTOR));
+        }
+    }
+
+    /**
+     * Determines whether the connection should be paused, given the number of bytes it currently buffers. If so, it is
+     * considered paused from this point on.
+     *
+     * @param bufferedBytes The number of bytes currently buffered by the connection.
+     * @return True if the connection should be paused (it was not paused before), false otherwise.
+     */
+    boolean pauseIfNeeded(long bufferedBytes) {
+        if (!isPaused() && bufferedBytes > getHighWaterMark()) {
+            this.pauseTimer = new Timer();
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Determines whether the connection should be resumed, given the number of bytes it currently buffers. If so, it is
+     * no longer considered paused from this point on.
+     *
+     * @param bufferedBytes The number of bytes currently buffered by the connection.
+     * @return The amount of time the connection has been paused for, if it should be resumed, or null otherwise.
+     */
+    Duration resumeIfNeeded(long bufferedBytes) {
+        if (isPaused() && bufferedBytes < getLowWaterMark()) {
+            Duration pausedTime = this.pauseTimer.getElapsed();
+            this.pauseTimer = null;
+            return pausedTime;
+        }
+
+        return null;
+    }
+
+    //endregion
+
+    @Override
+    public String toString() {
+        return String.format("Budget = %d, AvgLatency = %dms, Paused = %s",
+                this.bufferSize, (long) this.averageLatencyNanos / Timer.NANOS_TO_MILLIS, isPaused());
+    }
+}
@@ -44,9 +44,11 @@ import io.pravega.shared.protocol.netty.WireCommands.Hello;
 import io.pravega.shared.protocol.netty.WireCommands.InvalidEventNumber;
 import io.pravega.shared.protocol.netty.WireCommands.NoSuchSegment;
 import io.pravega.shared.protocol.netty.WireCommands.OperationUnsupported;
+import io.pravega.shared.protocol.netty.WireCommands.RemoveWriter;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentAlreadyExists;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentIsSealed;
 import io.pravega.shared.protocol.netty.WireCommands.SetupAppend;
+import io.pravega.shared.protocol.netty.WireCommands.WriterRemoved;
 import io.pravega.shared.protocol.netty.WireCommands.WrongHost;
 import java.time.Duration;
 import java.util.Arrays;
@@ -65,6 +67,7 @@ import static io.pravega.segmentstore.contracts.Attributes.EVENT_COUNT;
 import static io.pravega.shared.MetricsNames.SEGMENT_WRITE_BYTES;
 import static io.pravega.shared.MetricsNames.SEGMENT_WRITE_EVENTS;
 import static io.pravega.shared.MetricsNames.SEGMENT_WRITE_LATENCY;
+import static io.pravega.shared.MetricsNames.SEGMENT_WRITE_PAUSED_TIME;
 import static io.pravega.shared.MetricsNames.nameFromSegment;
 
 /**
@@ -75,24 +78,28 @@ public class AppendProcessor extends DelegatingRequestProcessor {
     //region Members
 
     static final Duration TIMEOUT = Duration.ofMinutes(1);
-    private static final int HIGH_WATER_MARK = 128 * 1024;
-    private static final int LOW_WATER_MARK = 64 * 1024;
     private static final StatsLogger STATS_LOGGER = MetricsProvider.createStatsLogger("segmentstore");
     private static final DynamicLogger DYNAMIC_LOGGER = MetricsProvider.getDynamicLogger();
     private static final OpStatsLogger WRITE_STREAM_SEGMENT = STATS_LOGGER.createStats(SEGMENT_WRITE_LATENCY);
+    private static final OpStatsLogger WRITE_PAUSED_TIME = STATS_LOGGER.createStats(SEGMENT_WRITE_PAUSED_TIME);
     private final StreamSegmentStore store;
     private final ServerConnection connection;
     @Getter
     private final RequestProcessor nextRequestProcessor;
     private final Object lock = new Object();
     private final SegmentStatsRecorder statsRecorder;
+    private final int maxOutstandingAppends;
 
     @GuardedBy("lock")
     private final LinkedListMultimap<UUID, Append> waitingAppends = LinkedListMultimap.create(2);
     @GuardedBy("lock")
     private final HashMap<Pair<String, UUID>, Long> latestEventNumbers = new HashMap<>();
     @GuardedBy("lock")
-    private Append outstandingAppend = null;
+    private final HashMap<UUID, Append> outstandingAppends = new HashMap<>();
+    @GuardedBy("lock")
+    private final HashMap<UUID, RemoveWriter> pendingRemovals = new HashMap<>();
+    @GuardedBy("lock")
+    private final AppendFlowController flowController;
 
     //endregion
 
@@ -108,7 +115,7 @@ public class AppendProcessor extends DelegatingRequestProcessor {
      */
     @VisibleForTesting
     public AppendProcessor(StreamSegmentStore store, ServerConnection connection, RequestProcessor next) {
-        this(store, connection, next, null);
+        this(store, connection, next, null, AppendProcessorConfig.DEFAULT);
     }
 
     /**
@@ -118,12 +125,17 @@ public class AppendProcessor extends DelegatingRequestProcessor {
      * @param connection    The ServerConnection to send responses to.
      * @param next          The RequestProcessor to invoke next.
      * @param statsRecorder (Optional) A StatsRecorder to record Metrics.
+     * @param config        The AppendProcessorConfig to use.
      */
-    AppendProcessor(StreamSegmentStore store, ServerConnection connection, RequestProcessor next, SegmentStatsRecorder statsRecorder) {
+    AppendProcessor(StreamSegmentStore store, ServerConnection connection, RequestProcessor next, SegmentStatsRecorder statsRecorder,
+                    AppendProcessorConfig config) {
+        Preconditions.checkNotNull(config, "config");
         this.store = Preconditions.checkNotNull(store, "store");
         this.connection = Preconditions.checkNotNull(connection, "connection");
         this.nextRequestProcessor = Preconditions.checkNotNull(next, "next");
         this.statsRecorder = statsRecorder;
+        this.maxOutstandingAppends = config.getMaxOutstandingAppends();
+        this.flowController = new AppendFlowController(config);
     }
 
     //endregion
@@ -170,19 +182,29 @@ public class AppendProcessor extends DelegatingRequestProcessor {
     }
 
     /**
-     * If there isn't already an append outstanding against the store, write a new one.
-     * Appends are opportunistically batched here. i.e. If many are waiting they are combined into a single append and
-     * that is written.
+     * Writes as many waiting appends to the store as allowed: at most one outstanding append per Writer (which preserves
+     * the order of each Writer's events) and no more than maxOutstandingAppends in total for this connection.
+     * Appends are opportunistically batched here. i.e. If many are waiting for the same Writer they are combined into a
+     * single append and that is written.
      */
     private void performNextWrite() {
-        Append append = getNextAppend();
-        if (append == null) {
-            return;
+        Append append;
+        while ((append = getNextAppend()) != null) {
+            write(append);
         }
+    }
+
+    private void write(Append append) {
         long traceId = LoggerHelpers.traceEnter(log, "storeAppend", append);
         Timer timer = new Timer();
         storeAppend(append)
                 .whenComplete((v, e) -> {
+                    if (e == null) {
+                        synchronized (lock) {
+                            flowController.recordLatency(timer.getElapsed());
+                        }
+                    }
+
                     handleAppendResult(append, e);
                     LoggerHelpers.traceLeave(log, "storeAppend", traceId, v, e);
                     if (e == null) {
@@ -196,13 +218,27 @@ public class AppendProcessor extends DelegatingRequestProcessor {
 
     private Append getNextAppend() {
         synchronized (lock) {
-            if (outstandingAppend != null || waitingAppends.isEmpty()) {
+            if (outstandingAppends.size() >= maxOutstandingAppends) {
+                return null;
+            }
+
+            // Pick the first Writer (in order of arrival) that has data waiting but no append outstanding.
+            UUID writer = null;
+            for (UUID w : waitingAppends.keySet()) {
+                if (!outstandingAppends.containsKey(w)) {
+                    writer = w;
+                    break;
+                }
+            }
+
+            if (writer == null) {
                 return null;
             }
-            UUID writer = waitingAppends.keys().iterator().next();
+
             List<Append> appends = waitingAppends.get(writer);
+            Append result;
             if (appends.get(0).isConditional()) {
-                outstandingAppend = appends.remove(0);
+                result = appends.remove(0);
             } else {
                 ByteBuf[] toAppend = new ByteBuf[appends.size()];
                 Append last = appends.get(0);
@@ -224,9 +260,11 @@ public class AppendProcessor extends DelegatingRequestProcessor {
 
                 String segment = last.getSegment();
                 long eventNumber = last.getEventNumber();
-                outstandingAppend = new Append(segment, writer, eventNumber, eventCount, data, null);
+                result = new Append(segment, writer, eventNumber, eventCount, data, null);
             }
-            return outstandingAppend;
+
+            outstandingAppends.put(writer, result);
+            return result;
         }
     }
 
@@ -239,13 +277,12 @@ public class AppendProcessor extends DelegatingRequestProcessor {
         List<AttributeUpdate> attributes = Arrays.asList(
                 new AttributeUpdate(append.getWriterId(), AttributeUpdateType.ReplaceIfEquals, append.getEventNumber(), lastEventNumber),
                 new AttributeUpdate(EVENT_COUNT, AttributeUpdateType.Accumulate, append.getEventCount()));
+        // The data is handed over as-is (no copy); it is released (in performNextWrite) only after the store is done with it.
         ByteBuf buf = append.getData().asReadOnly();
-        byte[] bytes = new byte[buf.readableBytes()];
-        buf.readBytes(bytes);
         if (append.isConditional()) {
-            return store.append(append.getSegment(), append.getExpectedLength(), bytes, attributes, TIMEOUT);
+            return store.append(append.getSegment(), append.getExpectedLength(), buf, attributes, TIMEOUT);
         } else {
-            return store.append(append.getSegment(), bytes, attributes, TIMEOUT);
+            return store.append(append.getSegment(), buf, attributes, TIMEOUT);
         }
     }
 
@@ -255,7 +292,7 @@ public class AppendProcessor extends DelegatingRequestProcessor {
             long previousEventNumber;
             synchronized (lock) {
                 previousEventNumber = latestEventNumbers.get(Pair.of(append.getSegment(), append.getWriterId()));
-                Preconditions.checkState(outstandingAppend == append,
+                Preconditions.checkState(outstandingAppends.get(append.getWriterId()) == append,
                         "Synchronization error in: %s while processing append: %s.",
                         AppendProcessor.this.getClass().getName(), append);
             }
@@ -280,14 +317,14 @@ public class AppendProcessor extends DelegatingRequestProcessor {
             }
 
             /* Reply (DataAppended in case of success, else an error Reply based on exception) has been sent. Next,
-             *   - clear outstandingAppend to handle the next Append message.
+             *   - clear the Writer's outstanding append to handle its next Append message.
              *   - ensure latestEventNumbers and waitingAppends are updated.
              */
+            RemoveWriter removal;
             synchronized (lock) {
-                Preconditions.checkState(outstandingAppend == append,
+                Preconditions.checkState(outstandingAppends.remove(append.getWriterId()) == append,
                         "Synchronization error in: %s while processing append: %s.",
                         AppendProcessor.this.getClass().getName(), append);
-                outstandingAppend = null;
                 if (exception == null) {
                     latestEventNumbers.put(Pair.of(append.getSegment(), append.getWriterId()), append.getEventNumber());
                 } else {
@@ -296,6 +333,16 @@ public class AppendProcessor extends DelegatingRequestProcessor {
                         latestEventNumbers.remove(Pair.of(append.getSegment(), append.getWriterId()));
                     }
                 }
+
+                // The Writer asked to be removed while this append was being written; it can now be forgotten.
+                removal = pendingRemovals.remove(append.getWriterId());
+                if (removal != null) {
+                    latestEventNumbers.remove(Pair.of(removal.getSegment(), removal.getWriterId()));
+                }
+            }
+
+            if (removal != null) {
+                connection.send(new WriterRemoved(removal.getWriterId(), removal.getSegment()));
             }
       
             pauseOrResumeReading();
@@ -346,31 +393,39 @@ public class AppendProcessor extends DelegatingRequestProcessor {
     }
 
     /**
-     * If there is too much data waiting throttle the producer by stopping consumption from the socket.
-     * If there is room for more data, we resume consuming from the socket.
+     * If there is too much data buffered (waiting or in flight) throttle the producer by stopping consumption from the socket.
+     * If there is room for more data, we resume consuming from the socket. The thresholds are determined by the
+     * flowController, which adapts them to how fast the store processes this connection's appends.
      */
     private void pauseOrResumeReading() {
-        int bytesWaiting;
+        boolean pause;
+        Duration pausedTime;
         synchronized (lock) {
-            bytesWaiting = waitingAppends.values()
+            long bytesBuffered = waitingAppends.values()
                     .stream()
-                    .mapToInt(a -> a.getData().readableBytes())
+                    .mapToLong(a -> a.getData().readableBytes())
                     .sum();
+            bytesBuffered += outstandingAppends.values()
+                    .stream()
+                    .mapToLong(a -> a.getData().readableBytes())
+                    .sum();
+            pause = flowController.pauseIfNeeded(bytesBuffered);
+            pausedTime = pause ? null : flowController.resumeIfNeeded(bytesBuffered);
         }
 
-        if (bytesWaiting > HIGH_WATER_MARK) {
+        if (pause) {
             log.debug("Pausing writing from connection {}", connection);
             connection.pauseReading();
-        }
-        if (bytesWaiting < LOW_WATER_MARK) {
-            log.trace("Resuming writing from connection {}", connection);
+        } else if (pausedTime != null) {
+            log.trace("Resuming writing from connection {} after {}ms.", connection, pausedTime.toMillis());
+            WRITE_PAUSED_TIME.reportSuccessEvent(pausedTime);
             connection.resumeReading();
         }
     }
 
     /**
      * Append data to the store.
-     * Because ordering dictates that there only be one outstanding append from a given connection, this is implemented
+     * Because ordering dictates that there only be one outstanding append from a given Writer, this is implemented
      * by adding the append to a queue.
      */
     @Override
@@ -387,5 +442,33 @@ public class AppendProcessor extends DelegatingRequestProcessor {
         performNextWrite();
     }
 
+    /**
+     * Discards all state for a Writer that will no longer append on this connection (the connection may be shared with
+     * other Writers, so it is not going away). Any of its appends that are waiting to be written are dropped. If one is
+     * being written, the Writer is removed once it completes, so that WriterRemoved is the last reply for that Writer.
+     */
+    @Override
+    public void removeWriter(RemoveWriter removeWriter) {
+        UUID writer = removeWriter.getWriterId();
+        log.info("Removing writer: {} on segment: {}", writer, removeWriter.getSegment());
+        List<Append> dropped;
+        boolean removed;
+        synchronized (lock) {
+            dropped = waitingAppends.removeAll(writer);
+            removed = !outstandingAppends.containsKey(writer);
+            if (removed) {
+                latestEventNumbers.remove(Pair.of(removeWriter.getSegment(), writer));
+            } else {
+                pendingRemovals.put(writer, removeWriter);
+            }
+        }
+
+        dropped.forEach(a -> a.getData().release());
+        if (removed) {
+            connection.send(new WriterRemoved(writer, removeWriter.getSegment()));
+        }
+        pauseOrResumeReading();
+    }
+
     //endregion
 }
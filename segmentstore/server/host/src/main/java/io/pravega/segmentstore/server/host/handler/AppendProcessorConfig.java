@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.host.handler;
+
+import io.pravega.common.util.ConfigBuilder;
+import io.pravega.common.util.ConfigurationException;
+import io.pravega.common.util.InvalidPropertyValueException;
+import io.pravega.common.util.Property;
+import io.pravega.common.util.TypedProperties;
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * Configuration for the AppendProcessor (per-connection append pipelining and flow control).
+ */
+public class AppendProcessorConfig {
+    //region Config Names
+
+    public static final Property<Integer> MAX_OUTSTANDING_APPENDS = Property.named("maxOutstandingAppends", 16);
+    public static final Property<Integer> MIN_BUFFER_SIZE = Property.named("minBufferSize", 128 * 1024);
+    public static final Property<Integer> MAX_BUFFER_SIZE = Property.named("maxBufferSize", 4 * 1024 * 1024);
+    public static final Property<Integer> TARGET_LATENCY_MILLIS = Property.named("targetLatencyMillis", 100);
+    private static final String COMPONENT_CODE = "appendProcessor";
+
+    /**
+     * Default configuration.
+     */
+    public static final AppendProcessorConfig DEFAULT = builder().build();
+
+    //endregion
+
+    //region Members
+
+    /**
+     * The maximum number of appends (each from a different Writer) that can be in flight against the Segment Store at
+     * any given time for a single connection. Appends from the same Writer are never pipelined.
+     */
+    @Getter
+    private final int maxOutstandingAppends;
+
+    /**
+     * The minimum number of bytes a connection may buffer (waiting or in flight) before it stops reading from its socket.
+     */
+    @Getter
+    private final int minBufferSize;
+
+    /**
+     * The maximum number of bytes a connection may buffer (waiting or in flight) before it stops reading from its socket.
+     */
+    @Getter
+    private final int maxBufferSize;
+
+    /**
+     * The append latency that the per-connection flow control aims for. While a connection's appends take longer than
+     * this to be acknowledged, its buffer budget shrinks (towards minBufferSize); otherwise it grows (towards maxBufferSize).
+     */
+    @Getter
+    private final Duration targetLatency;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the AppendProcessorConfig class.
+     *
+     * @param properties The TypedProperties object to read Properties from.
+     */
+    private AppendProcessorConfig(TypedProperties properties) throws ConfigurationException {
+        this.maxOutstandingAppends = properties.getInt(MAX_OUTSTANDING_APPENDS);
+        if (this.maxOutstandingAppends <= 0) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be a positive integer.",
+                    MAX_OUTSTANDING_APPENDS, this.maxOutstandingAppends));
+        }
+
+        this.minBufferSize = properties.getInt(MIN_BUFFER_SIZE);
+        if (this.minBufferSize <= 0) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be a positive integer.",
+                    MIN_BUFFER_SIZE, this.minBufferSize));
+        }
+
+        this.maxBufferSize = properties.getInt(MAX_BUFFER_SIZE);
+        if (this.maxBufferSize < this.minBufferSize) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be greater than or equal to %s (%d).",
+                    MAX_BUFFER_SIZE, this.maxBufferSize, MIN_BUFFER_SIZE, this.minBufferSize));
+        }
+
+        int targetLatencyMillis = properties.getInt(TARGET_LATENCY_MILLIS);
+        if (targetLatencyMillis <= 0) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be a positive integer.",
+                    TARGET_LATENCY_MILLIS, targetLatencyMillis));
+        }
+
+        this.targetLatency = Duration.ofMillis(targetLatencyMillis);
+    }
+
+    /**
+     * Creates a new ConfigBuilder that can be used to create instances of this class.
+     *
+     * @return A new Builder for this class.
+     */
+    public static ConfigBuilder<AppendProcessorConfig> builder() {
+        return new ConfigBuilder<>(COMPONENT_CODE, AppendProcessorConfig::new);
+    }
+
+    //endregion
+}
@@ -56,6 +56,7 @@ public final class PravegaConnectionListener implements AutoCloseable {
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
     private final SegmentStatsRecorder statsRecorder;
+    private final AppendProcessorConfig appendProcessorConfig;
 
     //endregion
 
@@ -84,11 +85,27 @@ public final class PravegaConnectionListener implements AutoCloseable {
      */
     public PravegaConnectionListener(boolean ssl, String host, int port, StreamSegmentStore streamSegmentStore,
                                      SegmentStatsRecorder statsRecorder) {
+        this(ssl, host, port, streamSegmentStore, statsRecorder, AppendProcessorConfig.DEFAULT);
+    }
+
+    /**
+     * Creates a new instance of the PravegaConnectionListener class.
+     *
+     * @param ssl                   Whether to use SSL.
+     * @param host                  The name of the host to listen to.
+     * @param port                  The port to listen on.
+     * @param streamSegmentStore    The SegmentStore to delegate all requests to.
+     * @param statsRecorder         (Optional) A StatsRecorder for Metrics.
+     * @param appendProcessorConfig The AppendProcessorConfig to use for each connection.
+     */
+    public PravegaConnectionListener(boolean ssl, String host, int port, StreamSegmentStore streamSegmentStore,
+                                     SegmentStatsRecorder statsRecorder, AppendProcessorConfig appendProcessorConfig) {
         this.ssl = ssl;
         this.host = Exceptions.checkNotNullOrEmpty(host, "host");
         this.port = port;
         this.store = Preconditions.checkNotNull(streamSegmentStore, "streamSegmentStore");
         this.statsRecorder = statsRecorder;
+        this.appendProcessorConfig = Preconditions.checkNotNull(appendProcessorConfig, "appendProcessorConfig");
         InternalLoggerFactory.setDefaultFactory(Slf4JLoggerFactory.INSTANCE);
     }
 
@@ -137,10 +154,13 @@ public final class PravegaConnectionListener implements AutoCloseable {
                          new CommandDecoder(),
                          new AppendDecoder(),
                          lsh);
+                 PravegaRequestProcessor requestProcessor = new PravegaRequestProcessor(store, lsh, statsRecorder);
                  lsh.setRequestProcessor(new AppendProcessor(store,
                          lsh,
-                         new PravegaRequestProcessor(store, lsh, statsRecorder),
-                         statsRecorder));
+                         requestProcessor,
+                         statsRecorder,
+                         appendProcessorConfig));
+                 ch.closeFuture().addListener(f -> requestProcessor.connectionClosed());
              }
          });
 
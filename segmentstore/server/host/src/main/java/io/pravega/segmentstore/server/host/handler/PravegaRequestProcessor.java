@@ -11,6 +11,8 @@ package io.pravega.segmentstore.server.host.handler;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.pravega.common.Exceptions;
 import io.pravega.common.LoggerHelpers;
 import io.pravega.common.Timer;
@@ -38,6 +40,7 @@ import io.pravega.shared.metrics.OpStatsLogger;
 import io.pravega.shared.metrics.StatsLogger;
 import io.pravega.shared.protocol.netty.FailingRequestProcessor;
 import io.pravega.shared.protocol.netty.RequestProcessor;
+import io.pravega.shared.protocol.netty.WireCommand;
 import io.pravega.shared.protocol.netty.WireCommands;
 import io.pravega.shared.protocol.netty.WireCommands.AbortTransaction;
 import io.pravega.shared.protocol.netty.WireCommands.CommitTransaction;
@@ -47,9 +50,11 @@ import io.pravega.shared.protocol.netty.WireCommands.DeleteSegment;
 import io.pravega.shared.protocol.netty.WireCommands.GetSegmentAttribute;
 import io.pravega.shared.protocol.netty.WireCommands.GetStreamSegmentInfo;
 import io.pravega.shared.protocol.netty.WireCommands.GetTransactionInfo;
+import io.pravega.shared.protocol.netty.WireCommands.GrantReadCredit;
 import io.pravega.shared.protocol.netty.WireCommands.NoSuchSegment;
 import io.pravega.shared.protocol.netty.WireCommands.OperationUnsupported;
 import io.pravega.shared.protocol.netty.WireCommands.ReadSegment;
+import io.pravega.shared.protocol.netty.WireCommands.ReadSegments;
 import io.pravega.shared.protocol.netty.WireCommands.SealSegment;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentAlreadyExists;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentAttribute;
@@ -62,7 +67,9 @@ import io.pravega.shared.protocol.netty.WireCommands.SegmentPolicyUpdated;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentRead;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentSealed;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentTruncated;
+import io.pravega.shared.protocol.netty.WireCommands.SegmentsRead;
 import io.pravega.shared.protocol.netty.WireCommands.StreamSegmentInfo;
+import io.pravega.shared.protocol.netty.WireCommands.SubscribeSegment;
 import io.pravega.shared.protocol.netty.WireCommands.TransactionAborted;
 import io.pravega.shared.protocol.netty.WireCommands.TransactionCommitted;
 import io.pravega.shared.protocol.netty.WireCommands.TransactionCreated;
@@ -73,7 +80,6 @@ import io.pravega.shared.protocol.netty.WireCommands.UpdateSegmentPolicy;
 import io.pravega.shared.protocol.netty.WireCommands.WrongHost;
 import io.pravega.shared.segment.StreamSegmentNameUtils;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -85,6 +91,9 @@ import java.util.UUID;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.concurrent.GuardedBy;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.SneakyThrows;
@@ -127,6 +136,7 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
     private final StreamSegmentStore segmentStore;
     private final ServerConnection connection;
     private final SegmentStatsRecorder statsRecorder;
+    private final ConcurrentHashMap<String, Subscription> subscriptions = new ConcurrentHashMap<>();
 
     //endregion
 
@@ -169,22 +179,92 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
         segmentStore.read(segment, readSegment.getOffset(), readSize, TIMEOUT)
                 .thenAccept(readResult -> {
                     LoggerHelpers.traceLeave(log, "readSegment", trace, readResult);
-                    handleReadResult(readSegment, readResult);
+                    SegmentRead reply = handleReadResult(readSegment, readResult);
+                    if (reply != null) {
+                        connection.send(reply);
+                    }
+
                     DYNAMIC_LOGGER.incCounterValue(nameFromSegment(SEGMENT_READ_BYTES, segment), readResult.getConsumedLength());
                     readStreamSegment.reportSuccessEvent(timer.getElapsed());
                 })
                 .exceptionally(ex -> handleException(readSegment.getOffset(), segment, "Read segment", ex));
     }
 
+    @Override
+    public void readSegments(ReadSegments readSegments) {
+        Timer timer = new Timer();
+        long trace = LoggerHelpers.traceEnter(log, "readSegments", readSegments.getReads().size());
+        List<CompletableFuture<SegmentRead>> replies = new ArrayList<>(readSegments.getReads().size());
+        for (ReadSegment readSegment : readSegments.getReads()) {
+            final String segment = readSegment.getSegment();
+            final int readSize = min(MAX_READ_SIZE, max(TYPE_PLUS_LENGTH_SIZE, readSegment.getSuggestedLength()));
+            replies.add(segmentStore.read(segment, readSegment.getOffset(), readSize, TIMEOUT)
+                    .thenApply(readResult -> {
+                        DYNAMIC_LOGGER.incCounterValue(nameFromSegment(SEGMENT_READ_BYTES, segment), readResult.getConsumedLength());
+                        return handleReadResult(readSegment, readResult);
+                    })
+                    .exceptionally(ex -> {
+                        handleException(readSegment.getOffset(), segment, "Read segments", ex);
+                        return null;
+                    }));
+        }
+
+        // Only the reads that could be answered immediately are batched; the others (and any errors) are replied to
+        // individually, as they complete.
+        CompletableFuture.allOf(replies.toArray(new CompletableFuture[replies.size()]))
+                .thenRun(() -> {
+                    List<SegmentRead> batch = new ArrayList<>();
+                    int batchSize = 0;
+                    for (CompletableFuture<SegmentRead> r : replies) {
+                        SegmentRead reply = r.join();
+                        if (reply == null) {
+                            continue;
+                        }
+
+                        if (!batch.isEmpty() && batchSize + reply.getDataLength() > MAX_READ_SIZE) {
+                            sendSegmentsRead(batch);
+                            batch = new ArrayList<>();
+                            batchSize = 0;
+                        }
+
+                        batch.add(reply);
+                        batchSize += reply.getDataLength();
+                    }
+
+                    if (!batch.isEmpty()) {
+                        sendSegmentsRead(batch);
+                    }
+
+                    LoggerHelpers.traceLeave(log, "readSegments", trace);
+                    readStreamSegment.reportSuccessEvent(timer.getElapsed());
+                });
+    }
+
+    private void sendSegmentsRead(List<SegmentRead> batch) {
+        if (batch.size() == 1) {
+            connection.send(batch.get(0));
+        } else {
+            connection.send(new SegmentsRead(batch));
+        }
+    }
+
     /**
      * Handles a readResult.
-     * If there are cached entries that can be returned without blocking only these are returned.
-     * Otherwise the call will request the data and setup a callback to return the data when it is available.
+     * If there are cached entries that can be returned without blocking only these are returned (as the result of
+     * this method, for the caller to send).
+     * Otherwise the call will request the data and setup a callback to send the data when it is available.
      * If no data is available but it was detected that the Segment had been truncated beyond the current offset,
      * an appropriate message is sent back over the connection.
+     *
+     * @return A SegmentRead with the data that was immediately available, or null if the reply will be sent
+     * asynchronously.
      */
-    private void handleReadResult(ReadSegment request, ReadResult result) {
+    private SegmentRead handleReadResult(ReadSegment request, ReadResult result) {
         String segment = request.getSegment();
+
+        // Cached data will be sent straight out of the Cache (without making intermediate copies). The resulting views
+        // are owned by the SegmentRead replies, which release them once they have been written to the connection.
+        result.setCopyOnRead(false);
         ArrayList<ReadResultEntryContents> cachedEntries = new ArrayList<>();
         ReadResultEntry nonCachedEntry = collectCachedEntries(request.getOffset(), result, cachedEntries);
 
@@ -194,9 +274,8 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
 
         if (!cachedEntries.isEmpty() || endOfSegment) {
             // We managed to collect some data. Send it.
-            ByteBuffer data = copyData(cachedEntries);
-            SegmentRead reply = new SegmentRead(segment, request.getOffset(), atTail, endOfSegment, data);
-            connection.send(reply);
+            ByteBuf data = toByteBuf(cachedEntries);
+            return new SegmentRead(segment, request.getOffset(), atTail, endOfSegment, data);
         } else if (truncated) {
             // We didn't collect any data, instead we determined that the current read offset was truncated.
             // Determine the current Start Offset and send that back.
@@ -209,7 +288,7 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
             nonCachedEntry.requestContent(TIMEOUT);
             nonCachedEntry.getContent()
                     .thenAccept(contents -> {
-                        ByteBuffer data = copyData(Collections.singletonList(contents));
+                        ByteBuf data = toByteBuf(Collections.singletonList(contents));
                         connection.send(new SegmentRead(segment, nonCachedEntry.getStreamSegmentOffset(), false, endOfSegment, data));
                     })
                     .exceptionally(e -> {
@@ -224,6 +303,8 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
                     })
                     .exceptionally(e -> handleException(nonCachedEntry.getStreamSegmentOffset(), segment, "Read segment", e));
         }
+
+        return null;
     }
 
     /**
@@ -249,20 +330,68 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
     }
 
     /**
-     * Copy all of the contents provided into a byteBuffer and return it.
+     * Combine all of the contents provided into a single ByteBuf and return it. Contents that are backed by a ByteBuf
+     * (i.e., views over the Cache) are included without copying, and ownership of them is transferred to the result.
+     * Any other contents are copied.
      */
     @SneakyThrows(IOException.class)
-    private ByteBuffer copyData(List<ReadResultEntryContents> contents) {
-        int totalSize = contents.stream().mapToInt(ReadResultEntryContents::getLength).sum();
-
-        ByteBuffer data = ByteBuffer.allocate(totalSize);
-        int bytesCopied = 0;
-        for (ReadResultEntryContents content : contents) {
-            int copied = StreamHelpers.readAll(content.getData(), data.array(), bytesCopied, totalSize - bytesCopied);
-            Preconditions.checkState(copied == content.getLength(), "Read fewer bytes than available.");
-            bytesCopied += copied;
+    private ByteBuf toByteBuf(List<ReadResultEntryContents> contents) {
+        ByteBuf[] components = new ByteBuf[contents.size()];
+        try {
+            for (int i = 0; i < components.length; i++) {
+                ReadResultEntryContents content = contents.get(i);
+                ByteBuf buffer = content.getBuffer();
+                if (buffer == null) {
+                    byte[] data = new byte[content.getLength()];
+                    int copied = StreamHelpers.readAll(content.getData(), data, 0, data.length);
+                    Preconditions.checkState(copied == content.getLength(), "Read fewer bytes than available.");
+                    buffer = Unpooled.wrappedBuffer(data);
+                }
+                components[i] = buffer;
+            }
+        } catch (Throwable ex) {
+            contents.forEach(ReadResultEntryContents::release);
+            throw ex;
+        }
+
+        return Unpooled.wrappedBuffer(Math.max(1, components.length), components);
+    }
+
+    @Override
+    public void subscribeSegment(SubscribeSegment subscribeSegment) {
+        String segment = subscribeSegment.getSegment();
+        log.debug("Subscribing to Segment '{}' from offset {} with {} credits.", segment, subscribeSegment.getOffset(),
+                subscribeSegment.getCredits());
+        Subscription subscription = new Subscription(segment, subscribeSegment.getOffset(), subscribeSegment.getCredits());
+        Subscription previous = this.subscriptions.put(segment, subscription);
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        subscription.readIfNeeded();
+    }
+
+    /**
+     * Cancels all the Segment subscriptions made over this connection. Invoked when the connection is closed.
+     */
+    void connectionClosed() {
+        this.subscriptions.forEach((segment, subscription) -> {
+            if (this.subscriptions.remove(segment, subscription)) {
+                subscription.cancel();
+            }
+        });
+    }
+
+    @Override
+    public void grantReadCredit(GrantReadCredit grantReadCredit) {
+        Subscription subscription = this.subscriptions.get(grantReadCredit.getSegment());
+        if (subscription == null) {
+            // The subscription may have ended (i.e., end of Segment or error) before the client found out about it.
+            log.debug("Ignoring {} since there is no subscription for that Segment.", grantReadCredit);
+            return;
         }
-        return data;
+
+        subscription.addCredits(grantReadCredit.getCredits());
     }
 
     @Override
@@ -583,4 +712,165 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
 
         return null;
     }
+
+    //region Subscription
+
+    /**
+     * A server-side Segment subscription (see SubscribeSegment). Reads from the Segment (waiting at its tail, if needed)
+     * and pushes whatever data is found to the connection, one read at a time, as long as there are credits left.
+     */
+    private class Subscription {
+        private final String segment;
+        @GuardedBy("this")
+        private long offset;
+        @GuardedBy("this")
+        private long credits;
+        @GuardedBy("this")
+        private boolean readInProgress;
+        @GuardedBy("this")
+        private boolean cancelled;
+
+        Subscription(String segment, long offset, int credits) {
+            this.segment = segment;
+            this.offset = offset;
+            this.credits = credits;
+        }
+
+        void addCredits(int credits) {
+            synchronized (this) {
+                this.credits += credits;
+            }
+
+            readIfNeeded();
+        }
+
+        void cancel() {
+            synchronized (this) {
+                this.cancelled = true;
+            }
+        }
+
+        /**
+         * Issues a read from the current offset, unless one is already in progress or there are no more credits.
+         */
+        void readIfNeeded() {
+            final long readOffset;
+            final int readLength;
+            synchronized (this) {
+                if (this.cancelled || this.readInProgress || this.credits <= 0) {
+                    return;
+                }
+
+                this.readInProgress = true;
+                readOffset = this.offset;
+                // Never read (and hence push) more than the client has granted credits for.
+                readLength = (int) min(MAX_READ_SIZE, this.credits);
+            }
+
+            Timer timer = new Timer();
+            segmentStore.read(this.segment, readOffset, readLength, TIMEOUT)
+                        .thenCompose(readResult -> pushReadResult(readOffset, readResult))
+                        .whenComplete((pushedLength, ex) -> {
+                            if (ex == null) {
+                                readStreamSegment.reportSuccessEvent(timer.getElapsed());
+                            }
+
+                            readComplete(readOffset, pushedLength, ex);
+                        });
+        }
+
+        /**
+         * Sends the contents of the given ReadResult to the connection, waiting for data at the tail of the Segment if
+         * nothing is readily available.
+         *
+         * @return A CompletableFuture that, when completed, will contain the number of bytes sent, or -1 if the
+         * subscription reached its end (end of Segment or truncated offset).
+         */
+        private CompletableFuture<Long> pushReadResult(long readOffset, ReadResult result) {
+            result.setCopyOnRead(false);
+            ArrayList<ReadResultEntryContents> cachedEntries = new ArrayList<>();
+            ReadResultEntry nonCachedEntry = collectCachedEntries(readOffset, result, cachedEntries);
+            boolean truncated = nonCachedEntry != null && nonCachedEntry.getType() == Truncated;
+            boolean endOfSegment = nonCachedEntry != null && nonCachedEntry.getType() == EndOfStreamSegment;
+            boolean atTail = nonCachedEntry != null && nonCachedEntry.getType() == Future;
+
+            if (!cachedEntries.isEmpty() || endOfSegment) {
+                ByteBuf data = toByteBuf(cachedEntries);
+                int length = data.readableBytes();
+                send(new SegmentRead(this.segment, readOffset, atTail, endOfSegment, data));
+                return CompletableFuture.completedFuture(endOfSegment ? -1L : length);
+            } else if (truncated) {
+                return segmentStore.getStreamSegmentInfo(this.segment, false, TIMEOUT)
+                                   .thenApply(info -> {
+                                       send(new SegmentIsTruncated(readOffset, this.segment, info.getStartOffset()));
+                                       return -1L;
+                                   });
+            } else {
+                Preconditions.checkState(nonCachedEntry != null, "No ReadResultEntries returned from read!?");
+                nonCachedEntry.requestContent(TIMEOUT);
+                return nonCachedEntry.getContent()
+                                     .thenApply(contents -> {
+                                         ByteBuf data = toByteBuf(Collections.singletonList(contents));
+                                         int length = data.readableBytes();
+                                         send(new SegmentRead(this.segment, readOffset, false, false, data));
+                                         return (long) length;
+                                     });
+            }
+        }
+
+        private void readComplete(long readOffset, Long pushedLength, Throwable ex) {
+            boolean resume = false;
+            synchronized (this) {
+                this.readInProgress = false;
+                if (ex == null && pushedLength >= 0) {
+                    this.offset += pushedLength;
+                    this.credits -= pushedLength;
+                    resume = true;
+                }
+            }
+
+            if (ex == null) {
+                if (pushedLength > 0) {
+                    DYNAMIC_LOGGER.incCounterValue(nameFromSegment(SEGMENT_READ_BYTES, this.segment), pushedLength);
+                }
+            } else {
+                ex = Exceptions.unwrap(ex);
+                if (ex instanceof TimeoutException && connection.isConnected()) {
+                    // Nothing was appended to the Segment for a while. Keep waiting.
+                    resume = true;
+                } else if (ex instanceof StreamSegmentTruncatedException) {
+                    // The Segment may have been truncated in Storage after we got the entry but before we managed to read it.
+                    send(new SegmentIsTruncated(readOffset, this.segment, readOffset));
+                } else if (!(ex instanceof TimeoutException)) {
+                    handleException(readOffset, this.segment, "Subscribe segment", ex);
+                }
+            }
+
+            if (resume) {
+                readIfNeeded();
+            } else {
+                log.debug("Subscription to Segment '{}' ended at offset {}.", this.segment, readOffset);
+                subscriptions.remove(this.segment, this);
+            }
+        }
+
+        /**
+         * Sends the given reply, unless this subscription has been replaced by a newer one in the meantime.
+         */
+        private void send(WireCommand reply) {
+            synchronized (this) {
+                if (this.cancelled) {
+                    if (reply instanceof SegmentRead) {
+                        ((SegmentRead) reply).release();
+                    }
+
+                    return;
+                }
+            }
+
+            connection.send(reply);
+        }
+    }
+
+    //endregion
 }
@@ -36,6 +36,13 @@ public interface ServerConnection extends AutoCloseable {
 
     void resumeReading();
 
+    /**
+     * Gets a value indicating whether the connection is still open.
+     *
+     * @return True if open, false otherwise.
+     */
+    boolean isConnected();
+
     /**
      * Drop the connection. No further operations may be performed.
      */
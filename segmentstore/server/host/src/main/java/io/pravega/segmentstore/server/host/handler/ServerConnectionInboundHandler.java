@@ -92,6 +92,12 @@ public class ServerConnectionInboundHandler extends ChannelInboundHandlerAdapter
         getChannel().config().setAutoRead(true);
     }
 
+    @Override
+    public boolean isConnected() {
+        Channel ch = channel.get();
+        return ch != null && ch.isActive();
+    }
+
     private Channel getChannel() {
         Channel ch = channel.get();
         if (ch == null) {
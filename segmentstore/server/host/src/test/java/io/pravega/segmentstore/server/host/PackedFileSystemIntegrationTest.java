@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.host;
+
+import io.pravega.segmentstore.storage.packing.PackedStorageConfig;
+import org.junit.Before;
+
+/**
+ * End-to-end tests for SegmentStore, with integrated Storage and DurableDataLog, where each Segment Container stores its
+ * Segments in a Pack of its own (see PackedStorage).
+ */
+public class PackedFileSystemIntegrationTest extends FileSystemIntegrationTest {
+    private static final long MAX_CHUNK_LENGTH = 1024 * 1024;
+
+    /**
+     * Enables packing. This runs after FileSystemIntegrationTest.setUp().
+     */
+    @Before
+    public void setUpPacking() {
+        this.configBuilder.include(PackedStorageConfig
+                .builder()
+                .with(PackedStorageConfig.ENABLED, true)
+                .with(PackedStorageConfig.MAX_CHUNK_LENGTH, MAX_CHUNK_LENGTH));
+    }
+}
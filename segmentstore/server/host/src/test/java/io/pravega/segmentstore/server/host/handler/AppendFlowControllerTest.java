@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.host.handler;
+
+import java.time.Duration;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the AppendFlowController class.
+ */
+public class AppendFlowControllerTest {
+    private static final int MIN_BUFFER_SIZE = 1024;
+    private static final int MAX_BUFFER_SIZE = 64 * 1024;
+    private static final Duration TARGET_LATENCY = Duration.ofMillis(100);
+
+    /**
+     * Tests the fact that the budget grows while appends are fast and shrinks while they are slow, within the configured bounds.
+     */
+    @Test
+    public void testAdaptiveBudget() {
+        AppendFlowController fc = new AppendFlowController(createConfig());
+        Assert.assertEquals("Unexpected initial high water mark.", MIN_BUFFER_SIZE, fc.getHighWaterMark());
+        Assert.assertEquals("Unexpected initial low water mark.", MIN_BUFFER_SIZE / 2, fc.getLowWaterMark());
+
+        // Fast appends: the budget should grow until it reaches the maximum.
+        int previous = fc.getHighWaterMark();
+        while (fc.getHighWaterMark() < MAX_BUFFER_SIZE) {
+            fc.recordLatency(TARGET_LATENCY.dividedBy(10));
+            Assert.assertTrue("Budget did not grow for fast appends.", fc.getHighWaterMark() > previous);
+            previous = fc.getHighWaterMark();
+        }
+
+        fc.recordLatency(Duration.ZERO);
+        Assert.assertEquals("Budget exceeded maximum.", MAX_BUFFER_SIZE, fc.getHighWaterMark());
+
+        // Slow appends: the budget should shrink (once the average latency goes above the target) until it reaches the minimum.
+        for (int i = 0; i < 100; i++) {
+            fc.recordLatency(TARGET_LATENCY.multipliedBy(10));
+            Assert.assertTrue("Budget grew for slow appends.", fc.getHighWaterMark() <= previous);
+            previous = fc.getHighWaterMark();
+        }
+
+        Assert.assertEquals("Budget did not shrink to the minimum for slow appends.", MIN_BUFFER_SIZE, fc.getHighWaterMark());
+    }
+
+    /**
+     * Tests the pauseIfNeeded() and resumeIfNeeded() methods.
+     */
+    @Test
+    public void testPauseResume() {
+        AppendFlowController fc = new AppendFlowController(createConfig());
+        Assert.assertFalse("Not expecting to be paused initially.", fc.isPaused());
+        Assert.assertNull("Not expecting to resume when not paused.", fc.resumeIfNeeded(0));
+        Assert.assertFalse("Not expecting to pause at the high water mark.", fc.pauseIfNeeded(fc.getHighWaterMark()));
+
+        Assert.assertTrue("Expecting to pause above the high water mark.", fc.pauseIfNeeded(fc.getHighWaterMark() + 1));
+        Assert.assertTrue("Expecting to be paused.", fc.isPaused());
+        Assert.assertFalse("Not expecting to pause again while paused.", fc.pauseIfNeeded(fc.getHighWaterMark() + 1));
+        Assert.assertNull("Not expecting to resume at the low water mark.", fc.resumeIfNeeded(fc.getLowWaterMark()));
+
+        Duration pausedTime = fc.resumeIfNeeded(fc.getLowWaterMark() - 1);
+        Assert.assertNotNull("Expecting to resume below the low water mark.", pausedTime);
+        Assert.assertFalse("Not expecting to be paused after resuming.", fc.isPaused());
+        Assert.assertNull("Not expecting to resume again.", fc.resumeIfNeeded(0));
+    }
+
+    private AppendProcessorConfig createConfig() {
+        return AppendProcessorConfig
+                .builder()
+                .with(AppendProcessorConfig.MIN_BUFFER_SIZE, MIN_BUFFER_SIZE)
+                .with(AppendProcessorConfig.MAX_BUFFER_SIZE, MAX_BUFFER_SIZE)
+                .with(AppendProcessorConfig.TARGET_LATENCY_MILLIS, (int) TARGET_LATENCY.toMillis())
+                .build();
+    }
+}
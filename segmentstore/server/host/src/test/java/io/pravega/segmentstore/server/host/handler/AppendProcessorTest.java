@@ -9,6 +9,7 @@
  */
 package io.pravega.segmentstore.server.host.handler;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.pravega.common.concurrent.ExecutorServiceHelpers;
 import io.pravega.common.concurrent.Futures;
@@ -26,7 +27,9 @@ import io.pravega.shared.protocol.netty.WireCommands.AppendSetup;
 import io.pravega.shared.protocol.netty.WireCommands.ConditionalCheckFailed;
 import io.pravega.shared.protocol.netty.WireCommands.DataAppended;
 import io.pravega.shared.protocol.netty.WireCommands.OperationUnsupported;
+import io.pravega.shared.protocol.netty.WireCommands.RemoveWriter;
 import io.pravega.shared.protocol.netty.WireCommands.SetupAppend;
+import io.pravega.shared.protocol.netty.WireCommands.WriterRemoved;
 import lombok.Cleanup;
 import java.util.Arrays;
 import java.util.Collection;
@@ -68,14 +71,14 @@ public class AppendProcessorTest {
 
         setupGetStreamSegmentInfo(streamSegmentName, clientId, store);
         CompletableFuture<Void> result = CompletableFuture.completedFuture(null);
-        when(store.append(streamSegmentName, data, updateEventNumber(clientId, data.length), AppendProcessor.TIMEOUT))
+        when(store.append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, data.length), AppendProcessor.TIMEOUT))
             .thenReturn(result);
 
         processor.setupAppend(new SetupAppend(1, clientId, streamSegmentName));
-        processor.append(new Append(streamSegmentName, clientId, data.length, Unpooled.wrappedBuffer(data), null));
+        processor.append(new Append(streamSegmentName, clientId, data.length, buffer(data), null));
         verify(store).getStreamSegmentInfo(anyString(), eq(true), eq(AppendProcessor.TIMEOUT));
         verify(store).append(streamSegmentName,
-                             data,
+                             Unpooled.wrappedBuffer(data),
                              updateEventNumber(clientId, data.length),
                              AppendProcessor.TIMEOUT);
         verify(connection).send(new AppendSetup(1, streamSegmentName, clientId, 0));
@@ -101,26 +104,26 @@ public class AppendProcessorTest {
         verifier.verify(store).getStreamSegmentInfo(anyString(), eq(true), eq(AppendProcessor.TIMEOUT));
         
         CompletableFuture<Void> result = CompletableFuture.completedFuture(null);
-        when(store.append(streamSegmentName1, data, updateEventNumber(clientId, 10), AppendProcessor.TIMEOUT))
+        when(store.append(streamSegmentName1, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 10), AppendProcessor.TIMEOUT))
             .thenReturn(result);
-        processor.append(new Append(streamSegmentName1, clientId, 10, Unpooled.wrappedBuffer(data), null));
-        verifier.verify(store).append(streamSegmentName1, data, updateEventNumber(clientId, 10), AppendProcessor.TIMEOUT);
+        processor.append(new Append(streamSegmentName1, clientId, 10, buffer(data), null));
+        verifier.verify(store).append(streamSegmentName1, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 10), AppendProcessor.TIMEOUT);
 
         setupGetStreamSegmentInfo(streamSegmentName2, clientId, store);
         processor.setupAppend(new SetupAppend(1, clientId, streamSegmentName2));
         verifier.verify(store).getStreamSegmentInfo(anyString(), eq(true), eq(AppendProcessor.TIMEOUT));
         
         CompletableFuture<Void> result2 = CompletableFuture.completedFuture(null);
-        when(store.append(streamSegmentName2, data, updateEventNumber(clientId, 2000), AppendProcessor.TIMEOUT))
+        when(store.append(streamSegmentName2, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 2000), AppendProcessor.TIMEOUT))
             .thenReturn(result2);
-        processor.append(new Append(streamSegmentName2, clientId, 2000, Unpooled.wrappedBuffer(data), null));
-        verifier.verify(store).append(streamSegmentName2, data, updateEventNumber(clientId, 2000), AppendProcessor.TIMEOUT);
+        processor.append(new Append(streamSegmentName2, clientId, 2000, buffer(data), null));
+        verifier.verify(store).append(streamSegmentName2, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 2000), AppendProcessor.TIMEOUT);
         
         CompletableFuture<Void> result3 = CompletableFuture.completedFuture(null);
-        when(store.append(streamSegmentName1, data, updateEventNumber(clientId, 20, 10, 1), AppendProcessor.TIMEOUT))
+        when(store.append(streamSegmentName1, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 20, 10, 1), AppendProcessor.TIMEOUT))
             .thenReturn(result3);
-        processor.append(new Append(streamSegmentName1, clientId, 20, Unpooled.wrappedBuffer(data), null));
-        verifier.verify(store).append(streamSegmentName1, data, updateEventNumber(clientId, 20, 10, 1), AppendProcessor.TIMEOUT);
+        processor.append(new Append(streamSegmentName1, clientId, 20, buffer(data), null));
+        verifier.verify(store).append(streamSegmentName1, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 20, 10, 1), AppendProcessor.TIMEOUT);
         
         verifyNoMoreInteractions(store);
     }
@@ -136,19 +139,19 @@ public class AppendProcessorTest {
 
         setupGetStreamSegmentInfo(streamSegmentName, clientId, store);
         CompletableFuture<Void> result = CompletableFuture.completedFuture(null);
-        when(store.append(streamSegmentName, data, updateEventNumber(clientId, 1),
+        when(store.append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 1),
                           AppendProcessor.TIMEOUT)).thenReturn(result);
         processor.setupAppend(new SetupAppend(1, clientId, streamSegmentName));
-        processor.append(new Append(streamSegmentName, clientId, 1, Unpooled.wrappedBuffer(data), null));
+        processor.append(new Append(streamSegmentName, clientId, 1, buffer(data), null));
 
         result = CompletableFuture.completedFuture(null);
-        when(store.append(streamSegmentName, data.length, data, updateEventNumber(clientId, 2, 1, 1),
+        when(store.append(streamSegmentName, data.length, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 2, 1, 1),
                           AppendProcessor.TIMEOUT)).thenReturn(result);
 
-        processor.append(new Append(streamSegmentName, clientId, 2, Unpooled.wrappedBuffer(data), (long) data.length));
+        processor.append(new Append(streamSegmentName, clientId, 2, buffer(data), (long) data.length));
         verify(store).getStreamSegmentInfo(anyString(), eq(true), eq(AppendProcessor.TIMEOUT));
-        verify(store).append(streamSegmentName, data, updateEventNumber(clientId, 1), AppendProcessor.TIMEOUT);
-        verify(store).append(streamSegmentName, data.length, data, updateEventNumber(clientId, 2, 1, 1),
+        verify(store).append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 1), AppendProcessor.TIMEOUT);
+        verify(store).append(streamSegmentName, data.length, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 2, 1, 1),
                              AppendProcessor.TIMEOUT);
         verify(connection).send(new AppendSetup(1, streamSegmentName, clientId, 0));
         verify(connection, atLeast(0)).resumeReading();
@@ -169,19 +172,19 @@ public class AppendProcessorTest {
 
         setupGetStreamSegmentInfo(streamSegmentName, clientId, store);
         CompletableFuture<Void> result = CompletableFuture.completedFuture(null);
-        when(store.append(streamSegmentName, data, updateEventNumber(clientId, 1),
+        when(store.append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 1),
                           AppendProcessor.TIMEOUT)).thenReturn(result);
         processor.setupAppend(new SetupAppend(1, clientId, streamSegmentName));
-        processor.append(new Append(streamSegmentName, clientId, 1, Unpooled.wrappedBuffer(data), null));
+        processor.append(new Append(streamSegmentName, clientId, 1, buffer(data), null));
 
         result = Futures.failedFuture(new BadOffsetException(streamSegmentName, data.length, 0));
-        when(store.append(streamSegmentName, 0, data, updateEventNumber(clientId, 2, 1, 1),
+        when(store.append(streamSegmentName, 0, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 2, 1, 1),
                           AppendProcessor.TIMEOUT)).thenReturn(result);
 
-        processor.append(new Append(streamSegmentName, clientId, 2, Unpooled.wrappedBuffer(data), 0L));
+        processor.append(new Append(streamSegmentName, clientId, 2, buffer(data), 0L));
         verify(store).getStreamSegmentInfo(anyString(), eq(true), eq(AppendProcessor.TIMEOUT));
-        verify(store).append(streamSegmentName, data, updateEventNumber(clientId, 1), AppendProcessor.TIMEOUT);
-        verify(store).append(streamSegmentName, 0L, data, updateEventNumber(clientId, 2, 1, 1), AppendProcessor.TIMEOUT);
+        verify(store).append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 1), AppendProcessor.TIMEOUT);
+        verify(store).append(streamSegmentName, 0L, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 2, 1, 1), AppendProcessor.TIMEOUT);
         verify(connection).send(new AppendSetup(1, streamSegmentName, clientId, 0));
         verify(connection, atLeast(0)).resumeReading();
         verify(connection).send(new DataAppended(clientId, 1, 0));
@@ -202,7 +205,7 @@ public class AppendProcessorTest {
         setupGetStreamSegmentInfo(streamSegmentName, clientId, 100, store);
         processor.setupAppend(new SetupAppend(1, clientId, streamSegmentName));
         try {
-            processor.append(new Append(streamSegmentName, clientId, data.length, Unpooled.wrappedBuffer(data), null));
+            processor.append(new Append(streamSegmentName, clientId, data.length, buffer(data), null));
             fail();
         } catch (RuntimeException e) {
             //expected
@@ -223,7 +226,7 @@ public class AppendProcessorTest {
         ServerConnection connection = mock(ServerConnection.class);
         AppendProcessor processor = new AppendProcessor(store, connection, new FailingRequestProcessor());
         try {
-            processor.append(new Append(streamSegmentName, clientId, data.length, Unpooled.wrappedBuffer(data), null));
+            processor.append(new Append(streamSegmentName, clientId, data.length, buffer(data), null));
             fail();
         } catch (RuntimeException e) {
             //expected
@@ -245,27 +248,27 @@ public class AppendProcessorTest {
 
         setupGetStreamSegmentInfo(segment1, clientId1, store);
         CompletableFuture<Void> result = CompletableFuture.completedFuture(null);
-        when(store.append(segment1, data, updateEventNumber(clientId1, data.length), AppendProcessor.TIMEOUT))
+        when(store.append(segment1, Unpooled.wrappedBuffer(data), updateEventNumber(clientId1, data.length), AppendProcessor.TIMEOUT))
             .thenReturn(result);
 
         setupGetStreamSegmentInfo(segment2, clientId2, store);
         result = CompletableFuture.completedFuture(null);
-        when(store.append(segment2, data, updateEventNumber(clientId2, data.length), AppendProcessor.TIMEOUT))
+        when(store.append(segment2, Unpooled.wrappedBuffer(data), updateEventNumber(clientId2, data.length), AppendProcessor.TIMEOUT))
             .thenReturn(result);
 
         processor.setupAppend(new SetupAppend(1, clientId1, segment1));
-        processor.append(new Append(segment1, clientId1, data.length, Unpooled.wrappedBuffer(data), null));
+        processor.append(new Append(segment1, clientId1, data.length, buffer(data), null));
         processor.setupAppend(new SetupAppend(2, clientId2, segment2));
-        processor.append(new Append(segment2, clientId2, data.length, Unpooled.wrappedBuffer(data), null));
+        processor.append(new Append(segment2, clientId2, data.length, buffer(data), null));
 
         verify(store).getStreamSegmentInfo(eq(segment1), eq(true), eq(AppendProcessor.TIMEOUT));
         verify(store).append(segment1,
-                             data,
+                             Unpooled.wrappedBuffer(data),
                              updateEventNumber(clientId1, data.length),
                              AppendProcessor.TIMEOUT);
         verify(store).getStreamSegmentInfo(eq(segment2), eq(true), eq(AppendProcessor.TIMEOUT));
         verify(store).append(segment2,
-                             data,
+                             Unpooled.wrappedBuffer(data),
                              updateEventNumber(clientId2, data.length),
                              AppendProcessor.TIMEOUT);
         verify(connection, atLeast(0)).resumeReading();
@@ -277,6 +280,159 @@ public class AppendProcessorTest {
         verifyNoMoreInteractions(store);
     }
 
+    /**
+     * Verifies that appends from different Writers on the same connection are pipelined (up to the configured limit),
+     * while appends from the same Writer are still written one at a time.
+     */
+    @Test
+    public void testPipelinedAppends() {
+        String segment1 = "segment1";
+        String segment2 = "segment2";
+        String segment3 = "segment3";
+        UUID clientId1 = UUID.randomUUID();
+        UUID clientId2 = UUID.randomUUID();
+        UUID clientId3 = UUID.randomUUID();
+        byte[] data = new byte[] { 1, 2, 3, 4, 6, 7, 8, 9 };
+        StreamSegmentStore store = mock(StreamSegmentStore.class);
+        ServerConnection connection = mock(ServerConnection.class);
+        AppendProcessor processor = new AppendProcessor(store, connection, new FailingRequestProcessor(), null,
+                AppendProcessorConfig.builder().with(AppendProcessorConfig.MAX_OUTSTANDING_APPENDS, 2).build());
+
+        setupGetStreamSegmentInfo(segment1, clientId1, store);
+        setupGetStreamSegmentInfo(segment2, clientId2, store);
+        setupGetStreamSegmentInfo(segment3, clientId3, store);
+        processor.setupAppend(new SetupAppend(1, clientId1, segment1));
+        processor.setupAppend(new SetupAppend(2, clientId2, segment2));
+        processor.setupAppend(new SetupAppend(3, clientId3, segment3));
+
+        CompletableFuture<Void> result1 = new CompletableFuture<>();
+        CompletableFuture<Void> result2 = new CompletableFuture<>();
+        CompletableFuture<Void> result3 = CompletableFuture.completedFuture(null);
+        when(store.append(segment1, Unpooled.wrappedBuffer(data), updateEventNumber(clientId1, 1), AppendProcessor.TIMEOUT))
+                .thenReturn(result1);
+        when(store.append(segment2, Unpooled.wrappedBuffer(data), updateEventNumber(clientId2, 1), AppendProcessor.TIMEOUT))
+                .thenReturn(result2);
+        when(store.append(segment3, Unpooled.wrappedBuffer(data), updateEventNumber(clientId3, 1), AppendProcessor.TIMEOUT))
+                .thenReturn(result3);
+
+        // The first two Writers' appends should both be in flight, while the third one must wait for a free slot.
+        processor.append(new Append(segment1, clientId1, 1, buffer(data), null));
+        processor.append(new Append(segment1, clientId1, 2, buffer(data), null));
+        processor.append(new Append(segment2, clientId2, 1, buffer(data), null));
+        processor.append(new Append(segment3, clientId3, 1, buffer(data), null));
+        verify(store).append(segment1, Unpooled.wrappedBuffer(data), updateEventNumber(clientId1, 1), AppendProcessor.TIMEOUT);
+        verify(store).append(segment2, Unpooled.wrappedBuffer(data), updateEventNumber(clientId2, 1), AppendProcessor.TIMEOUT);
+        verify(store, times(0)).append(eq(segment3), any(ByteBuf.class), any(), any());
+
+        // Completing the second Writer's append frees up a slot for the third Writer (which completes immediately).
+        result2.complete(null);
+        verify(store).append(segment3, Unpooled.wrappedBuffer(data), updateEventNumber(clientId3, 1), AppendProcessor.TIMEOUT);
+        verify(connection).send(new DataAppended(clientId2, 1, 0));
+        verify(connection).send(new DataAppended(clientId3, 1, 0));
+
+        // The first Writer's second append is only written after its first one has been acknowledged.
+        verify(store, times(1)).append(eq(segment1), any(ByteBuf.class), any(), any());
+        CompletableFuture<Void> result4 = CompletableFuture.completedFuture(null);
+        when(store.append(segment1, Unpooled.wrappedBuffer(data), updateEventNumber(clientId1, 2, 1, 1), AppendProcessor.TIMEOUT))
+                .thenReturn(result4);
+        result1.complete(null);
+        verify(store).append(segment1, Unpooled.wrappedBuffer(data), updateEventNumber(clientId1, 2, 1, 1), AppendProcessor.TIMEOUT);
+        verify(connection).send(new DataAppended(clientId1, 1, 0));
+        verify(connection).send(new DataAppended(clientId1, 2, 1));
+    }
+
+    /**
+     * Verifies that removing a Writer drops its waiting appends and only acknowledges the removal once its outstanding
+     * append has completed.
+     */
+    @Test
+    public void testRemoveWriter() {
+        String segment = "testRemoveWriter";
+        UUID clientId = UUID.randomUUID();
+        byte[] data = new byte[] { 1, 2, 3, 4, 6, 7, 8, 9 };
+        StreamSegmentStore store = mock(StreamSegmentStore.class);
+        ServerConnection connection = mock(ServerConnection.class);
+        AppendProcessor processor = new AppendProcessor(store, connection, new FailingRequestProcessor());
+
+        setupGetStreamSegmentInfo(segment, clientId, store);
+        processor.setupAppend(new SetupAppend(1, clientId, segment));
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        when(store.append(segment, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 1), AppendProcessor.TIMEOUT))
+                .thenReturn(result);
+        processor.append(new Append(segment, clientId, 1, buffer(data), null));
+        processor.append(new Append(segment, clientId, 2, buffer(data), null));
+
+        // The second append is dropped, and the Writer is not removed while its first append is still being written.
+        processor.removeWriter(new RemoveWriter(clientId, segment));
+        verify(connection, times(0)).send(new WriterRemoved(clientId, segment));
+        result.complete(null);
+        InOrder inOrder = Mockito.inOrder(connection);
+        inOrder.verify(connection).send(new DataAppended(clientId, 1, 0));
+        inOrder.verify(connection).send(new WriterRemoved(clientId, segment));
+        verify(store, times(1)).append(eq(segment), any(ByteBuf.class), any(), any());
+
+        // The Writer must set up appends again before it can append.
+        try {
+            processor.append(new Append(segment, clientId, 2, buffer(data), null));
+            fail("Append was accepted from a removed writer.");
+        } catch (IllegalStateException ex) {
+            // Expected.
+        }
+
+        // A Writer with nothing outstanding is removed right away.
+        processor.setupAppend(new SetupAppend(2, clientId, segment));
+        processor.removeWriter(new RemoveWriter(clientId, segment));
+        verify(connection, times(2)).send(new WriterRemoved(clientId, segment));
+    }
+
+    /**
+     * Verifies that a connection stops reading once it buffers more than its budget and resumes once that drains.
+     */
+    @Test
+    public void testFlowControl() {
+        String streamSegmentName = "testFlowControl";
+        UUID clientId = UUID.randomUUID();
+        byte[] data = new byte[] { 1, 2, 3, 4, 6, 7, 8, 9 };
+        StreamSegmentStore store = mock(StreamSegmentStore.class);
+        ServerConnection connection = mock(ServerConnection.class);
+        AppendProcessorConfig config = AppendProcessorConfig.builder()
+                .with(AppendProcessorConfig.MIN_BUFFER_SIZE, data.length * 2)
+                .with(AppendProcessorConfig.MAX_BUFFER_SIZE, data.length * 2)
+                .build();
+        AppendProcessor processor = new AppendProcessor(store, connection, new FailingRequestProcessor(), null, config);
+
+        setupGetStreamSegmentInfo(streamSegmentName, clientId, store);
+        processor.setupAppend(new SetupAppend(1, clientId, streamSegmentName));
+        CompletableFuture<Void> result1 = new CompletableFuture<>();
+        when(store.append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 1), AppendProcessor.TIMEOUT))
+                .thenReturn(result1);
+
+        // One append in flight and one waiting: exactly at the limit, so we should not pause yet.
+        processor.append(new Append(streamSegmentName, clientId, 1, buffer(data), null));
+        processor.append(new Append(streamSegmentName, clientId, 2, buffer(data), null));
+        verify(connection, times(0)).pauseReading();
+
+        // Going over the limit pauses the connection (only once).
+        processor.append(new Append(streamSegmentName, clientId, 3, buffer(data), null));
+        processor.append(new Append(streamSegmentName, clientId, 4, buffer(data), null));
+        verify(connection, times(1)).pauseReading();
+        verify(connection, times(0)).resumeReading();
+
+        // Once the waiting appends have been written, the connection is resumed.
+        byte[] combined = new byte[data.length * 3];
+        for (int i = 0; i < 3; i++) {
+            System.arraycopy(data, 0, combined, i * data.length, data.length);
+        }
+
+        when(store.append(streamSegmentName, Unpooled.wrappedBuffer(combined), updateEventNumber(clientId, 4, 1, 3), AppendProcessor.TIMEOUT))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        result1.complete(null);
+        verify(store).append(streamSegmentName, Unpooled.wrappedBuffer(combined), updateEventNumber(clientId, 4, 1, 3), AppendProcessor.TIMEOUT);
+        verify(connection).send(new DataAppended(clientId, 4, 1));
+        verify(connection, times(1)).pauseReading();
+        verify(connection, times(1)).resumeReading();
+    }
+
     @Test
     public void testAppendFails() {
         String streamSegmentName = "testAppendSegment";
@@ -289,13 +445,13 @@ public class AppendProcessorTest {
         setupGetStreamSegmentInfo(streamSegmentName, clientId, store);
         CompletableFuture<Void> result = new CompletableFuture<>();
         result.completeExceptionally(new RuntimeException("Fake exception for testing"));
-        when(store.append(streamSegmentName, data, updateEventNumber(clientId, data.length), AppendProcessor.TIMEOUT))
+        when(store.append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, data.length), AppendProcessor.TIMEOUT))
             .thenReturn(result);
 
         processor.setupAppend(new SetupAppend(1, clientId, streamSegmentName));
-        processor.append(new Append(streamSegmentName, clientId, data.length, Unpooled.wrappedBuffer(data), null));
+        processor.append(new Append(streamSegmentName, clientId, data.length, buffer(data), null));
         try {
-            processor.append(new Append(streamSegmentName, clientId, data.length * 2, Unpooled.wrappedBuffer(data), null));
+            processor.append(new Append(streamSegmentName, clientId, data.length * 2, buffer(data), null));
             fail();
         } catch (IllegalStateException e) {
             // Expected
@@ -303,7 +459,7 @@ public class AppendProcessorTest {
         verify(connection).send(new AppendSetup(1, streamSegmentName, clientId, 0));
         verify(connection, atLeast(0)).resumeReading();
         verify(connection).close();
-        verify(store, atMost(1)).append(any(), any(), any(), any());
+        verify(store, atMost(1)).append(any(), any(ByteBuf.class), any(), any());
         verifyNoMoreInteractions(connection);
     }
 
@@ -324,11 +480,11 @@ public class AppendProcessorTest {
         
         CompletableFuture<Void> result = CompletableFuture.completedFuture(null);
         int eventCount = 100;
-        when(store.append(streamSegmentName, data,
+        when(store.append(streamSegmentName, Unpooled.wrappedBuffer(data),
                           updateEventNumber(clientId, 100, SegmentMetadata.NULL_ATTRIBUTE_VALUE, eventCount),
                           AppendProcessor.TIMEOUT)).thenReturn(result);
-        processor.append(new Append(streamSegmentName, clientId, 100, eventCount, Unpooled.wrappedBuffer(data), null));
-        verify(store).append(streamSegmentName, data,
+        processor.append(new Append(streamSegmentName, clientId, 100, eventCount, buffer(data), null));
+        verify(store).append(streamSegmentName, Unpooled.wrappedBuffer(data),
                              updateEventNumber(clientId, 100, SegmentMetadata.NULL_ATTRIBUTE_VALUE, eventCount),
                              AppendProcessor.TIMEOUT);
 
@@ -337,10 +493,10 @@ public class AppendProcessorTest {
         map.put(EVENT_COUNT, 100L);
         propsFuture = CompletableFuture.completedFuture(StreamSegmentInformation.builder().name(streamSegmentName).attributes(map).build());
 
-        when(store.append(streamSegmentName, data, updateEventNumber(clientId, 200, 100, eventCount),
+        when(store.append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 200, 100, eventCount),
                           AppendProcessor.TIMEOUT)).thenReturn(result);
-        processor.append(new Append(streamSegmentName, clientId, 200, eventCount, Unpooled.wrappedBuffer(data), null));
-        verify(store).append(streamSegmentName, data, updateEventNumber(clientId, 200, 100, eventCount),
+        processor.append(new Append(streamSegmentName, clientId, 200, eventCount, buffer(data), null));
+        verify(store).append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 200, 100, eventCount),
                              AppendProcessor.TIMEOUT);
 
         verifyNoMoreInteractions(store);
@@ -387,34 +543,32 @@ public class AppendProcessorTest {
 
         CompletableFuture<Void> result = CompletableFuture.completedFuture(null);
         int eventCount = 100;
-        when(store.append(streamSegmentName, data,
+        when(store.append(streamSegmentName, Unpooled.wrappedBuffer(data),
                 updateEventNumber(clientId, 100, SegmentMetadata.NULL_ATTRIBUTE_VALUE, eventCount),
                 AppendProcessor.TIMEOUT)).thenReturn(result);
 
         //Trigger the first append, here the sending of DataAppended ack will be delayed/hung.
-        nettyExecutor.submit(() -> processor.append(new Append(streamSegmentName, clientId, 100, eventCount, Unpooled
-                .wrappedBuffer(data), null)));
+        nettyExecutor.submit(() -> processor.append(new Append(streamSegmentName, clientId, 100, eventCount, buffer(data), null)));
         firstStoreAppendInvoked.await();
-        verify(store).append(streamSegmentName, data, updateEventNumber(clientId, 100, SegmentMetadata
+        verify(store).append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 100, SegmentMetadata
                 .NULL_ATTRIBUTE_VALUE, eventCount), AppendProcessor.TIMEOUT);
 
         /* Trigger the next append. This should be completed immediately and should not cause a store.append to be
         invoked as the previous DataAppended ack is still not sent. */
-        processor.append(new Append(streamSegmentName, clientId, 200, eventCount, Unpooled
-                .wrappedBuffer(data),
+        processor.append(new Append(streamSegmentName, clientId, 200, eventCount, buffer(data),
                 null));
 
         //Since the first Ack was never sent the next append should not be written to the store.
         verifyNoMoreInteractions(store);
 
         //Setup mock for check behaviour after the delayed/hung dataAppended completes.
-        when(store.append(streamSegmentName, data, updateEventNumber(clientId, 200, 100, eventCount),
+        when(store.append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 200, 100, eventCount),
                 AppendProcessor.TIMEOUT)).thenReturn(result);
         completeFirstDataAppendedAck.release(); //Now ensure the dataAppended sent
         secondStoreAppendInvoked.await(); // wait until the next store append is invoked.
 
         //Verify that the next store append invoked.
-        verify(store).append(streamSegmentName, data, updateEventNumber(clientId, 200, 100, eventCount),
+        verify(store).append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 200, 100, eventCount),
                 AppendProcessor.TIMEOUT);
         //Verify two DataAppended acks are sent out.
         verify(connection, times(2)).send(any(DataAppended.class));
@@ -443,16 +597,16 @@ public class AppendProcessorTest {
 
         int eventCount = 10;
         CompletableFuture<Void> result = CompletableFuture.completedFuture(null);
-        when(store.append(streamSegmentName, data, updateEventNumber(clientId, 200, 100, eventCount),
+        when(store.append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 200, 100, eventCount),
                           AppendProcessor.TIMEOUT)).thenReturn(result);
-        processor.append(new Append(streamSegmentName, clientId, 200, eventCount, Unpooled.wrappedBuffer(data), null));
-        verify(store).append(streamSegmentName, data, updateEventNumber(clientId, 200, 100, eventCount),
+        processor.append(new Append(streamSegmentName, clientId, 200, eventCount, buffer(data), null));
+        verify(store).append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 200, 100, eventCount),
                              AppendProcessor.TIMEOUT);
 
-        when(store.append(streamSegmentName, data, updateEventNumber(clientId, 300, 200, eventCount),
+        when(store.append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 300, 200, eventCount),
                           AppendProcessor.TIMEOUT)).thenReturn(result);
-        processor.append(new Append(streamSegmentName, clientId, 300, eventCount, Unpooled.wrappedBuffer(data), null));
-        verify(store).append(streamSegmentName, data, updateEventNumber(clientId, 300, 200, eventCount),
+        processor.append(new Append(streamSegmentName, clientId, 300, eventCount, buffer(data), null));
+        verify(store).append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, 300, 200, eventCount),
                              AppendProcessor.TIMEOUT);
         
         verifyNoMoreInteractions(store);
@@ -470,14 +624,14 @@ public class AppendProcessorTest {
 
         setupGetStreamSegmentInfo(streamSegmentName, clientId, store);
         CompletableFuture<Void> result = Futures.failedFuture(new UnsupportedOperationException());
-        when(store.append(streamSegmentName, data, updateEventNumber(clientId, data.length), AppendProcessor.TIMEOUT))
+        when(store.append(streamSegmentName, Unpooled.wrappedBuffer(data), updateEventNumber(clientId, data.length), AppendProcessor.TIMEOUT))
                 .thenReturn(result);
 
         processor.setupAppend(new SetupAppend(1, clientId, streamSegmentName));
-        processor.append(new Append(streamSegmentName, clientId, data.length, Unpooled.wrappedBuffer(data), null));
+        processor.append(new Append(streamSegmentName, clientId, data.length, buffer(data), null));
         verify(store).getStreamSegmentInfo(anyString(), eq(true), eq(AppendProcessor.TIMEOUT));
         verify(store).append(streamSegmentName,
-                data,
+                Unpooled.wrappedBuffer(data),
                 updateEventNumber(clientId, data.length),
                 AppendProcessor.TIMEOUT);
 
@@ -494,6 +648,12 @@ public class AppendProcessorTest {
         fail();
     }
 
+    private ByteBuf buffer(byte[] data) {
+        // AppendProcessor releases the Append's data once it has been stored. Prevent that from happening here so that
+        // the arguments recorded by the mocked store can still be verified afterwards.
+        return Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(data));
+    }
+
     private Collection<AttributeUpdate> updateEventNumber(UUID clientId, long eventNum) {
         return updateEventNumber(clientId, eventNum, 0, 1);
     }
@@ -38,6 +38,8 @@ import java.io.ByteArrayInputStream;
 import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
@@ -75,6 +77,7 @@ public class PravegaRequestProcessorTest {
         final long streamSegmentStartOffset;
         final int maxResultLength;
         boolean closed = false;
+        boolean copyOnRead = true;
         final List<ReadResultEntry> results;
         long currentOffset = 0;
 
@@ -217,6 +220,131 @@ public class PravegaRequestProcessorTest {
         verifyNoMoreInteractions(store);
     }
 
+    @Test(timeout = 20000)
+    public void testReadSegments() {
+        // Set up three Segments: one with cached data, one at its end and one which has to wait for its data.
+        String cachedSegment = "testReadSegmentsCached";
+        String sealedSegment = "testReadSegmentsSealed";
+        String futureSegment = "testReadSegmentsFuture";
+        byte[] data = new byte[]{1, 2, 3, 4, 6, 7, 8, 9};
+        int readLength = 1000;
+
+        StreamSegmentStore store = mock(StreamSegmentStore.class);
+        ServerConnection connection = mock(ServerConnection.class);
+        PravegaRequestProcessor processor = new PravegaRequestProcessor(store, connection);
+
+        TestReadResultEntry cachedEntry = new TestReadResultEntry(ReadResultEntryType.Cache, 0, readLength);
+        cachedEntry.complete(new ReadResultEntryContents(new ByteArrayInputStream(data), data.length));
+        TestReadResultEntry cachedTail = new TestReadResultEntry(ReadResultEntryType.Future, data.length, readLength);
+        when(store.read(cachedSegment, 0, readLength, PravegaRequestProcessor.TIMEOUT)).thenReturn(
+                CompletableFuture.completedFuture(new TestReadResult(0, readLength, Arrays.asList(cachedEntry, cachedTail))));
+
+        TestReadResultEntry sealedEntry = new TestReadResultEntry(ReadResultEntryType.EndOfStreamSegment, 10, readLength);
+        when(store.read(sealedSegment, 10, readLength, PravegaRequestProcessor.TIMEOUT)).thenReturn(
+                CompletableFuture.completedFuture(new TestReadResult(10, readLength, Collections.singletonList(sealedEntry))));
+
+        TestReadResultEntry futureEntry = new TestReadResultEntry(ReadResultEntryType.Future, 20, readLength);
+        when(store.read(futureSegment, 20, readLength, PravegaRequestProcessor.TIMEOUT)).thenReturn(
+                CompletableFuture.completedFuture(new TestReadResult(20, readLength, Collections.singletonList(futureEntry))));
+
+        // The immediately available replies are sent back in a single batch.
+        processor.readSegments(new WireCommands.ReadSegments(Arrays.asList(
+                new WireCommands.ReadSegment(cachedSegment, 0, readLength),
+                new WireCommands.ReadSegment(sealedSegment, 10, readLength),
+                new WireCommands.ReadSegment(futureSegment, 20, readLength))));
+        verify(connection).send(new WireCommands.SegmentsRead(Arrays.asList(
+                new WireCommands.SegmentRead(cachedSegment, 0, true, false, ByteBuffer.wrap(data)),
+                new WireCommands.SegmentRead(sealedSegment, 10, false, true, ByteBuffer.wrap(new byte[0])))));
+        verifyNoMoreInteractions(connection);
+
+        // The remaining one is sent on its own, once its data becomes available.
+        futureEntry.complete(new ReadResultEntryContents(new ByteArrayInputStream(data), data.length));
+        verify(connection).send(new WireCommands.SegmentRead(futureSegment, 20, false, false, ByteBuffer.wrap(data)));
+        verifyNoMoreInteractions(connection);
+    }
+
+    @Test(timeout = 20000)
+    public void testSubscribeSegment() {
+        String streamSegmentName = "testSubscribeSegment";
+        byte[] data = new byte[]{1, 2, 3, 4, 6, 7, 8, 9};
+        int credits = 1000;
+
+        StreamSegmentStore store = mock(StreamSegmentStore.class);
+        ServerConnection connection = mock(ServerConnection.class);
+        PravegaRequestProcessor processor = new PravegaRequestProcessor(store, connection);
+
+        // First read: some cached data, followed by the tail of the Segment.
+        TestReadResultEntry entry1 = new TestReadResultEntry(ReadResultEntryType.Cache, 0, credits);
+        entry1.complete(new ReadResultEntryContents(new ByteArrayInputStream(data), data.length));
+        TestReadResultEntry entry2 = new TestReadResultEntry(ReadResultEntryType.Future, data.length, credits);
+        List<ReadResultEntry> results = new ArrayList<>();
+        results.add(entry1);
+        results.add(entry2);
+        when(store.read(streamSegmentName, 0, credits, PravegaRequestProcessor.TIMEOUT))
+                .thenReturn(CompletableFuture.completedFuture(new TestReadResult(0, credits, results)));
+
+        // Second read: we are at the tail, so we need to wait for data.
+        int secondLength = credits - data.length;
+        TestReadResultEntry tailEntry = new TestReadResultEntry(ReadResultEntryType.Future, data.length, secondLength);
+        results = new ArrayList<>();
+        results.add(tailEntry);
+        when(store.read(streamSegmentName, data.length, secondLength, PravegaRequestProcessor.TIMEOUT))
+                .thenReturn(CompletableFuture.completedFuture(new TestReadResult(data.length, secondLength, results)));
+
+        // Third read: the Segment has been sealed. This should end the subscription.
+        int thirdLength = secondLength - data.length + credits;
+        results = new ArrayList<>();
+        results.add(new TestReadResultEntry(ReadResultEntryType.EndOfStreamSegment, 2 * data.length, thirdLength));
+        when(store.read(streamSegmentName, 2 * data.length, thirdLength, PravegaRequestProcessor.TIMEOUT))
+                .thenReturn(CompletableFuture.completedFuture(new TestReadResult(2 * data.length, thirdLength, results)));
+
+        processor.subscribeSegment(new WireCommands.SubscribeSegment(streamSegmentName, 0, credits));
+        verify(connection).send(new WireCommands.SegmentRead(streamSegmentName, 0, true, false, ByteBuffer.wrap(data)));
+        verify(store).read(streamSegmentName, data.length, secondLength, PravegaRequestProcessor.TIMEOUT);
+
+        // Credits are added to the subscription; they are used by the next read.
+        processor.grantReadCredit(new WireCommands.GrantReadCredit(streamSegmentName, credits));
+        verifyNoMoreInteractions(connection);
+
+        // Data is pushed as soon as it is appended, without the client having to ask for it.
+        tailEntry.complete(new ReadResultEntryContents(new ByteArrayInputStream(data), data.length));
+        verify(connection).send(new WireCommands.SegmentRead(streamSegmentName, data.length, false, false, ByteBuffer.wrap(data)));
+        verify(connection).send(new WireCommands.SegmentRead(streamSegmentName, 2 * data.length, false, true, ByteBuffer.wrap(new byte[0])));
+
+        // The subscription has ended; further credits have no effect.
+        processor.grantReadCredit(new WireCommands.GrantReadCredit(streamSegmentName, credits));
+        verify(store, Mockito.times(3)).read(anyString(), Mockito.anyLong(), Mockito.anyInt(), any());
+        verifyNoMoreInteractions(connection);
+    }
+
+    @Test(timeout = 20000)
+    public void testSubscribeSegmentCreditsAndConnectionClosed() {
+        String streamSegmentName = "testSubscribeSegmentCreditsAndConnectionClosed";
+        byte[] data = new byte[]{1, 2, 3, 4, 6, 7, 8, 9};
+        int credits = 4; // Fewer than the size of a wire command header, and fewer than the data available.
+
+        StreamSegmentStore store = mock(StreamSegmentStore.class);
+        ServerConnection connection = mock(ServerConnection.class);
+        PravegaRequestProcessor processor = new PravegaRequestProcessor(store, connection);
+
+        // The read may not be larger than the granted credits.
+        TestReadResultEntry tailEntry = new TestReadResultEntry(ReadResultEntryType.Future, 0, credits);
+        List<ReadResultEntry> results = new ArrayList<>();
+        results.add(tailEntry);
+        when(store.read(streamSegmentName, 0, credits, PravegaRequestProcessor.TIMEOUT))
+                .thenReturn(CompletableFuture.completedFuture(new TestReadResult(0, credits, results)));
+
+        processor.subscribeSegment(new WireCommands.SubscribeSegment(streamSegmentName, 0, credits));
+        verify(store).read(streamSegmentName, 0, credits, PravegaRequestProcessor.TIMEOUT);
+
+        // Once the connection is closed, the subscription is gone: nothing else is read or sent.
+        processor.connectionClosed();
+        processor.grantReadCredit(new WireCommands.GrantReadCredit(streamSegmentName, credits));
+        tailEntry.complete(new ReadResultEntryContents(new ByteArrayInputStream(data), credits));
+        verify(store, Mockito.times(1)).read(anyString(), Mockito.anyLong(), Mockito.anyInt(), any());
+        verifyNoMoreInteractions(connection);
+    }
+
     @Test(timeout = 20000)
     public void testCreateSegment() throws Exception {
         // Set up PravegaRequestProcessor instance to execute requests against
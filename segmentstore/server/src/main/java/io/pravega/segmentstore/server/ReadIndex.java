@@ -9,6 +9,8 @@
  */
 package io.pravega.segmentstore.server;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.pravega.segmentstore.contracts.ReadResult;
 
 import java.io.InputStream;
@@ -30,7 +32,22 @@ public interface ReadIndex extends AutoCloseable {
      * @throws IllegalArgumentException If the offset does not match the expected value (end of StreamSegment in ReadIndex).
      * @throws IllegalArgumentException If the offset + data.length exceeds the metadata Length of the StreamSegment.
      */
-    void append(long streamSegmentId, long offset, byte[] data);
+    default void append(long streamSegmentId, long offset, byte[] data) {
+        append(streamSegmentId, offset, Unpooled.wrappedBuffer(data));
+    }
+
+    /**
+     * Appends a range of bytes at the end of the Read Index for the given StreamSegmentId.
+     *
+     * @param streamSegmentId The Id of the StreamSegment to append to.
+     * @param offset          The offset in the StreamSegment where to write this append. The offset must be at the end
+     *                        of the StreamSegment as it exists in the ReadIndex.
+     * @param data            A ByteBuf containing the data to append (between its reader and writer indices). The
+     *                        contents are copied into the Cache, so the ByteBuf need not be retained after this call.
+     * @throws IllegalArgumentException If the offset does not match the expected value (end of StreamSegment in ReadIndex).
+     * @throws IllegalArgumentException If the offset + data length exceeds the metadata Length of the StreamSegment.
+     */
+    void append(long streamSegmentId, long offset, ByteBuf data);
 
     /**
      * Executes Step 1 of the 2-Step Merge Process.
@@ -149,6 +149,12 @@ public final class SegmentStoreMetrics {
          */
         private final OpStatsLogger processOperationsLatency;
         private final OpStatsLogger processOperationsBatchSize;
+
+        /**
+         * Amount of time spent recovering the OperationLog (from the beginning of recovery until the Container is able
+         * to accept new operations).
+         */
+        private final OpStatsLogger recoveryLatency;
         private final String operationLogSize;
 
         public OperationProcessor(int containerId) {
@@ -162,6 +168,7 @@ public final class SegmentStoreMetrics {
             this.metadataCommitTxnCount = STATS_LOGGER.createStats(MetricsNames.nameFromContainer(MetricsNames.OPERATION_COMMIT_METADATA_TXN_COUNT, containerId));
             this.processOperationsLatency = STATS_LOGGER.createStats(MetricsNames.nameFromContainer(MetricsNames.PROCESS_OPERATIONS_LATENCY, containerId));
             this.processOperationsBatchSize = STATS_LOGGER.createStats(MetricsNames.nameFromContainer(MetricsNames.PROCESS_OPERATIONS_BATCH_SIZE, containerId));
+            this.recoveryLatency = STATS_LOGGER.createStats(MetricsNames.nameFromContainer(MetricsNames.OPERATION_LOG_RECOVERY_LATENCY, containerId));
             this.operationLogSize = "segmentstore." + MetricsNames.nameFromContainer(MetricsNames.OPERATION_LOG_SIZE, containerId);
         }
 
@@ -177,6 +184,7 @@ public final class SegmentStoreMetrics {
             this.metadataCommitTxnCount.close();
             this.processOperationsLatency.close();
             this.processOperationsBatchSize.close();
+            this.recoveryLatency.close();
         }
 
         public void currentState(int queueSize, int inFlightCount) {
@@ -210,6 +218,14 @@ public final class SegmentStoreMetrics {
             this.processOperationsLatency.reportSuccessValue(millis);
         }
 
+        public void recoveryCompleted(Duration elapsed) {
+            this.recoveryLatency.reportSuccessEvent(elapsed);
+        }
+
+        public void recoveryFailed(Duration elapsed) {
+            this.recoveryLatency.reportFailEvent(elapsed);
+        }
+
         public void operationsCompleted(int operationCount, Duration commitElapsed) {
             DYNAMIC_LOGGER.incCounterValue(this.operationLogSize, operationCount);
             this.operationCommitLatency.reportSuccessEvent(commitElapsed);
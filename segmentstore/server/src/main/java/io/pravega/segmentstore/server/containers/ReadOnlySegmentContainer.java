@@ -12,32 +12,38 @@ package io.pravega.segmentstore.server.containers;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.AbstractIdleService;
+import io.netty.buffer.ByteBuf;
 import io.pravega.common.Exceptions;
 import io.pravega.common.TimeoutTimer;
 import io.pravega.common.concurrent.Futures;
 import io.pravega.common.concurrent.Services;
-import io.pravega.common.util.AsyncMap;
 import io.pravega.segmentstore.contracts.AttributeUpdate;
 import io.pravega.segmentstore.contracts.ReadResult;
 import io.pravega.segmentstore.contracts.SegmentProperties;
 import io.pravega.segmentstore.server.SegmentContainer;
 import io.pravega.segmentstore.server.reading.StreamSegmentStorageReader;
-import io.pravega.segmentstore.storage.ReadOnlyStorage;
 import io.pravega.segmentstore.storage.Storage;
 import io.pravega.segmentstore.storage.StorageFactory;
+import io.pravega.shared.segment.SegmentToContainerMapper;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.concurrent.GuardedBy;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * A slimmed down version of StreamSegmentContainer that is only able to perform reads from Storage. This SegmentContainer
  * cannot make any modifications to any Segments, nor can it create new or delete existing ones. It also cannot access data
  * that exists solely in DurableDataLog (which has not yet been transferred into permanent Storage).
+ *
+ * Each Segment is read using a Storage adapter for the (regular) Segment Container that owns it, since such adapters may
+ * only be able to access the Segments of their own Container (see StorageFactory.createStorageAdapter(int)).
  */
 @Slf4j
 class ReadOnlySegmentContainer extends AbstractIdleService implements SegmentContainer {
@@ -47,9 +53,10 @@ class ReadOnlySegmentContainer extends AbstractIdleService implements SegmentCon
     private static final int CONTAINER_ID = Integer.MAX_VALUE; // So that it doesn't collide with any other real Container Id.
     private static final int CONTAINER_EPOCH = 1; // This guarantees that any write operations should be fenced out if attempted.
 
-    private final AsyncMap<String, SegmentState> stateStore;
-    private final SegmentStateMapper segmentStateMapper;
-    private final ReadOnlyStorage storage;
+    private final StorageFactory storageFactory;
+    private final SegmentToContainerMapper segmentToContainerMapper;
+    @GuardedBy("storages")
+    private final HashMap<Integer, ContainerStorage> storages;
     private final ScheduledExecutorService executor;
     private final AtomicBoolean closed;
 
@@ -60,16 +67,17 @@ class ReadOnlySegmentContainer extends AbstractIdleService implements SegmentCon
     /**
      * Creates a new instance of the ReadOnlySegmentContainer class.
      *
-     * @param storageFactory A StorageFactory used to create Storage adapters.
-     * @param executor       An Executor to use for async operations.
+     * @param storageFactory           A StorageFactory used to create Storage adapters.
+     * @param segmentToContainerMapper A SegmentToContainerMapper used to determine which Segment Container owns each
+     *                                 Segment.
+     * @param executor                 An Executor to use for async operations.
      */
-    ReadOnlySegmentContainer(StorageFactory storageFactory, ScheduledExecutorService executor) {
-        Preconditions.checkNotNull(storageFactory, "storageFactory");
+    ReadOnlySegmentContainer(StorageFactory storageFactory, SegmentToContainerMapper segmentToContainerMapper,
+                             ScheduledExecutorService executor) {
+        this.storageFactory = Preconditions.checkNotNull(storageFactory, "storageFactory");
+        this.segmentToContainerMapper = Preconditions.checkNotNull(segmentToContainerMapper, "segmentToContainerMapper");
         this.executor = Preconditions.checkNotNull(executor, "executor");
-        Storage writableStorage = storageFactory.createStorageAdapter();
-        this.storage = writableStorage;
-        this.stateStore = new SegmentStateStore(writableStorage, this.executor);
-        this.segmentStateMapper = new SegmentStateMapper(this.stateStore, writableStorage);
+        this.storages = new HashMap<>();
         this.closed = new AtomicBoolean();
     }
 
@@ -81,7 +89,13 @@ class ReadOnlySegmentContainer extends AbstractIdleService implements SegmentCon
     public void close() {
         if (this.closed.compareAndSet(false, true)) {
             Futures.await(Services.stopAsync(this, this.executor));
-            this.storage.close();
+            ArrayList<ContainerStorage> toClose;
+            synchronized (this.storages) {
+                toClose = new ArrayList<>(this.storages.values());
+                this.storages.clear();
+            }
+
+            toClose.forEach(s -> s.storage.close());
             log.info("Closed.");
         }
     }
@@ -97,7 +111,7 @@ class ReadOnlySegmentContainer extends AbstractIdleService implements SegmentCon
 
     @Override
     protected void startUp() {
-        this.storage.initialize(CONTAINER_EPOCH);
+        // Storage adapters are created (and initialized) upon first access to a Segment of their Container.
         log.info("Started.");
     }
 
@@ -119,14 +133,23 @@ class ReadOnlySegmentContainer extends AbstractIdleService implements SegmentCon
     public CompletableFuture<ReadResult> read(String streamSegmentName, long offset, int maxLength, Duration timeout) {
         Exceptions.checkNotClosed(this.closed.get(), this);
         TimeoutTimer timer = new TimeoutTimer(timeout);
-        return getStreamSegmentInfo(streamSegmentName, false, timer.getRemaining())
-                .thenApply(si -> StreamSegmentStorageReader.read(si, offset, maxLength, MAX_READ_AT_ONCE_BYTES, this.storage));
+        ContainerStorage s = getStorage(streamSegmentName);
+        return s.segmentStateMapper.getSegmentInfoFromStorage(streamSegmentName, timer.getRemaining())
+                .thenApply(si -> StreamSegmentStorageReader.read(si, offset, maxLength, MAX_READ_AT_ONCE_BYTES, s.storage));
     }
 
     @Override
     public CompletableFuture<SegmentProperties> getStreamSegmentInfo(String streamSegmentName, boolean waitForPendingOps, Duration timeout) {
         Exceptions.checkNotClosed(this.closed.get(), this);
-        return this.segmentStateMapper.getSegmentInfoFromStorage(streamSegmentName, timeout);
+        return getStorage(streamSegmentName).segmentStateMapper.getSegmentInfoFromStorage(streamSegmentName, timeout);
+    }
+
+    private ContainerStorage getStorage(String streamSegmentName) {
+        int containerId = this.segmentToContainerMapper.getContainerId(streamSegmentName);
+        synchronized (this.storages) {
+            Exceptions.checkNotClosed(this.closed.get(), this);
+            return this.storages.computeIfAbsent(containerId, id -> new ContainerStorage(this.storageFactory.createStorageAdapter(id)));
+        }
     }
 
 
@@ -149,6 +172,16 @@ class ReadOnlySegmentContainer extends AbstractIdleService implements SegmentCon
         return unsupported("append");
     }
 
+    @Override
+    public CompletableFuture<Void> append(String streamSegmentName, ByteBuf data, Collection<AttributeUpdate> attributeUpdates, Duration timeout) {
+        return unsupported("append");
+    }
+
+    @Override
+    public CompletableFuture<Void> append(String streamSegmentName, long offset, ByteBuf data, Collection<AttributeUpdate> attributeUpdates, Duration timeout) {
+        return unsupported("append");
+    }
+
     @Override
     public CompletableFuture<Void> updateAttributes(String streamSegmentName, Collection<AttributeUpdate> attributeUpdates, Duration timeout) {
         return unsupported("updateAttributes");
@@ -189,4 +222,22 @@ class ReadOnlySegmentContainer extends AbstractIdleService implements SegmentCon
     }
 
     //endregion
+
+    //region ContainerStorage
+
+    /**
+     * The Storage adapter (and the means to get Segment information from it) for a single Segment Container.
+     */
+    private class ContainerStorage {
+        final Storage storage;
+        final SegmentStateMapper segmentStateMapper;
+
+        ContainerStorage(Storage storage) {
+            storage.initialize(CONTAINER_EPOCH);
+            this.storage = storage;
+            this.segmentStateMapper = new SegmentStateMapper(new SegmentStateStore(storage, executor), storage);
+        }
+    }
+
+    //endregion
 }
@@ -13,6 +13,7 @@ import com.google.common.base.Preconditions;
 import io.pravega.segmentstore.server.SegmentContainer;
 import io.pravega.segmentstore.server.SegmentContainerFactory;
 import io.pravega.segmentstore.storage.StorageFactory;
+import io.pravega.shared.segment.SegmentToContainerMapper;
 import java.util.concurrent.ScheduledExecutorService;
 
 /**
@@ -21,17 +22,22 @@ import java.util.concurrent.ScheduledExecutorService;
 public class ReadOnlySegmentContainerFactory implements SegmentContainerFactory {
     public static final int READONLY_CONTAINER_ID = 0;
     private final StorageFactory storageFactory;
+    private final SegmentToContainerMapper segmentToContainerMapper;
     private final ScheduledExecutorService executor;
 
     /**
      * Creates a new instance of the ReadOnlySegmentContainerFactory.
      *
-     * @param storageFactory The Storage Factory to use for every container creation.
-     * @param executor       The Executor to use for running async tasks.
+     * @param storageFactory           The Storage Factory to use for every container creation.
+     * @param segmentToContainerMapper A SegmentToContainerMapper that maps Segments to the (regular) Segment Containers
+     *                                 that own them in Storage.
+     * @param executor                 The Executor to use for running async tasks.
      * @throws NullPointerException If any of the arguments are null.
      */
-    public ReadOnlySegmentContainerFactory(StorageFactory storageFactory, ScheduledExecutorService executor) {
+    public ReadOnlySegmentContainerFactory(StorageFactory storageFactory, SegmentToContainerMapper segmentToContainerMapper,
+                                           ScheduledExecutorService executor) {
         this.storageFactory = Preconditions.checkNotNull(storageFactory, "storageFactory");
+        this.segmentToContainerMapper = Preconditions.checkNotNull(segmentToContainerMapper, "segmentToContainerMapper");
         this.executor = Preconditions.checkNotNull(executor, "executor");
     }
 
@@ -39,6 +45,6 @@ public class ReadOnlySegmentContainerFactory implements SegmentContainerFactory
     public SegmentContainer createStreamSegmentContainer(int containerId) {
         Preconditions.checkArgument(containerId == READONLY_CONTAINER_ID,
                 "ReadOnly Containers can only have Id %s.", READONLY_CONTAINER_ID);
-        return new ReadOnlySegmentContainer(this.storageFactory, this.executor);
+        return new ReadOnlySegmentContainer(this.storageFactory, this.segmentToContainerMapper, this.executor);
     }
 }
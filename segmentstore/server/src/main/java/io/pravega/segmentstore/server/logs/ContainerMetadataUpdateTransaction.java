@@ -23,6 +23,7 @@ import io.pravega.segmentstore.server.SegmentMetadata;
 import io.pravega.segmentstore.server.UpdateableContainerMetadata;
 import io.pravega.segmentstore.server.UpdateableSegmentMetadata;
 import io.pravega.segmentstore.server.containers.StreamSegmentMetadata;
+import io.pravega.segmentstore.server.logs.operations.IncrementalMetadataCheckpointOperation;
 import io.pravega.segmentstore.server.logs.operations.MergeTransactionOperation;
 import io.pravega.segmentstore.server.logs.operations.MetadataCheckpointOperation;
 import io.pravega.segmentstore.server.logs.operations.Operation;
@@ -335,6 +336,9 @@ class ContainerMetadataUpdateTransaction implements ContainerMetadata {
         } else if (operation instanceof MetadataCheckpointOperation) {
             // MetadataCheckpointOperations do not require preProcess and accept; they can be handled in a single stage.
             processMetadataOperation((MetadataCheckpointOperation) operation);
+        } else if (operation instanceof IncrementalMetadataCheckpointOperation) {
+            // IncrementalMetadataCheckpointOperations do not require preProcess and accept; they can be handled in a single stage.
+            processMetadataOperation((IncrementalMetadataCheckpointOperation) operation);
         } else if (operation instanceof StorageMetadataCheckpointOperation) {
             // StorageMetadataCheckpointOperation do not require preProcess and accept; they can be handled in a single stage.
             processMetadataOperation((StorageMetadataCheckpointOperation) operation);
@@ -435,6 +439,27 @@ class ContainerMetadataUpdateTransaction implements ContainerMetadata {
         }
     }
 
+    private void processMetadataOperation(IncrementalMetadataCheckpointOperation operation) throws MetadataUpdateException {
+        try {
+            if (this.recoveryMode) {
+                // In Recovery Mode, an IncrementalMetadataCheckpointOperation contains the up-to-date state of all the
+                // Segments that changed since the previous checkpoint. It only makes sense to apply it on top of a
+                // full MetadataCheckpoint; any that precede the first full MetadataCheckpoint are ignored.
+                if (!this.processedCheckpoint) {
+                    log.info("{}: Skipping recovering IncrementalMetadataCheckpointOperation with SequenceNumber {} because no MetadataCheckpointOperation has been recovered yet.", this.traceObjectId, operation.getSequenceNumber());
+                    return;
+                }
+
+                log.debug("{}: Recovering IncrementalMetadataCheckpointOperation with SequenceNumber {}.", this.traceObjectId, operation.getSequenceNumber());
+                updateFrom(operation);
+            } else {
+                serializeTo(operation);
+            }
+        } catch (IOException | SerializationException ex) {
+            throw new MetadataUpdateException(this.containerId, "Unable to process IncrementalMetadataCheckpointOperation " + operation, ex);
+        }
+    }
+
     private void processMetadataOperation(StorageMetadataCheckpointOperation operation) throws MetadataUpdateException {
         try {
             if (this.recoveryMode) {
@@ -717,6 +742,39 @@ class ContainerMetadataUpdateTransaction implements ContainerMetadata {
         }
     }
 
+    /**
+     * Applies the updates stored in the given IncrementalMetadataCheckpointOperation.
+     *
+     * @param operation The IncrementalMetadataCheckpointOperation to update from.
+     * @throws IOException            If the stream threw one.
+     * @throws SerializationException If the given Stream is an invalid metadata serialization.
+     * @throws IllegalStateException  If the Metadata is not in Recovery Mode.
+     */
+    private void updateFrom(IncrementalMetadataCheckpointOperation operation) throws IOException, SerializationException {
+        Preconditions.checkState(this.recoveryMode, "Cannot bulk-update Metadata in non-recovery mode.");
+
+        DataInputStream stream = new DataInputStream(new GZIPInputStream(operation.getContents().getReader()));
+
+        // 1. Version.
+        byte version = stream.readByte();
+        if (version != CURRENT_SERIALIZATION_VERSION) {
+            throw new SerializationException("Metadata.updateFrom", String.format("Unsupported version: %d.", version));
+        }
+
+        // 2. Container id.
+        int containerId = stream.readInt();
+        if (this.containerId != containerId) {
+            throw new SerializationException("Metadata.updateFrom",
+                    String.format("Invalid ContainerId. Expected '%d', actual '%d'.", this.containerId, containerId));
+        }
+
+        // 3. Changed Stream Segments.
+        int segmentCount = stream.readInt();
+        for (int i = 0; i < segmentCount; i++) {
+            deserializeSegmentMetadata(stream);
+        }
+    }
+
     private void serializeTo(MetadataCheckpointOperation operation) throws IOException {
         assert operation != null : "operation is null";
         Preconditions.checkState(!this.recoveryMode, "Cannot serialize Metadata in recovery mode.");
@@ -758,6 +816,40 @@ class ContainerMetadataUpdateTransaction implements ContainerMetadata {
         operation.setContents(byteStream.getData());
     }
 
+    private void serializeTo(IncrementalMetadataCheckpointOperation operation) throws IOException {
+        assert operation != null : "operation is null";
+        Preconditions.checkState(!this.recoveryMode, "Cannot serialize Metadata in recovery mode.");
+
+        EnhancedByteArrayOutputStream byteStream = new EnhancedByteArrayOutputStream();
+        GZIPOutputStream zipStream = new GZIPOutputStream(byteStream);
+        DataOutputStream stream = new DataOutputStream(zipStream);
+
+        // 1. Version.
+        stream.writeByte(CURRENT_SERIALIZATION_VERSION);
+
+        // 2. Container Id.
+        stream.writeInt(this.containerId);
+
+        // 3. Changed Segment Metadata. These are the Segments in the base metadata that have been used since the previous
+        // checkpoint, all new Segments and all Segments with pending changes in this transaction.
+        long sinceSequenceNumber = operation.getPreviousCheckpointSequenceNumber();
+        Collection<SegmentMetadata> changedSegments = this.baseMetadata
+                .getAllStreamSegmentIds().stream()
+                .filter(segmentId -> !this.segmentUpdates.containsKey(segmentId))
+                .map(this.baseMetadata::getStreamSegmentMetadata)
+                .filter(sm -> sm.getLastUsed() > sinceSequenceNumber)
+                .collect(Collectors.toCollection(ArrayList::new));
+        this.newSegments.values().stream()
+                        .filter(sm -> !this.segmentUpdates.containsKey(sm.getId()))
+                        .forEach(changedSegments::add);
+        changedSegments.addAll(this.segmentUpdates.values());
+        stream.writeInt(changedSegments.size());
+        changedSegments.forEach(sm -> serializeSegmentMetadata(sm, stream));
+
+        zipStream.finish();
+        operation.setContents(byteStream.getData());
+    }
+
     private void serializeTo(StorageMetadataCheckpointOperation operation) throws IOException {
         assert operation != null : "operation is null";
         Preconditions.checkState(!this.recoveryMode, "Cannot serialize Metadata in recovery mode.");
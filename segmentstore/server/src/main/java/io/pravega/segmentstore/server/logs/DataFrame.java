@@ -20,6 +20,10 @@ import io.pravega.common.util.CloseableIterator;
 import io.pravega.segmentstore.storage.LogAddress;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 import javax.annotation.concurrent.NotThreadSafe;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -31,17 +35,38 @@ import static io.pravega.common.util.BitConverter.writeInt;
 /**
  * Helps serialize entries into fixed-size batches. Allows writing multiple records per frame, as well as splitting a record
  * across multiple frames.
+ *
+ * Starting with version 1, each serialized frame carries a CRC32 checksum of its (serialized) contents, which is verified
+ * upon deserialization. The contents of a frame may also be compressed (if compression was requested and it actually
+ * reduces the size of the frame), in which case the serialized contents are made up of the uncompressed length (4 bytes)
+ * followed by the Deflate-compressed contents.
+ *
+ * Frames are only written using version 1 if checksums or compression are enabled; otherwise they are written using
+ * version 0, which can be read by older versions of the code. Both versions can always be read.
  */
 @NotThreadSafe
 public class DataFrame {
     //region Members
 
     static final int MIN_ENTRY_LENGTH_NEEDED = EntryHeader.HEADER_SIZE + 1;
-    private static final byte CURRENT_VERSION = 0;
+    private static final byte VERSION_NO_CHECKSUM = 0;
+    private static final byte VERSION_CHECKSUM = 1;
     private final ByteArraySegment data;
+    private final boolean checksumEnabled;
+    private final boolean compressionEnabled;
     private FrameHeader header;
     private ByteArraySegment contents;
 
+    /**
+     * The serialization of this frame, if it had its contents compressed upon sealing. Null otherwise.
+     */
+    private ByteArraySegment compressedData;
+
+    /**
+     * A callback to invoke when the buffer this frame was created with is no longer needed. Null if none.
+     */
+    private Runnable onRelease;
+
     /**
      * The Frame Address within its serialization chain.
      * This value is not serialized with the data frame, rather it is assigned by the DataFrameBuilder or DataFrameReader
@@ -63,10 +88,14 @@ public class DataFrame {
     /**
      * Creates a new instance of a DataFrame.
      *
-     * @param source The ByteArraySegment to wrap.
+     * @param source             The ByteArraySegment to wrap.
+     * @param checksumEnabled    Whether to include a checksum of the contents of the frame when sealing it.
+     * @param compressionEnabled Whether to attempt to compress the contents of the frame when sealing it.
      */
-    private DataFrame(ByteArraySegment source) {
+    private DataFrame(ByteArraySegment source, boolean checksumEnabled, boolean compressionEnabled) {
         this.data = source;
+        this.checksumEnabled = checksumEnabled || compressionEnabled;
+        this.compressionEnabled = compressionEnabled;
         this.writeEntryStartIndex = -1;
         this.sealed = source.isReadOnly();
         this.writePosition = this.sealed ? -1 : 0;
@@ -80,7 +109,20 @@ public class DataFrame {
      */
     @VisibleForTesting
     static DataFrame ofSize(int maxSize) {
-        return wrap(new ByteArraySegment(new byte[maxSize]));
+        return ofSize(maxSize, false, false);
+    }
+
+    /**
+     * Creates a new instance of the DataFrame class with given maximum size.
+     * @param maxSize               The maximum size of the frame, including Frame Header and other control structures
+     *                              that the frame may use to organize records.
+     * @param checksumEnabled       Whether to include a checksum of the contents of the frame when sealing it.
+     * @param compressionEnabled    Whether to attempt to compress the contents of the frame when sealing it.
+     * @throws IllegalArgumentException When the value for startMagic is invalid.
+     */
+    @VisibleForTesting
+    static DataFrame ofSize(int maxSize, boolean checksumEnabled, boolean compressionEnabled) {
+        return wrap(new ByteArraySegment(new byte[maxSize]), checksumEnabled, compressionEnabled, null);
     }
 
     /**
@@ -94,7 +136,7 @@ public class DataFrame {
      */
     static DataFrame from(InputStream source, int length) throws IOException, SerializationException {
         ByteArraySegment s = new ByteArraySegment(StreamHelpers.readAll(source, length), 0, length, true);
-        DataFrame f = new DataFrame(s);
+        DataFrame f = new DataFrame(s, false, false);
         f.parse();
         return f;
     }
@@ -107,8 +149,24 @@ public class DataFrame {
      * @throws NullPointerException If the source is null.
      */
     static DataFrame wrap(ByteArraySegment target) {
+        return wrap(target, false, false, null);
+    }
+
+    /**
+     * Creates a new instance of the DataFrame class using the given byte array as target. The target will be formatted
+     * to be writable.
+     *
+     * @param target             The source ByteArraySegment.
+     * @param checksumEnabled    Whether to include a checksum of the contents of the frame when sealing it. Implied
+     *                           by compressionEnabled.
+     * @param compressionEnabled Whether to attempt to compress the contents of the frame when sealing it.
+     * @param onRelease          (Optional) A callback that will be invoked (once) when release() is called.
+     * @throws NullPointerException If the source is null.
+     */
+    static DataFrame wrap(ByteArraySegment target, boolean checksumEnabled, boolean compressionEnabled, Runnable onRelease) {
         Preconditions.checkArgument(!target.isReadOnly(), "Cannot deserialize non-readonly source.");
-        DataFrame f = new DataFrame(target);
+        DataFrame f = new DataFrame(target, checksumEnabled, compressionEnabled);
+        f.onRelease = onRelease;
         f.formatForWriting();
         return f;
     }
@@ -134,12 +192,27 @@ public class DataFrame {
     ArrayView getData() {
         if (this.data.isReadOnly()) {
             return this.data;
+        } else if (this.compressedData != null) {
+            // We have just created this frame and compressed it upon sealing.
+            return this.compressedData;
         } else {
             // We have just created this frame. Only return the segment of the buffer that contains data.
             return this.data.subSegment(0, getLength());
         }
     }
 
+    /**
+     * Gets a value indicating the number of bytes used from the buffer this frame was created with. For frames that have
+     * been compressed, this will be larger than getLength(), since the compressed serialization uses its own buffer.
+     */
+    int getBufferLength() {
+        if (this.compressedData != null) {
+            return this.header.getSerializationLength() + this.writePosition;
+        } else {
+            return getLength();
+        }
+    }
+
     /**
      * Gets a value indicating whether the DataFrame is empty (if it has no entries).
      */
@@ -274,11 +347,69 @@ public class DataFrame {
             Preconditions.checkState(writeEntryStartIndex < 0, "An open entry exists. Any open entries must be closed prior to sealing.");
 
             this.header.setContentLength(writePosition);
-            this.header.commit();
+            if (this.compressionEnabled && writePosition > 0) {
+                compress();
+            }
+
+            if (this.compressedData == null) {
+                if (this.header.hasChecksum()) {
+                    this.header.setChecksum(getChecksum(this.contents.subSegment(0, writePosition)));
+                }
+
+                this.header.commit();
+            }
+
             this.sealed = true;
         }
     }
 
+    /**
+     * Indicates that the buffer this DataFrame was created with is no longer needed, either because the DataFrame has
+     * been discarded or because its serialization has been durably persisted. The buffer may be reused for other
+     * DataFrames after this, so neither getData() nor any other method may be invoked on this DataFrame afterwards.
+     * Subsequent invocations of this method have no effect.
+     */
+    void release() {
+        Runnable callback = this.onRelease;
+        this.onRelease = null;
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    /**
+     * Attempts to compress the contents of this frame into a new buffer. If successful, the header (and its checksum)
+     * are serialized into the new buffer, which will be returned by getData() going forward. If the compressed contents
+     * would not be smaller than the original ones, the frame is left uncompressed.
+     */
+    private void compress() {
+        int uncompressedLength = this.writePosition;
+        byte[] buffer = new byte[this.header.getSerializationLength() + uncompressedLength];
+        int compressedOffset = this.header.getSerializationLength() + Integer.BYTES;
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        int compressedLength;
+        try {
+            deflater.setInput(this.contents.array(), this.contents.arrayOffset(), uncompressedLength);
+            deflater.finish();
+            compressedLength = deflater.deflate(buffer, compressedOffset, buffer.length - compressedOffset);
+            if (!deflater.finished()) {
+                // Compressed contents would not be smaller than the uncompressed ones. Not worth it.
+                return;
+            }
+        } finally {
+            deflater.end();
+        }
+
+        ByteArraySegment result = new ByteArraySegment(buffer, 0, compressedOffset + compressedLength);
+        ByteArraySegment serializedContents = result.subSegment(this.header.getSerializationLength(), Integer.BYTES + compressedLength);
+        writeInt(serializedContents, 0, uncompressedLength);
+        this.header.setCompressed(true);
+        this.header.setContentLength(serializedContents.getLength());
+        this.header.setChecksum(getChecksum(serializedContents));
+        this.header.commit(result.subSegment(0, this.header.getSerializationLength()));
+        this.compressedData = result;
+    }
+
     /**
      * Calculates the number of bytes available in the frame for writing.
      */
@@ -293,12 +424,14 @@ public class DataFrame {
         Preconditions.checkState(this.header == null && this.contents == null, "DataFrame already contains data; cannot re-format.");
 
         //We want to use the DataFrame for at least 1 byte of data.
+        byte version = this.checksumEnabled ? VERSION_CHECKSUM : VERSION_NO_CHECKSUM;
+        int headerLength = FrameHeader.getSerializationLength(version);
         int sourceLength = this.data.getLength();
-        Exceptions.checkArgument(sourceLength > FrameHeader.SERIALIZATION_LENGTH, "data",
-                "Insufficient array length. Byte array must have a length of at least %d.", FrameHeader.SERIALIZATION_LENGTH + 1);
+        Exceptions.checkArgument(sourceLength > headerLength, "data",
+                "Insufficient array length. Byte array must have a length of at least %d.", headerLength + 1);
 
-        this.header = new FrameHeader(CURRENT_VERSION, this.data.subSegment(0, FrameHeader.SERIALIZATION_LENGTH));
-        this.contents = this.data.subSegment(FrameHeader.SERIALIZATION_LENGTH, sourceLength - FrameHeader.SERIALIZATION_LENGTH);
+        this.header = new FrameHeader(version, this.data.subSegment(0, headerLength));
+        this.contents = this.data.subSegment(headerLength, sourceLength - headerLength);
     }
 
     private void ensureAppendConditions() {
@@ -326,7 +459,7 @@ public class DataFrame {
 
         // Check to see that we have enough bytes in the array.
         if (this.data.getLength() < this.header.getSerializationLength() + this.header.getContentLength()) {
-            throw new SerializationException("DataFrame.deserialize", String.format("Given buffer has insufficient number of bytes for this DataFrame. Expected %d, actual %d.", this.header.getSerializationLength() + this.header.getContentLength(), this.contents.getLength()));
+            throw new SerializationException("DataFrame.deserialize", String.format("Given buffer has insufficient number of bytes for this DataFrame. Expected %d, actual %d.", this.header.getSerializationLength() + this.header.getContentLength(), this.data.getLength()));
         }
 
         if (this.header.getContentLength() == 0) {
@@ -334,6 +467,50 @@ public class DataFrame {
         } else {
             this.contents = this.data.subSegment(this.header.getSerializationLength(), this.header.getContentLength());
         }
+
+        if (this.header.hasChecksum()) {
+            int actualChecksum = getChecksum(this.contents);
+            if (actualChecksum != this.header.getChecksum()) {
+                throw new SerializationException("DataFrame.deserialize", String.format("DataFrame checksum mismatch. Expected %d, actual %d.", this.header.getChecksum(), actualChecksum));
+            }
+        }
+
+        if (this.header.isCompressed()) {
+            this.contents = decompress(this.contents);
+        }
+    }
+
+    private ByteArraySegment decompress(ByteArraySegment compressedContents) throws SerializationException {
+        if (compressedContents.getLength() < Integer.BYTES) {
+            throw new SerializationException("DataFrame.deserialize", "Compressed DataFrame contents are too short.");
+        }
+
+        int uncompressedLength = readInt(compressedContents, 0);
+        if (uncompressedLength < 0) {
+            throw new SerializationException("DataFrame.deserialize", String.format("Invalid uncompressed DataFrame length %d.", uncompressedLength));
+        }
+
+        byte[] result = new byte[uncompressedLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressedContents.array(), compressedContents.arrayOffset() + Integer.BYTES, compressedContents.getLength() - Integer.BYTES);
+            int bytesInflated = inflater.inflate(result);
+            if (bytesInflated != uncompressedLength || !inflater.finished()) {
+                throw new SerializationException("DataFrame.deserialize", String.format("Unable to decompress DataFrame. Expected %d bytes, inflated %d.", uncompressedLength, bytesInflated));
+            }
+        } catch (DataFormatException ex) {
+            throw new SerializationException("DataFrame.deserialize", "Unable to decompress DataFrame.", ex);
+        } finally {
+            inflater.end();
+        }
+
+        return new ByteArraySegment(result, 0, uncompressedLength, true);
+    }
+
+    private static int getChecksum(ArrayView contents) {
+        CRC32 crc = new CRC32();
+        crc.update(contents.array(), contents.arrayOffset(), contents.getLength());
+        return (int) crc.getValue();
     }
 
     //endregion
@@ -443,7 +620,9 @@ public class DataFrame {
     private static class FrameHeader {
         //region Members
 
-        static final int SERIALIZATION_LENGTH = Byte.BYTES + Integer.BYTES + Byte.BYTES;
+        static final int SERIALIZATION_LENGTH_V0 = Byte.BYTES + Integer.BYTES + Byte.BYTES; // Version + Length + Flags.
+        static final int SERIALIZATION_LENGTH = SERIALIZATION_LENGTH_V0 + Integer.BYTES; // V0 + Checksum.
+        private static final byte COMPRESSED_MASK = 1;
 
         /**
          * The serialization Version for the frame.
@@ -458,6 +637,20 @@ public class DataFrame {
         @Setter
         private int contentLength;
 
+        /**
+         * The CRC32 checksum of the Frame's serialized contents. Not available for version 0.
+         */
+        @Getter
+        @Setter
+        private int checksum;
+
+        /**
+         * Whether the Frame's contents are compressed.
+         */
+        @Getter
+        @Setter
+        private boolean compressed;
+
         /**
          * The total number of bytes used for serializing this FrameHeader instance.
          */
@@ -478,11 +671,12 @@ public class DataFrame {
          * @throws IllegalArgumentException If the target buffer has an incorrect length.
          */
         FrameHeader(byte version, ByteArraySegment target) {
-            Exceptions.checkArgument(target.getLength() == SERIALIZATION_LENGTH, "target",
-                    "Unexpected length for target buffer. Expected %d, given %d.", SERIALIZATION_LENGTH, target.getLength());
+            int expectedLength = getSerializationLength(version);
+            Exceptions.checkArgument(target.getLength() == expectedLength, "target",
+                    "Unexpected length for target buffer. Expected %d, given %d.", expectedLength, target.getLength());
 
             this.version = version;
-            this.serializationLength = SERIALIZATION_LENGTH;
+            this.serializationLength = expectedLength;
             this.contentLength = 0;
             this.buffer = target;
         }
@@ -501,7 +695,12 @@ public class DataFrame {
             int sourceOffset = 0;
             this.version = source.get(sourceOffset);
             sourceOffset += Byte.BYTES;
-            this.serializationLength = SERIALIZATION_LENGTH; // This will change based on serialization version.
+            if (this.version == VERSION_NO_CHECKSUM || this.version == VERSION_CHECKSUM) {
+                this.serializationLength = getSerializationLength(this.version);
+            } else {
+                throw new SerializationException("DataFrame.Header.deserialize", String.format("Unsupported DataFrame version %d.", this.version));
+            }
+
             if (source.getLength() < this.serializationLength) {
                 throw new SerializationException("DataFrame.Header.deserialize", "DataFrame.Header has insufficient number of bytes given its serialization version.");
             }
@@ -509,7 +708,12 @@ public class DataFrame {
             this.contentLength = readInt(source, sourceOffset);
             sourceOffset += Integer.BYTES;
             byte flags = source.get(sourceOffset);
+            sourceOffset += Byte.BYTES;
             decodeFlags(flags, version);
+            if (hasChecksum()) {
+                this.checksum = readInt(source, sourceOffset);
+            }
+
             this.buffer = null;
         }
 
@@ -524,28 +728,55 @@ public class DataFrame {
          */
         public void commit() {
             Preconditions.checkState(this.buffer != null && !this.buffer.isReadOnly(), "Cannot commit a read-only FrameHeader");
-            assert this.buffer.getLength() == SERIALIZATION_LENGTH;
+            commit(this.buffer);
+        }
+
+        /**
+         * Commits (serializes) the contents of the FrameHeader to the given ByteArraySegment.
+         *
+         * @param target The ByteArraySegment to serialize to.
+         * @throws IllegalStateException If this FrameHeader was created from a read-only buffer (it was deserialized).
+         */
+        void commit(ByteArraySegment target) {
+            Preconditions.checkState(this.buffer != null, "Cannot commit a read-only FrameHeader");
+            assert target.getLength() == this.serializationLength;
 
-            // We already checked the size of the target buffer (in the constructor); no need to do it here again.
             int bufferOffset = 0;
-            this.buffer.set(bufferOffset, this.version);
+            target.set(bufferOffset, this.version);
+            bufferOffset += Byte.BYTES;
+            bufferOffset += writeInt(target, bufferOffset, this.contentLength);
+            target.set(bufferOffset, encodeFlags());
             bufferOffset += Byte.BYTES;
-            bufferOffset += writeInt(this.buffer, bufferOffset, this.contentLength);
-            this.buffer.set(bufferOffset, encodeFlags());
+            if (hasChecksum()) {
+                writeInt(target, bufferOffset, this.checksum);
+            }
+        }
+
+        /**
+         * Gets the number of bytes used for serializing a FrameHeader with the given version.
+         */
+        static int getSerializationLength(byte version) {
+            return version == VERSION_NO_CHECKSUM ? SERIALIZATION_LENGTH_V0 : SERIALIZATION_LENGTH;
+        }
+
+        /**
+         * Gets a value indicating whether this FrameHeader has a checksum for the Frame's contents.
+         */
+        boolean hasChecksum() {
+            return this.version >= VERSION_CHECKSUM;
         }
 
         @Override
         public String toString() {
-            return String.format("Version = %d, ContentLength = %d", getVersion(), getContentLength());
+            return String.format("Version = %d, ContentLength = %d, Compressed = %s", getVersion(), getContentLength(), isCompressed());
         }
 
         private void decodeFlags(byte flags, byte version) {
-            // Placeholder method. Nothing to do yet.
+            this.compressed = version >= VERSION_CHECKSUM && (flags & COMPRESSED_MASK) == COMPRESSED_MASK;
         }
 
         private byte encodeFlags() {
-            // Placeholder method. Nothing to do yet.
-            return 0;
+            return this.compressed ? COMPRESSED_MASK : 0;
         }
 
         //endregion
@@ -26,7 +26,6 @@ import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import javax.annotation.concurrent.NotThreadSafe;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -64,7 +63,8 @@ class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
         this.args = Preconditions.checkNotNull(args, "args");
         Preconditions.checkNotNull(args.commitSuccess, "args.commitSuccess");
         Preconditions.checkNotNull(args.commitFailure, "args.commitFailure");
-        this.outputStream = new DataFrameOutputStream(targetLog.getMaxAppendLength(), this::handleDataFrameComplete);
+        this.outputStream = new DataFrameOutputStream(targetLog.getMaxAppendLength(), args.checksumEnabled, args.compressionEnabled,
+                args.bufferPoolSize, this::handleDataFrameComplete);
         this.lastSerializedSequenceNumber = -1;
         this.lastStartedSequenceNumber = -1;
         this.failureCause = new AtomicReference<>();
@@ -181,6 +181,9 @@ class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
             this.args.beforeCommit.accept(commitArgs);
             this.targetLog.append(dataFrame.getData(), this.args.writeTimeout)
                     .thenAcceptAsync(logAddress -> {
+                        // The DurableDataLog is done with the frame's contents, so its buffer can be reused. We do not
+                        // do this upon failure since we cannot be certain the DurableDataLog is no longer using it.
+                        dataFrame.release();
                         commitArgs.setLogAddress(logAddress);
                         this.args.commitSuccess.accept(commitArgs);
                     }, this.args.executor)
@@ -292,7 +295,6 @@ class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
 
     //region Args
 
-    @RequiredArgsConstructor
     static class Args {
         /**
          * A Callback that will be invoked synchronously upon a DataFrame's sealing, and right before it is about to be
@@ -316,7 +318,44 @@ class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
          */
         final BiConsumer<Throwable, CommitArgs> commitFailure;
         final Executor executor;
+
+        /**
+         * Whether to include a checksum in each DataFrame written to the DurableDataLog.
+         */
+        final boolean checksumEnabled;
+
+        /**
+         * Whether to attempt to compress DataFrames before writing them to the DurableDataLog.
+         */
+        final boolean compressionEnabled;
+
+        /**
+         * The maximum number of DataFrame buffers to keep around for reuse after the DataFrames using them are committed.
+         */
+        final int bufferPoolSize;
         final Duration writeTimeout = Duration.ofSeconds(30); // TODO: actual timeout.
+
+        /**
+         * Creates a new instance of the Args class, with checksums and compression disabled.
+         */
+        Args(Consumer<CommitArgs> beforeCommit, Consumer<CommitArgs> commitSuccess, BiConsumer<Throwable, CommitArgs> commitFailure,
+             Executor executor) {
+            this(beforeCommit, commitSuccess, commitFailure, executor, false, false, 0);
+        }
+
+        /**
+         * Creates a new instance of the Args class.
+         */
+        Args(Consumer<CommitArgs> beforeCommit, Consumer<CommitArgs> commitSuccess, BiConsumer<Throwable, CommitArgs> commitFailure,
+             Executor executor, boolean checksumEnabled, boolean compressionEnabled, int bufferPoolSize) {
+            this.beforeCommit = beforeCommit;
+            this.commitSuccess = commitSuccess;
+            this.commitFailure = commitFailure;
+            this.executor = executor;
+            this.checksumEnabled = checksumEnabled;
+            this.compressionEnabled = compressionEnabled;
+            this.bufferPoolSize = bufferPoolSize;
+        }
     }
 
     //endregion
@@ -15,6 +15,9 @@ import io.pravega.common.SimpleMovingAverage;
 import io.pravega.common.util.ByteArraySegment;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import javax.annotation.concurrent.NotThreadSafe;
 import lombok.Getter;
@@ -29,6 +32,8 @@ class DataFrameOutputStream extends OutputStream {
     //region Members
 
     private final Consumer<DataFrame> dataFrameCompleteCallback;
+    private final boolean checksumEnabled;
+    private final boolean compressionEnabled;
     private DataFrame currentFrame;
     private boolean hasDataInCurrentFrame;
     @Getter
@@ -48,10 +53,47 @@ class DataFrameOutputStream extends OutputStream {
      * @throws NullPointerException     If any of the arguments are null.
      */
     DataFrameOutputStream(int maxDataFrameSize, Consumer<DataFrame> dataFrameCompleteCallback) {
+        this(maxDataFrameSize, false, dataFrameCompleteCallback);
+    }
+
+    /**
+     * Creates a new instance of the DataFrameOutputStream class.
+     *
+     * @param maxDataFrameSize          The maximum size, in bytes, of a Data Frame.
+     * @param compressionEnabled        Whether to attempt to compress Data Frames when sealing them.
+     * @param dataFrameCompleteCallback A callback that will be invoked when a Data Frame is full.
+     * @throws IllegalArgumentException If maxDataFrameSize is not a positive integer.
+     * @throws NullPointerException     If any of the arguments are null.
+     */
+    DataFrameOutputStream(int maxDataFrameSize, boolean compressionEnabled, Consumer<DataFrame> dataFrameCompleteCallback) {
+        this(maxDataFrameSize, false, compressionEnabled, 0, dataFrameCompleteCallback);
+    }
+
+    /**
+     * Creates a new instance of the DataFrameOutputStream class.
+     *
+     * @param maxDataFrameSize          The maximum size, in bytes, of a Data Frame.
+     * @param checksumEnabled           Whether to include a checksum in each Data Frame. Implied by compressionEnabled.
+     *                                  Data Frames without checksums use the older serialization format.
+     * @param compressionEnabled        Whether to attempt to compress Data Frames when sealing them.
+     * @param bufferPoolSize            The maximum number of physical buffers to keep around for reuse once all the
+     *                                  Data Frames using them have been released (see DataFrame.release()). If 0, no
+     *                                  buffers will be reused once released.
+     * @param dataFrameCompleteCallback A callback that will be invoked when a Data Frame is full. The receiver of the
+     *                                  Data Frame is responsible for invoking DataFrame.release() when it no longer
+     *                                  needs its contents.
+     * @throws IllegalArgumentException If maxDataFrameSize is not a positive integer or bufferPoolSize is negative.
+     * @throws NullPointerException     If any of the arguments are null.
+     */
+    DataFrameOutputStream(int maxDataFrameSize, boolean checksumEnabled, boolean compressionEnabled, int bufferPoolSize,
+                          Consumer<DataFrame> dataFrameCompleteCallback) {
         Exceptions.checkArgument(maxDataFrameSize > DataFrame.MIN_ENTRY_LENGTH_NEEDED, "maxDataFrameSize",
                 "Must be a at least %s.", DataFrame.MIN_ENTRY_LENGTH_NEEDED);
+        Exceptions.checkArgument(bufferPoolSize >= 0, "bufferPoolSize", "Must be a non-negative integer.");
 
-        this.bufferFactory = new BufferFactory(maxDataFrameSize);
+        this.bufferFactory = new BufferFactory(maxDataFrameSize, bufferPoolSize);
+        this.checksumEnabled = checksumEnabled;
+        this.compressionEnabled = compressionEnabled;
         this.dataFrameCompleteCallback = Preconditions.checkNotNull(dataFrameCompleteCallback, "dataFrameCompleteCallback");
     }
 
@@ -129,9 +171,11 @@ class DataFrameOutputStream extends OutputStream {
 
         // Invoke the callback. At the end of this, the frame is committed so we can get rid of it.
         if (!this.currentFrame.isEmpty()) {
-            // Only flush something if it's not empty.
-            this.bufferFactory.markUsed(this.currentFrame.getLength());
-            this.dataFrameCompleteCallback.accept(this.currentFrame);
+            // Only flush something if it's not empty. From here on, the callback owns the frame (and must release it).
+            DataFrame frame = this.currentFrame;
+            this.currentFrame = null;
+            this.bufferFactory.markUsed(frame.getBufferLength());
+            this.dataFrameCompleteCallback.accept(frame);
         }
 
         reset();
@@ -200,7 +244,12 @@ class DataFrameOutputStream extends OutputStream {
      */
     void reset() {
         Exceptions.checkNotClosed(this.closed, this);
-        this.currentFrame = null;
+        if (this.currentFrame != null) {
+            // This frame was never handed off, so nobody else is using its buffer.
+            this.currentFrame.release();
+            this.currentFrame = null;
+        }
+
         this.hasDataInCurrentFrame = false;
     }
 
@@ -215,7 +264,7 @@ class DataFrameOutputStream extends OutputStream {
     private void createNewFrame() {
         Preconditions.checkState(this.currentFrame == null || this.currentFrame.isSealed(), "Cannot create a new frame if we currently have a non-sealed frame.");
 
-        this.currentFrame = DataFrame.wrap(this.bufferFactory.next());
+        this.currentFrame = this.bufferFactory.next(this.checksumEnabled, this.compressionEnabled);
         this.hasDataInCurrentFrame = false;
     }
 
@@ -230,31 +279,53 @@ class DataFrameOutputStream extends OutputStream {
     //endregion
 
     /**
-     * Buffer Factory for use with DataFrames.
+     * Buffer Factory for use with DataFrames. Multiple DataFrames may share the same physical buffer (each using a
+     * different region of it); a physical buffer is only returned to the pool (if pooling is enabled) after it has been
+     * retired by the BufferFactory and all the DataFrames using it have been released.
      */
-    @RequiredArgsConstructor
-    @NotThreadSafe
     private static class BufferFactory {
         private static final int MIN_LENGTH = 1024; // Min amount of space remaining in the buffer when trying to reuse it.
         private final SimpleMovingAverage lastBuffers = new SimpleMovingAverage(10);
         private final int maxLength;
-        private byte[] current;
+        private final BlockingQueue<PooledBuffer> pool;
+        private PooledBuffer current;
         private int currentUsed;
 
+        BufferFactory(int maxLength, int poolSize) {
+            this.maxLength = maxLength;
+            this.pool = poolSize > 0 ? new ArrayBlockingQueue<>(poolSize) : null;
+        }
+
         /**
-         * Gets a ByteArraySegment that can be used as a DataFrame buffer, which wraps a physical buffer (byte array).
-         * Tries to reuse the last used physical buffer as much as possible if space allows, otherwise a new byte array
-         * will be allocated.
+         * Creates a new DataFrame that wraps a ByteArraySegment of a physical buffer (byte array). Tries to reuse the
+         * last used physical buffer as much as possible if space allows, otherwise a pooled buffer will be used (if
+         * available) or a new byte array will be allocated.
          *
-         * @return The ByteArraySegment to use.
+         * @param checksumEnabled    Whether to include a checksum of the contents of the DataFrame when sealing it.
+         * @param compressionEnabled Whether to attempt to compress the contents of the DataFrame when sealing it.
+         * @return The DataFrame to use.
          */
-        ByteArraySegment next() {
+        DataFrame next(boolean checksumEnabled, boolean compressionEnabled) {
             if (this.current == null) {
-                this.current = new byte[this.maxLength];
+                this.current = this.pool == null ? null : this.pool.poll();
+                if (this.current == null) {
+                    this.current = new PooledBuffer(new byte[this.maxLength]);
+                }
+
+                // One reference held by this BufferFactory, until the buffer is retired.
+                this.current.refCount.set(1);
                 this.currentUsed = 0;
             }
 
-            return new ByteArraySegment(this.current, this.currentUsed, this.current.length - this.currentUsed);
+            ByteArraySegment segment = new ByteArraySegment(this.current.array, this.currentUsed, this.current.array.length - this.currentUsed);
+            Runnable onRelease = null;
+            if (this.pool != null) {
+                PooledBuffer buffer = this.current;
+                buffer.refCount.incrementAndGet();
+                onRelease = () -> release(buffer);
+            }
+
+            return DataFrame.wrap(segment, checksumEnabled, compressionEnabled, onRelease);
         }
 
         /**
@@ -267,21 +338,49 @@ class DataFrameOutputStream extends OutputStream {
             this.lastBuffers.add(length);
             int minLength = (int) Math.max(MIN_LENGTH, this.lastBuffers.getAverage(0));
 
-            if (this.current != null && (this.current.length - this.currentUsed < minLength)) {
-                this.current = null;
+            if (this.current != null && (this.current.array.length - this.currentUsed < minLength)) {
+                retireCurrent();
             }
         }
 
         /**
          * Releases the current buffer (if any) and resets the stats. After this method is called, the first call to next()
-         * will allocate a new buffer.
+         * will use a pooled buffer or allocate a new one. Pooled buffers are not affected.
          */
         void reset() {
-            this.current = null;
+            retireCurrent();
             this.lastBuffers.reset();
         }
-    }
 
+        private void retireCurrent() {
+            if (this.current != null) {
+                if (this.pool != null) {
+                    release(this.current);
+                }
 
-}
+                this.current = null;
+            }
+        }
 
+        /**
+         * Releases a reference to the given buffer. This may be invoked concurrently with next() (DataFrames are usually
+         * released from a different thread once committed), hence the only shared state touched here is the buffer's
+         * reference count and the pool.
+         */
+        private void release(PooledBuffer buffer) {
+            if (buffer.refCount.decrementAndGet() == 0) {
+                // Nobody is using this buffer anymore. Make it available for reuse; if the pool is full, let it be GC-ed.
+                this.pool.offer(buffer);
+            }
+        }
+    }
+
+    /**
+     * A physical buffer, along with the number of references (DataFrames and the BufferFactory itself) to it.
+     */
+    @RequiredArgsConstructor
+    private static class PooledBuffer {
+        final byte[] array;
+        final AtomicInteger refCount = new AtomicInteger();
+    }
+}
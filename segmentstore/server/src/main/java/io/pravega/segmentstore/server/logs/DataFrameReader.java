@@ -23,15 +23,27 @@ import io.pravega.segmentstore.storage.DurableDataLogException;
 import io.pravega.segmentstore.storage.LogAddress;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.LinkedList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Decomposes Data Frames into the Log Operations that were serialized into them. Uses a DataFrameLog as an input, reads
  * it in order from the beginning, and returns all successfully serialized Log Operations from them in the order in which
  * they were serialized.
+ * <p>
+ * If so configured, the DataFrameReader reads ahead of its caller: it keeps up to a given number of LogItems queued up,
+ * which are deserialized in parallel on an Executor while the caller is processing the ones returned so far. The caller
+ * never waits for a LogItem that the Executor has not begun deserializing yet; it deserializes it itself instead. As
+ * such, it is safe to use the same Executor that the caller runs on, even if all its threads are busy (or blocked).
  */
 @Slf4j
 class DataFrameReader<T extends LogItem> implements CloseableIterator<DataFrameReader.ReadResult<T>, Exception> {
@@ -39,8 +51,12 @@ class DataFrameReader<T extends LogItem> implements CloseableIterator<DataFrameR
 
     private final FrameEntryEnumerator frameContentsEnumerator;
     private final LogItemFactory<T> logItemFactory;
+    private final int readAheadCount;
+    private final Executor executor;
+    private final Deque<PendingItem<T>> readAhead;
     private long lastReadSequenceNumber;
     private int readEntryCount;
+    private boolean endReached;
     private boolean closed;
 
     //endregion
@@ -57,11 +73,32 @@ class DataFrameReader<T extends LogItem> implements CloseableIterator<DataFrameR
      * @throws DurableDataLogException If the given log threw an exception while initializing a Reader.
      */
     DataFrameReader(DurableDataLog log, LogItemFactory<T> logItemFactory, int containerId) throws DurableDataLogException {
+        this(log, logItemFactory, containerId, 0, null);
+    }
+
+    /**
+     * Creates a new instance of the DataFrameReader class which deserializes LogItems ahead of its caller.
+     *
+     * @param log            The DataFrameLog to read data frames from.
+     * @param logItemFactory A LogItemFactory to create LogItems upon deserialization.
+     * @param containerId    The Container Id for the DataFrameReader (used primarily for logging).
+     * @param readAheadCount The maximum number of LogItems to deserialize ahead of the caller. If 0, every LogItem is
+     *                       deserialized synchronously when requested.
+     * @param executor       An Executor to deserialize LogItems on. May be null if readAheadCount is 0.
+     * @throws NullPointerException    If any of the arguments are null.
+     * @throws DurableDataLogException If the given log threw an exception while initializing a Reader.
+     */
+    DataFrameReader(DurableDataLog log, LogItemFactory<T> logItemFactory, int containerId, int readAheadCount, Executor executor) throws DurableDataLogException {
         Preconditions.checkNotNull(log, "log");
         Preconditions.checkNotNull(logItemFactory, "logItemFactory");
+        Preconditions.checkArgument(readAheadCount >= 0, "readAheadCount must be a non-negative number.");
+        Preconditions.checkArgument(readAheadCount == 0 || executor != null, "executor must be provided if readAheadCount is positive.");
         this.frameContentsEnumerator = new FrameEntryEnumerator(log, String.format("DataFrameReader[%d]", containerId));
         this.lastReadSequenceNumber = Operation.NO_SEQUENCE_NUMBER;
         this.logItemFactory = logItemFactory;
+        this.readAheadCount = readAheadCount;
+        this.executor = executor;
+        this.readAhead = new ArrayDeque<>();
     }
 
     //endregion
@@ -89,32 +126,33 @@ class DataFrameReader<T extends LogItem> implements CloseableIterator<DataFrameR
         Exceptions.checkNotClosed(this.closed, closed);
 
         try {
-            // Get the ByteArraySegments for the next entry (there could be one or more, depending on how many DataFrames
-            // were used to split the original Operation).
-            SegmentCollection segments = getNextOperationSegments();
-            if (segments == null || !segments.hasData()) {
+            // Queue up as many LogItems as we are allowed to read ahead (and at least the one we need to return now).
+            while (!this.endReached && this.readAhead.size() <= this.readAheadCount) {
+                // Get the ByteArraySegments for the next entry (there could be one or more, depending on how many DataFrames
+                // were used to split the original Operation).
+                SegmentCollection segments = getNextOperationSegments();
+                if (segments == null || !segments.hasData()) {
+                    // We have reached the end.
+                    this.endReached = true;
+                } else {
+                    this.readAhead.addLast(deserialize(segments));
+                }
+            }
+
+            PendingItem<T> next = this.readAhead.pollFirst();
+            if (next == null) {
                 // We have reached the end.
                 return null;
-            } else {
-                // Get the unified input stream for all the segments.
-                InputStream source = segments.getInputStream();
-
-                try {
-                    // Attempt to deserialize the entry. If the serialization was bad, this will throw an exception which we'll pass along.
-                    // In case of such failure, we still advance, because the serialization exception is not our issue to handle.
-                    T logItem = this.logItemFactory.deserialize(source);
-                    long seqNo = logItem.getSequenceNumber();
-                    if (seqNo <= this.lastReadSequenceNumber) {
-                        throw new DataCorruptionException(String.format("Invalid Operation Sequence Number. Expected: larger than %d, found: %d.", this.lastReadSequenceNumber, seqNo));
-                    }
+            }
 
-                    this.lastReadSequenceNumber = seqNo;
-                    return new ReadResult<>(logItem, segments);
-                } catch (SerializationException ex) {
-                    throw new DataCorruptionException("Deserialization failed.", ex);
-                }
-                // Any other exceptions are considered to be non-DataCorruption.
+            T logItem = getLogItem(next);
+            long seqNo = logItem.getSequenceNumber();
+            if (seqNo <= this.lastReadSequenceNumber) {
+                throw new DataCorruptionException(String.format("Invalid Operation Sequence Number. Expected: larger than %d, found: %d.", this.lastReadSequenceNumber, seqNo));
             }
+
+            this.lastReadSequenceNumber = seqNo;
+            return new ReadResult<>(logItem, next.segments);
         } catch (Exception ex) {
             // If we encountered any kind of reader exception, close the reader right away.
             // We do not do retries at this layer. Retries should be handled by the DataLog.
@@ -133,6 +171,42 @@ class DataFrameReader<T extends LogItem> implements CloseableIterator<DataFrameR
 
     //region Read Implementation
 
+    /**
+     * Begins deserializing a LogItem from the given SegmentCollection, either in the background (if reading ahead)
+     * or synchronously.
+     */
+    private PendingItem<T> deserialize(SegmentCollection segments) {
+        PendingItem<T> item = new PendingItem<>(segments, this.logItemFactory);
+        if (this.readAheadCount == 0) {
+            item.run();
+        } else {
+            this.executor.execute(item::run);
+        }
+
+        return item;
+    }
+
+    /**
+     * Waits for the given PendingItem to be deserialized and returns the result. If it has not begun deserializing yet,
+     * it is deserialized on the current thread.
+     */
+    private T getLogItem(PendingItem<T> item) throws Exception {
+        item.run();
+        try {
+            return item.logItem.join();
+        } catch (CompletionException ex) {
+            Throwable cause = Exceptions.unwrap(ex);
+            if (cause instanceof SerializationException) {
+                // If the serialization was bad, we pass the exception along. In case of such failure, we still advance,
+                // because the serialization exception is not our issue to handle.
+                throw new DataCorruptionException("Deserialization failed.", cause);
+            }
+
+            // Any other exceptions are considered to be non-DataCorruption.
+            throw cause instanceof Exception ? (Exception) cause : ex;
+        }
+    }
+
     /**
      * Gets a collection of ByteArraySegments (SegmentCollection) that makes up the next Log Operation to be returned.
      *
@@ -181,6 +255,34 @@ class DataFrameReader<T extends LogItem> implements CloseableIterator<DataFrameR
 
     //endregion
 
+    //region PendingItem
+
+    /**
+     * A LogItem that is (or has been) deserialized ahead of the caller.
+     */
+    @RequiredArgsConstructor
+    private static class PendingItem<T> {
+        final SegmentCollection segments;
+        private final LogItemFactory<T> logItemFactory;
+        final CompletableFuture<T> logItem = new CompletableFuture<>();
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        /**
+         * Deserializes the LogItem, unless somebody else has already begun doing so.
+         */
+        void run() {
+            if (this.started.compareAndSet(false, true)) {
+                try {
+                    this.logItem.complete(this.logItemFactory.deserialize(this.segments.getInputStream()));
+                } catch (Throwable ex) {
+                    this.logItem.completeExceptionally(ex);
+                }
+            }
+        }
+    }
+
+    //endregion
+
     //region ReadResult
 
     /**
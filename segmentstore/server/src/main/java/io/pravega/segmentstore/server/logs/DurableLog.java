@@ -28,6 +28,7 @@ import io.pravega.segmentstore.server.LogItemFactory;
 import io.pravega.segmentstore.server.OperationLog;
 import io.pravega.segmentstore.server.ReadIndex;
 import io.pravega.segmentstore.server.UpdateableContainerMetadata;
+import io.pravega.segmentstore.server.logs.operations.IncrementalMetadataCheckpointOperation;
 import io.pravega.segmentstore.server.logs.operations.MetadataCheckpointOperation;
 import io.pravega.segmentstore.server.logs.operations.Operation;
 import io.pravega.segmentstore.server.logs.operations.OperationFactory;
@@ -47,6 +48,8 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import javax.annotation.concurrent.GuardedBy;
@@ -72,6 +75,10 @@ public class DurableLog extends AbstractService implements OperationLog {
     @GuardedBy("tailReads")
     private final Set<TailRead> tailReads;
     private final ScheduledExecutorService executor;
+    private final int recoveryReadAheadCount;
+    private final int checkpointMaxIncrementalCount;
+    private final AtomicLong lastCheckpointSequenceNumber;
+    private final AtomicInteger incrementalCheckpointCount;
     private final AtomicReference<Throwable> stopException = new AtomicReference<>();
     private final AtomicBoolean closed;
 
@@ -102,11 +109,16 @@ public class DurableLog extends AbstractService implements OperationLog {
         this.traceObjectId = String.format("DurableLog[%s]", metadata.getContainerId());
         this.metadata = metadata;
         this.executor = executor;
+        this.recoveryReadAheadCount = config.getRecoveryReadAheadCount();
+        this.checkpointMaxIncrementalCount = config.getCheckpointMaxIncrementalCount();
+        this.lastCheckpointSequenceNumber = new AtomicLong(Operation.NO_SEQUENCE_NUMBER);
+        this.incrementalCheckpointCount = new AtomicInteger();
         this.operationFactory = new OperationFactory();
         this.inMemoryOperationLog = createInMemoryLog();
         this.memoryStateUpdater = new MemoryStateUpdater(this.inMemoryOperationLog, readIndex, this::triggerTailReads);
         MetadataCheckpointPolicy checkpointPolicy = new MetadataCheckpointPolicy(config, this::queueMetadataCheckpoint, this.executor);
-        this.operationProcessor = new OperationProcessor(this.metadata, this.memoryStateUpdater, this.durableDataLog, checkpointPolicy, executor);
+        this.operationProcessor = new OperationProcessor(this.metadata, this.memoryStateUpdater, this.durableDataLog, checkpointPolicy,
+                config.isDataFrameChecksumEnabled(), config.isDataFrameCompressionEnabled(), config.getDataFrameBufferPoolSize(), executor);
         Services.onStop(this.operationProcessor, this::queueStoppedHandler, this::queueFailedHandler, this.executor);
         this.tailReads = new HashSet<>();
         this.closed = new AtomicBoolean();
@@ -337,9 +349,11 @@ public class DurableLog extends AbstractService implements OperationLog {
         } catch (Exception ex) {
             // Both the inner try and finally blocks above can throw, so we need to catch both of those cases here.
             log.error("{} Recovery FAILED.", this.traceObjectId, ex);
+            this.operationProcessor.getMetrics().recoveryFailed(timer.getElapsed());
             throw new CompletionException(ex);
         }
 
+        this.operationProcessor.getMetrics().recoveryCompleted(timer.getElapsed());
         this.operationProcessor.getMetrics().operationsCompleted(recoveredItemCount, timer.getElapsed());
         LoggerHelpers.traceLeave(log, this.traceObjectId, "performRecovery", traceId);
         return recoveredItemCount > 0;
@@ -350,7 +364,12 @@ public class DurableLog extends AbstractService implements OperationLog {
      * until the first MetadataCheckpointOperation is encountered. All Operations prior to this one are skipped over.
      * Recovery starts with the first MetadataCheckpointOperation and runs until the end of the DurableDataLog is reached.
      * Subsequent MetadataCheckpointOperations are ignored (as they contain redundant information - which has already
-     * been built up using the Operations up to them).
+     * been built up using the Operations up to them), while subsequent IncrementalMetadataCheckpointOperations are merged
+     * into the metadata (to pick up any changes that are not reflected by Log Operations, such as the Storage state).
+     * <p>
+     * Recovery is pipelined: the DurableDataLog reader fetches upcoming entries in the background and the DataFrameReader
+     * deserializes up to DurableLogConfig.getRecoveryReadAheadCount() Operations in parallel, while the Operations are
+     * applied to the metadata sequentially, in order, on the current thread.
      *
      * @param metadataUpdater The OperationMetadataUpdater to use for updates.
      * @return The number of Operations recovered.
@@ -363,7 +382,8 @@ public class DurableLog extends AbstractService implements OperationLog {
 
         // Read all entries from the DataFrameLog and append them to the InMemoryOperationLog.
         // Also update metadata along the way.
-        try (DataFrameReader<Operation> reader = new DataFrameReader<>(this.durableDataLog, this.operationFactory, getId())) {
+        try (DataFrameReader<Operation> reader = new DataFrameReader<>(this.durableDataLog, this.operationFactory, getId(),
+                this.recoveryReadAheadCount, this.executor)) {
             DataFrameReader.ReadResult<Operation> readResult;
 
             // We can only recover starting from a MetadataCheckpointOperation; find the first one.
@@ -390,6 +410,7 @@ public class DurableLog extends AbstractService implements OperationLog {
             while (readResult != null) {
                 recordTruncationMarker(readResult);
                 recoverOperation(readResult.getItem(), metadataUpdater);
+                recordCheckpoint(readResult.getItem());
                 recoveredItemCount++;
 
                 // Fetch the next operation.
@@ -467,10 +488,37 @@ public class DurableLog extends AbstractService implements OperationLog {
     }
 
     private CompletableFuture<Void> queueMetadataCheckpoint() {
-        log.info("{}: MetadataCheckpointOperation queued.", this.traceObjectId);
+        // Every so often (or if we don't know of any previous checkpoint) we need a full checkpoint; these are the only
+        // ones we can recover (and hence truncate) from. In between, we only need to include what changed.
+        long previousCheckpointSequenceNumber = this.lastCheckpointSequenceNumber.get();
+        Operation checkpoint;
+        if (previousCheckpointSequenceNumber == Operation.NO_SEQUENCE_NUMBER
+                || this.incrementalCheckpointCount.get() >= this.checkpointMaxIncrementalCount) {
+            checkpoint = new MetadataCheckpointOperation();
+        } else {
+            checkpoint = new IncrementalMetadataCheckpointOperation(previousCheckpointSequenceNumber);
+        }
+
+        String checkpointType = checkpoint.getClass().getSimpleName();
+        log.info("{}: {} queued.", this.traceObjectId, checkpointType);
         return this.operationProcessor
-                .process(new MetadataCheckpointOperation())
-                .thenAccept(seqNo -> log.info("{}: MetadataCheckpointOperation durably stored.", this.traceObjectId));
+                .process(checkpoint)
+                .thenAccept(v -> {
+                    recordCheckpoint(checkpoint);
+                    log.info("{}: {} durably stored.", this.traceObjectId, checkpointType);
+                });
+    }
+
+    private void recordCheckpoint(Operation operation) {
+        if (operation instanceof MetadataCheckpointOperation) {
+            this.incrementalCheckpointCount.set(0);
+        } else if (operation instanceof IncrementalMetadataCheckpointOperation) {
+            this.incrementalCheckpointCount.incrementAndGet();
+        } else {
+            return;
+        }
+
+        this.lastCheckpointSequenceNumber.accumulateAndGet(operation.getSequenceNumber(), Math::max);
     }
 
     private void unregisterTailRead(TailRead tailRead) {
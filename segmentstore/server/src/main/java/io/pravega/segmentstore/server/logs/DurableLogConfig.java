@@ -24,6 +24,11 @@ public class DurableLogConfig {
     public static final Property<Integer> CHECKPOINT_MIN_COMMIT_COUNT = Property.named("checkpointMinCommitCount", 300);
     public static final Property<Integer> CHECKPOINT_COMMIT_COUNT = Property.named("checkpointCommitCountThreshold", 300);
     public static final Property<Long> CHECKPOINT_TOTAL_COMMIT_LENGTH = Property.named("checkpointTotalCommitLengthThreshold", 256 * 1024 * 1024L);
+    public static final Property<Integer> CHECKPOINT_MAX_INCREMENTAL_COUNT = Property.named("checkpointMaxIncrementalCount", 0);
+    public static final Property<Boolean> DATA_FRAME_CHECKSUM_ENABLED = Property.named("dataFrameChecksumEnabled", false);
+    public static final Property<Boolean> DATA_FRAME_COMPRESSION_ENABLED = Property.named("dataFrameCompressionEnabled", false);
+    public static final Property<Integer> DATA_FRAME_BUFFER_POOL_SIZE = Property.named("dataFrameBufferPoolSize", 0);
+    public static final Property<Integer> RECOVERY_READ_AHEAD_COUNT = Property.named("recoveryReadAheadCount", 0);
     private static final String COMPONENT_CODE = "durablelog";
 
     //endregion
@@ -48,6 +53,41 @@ public class DurableLogConfig {
     @Getter
     private final long checkpointTotalCommitLengthThreshold;
 
+    /**
+     * The maximum number of consecutive incremental Checkpoints (which only include the Segments that changed since the
+     * previous Checkpoint) between two full Checkpoints. If 0, every Checkpoint is a full one. Only full Checkpoints are
+     * truncation points, so any value above 0 reduces how often the DurableDataLog can be truncated.
+     */
+    @Getter
+    private final int checkpointMaxIncrementalCount;
+
+    /**
+     * Whether to include a checksum of the contents of each DataFrame written to the DurableDataLog. Enabling this (or
+     * compression) causes DataFrames to be written in a format that older versions of the code cannot read.
+     */
+    @Getter
+    private final boolean dataFrameChecksumEnabled;
+
+    /**
+     * Whether to compress DataFrames before writing them to the DurableDataLog. Frames are only compressed if doing so
+     * actually reduces their size. Implies dataFrameChecksumEnabled.
+     */
+    @Getter
+    private final boolean dataFrameCompressionEnabled;
+
+    /**
+     * The maximum number of DataFrame buffers to keep for reuse once the DurableDataLog acknowledged the DataFrames
+     * written into them. If 0, a new buffer is allocated whenever one is needed.
+     */
+    @Getter
+    private final int dataFrameBufferPoolSize;
+
+    /**
+     * The maximum number of Operations to read and deserialize ahead of the one currently being applied during recovery.
+     */
+    @Getter
+    private final int recoveryReadAheadCount;
+
     //endregion
 
     //region Constructor
@@ -67,6 +107,25 @@ public class DurableLogConfig {
         }
 
         this.checkpointTotalCommitLengthThreshold = properties.getLong(CHECKPOINT_TOTAL_COMMIT_LENGTH);
+        this.checkpointMaxIncrementalCount = properties.getInt(CHECKPOINT_MAX_INCREMENTAL_COUNT);
+        if (this.checkpointMaxIncrementalCount < 0) {
+            throw new InvalidPropertyValueException(String.format("Property '%s' (%d) must be a non-negative integer.",
+                    CHECKPOINT_MAX_INCREMENTAL_COUNT, this.checkpointMaxIncrementalCount));
+        }
+
+        this.dataFrameChecksumEnabled = properties.getBoolean(DATA_FRAME_CHECKSUM_ENABLED);
+        this.dataFrameCompressionEnabled = properties.getBoolean(DATA_FRAME_COMPRESSION_ENABLED);
+        this.dataFrameBufferPoolSize = properties.getInt(DATA_FRAME_BUFFER_POOL_SIZE);
+        if (this.dataFrameBufferPoolSize < 0) {
+            throw new InvalidPropertyValueException(String.format("Property '%s' (%d) must be a non-negative integer.",
+                    DATA_FRAME_BUFFER_POOL_SIZE, this.dataFrameBufferPoolSize));
+        }
+
+        this.recoveryReadAheadCount = properties.getInt(RECOVERY_READ_AHEAD_COUNT);
+        if (this.recoveryReadAheadCount < 0) {
+            throw new InvalidPropertyValueException(String.format("Property '%s' (%d) must be a non-negative integer.",
+                    RECOVERY_READ_AHEAD_COUNT, this.recoveryReadAheadCount));
+        }
     }
 
     /**
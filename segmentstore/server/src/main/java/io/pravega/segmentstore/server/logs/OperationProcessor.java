@@ -84,17 +84,23 @@ class OperationProcessor extends AbstractThreadPoolService implements AutoClosea
      * @param stateUpdater     A MemoryStateUpdater that is used to update in-memory structures upon successful Operation committal.
      * @param durableDataLog   The DataFrameLog to write DataFrames to.
      * @param checkpointPolicy The Checkpoint Policy for Metadata.
+     * @param checksumFrames   Whether to include a checksum in each DataFrame written to the DurableDataLog.
+     * @param compressFrames   Whether to attempt to compress DataFrames before writing them to the DurableDataLog.
+     * @param frameBufferPool  The maximum number of DataFrame buffers to keep for reuse after their DataFrames are committed.
      * @param executor         An Executor to use for async operations.
      * @throws NullPointerException If any of the arguments are null.
      */
-    OperationProcessor(UpdateableContainerMetadata metadata, MemoryStateUpdater stateUpdater, DurableDataLog durableDataLog, MetadataCheckpointPolicy checkpointPolicy, ScheduledExecutorService executor) {
+    OperationProcessor(UpdateableContainerMetadata metadata, MemoryStateUpdater stateUpdater, DurableDataLog durableDataLog,
+                       MetadataCheckpointPolicy checkpointPolicy, boolean checksumFrames, boolean compressFrames, int frameBufferPool,
+                       ScheduledExecutorService executor) {
         super(String.format("OperationProcessor[%d]", metadata.getContainerId()), executor);
         this.metadata = metadata;
         this.metadataUpdater = new OperationMetadataUpdater(this.metadata);
         this.durableDataLog = Preconditions.checkNotNull(durableDataLog, "durableDataLog");
         this.operationQueue = new BlockingDrainingQueue<>();
         this.state = new QueueProcessingState(stateUpdater, checkpointPolicy);
-        val args = new DataFrameBuilder.Args(this.state::frameSealed, this.state::commit, this.state::fail, this.executor);
+        val args = new DataFrameBuilder.Args(this.state::frameSealed, this.state::commit, this.state::fail, this.executor,
+                checksumFrames, compressFrames, frameBufferPool);
         this.dataFrameBuilder = new DataFrameBuilder<>(this.durableDataLog, args);
         this.metrics = new SegmentStoreMetrics.OperationProcessor(this.metadata.getContainerId());
     }
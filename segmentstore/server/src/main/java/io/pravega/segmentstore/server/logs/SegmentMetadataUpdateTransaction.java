@@ -470,7 +470,7 @@ class SegmentMetadataUpdateTransaction implements UpdateableSegmentMetadata {
                             this.length, operation.getStreamSegmentOffset()));
         }
 
-        this.length += operation.getData().length;
+        this.length += operation.getLength();
         acceptAttributes(operation.getAttributeUpdates());
         this.isChanged = true;
     }
@@ -46,7 +46,7 @@ public class CachedStreamSegmentAppendOperation extends StorageOperation {
         Preconditions.checkArgument(baseOperation.getStreamSegmentOffset() >= 0, "given baseOperation does not have an assigned StreamSegment Offset.");
 
         this.streamSegmentOffset = baseOperation.getStreamSegmentOffset();
-        this.length = baseOperation.getData().length;
+        this.length = (int) baseOperation.getLength();
         if (baseOperation.getSequenceNumber() >= 0) {
             setSequenceNumber(baseOperation.getSequenceNumber());
         }
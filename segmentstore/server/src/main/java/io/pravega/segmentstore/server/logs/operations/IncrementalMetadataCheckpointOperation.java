@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.logs.operations;
+
+import io.pravega.segmentstore.server.logs.SerializationException;
+import java.io.DataInputStream;
+
+/**
+ * Log Operation that contains a checkpoint of only those Segments in the Metadata that have changed since a previous
+ * checkpoint (full or incremental). Unlike MetadataCheckpointOperations, these cannot be used as a starting point for
+ * recovery (and hence are not valid Truncation Points); they are merged on top of the state rebuilt from the preceding
+ * MetadataCheckpointOperation.
+ */
+public class IncrementalMetadataCheckpointOperation extends CheckpointOperationBase {
+    //region Members
+
+    private final long previousCheckpointSequenceNumber;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the IncrementalMetadataCheckpointOperation class.
+     *
+     * @param previousCheckpointSequenceNumber The Sequence Number of the previous checkpoint. Only those Segments that
+     *                                         have been used after this Sequence Number will be included.
+     */
+    public IncrementalMetadataCheckpointOperation(long previousCheckpointSequenceNumber) {
+        super();
+        this.previousCheckpointSequenceNumber = previousCheckpointSequenceNumber;
+    }
+
+    protected IncrementalMetadataCheckpointOperation(OperationHeader header, DataInputStream source) throws SerializationException {
+        super(header, source);
+        this.previousCheckpointSequenceNumber = Operation.NO_SEQUENCE_NUMBER;
+    }
+
+    //endregion
+
+    //region Properties
+
+    /**
+     * Gets a value representing the Sequence Number of the previous checkpoint. This value is not serialized; it is only
+     * used when generating the contents of this operation, and will be Operation.NO_SEQUENCE_NUMBER after deserialization.
+     *
+     * @return The Sequence Number.
+     */
+    public long getPreviousCheckpointSequenceNumber() {
+        return this.previousCheckpointSequenceNumber;
+    }
+
+    //endregion
+
+    //region Operation Implementation
+
+    @Override
+    protected OperationType getOperationType() {
+        return OperationType.IncrementalMetadataCheckpoint;
+    }
+
+    //endregion
+}
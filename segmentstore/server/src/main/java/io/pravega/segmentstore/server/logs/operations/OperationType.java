@@ -30,7 +30,8 @@ public enum OperationType {
     MetadataCheckpoint((byte) 6, MetadataCheckpointOperation::new),
     UpdateAttributes((byte) 7, UpdateAttributesOperation::new),
     StorageMetadataCheckpoint((byte) 8, StorageMetadataCheckpointOperation::new),
-    Truncate((byte) 9, StreamSegmentTruncateOperation::new);
+    Truncate((byte) 9, StreamSegmentTruncateOperation::new),
+    IncrementalMetadataCheckpoint((byte) 10, IncrementalMetadataCheckpointOperation::new);
 
     final byte type;
     final DeserializationConstructor deserializationConstructor;
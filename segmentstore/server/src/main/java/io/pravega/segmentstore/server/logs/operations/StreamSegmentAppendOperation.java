@@ -9,12 +9,13 @@
  */
 package io.pravega.segmentstore.server.logs.operations;
 
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.pravega.common.io.StreamHelpers;
 import io.pravega.segmentstore.contracts.AttributeUpdate;
 import io.pravega.segmentstore.server.AttributeSerializer;
 import io.pravega.segmentstore.server.logs.SerializationException;
-import com.google.common.base.Preconditions;
-
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -23,6 +24,9 @@ import java.util.Collection;
 /**
  * Log Operation that represents a StreamSegment Append. This operation, as opposed from CachedStreamSegmentAppendOperation,
  * can be serialized to a DurableDataLog. This operation (although possible), should not be directly added to the In-Memory Transaction Log.
+ *
+ * The payload is held as a ByteBuf, which is not copied when this operation is created. Whoever created the ByteBuf retains
+ * ownership of it, and must not release or modify it until this operation has been fully processed.
  */
 public class StreamSegmentAppendOperation extends StorageOperation {
     //region Members
@@ -30,7 +34,7 @@ public class StreamSegmentAppendOperation extends StorageOperation {
     private static final long NO_OFFSET = -1;
     private static final byte CURRENT_VERSION = 0;
     private long streamSegmentOffset;
-    private byte[] data;
+    private ByteBuf data;
     private Collection<AttributeUpdate> attributeUpdates;
 
     //endregion
@@ -48,6 +52,17 @@ public class StreamSegmentAppendOperation extends StorageOperation {
         this(streamSegmentId, NO_OFFSET, data, attributeUpdates);
     }
 
+    /**
+     * Creates a new instance of the StreamSegmentAppendOperation class.
+     *
+     * @param streamSegmentId  The Id of the StreamSegment to append to.
+     * @param data             A ByteBuf containing the payload to append. This is not copied.
+     * @param attributeUpdates (Optional) The attributeUpdates to update with this append.
+     */
+    public StreamSegmentAppendOperation(long streamSegmentId, ByteBuf data, Collection<AttributeUpdate> attributeUpdates) {
+        this(streamSegmentId, NO_OFFSET, data, attributeUpdates);
+    }
+
     /**
      * Creates a new instance of the StreamSegmentAppendOperation class.
      *
@@ -57,6 +72,18 @@ public class StreamSegmentAppendOperation extends StorageOperation {
      * @param attributeUpdates (Optional) The attributeUpdates to update with this append.
      */
     public StreamSegmentAppendOperation(long streamSegmentId, long offset, byte[] data, Collection<AttributeUpdate> attributeUpdates) {
+        this(streamSegmentId, offset, Unpooled.wrappedBuffer(Preconditions.checkNotNull(data, "data")), attributeUpdates);
+    }
+
+    /**
+     * Creates a new instance of the StreamSegmentAppendOperation class.
+     *
+     * @param streamSegmentId  The Id of the StreamSegment to append to.
+     * @param offset           The offset to append at.
+     * @param data             A ByteBuf containing the payload to append. This is not copied.
+     * @param attributeUpdates (Optional) The attributeUpdates to update with this append.
+     */
+    public StreamSegmentAppendOperation(long streamSegmentId, long offset, ByteBuf data, Collection<AttributeUpdate> attributeUpdates) {
         super(streamSegmentId);
         Preconditions.checkNotNull(data, "data");
 
@@ -84,11 +111,12 @@ public class StreamSegmentAppendOperation extends StorageOperation {
     }
 
     /**
-     * Gets the data buffer for this append.
+     * Gets the data buffer for this append. The payload is the data between the buffer's reader and writer indices.
+     * Callers must not modify the buffer or its indices.
      *
      * @return The data buffer.
      */
-    public byte[] getData() {
+    public ByteBuf getData() {
         return this.data;
     }
 
@@ -112,7 +140,7 @@ public class StreamSegmentAppendOperation extends StorageOperation {
 
     @Override
     public long getLength() {
-        return this.data.length;
+        return this.data.readableBytes();
     }
 
     @Override
@@ -127,8 +155,9 @@ public class StreamSegmentAppendOperation extends StorageOperation {
         target.writeByte(CURRENT_VERSION);
         target.writeLong(getStreamSegmentId());
         target.writeLong(this.streamSegmentOffset);
-        target.writeInt(data.length);
-        target.write(data, 0, data.length);
+        int length = this.data.readableBytes();
+        target.writeInt(length);
+        this.data.getBytes(this.data.readerIndex(), target, length);
         AttributeSerializer.serializeUpdates(this.attributeUpdates, target);
     }
 
@@ -138,9 +167,10 @@ public class StreamSegmentAppendOperation extends StorageOperation {
         setStreamSegmentId(source.readLong());
         this.streamSegmentOffset = source.readLong();
         int dataLength = source.readInt();
-        this.data = new byte[dataLength];
-        int bytesRead = StreamHelpers.readAll(source, this.data, 0, this.data.length);
-        assert bytesRead == this.data.length : "StreamHelpers.readAll did not read all the bytes requested.";
+        byte[] data = new byte[dataLength];
+        int bytesRead = StreamHelpers.readAll(source, data, 0, data.length);
+        assert bytesRead == data.length : "StreamHelpers.readAll did not read all the bytes requested.";
+        this.data = Unpooled.wrappedBuffer(data);
         this.attributeUpdates = AttributeSerializer.deserializeUpdates(source);
     }
 
@@ -150,7 +180,7 @@ public class StreamSegmentAppendOperation extends StorageOperation {
                 "%s, Offset = %s, Length = %d, Attributes = %d",
                 super.toString(),
                 toString(this.streamSegmentOffset, -1),
-                this.data.length,
+                getLength(),
                 this.attributeUpdates == null ? 0 : this.attributeUpdates.size());
     }
 
@@ -9,6 +9,7 @@
  */
 package io.pravega.segmentstore.server.mocks;
 
+import io.netty.buffer.ByteBuf;
 import io.pravega.common.concurrent.Futures;
 import io.pravega.segmentstore.contracts.AttributeUpdate;
 import io.pravega.segmentstore.contracts.ReadResult;
@@ -46,6 +47,22 @@ public class SynchronousStreamSegmentStore implements StreamSegmentStore {
         return result;
     }
 
+    @Override
+    public CompletableFuture<Void> append(String streamSegmentName, ByteBuf data, Collection<AttributeUpdate> attributeUpdates,
+                                          Duration timeout) {
+        CompletableFuture<Void> result = impl.append(streamSegmentName, data, attributeUpdates, timeout);
+        Futures.await(result);
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Void> append(String streamSegmentName, long offset, ByteBuf data,
+                                          Collection<AttributeUpdate> attributeUpdates, Duration timeout) {
+        CompletableFuture<Void> result = impl.append(streamSegmentName, offset, data, attributeUpdates, timeout);
+        Futures.await(result);
+        return result;
+    }
+
     @Override
     public CompletableFuture<Void> updateAttributes(String streamSegmentName, Collection<AttributeUpdate> attributeUpdates, Duration timeout) {
         CompletableFuture<Void> result = impl.updateAttributes(streamSegmentName, attributeUpdates, timeout);
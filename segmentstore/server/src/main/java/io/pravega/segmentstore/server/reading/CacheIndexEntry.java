@@ -10,12 +10,14 @@
 package io.pravega.segmentstore.server.reading;
 
 import com.google.common.base.Preconditions;
+import javax.annotation.concurrent.GuardedBy;
 
 /**
  * Represents a ReadIndexEntry that points to an entry in the Cache.
  */
 public class CacheIndexEntry extends ReadIndexEntry {
-    private final int length;
+    @GuardedBy("this")
+    private int length;
 
     /**
      * Creates a new instance of the ReadIndexEntry class.
@@ -32,10 +34,21 @@ public class CacheIndexEntry extends ReadIndexEntry {
     }
 
     @Override
-    long getLength() {
+    synchronized long getLength() {
         return this.length;
     }
 
+    /**
+     * Increases the length of this entry. This should only be invoked after the Cache entry this points to has been
+     * appended to accordingly.
+     *
+     * @param delta The number of bytes to increase the length by.
+     */
+    synchronized void increaseLength(int delta) {
+        Preconditions.checkArgument(delta >= 0, "delta must be a non-negative number.");
+        this.length += delta;
+    }
+
     @Override
     boolean isDataEntry() {
         return true;
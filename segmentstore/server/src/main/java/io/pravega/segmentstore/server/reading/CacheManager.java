@@ -22,6 +22,7 @@ import java.util.HashSet;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import lombok.extern.slf4j.Slf4j;
@@ -37,6 +38,10 @@ import lombok.extern.slf4j.Slf4j;
  * (in the clients) that is generated or updated gets assigned the current generation. As the CacheManager determines that
  * there are too many Cache Entries or that the maximum size has been exceeded, it will increment the oldest generation.
  * The CacheManager Clients can use this information to evict those Cache Entries that have a generation below the oldest generation number.
+ *
+ * The size of the Cache is the larger of the sum of the sizes reported by the clients and the number of bytes that the
+ * Cache itself reports as used, since the latter includes any allocation overhead (i.e., rounding entries up to whole
+ * blocks), which the clients are not aware of.
  */
 @Slf4j
 @ThreadSafe
@@ -52,6 +57,8 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
     private final CachePolicy policy;
     private final AtomicBoolean closed;
     private final SegmentStoreMetrics.CacheManager metrics;
+    private final LongSupplier getCacheUsedBytes;
+    private volatile long cacheSize;
 
     //endregion
 
@@ -64,10 +71,24 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
      * @param executorService An executorService to use for scheduled tasks.
      */
     public CacheManager(CachePolicy policy, ScheduledExecutorService executorService) {
+        this(policy, () -> 0, executorService);
+    }
+
+    /**
+     * Creates a new instance of the CacheManager class.
+     *
+     * @param policy             The policy to use with this CacheManager.
+     * @param getCacheUsedBytes  A Supplier that returns the number of bytes actually used by the Cache (including any
+     *                           allocation overhead), or 0 if not known.
+     * @param executorService    An executorService to use for scheduled tasks.
+     */
+    public CacheManager(CachePolicy policy, LongSupplier getCacheUsedBytes, ScheduledExecutorService executorService) {
         Preconditions.checkNotNull(policy, "policy");
+        Preconditions.checkNotNull(getCacheUsedBytes, "getCacheUsedBytes");
         Preconditions.checkNotNull(executorService, "executorService");
 
         this.policy = policy;
+        this.getCacheUsedBytes = getCacheUsedBytes;
         this.clients = new HashSet<>();
         this.oldestGeneration = 0;
         this.currentGeneration = 0;
@@ -133,6 +154,19 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
 
     //endregion
 
+    //region Properties
+
+    /**
+     * Gets the ratio of the size of the Cache (as reported by all the clients) to the maximum size allowed by the
+     * CachePolicy, as of the last time the CachePolicy was applied. This may exceed 1 if the Cache has outgrown the
+     * CachePolicy and could not be shrunk yet.
+     */
+    double getCacheUtilization() {
+        return (double) this.cacheSize / this.policy.getMaxSize();
+    }
+
+    //endregion
+
     //region Client Registration
 
     /**
@@ -174,11 +208,48 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
 
     //endregion
 
+    //region Cleanup
+
+    /**
+     * Attempts to free up space in the Cache right away, by evicting the oldest generations (one at a time, until at least
+     * one of them yielded anything), regardless of whether the CachePolicy is currently exceeded or not. This should be
+     * used when the Cache has rejected an insertion because it is full, which can happen if it fills up faster than the
+     * CachePolicy is applied.
+     *
+     * @return True if anything was evicted, false otherwise (the Cache only contains data that cannot be evicted yet).
+     */
+    synchronized boolean tryCleanup() {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        CacheStatus currentStatus = collectStatus();
+        if (currentStatus == null || currentStatus.getSize() == 0) {
+            // Nothing to evict.
+            return false;
+        }
+
+        adjustCurrentGeneration(currentStatus);
+        long sizeReduction = 0;
+        int oldestGeneration = Math.max(this.oldestGeneration, currentStatus.getOldestGeneration());
+        while (sizeReduction == 0 && oldestGeneration < this.currentGeneration) {
+            oldestGeneration++;
+            this.oldestGeneration = oldestGeneration;
+            sizeReduction = updateClients();
+        }
+
+        currentStatus = currentStatus.withUpdatedSize(-sizeReduction);
+        logCurrentStatus(currentStatus);
+        this.cacheSize = currentStatus.getSize();
+        this.metrics.report(currentStatus.getSize(), currentStatus.getNewestGeneration() - currentStatus.getOldestGeneration());
+        return sizeReduction > 0;
+    }
+
+    //endregion
+
     //region Helpers
 
-    protected void applyCachePolicy() {
+    protected synchronized void applyCachePolicy() {
         // Run through all the active clients and gather status.
         CacheStatus currentStatus = collectStatus();
+        this.cacheSize = currentStatus == null ? 0 : currentStatus.getSize();
         if (currentStatus == null || currentStatus.getSize() == 0) {
             // This indicates we have no clients or those clients have no data.
             return;
@@ -206,6 +277,7 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
                 oldestChanged = adjustOldestGeneration(currentStatus);
             }
         } while (sizeReduction > 0 && oldestChanged);
+        this.cacheSize = currentStatus.getSize();
         this.metrics.report(currentStatus.getSize(), currentStatus.getNewestGeneration() - currentStatus.getOldestGeneration());
     }
 
@@ -244,6 +316,9 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
             return null;
         }
 
+        // The clients only know the lengths of their entries, not how much space the Cache actually uses for them.
+        totalSize = Math.max(totalSize, this.getCacheUsedBytes.getAsLong());
+
         return new CacheStatus(totalSize, minGeneration, maxGeneration);
     }
 
@@ -15,6 +15,11 @@ import java.time.Duration;
 
 /**
  * Represents a Policy for a CacheManager.
+ *
+ * Data is evicted from the Cache in the order of the generation in which it was last used. To prevent large scans (i.e.,
+ * catch-up reads) from pushing out data that is frequently used (such as the tail of active Segments), data read from
+ * Storage is inserted into the Cache as if it had been last used a while ago (see getStorageReadGenerations()). Such data
+ * only becomes as valuable as newly appended data once it is used again.
  */
 public class CachePolicy {
     //region Members
@@ -22,6 +27,7 @@ public class CachePolicy {
     private final long maxSize;
     private final int maxGenerations;
     private final Duration generationDuration;
+    private final int storageReadGenerations;
 
     //endregion
 
@@ -35,10 +41,24 @@ public class CachePolicy {
      * @param generationDuration The amount of time one Cache generation spans.
      */
     public CachePolicy(long maxSize, Duration maxTime, Duration generationDuration) {
+        this(maxSize, maxTime, generationDuration, Duration.ZERO);
+    }
+
+    /**
+     * Creates a new instance of the CachePolicy class.
+     *
+     * @param maxSize            The maximum size of the cache.
+     * @param maxTime            The maximum amount of time a cache entry can live in the cache.
+     * @param generationDuration The amount of time one Cache generation spans.
+     * @param storageReadAge     The amount of time by which data read from Storage is aged when inserted into the cache.
+     */
+    public CachePolicy(long maxSize, Duration maxTime, Duration generationDuration, Duration storageReadAge) {
         Preconditions.checkArgument(maxSize > 0, "maxSize must be a positive integer");
+        Preconditions.checkArgument(!storageReadAge.isNegative(), "storageReadAge must be a non-negative duration");
         this.maxSize = maxSize;
         this.generationDuration = generationDuration;
         this.maxGenerations = Math.max(1, (int) ((double) maxTime.toMillis() / generationDuration.toMillis()));
+        this.storageReadGenerations = Math.min(this.maxGenerations - 1, (int) ((double) storageReadAge.toMillis() / generationDuration.toMillis()));
     }
 
     //endregion
@@ -73,9 +93,20 @@ public class CachePolicy {
         return this.generationDuration;
     }
 
+    /**
+     * Gets a value indicating the number of generations by which data read from Storage is aged when inserted into the
+     * cache. Such data will be evicted before any data that was added or used in more recent generations.
+     *
+     * @return The value.
+     */
+    public int getStorageReadGenerations() {
+        return this.storageReadGenerations;
+    }
+
     @Override
     public String toString() {
-        return String.format("MaxSize = %d, MaxGen = %d, Generation = %s", this.maxSize, this.maxGenerations, this.generationDuration);
+        return String.format("MaxSize = %d, MaxGen = %d, Generation = %s, StorageReadGen = %d",
+                this.maxSize, this.maxGenerations, this.generationDuration, this.storageReadGenerations);
     }
 
     //endregion
@@ -9,6 +9,7 @@
  */
 package io.pravega.segmentstore.server.reading;
 
+import io.netty.buffer.ByteBuf;
 import io.pravega.common.Exceptions;
 import io.pravega.segmentstore.contracts.ReadResultEntryContents;
 import io.pravega.segmentstore.contracts.ReadResultEntryType;
@@ -47,4 +48,16 @@ class CacheReadResultEntry extends ReadResultEntryBase {
         super(ReadResultEntryType.Cache, streamSegmentOffset, dataLength);
         complete(new ReadResultEntryContents(data, dataLength));
     }
+
+    /**
+     * Creates a new instance of the CacheReadResultEntry class that is backed by a view over the Cache contents.
+     *
+     * @param streamSegmentOffset The offset within the StreamSegment where this ReadResultEntry starts at.
+     * @param data                A ByteBuf containing the data to be read. Ownership of this ByteBuf is transferred to
+     *                            the consumer of this entry's contents, which must release it when done.
+     */
+    CacheReadResultEntry(long streamSegmentOffset, ByteBuf data) {
+        super(ReadResultEntryType.Cache, streamSegmentOffset, data.readableBytes());
+        complete(new ReadResultEntryContents(data));
+    }
 }
@@ -10,6 +10,7 @@
 package io.pravega.segmentstore.server.reading;
 
 import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
 import io.pravega.common.Exceptions;
 import io.pravega.common.ObjectClosedException;
 import io.pravega.segmentstore.contracts.ReadResult;
@@ -119,9 +120,9 @@ public class ContainerReadIndex implements ReadIndex {
     //region ReadIndex Implementation
 
     @Override
-    public void append(long streamSegmentId, long offset, byte[] data) {
+    public void append(long streamSegmentId, long offset, ByteBuf data) {
         Exceptions.checkNotClosed(this.closed.get(), this);
-        log.debug("{}: append (StreamSegmentId = {}, Offset = {}, DataLength = {}).", this.traceObjectId, streamSegmentId, offset, data.length);
+        log.debug("{}: append (StreamSegmentId = {}, Offset = {}, DataLength = {}).", this.traceObjectId, streamSegmentId, offset, data.readableBytes());
 
         // Append the data to the StreamSegment Index. It performs further validation with respect to offsets, etc.
         StreamSegmentReadIndex index = getOrCreateIndex(streamSegmentId);
@@ -354,7 +355,7 @@ public class ContainerReadIndex implements ReadIndex {
                 Exceptions.checkArgument(!segmentMetadata.isDeleted(), "streamSegmentId",
                         "StreamSegmentId {} exists in the metadata but is marked as deleted.", streamSegmentId);
 
-                index = new StreamSegmentReadIndex(this.config, segmentMetadata, this.cache, this.storage, this.executor, isRecoveryMode());
+                index = new StreamSegmentReadIndex(this.config, segmentMetadata, this.cache, this.storage, this.cacheManager, this.executor, isRecoveryMode());
                 this.cacheManager.register(index);
                 this.readIndices.put(streamSegmentId, index);
             }
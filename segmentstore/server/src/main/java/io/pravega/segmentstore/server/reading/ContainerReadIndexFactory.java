@@ -44,7 +44,7 @@ public class ContainerReadIndexFactory implements ReadIndexFactory {
         this.config = config;
         this.cacheFactory = cacheFactory;
         this.executorService = executorService;
-        this.cacheManager = new CacheManager(config.getCachePolicy(), this.executorService);
+        this.cacheManager = new CacheManager(config.getCachePolicy(), cacheFactory::getUsedBytes, this.executorService);
 
         // Start the CacheManager. It's OK to wait for it to start, as it doesn't do anything expensive during that phase.
         this.cacheManager.startAsync().awaitRunning();
@@ -11,6 +11,7 @@ package io.pravega.segmentstore.server.reading;
 
 import io.pravega.common.util.ConfigBuilder;
 import io.pravega.common.util.ConfigurationException;
+import io.pravega.common.util.InvalidPropertyValueException;
 import io.pravega.common.util.Property;
 import io.pravega.common.util.TypedProperties;
 import java.time.Duration;
@@ -24,10 +25,13 @@ public class ReadIndexConfig {
     //region Config Names
     public static final Property<Integer> STORAGE_READ_ALIGNMENT = Property.named("storageReadAlignment", 1024 * 1024);
     public static final Property<Integer> MEMORY_READ_MIN_LENGTH = Property.named("memoryReadMinLength", 4 * 1024);
+    public static final Property<Integer> MEMORY_APPEND_MAX_LENGTH = Property.named("memoryAppendMaxLength", 256 * 1024);
+    public static final Property<Integer> STORAGE_READ_AHEAD_COUNT = Property.named("storageReadAheadCount", 4);
     public static final Property<Integer> STORAGE_READ_DEFAULT_TIMEOUT = Property.named("storageReadDefaultTimeoutMillis", 30 * 1000);
     public static final Property<Long> CACHE_POLICY_MAX_SIZE = Property.named("cacheMaxSize", 16L * 1024 * 1024 * 1024);
     public static final Property<Integer> CACHE_POLICY_MAX_TIME = Property.named("cacheMaxTimeMillis", 30 * 60 * 1000);
     public static final Property<Integer> CACHE_POLICY_GENERATION_TIME = Property.named("cacheGenerationTimeMillis", 5 * 1000);
+    public static final Property<Integer> CACHE_POLICY_STORAGE_READ_AGE = Property.named("cacheStorageReadAgeMillis", 5 * 60 * 1000);
     private static final String COMPONENT_CODE = "readindex";
 
     //endregion
@@ -41,6 +45,16 @@ public class ReadIndexConfig {
     @Getter
     private final int storageReadAlignment;
 
+    /**
+     * The maximum number of blocks (of size storageReadAlignment) to read ahead from Storage for sequential readers that
+     * have fallen behind the Cache. Read-ahead data is inserted into the Cache, so that subsequent reads need not wait
+     * on Storage. The actual number of blocks read ahead is reduced as the Cache fills up.
+     * <p>
+     * Setting this to 0 will effectively disable this feature.
+     */
+    @Getter
+    private final int storageReadAheadCount;
+
     /**
      * The minimum number of bytes to serve from memory during reads. The ReadIndex will try to coalesce data from multiple
      * contiguous index entries, as long as they are all referring to cached data, when serving individual ReadResultEntries
@@ -55,6 +69,19 @@ public class ReadIndexConfig {
     @Getter
     private final int memoryReadMinLength;
 
+    /**
+     * The maximum number of bytes that the ReadIndex will coalesce into a single index (and Cache) entry when appending.
+     * Appends at the tail of a Segment are appended in place to the last Cache entry (if the Cache supports it), as long
+     * as that entry does not grow beyond this size; otherwise a new entry is created for them.
+     * <p>
+     * This is most effective in cases when there is a large number of very small appends, which would otherwise each have
+     * their own index and Cache entries.
+     * <p>
+     * Setting this to 0 will effectively disable this feature.
+     */
+    @Getter
+    private final int memoryAppendMaxLength;
+
     /**
      * The CachePolicy, as defined in this configuration.
      */
@@ -78,12 +105,31 @@ public class ReadIndexConfig {
      */
     private ReadIndexConfig(TypedProperties properties) throws ConfigurationException {
         this.storageReadAlignment = properties.getInt(STORAGE_READ_ALIGNMENT);
+        this.storageReadAheadCount = properties.getInt(STORAGE_READ_AHEAD_COUNT);
+        if (this.storageReadAheadCount < 0) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be a non-negative integer.",
+                    STORAGE_READ_AHEAD_COUNT, this.storageReadAheadCount));
+        }
+
         this.memoryReadMinLength = properties.getInt(MEMORY_READ_MIN_LENGTH);
+        this.memoryAppendMaxLength = properties.getInt(MEMORY_APPEND_MAX_LENGTH);
+        if (this.memoryAppendMaxLength < 0) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be a non-negative integer.",
+                    MEMORY_APPEND_MAX_LENGTH, this.memoryAppendMaxLength));
+        }
+
         this.storageReadDefaultTimeout = Duration.ofMillis(properties.getInt(STORAGE_READ_DEFAULT_TIMEOUT));
         long cachePolicyMaxSize = properties.getLong(CACHE_POLICY_MAX_SIZE);
         int cachePolicyMaxTime = properties.getInt(CACHE_POLICY_MAX_TIME);
         int cachePolicyGenerationTime = properties.getInt(CACHE_POLICY_GENERATION_TIME);
-        this.cachePolicy = new CachePolicy(cachePolicyMaxSize, Duration.ofMillis(cachePolicyMaxTime), Duration.ofMillis(cachePolicyGenerationTime));
+        int cachePolicyStorageReadAge = properties.getInt(CACHE_POLICY_STORAGE_READ_AGE);
+        if (cachePolicyStorageReadAge < 0) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be a non-negative integer.",
+                    CACHE_POLICY_STORAGE_READ_AGE, cachePolicyStorageReadAge));
+        }
+
+        this.cachePolicy = new CachePolicy(cachePolicyMaxSize, Duration.ofMillis(cachePolicyMaxTime), Duration.ofMillis(cachePolicyGenerationTime),
+                Duration.ofMillis(cachePolicyStorageReadAge));
     }
 
     /**
@@ -23,6 +23,8 @@ abstract class ReadIndexEntry implements SortedIndex.IndexEntry {
     private final long streamSegmentOffset;
     @GuardedBy("this")
     private int generation;
+    @GuardedBy("this")
+    private boolean prefetched;
 
     //endregion
 
@@ -63,6 +65,25 @@ abstract class ReadIndexEntry implements SortedIndex.IndexEntry {
         this.generation = generation;
     }
 
+    /**
+     * Marks this ReadIndexEntry as prefetched, i.e., its data has been read ahead from Storage but nobody has accessed it
+     * yet.
+     */
+    synchronized void markPrefetched() {
+        this.prefetched = true;
+    }
+
+    /**
+     * Records the fact that this ReadIndexEntry has been accessed.
+     *
+     * @return True if this was the first access to a prefetched entry, false otherwise.
+     */
+    synchronized boolean recordAccess() {
+        boolean result = this.prefetched;
+        this.prefetched = false;
+        return result;
+    }
+
     /**
      * Gets a value indicating the StreamSegment offset for this entry.
      */
@@ -25,6 +25,8 @@ class ReadIndexSummary {
     @GuardedBy("this")
     private int currentGeneration;
     @GuardedBy("this")
+    private int oldestGeneration;
+    @GuardedBy("this")
     private long totalSize;
     @GuardedBy("this")
     private final HashMap<Integer, Integer> generations;
@@ -52,6 +54,34 @@ class ReadIndexSummary {
         this.currentGeneration = generation;
     }
 
+    /**
+     * Updates the oldest generation (elements in older generations are about to be evicted).
+     *
+     * @param generation The generation to set.
+     */
+    synchronized void setOldestGeneration(int generation) {
+        this.oldestGeneration = generation;
+    }
+
+    /**
+     * Records the addition of an element of the given size to an older generation than the current one, as if it had
+     * last been used the given number of generations ago. The resulting generation will not be older than the oldest
+     * generation (as set via setOldestGeneration()).
+     *
+     * @param size The size of the element to add.
+     * @param age  The number of generations before the current one to add the element to.
+     * @return The generation the element has been added to.
+     */
+    synchronized int addAged(long size, int age) {
+        Preconditions.checkArgument(size >= 0, "size must be a non-negative number");
+        Preconditions.checkArgument(age >= 0, "age must be a non-negative number");
+        int generation = Math.max(this.oldestGeneration, this.currentGeneration - age);
+        generation = Math.min(generation, this.currentGeneration);
+        this.totalSize += size;
+        this.generations.put(generation, this.generations.getOrDefault(generation, 0) + 1);
+        return generation;
+    }
+
     /**
      * Records the addition of an element of the given size to the current generation.
      *
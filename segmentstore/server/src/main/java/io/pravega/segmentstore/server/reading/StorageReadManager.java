@@ -31,6 +31,9 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * Facilitates and Organizes the reads from Storage.
+ *
+ * It also keeps track of the access pattern of the reads it executes, so that its owner can decide whether to issue
+ * read-ahead requests (see isSequential() and readAhead()).
  */
 @Slf4j
 @ThreadSafe
@@ -48,6 +51,12 @@ public class StorageReadManager implements AutoCloseable {
     private final Object lock = new Object();
     @GuardedBy("lock")
     private boolean closed;
+    @GuardedBy("lock")
+    private long lastReadOffset;
+    @GuardedBy("lock")
+    private long sequentialReadEndOffset;
+    @GuardedBy("lock")
+    private boolean sequential;
 
     //endregion
 
@@ -69,6 +78,8 @@ public class StorageReadManager implements AutoCloseable {
         this.storage = storage;
         this.executor = executor;
         this.pendingRequests = new TreeMap<>();
+        this.lastReadOffset = -1;
+        this.sequentialReadEndOffset = -1;
     }
 
     //endregion
@@ -106,6 +117,7 @@ public class StorageReadManager implements AutoCloseable {
         log.debug("{}: StorageRead.Execute {}", this.traceObjectId, request);
         synchronized (this.lock) {
             Exceptions.checkNotClosed(this.closed, this);
+            recordAccess(request);
             Request existingRequest = findOverlappingRequest(request);
             if (existingRequest != null) {
                 // We found an overlapping request. Adjust the current request length.
@@ -124,6 +136,55 @@ public class StorageReadManager implements AutoCloseable {
         executeStorageRead(request);
     }
 
+    /**
+     * Queues the given request as a read-ahead request. Unlike execute(), this request will not be queued at all if it
+     * overlaps with any pending Request (in which case none of its callbacks will be invoked), and it does not count as
+     * an access by itself when determining whether reads are sequential.
+     *
+     * @param request The request to queue.
+     * @return True if the request has been queued, false otherwise.
+     */
+    boolean readAhead(Request request) {
+        synchronized (this.lock) {
+            Exceptions.checkNotClosed(this.closed, this);
+            Map.Entry<Long, Request> nextEntry = this.pendingRequests.ceilingEntry(request.getOffset());
+            if (findOverlappingRequest(request) != null || (nextEntry != null && nextEntry.getKey() < request.getEndOffset())) {
+                return false;
+            }
+
+            // A subsequent read that picks up where this one leaves off is still sequential.
+            this.sequentialReadEndOffset = Math.max(this.sequentialReadEndOffset, request.getEndOffset());
+            this.pendingRequests.put(request.getOffset(), request);
+        }
+
+        log.debug("{}: StorageRead.ReadAhead {}", this.traceObjectId, request);
+        executeStorageRead(request);
+        return true;
+    }
+
+    /**
+     * Gets a value indicating whether the most recently executed Request (not counting read-ahead requests) was sequential,
+     * i.e., it was not behind the previous Request and it did not skip over any data after the previous Request (or any
+     * read-ahead Requests issued after it). This is a heuristic: concurrent readers at different positions in the Segment
+     * will interfere with each other.
+     */
+    boolean isSequential() {
+        synchronized (this.lock) {
+            return this.sequential;
+        }
+    }
+
+    @GuardedBy("lock")
+    private void recordAccess(Request request) {
+        this.sequential = this.lastReadOffset >= 0
+                && request.getOffset() >= this.lastReadOffset
+                && request.getOffset() <= this.sequentialReadEndOffset;
+        this.lastReadOffset = request.getOffset();
+        this.sequentialReadEndOffset = this.sequential
+                ? Math.max(this.sequentialReadEndOffset, request.getEndOffset())
+                : request.getEndOffset();
+    }
+
     /**
      * Executes the Storage Read for the given request.
      *
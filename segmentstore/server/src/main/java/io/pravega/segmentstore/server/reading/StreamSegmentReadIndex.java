@@ -11,6 +11,8 @@ package io.pravega.segmentstore.server.reading;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterators;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.pravega.common.Exceptions;
 import io.pravega.common.LoggerHelpers;
 import io.pravega.common.concurrent.Futures;
@@ -25,6 +27,7 @@ import io.pravega.segmentstore.contracts.StreamSegmentSealedException;
 import io.pravega.segmentstore.server.CacheKey;
 import io.pravega.segmentstore.server.SegmentMetadata;
 import io.pravega.segmentstore.storage.Cache;
+import io.pravega.segmentstore.storage.CacheFullException;
 import io.pravega.segmentstore.storage.ReadOnlyStorage;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
@@ -68,11 +71,14 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
     @GuardedBy("lock")
     private final HashMap<Long, Long> mergeOffsets; //Key = StreamSegmentId (Merged), Value = Merge offset.
     private final StorageReadManager storageReadManager;
+    private final CacheManager cacheManager;
     private final ReadIndexSummary summary;
     private final ScheduledExecutorService executor;
     private SegmentMetadata metadata;
     @GuardedBy("lock")
     private long lastAppendedOffset;
+    @GuardedBy("lock")
+    private CacheIndexEntry lastAppendedEntry;
     private boolean recoveryMode;
     private boolean closed;
     private boolean merged;
@@ -89,21 +95,26 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
      * @param metadata     The StreamSegmentMetadata to use.
      * @param cache        The Cache to use to store, read and manage data entries.
      * @param storage      A ReadOnlyStorage to fetch data if not in Cache.
+     * @param cacheManager The CacheManager this index is registered with (used to determine how much to read ahead, and to
+     *                     free up space when the Cache is full).
      * @param executor     An executor to run async operations.
      * @param recoveryMode Whether we are in recovery mode at the time of creation (this can change later on).
      * @throws NullPointerException If any of the arguments are null.
      */
-    StreamSegmentReadIndex(ReadIndexConfig config, SegmentMetadata metadata, Cache cache, ReadOnlyStorage storage, ScheduledExecutorService executor, boolean recoveryMode) {
+    StreamSegmentReadIndex(ReadIndexConfig config, SegmentMetadata metadata, Cache cache, ReadOnlyStorage storage, CacheManager cacheManager,
+                           ScheduledExecutorService executor, boolean recoveryMode) {
         Preconditions.checkNotNull(config, "config");
         Preconditions.checkNotNull(metadata, "metadata");
         Preconditions.checkNotNull(cache, "cache");
         Preconditions.checkNotNull(storage, "storage");
+        Preconditions.checkNotNull(cacheManager, "cacheManager");
         Preconditions.checkNotNull(executor, "executor");
 
         this.traceObjectId = String.format("ReadIndex[%d-%d]", metadata.getContainerId(), metadata.getId());
         this.config = config;
         this.metadata = metadata;
         this.cache = cache;
+        this.cacheManager = cacheManager;
         this.recoveryMode = recoveryMode;
         this.indexEntries = new AvlTreeIndex<>();
         this.futureReads = new FutureReadResultEntryCollection();
@@ -161,13 +172,14 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         Preconditions.checkState(this.closed, "Cannot call removeAllEntries unless the ReadIndex is closed.");
         int count;
         synchronized (this.lock) {
+            ArrayList<CacheKey> keys = new ArrayList<>();
             this.indexEntries.forEach(entry -> {
                 if (entry.isDataEntry()) {
-                    CacheKey key = getCacheKey(entry);
-                    this.cache.remove(key);
+                    keys.add(getCacheKey(entry));
                 }
             });
 
+            this.cache.removeBatch(keys);
             count = this.indexEntries.size();
             this.indexEntries.clear();
         }
@@ -191,6 +203,7 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
 
         // Update the current generation with the provided info.
         this.summary.setCurrentGeneration(currentGeneration);
+        this.summary.setOldestGeneration(oldestGeneration);
 
         // Identify & collect those entries that can be removed, then remove them from the index.
         AtomicLong sizeRemoved = new AtomicLong();
@@ -212,10 +225,13 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
             });
 
             // Remove from the index and from the cache.
+            ArrayList<CacheKey> keys = new ArrayList<>(toRemove.size());
             toRemove.forEach(e -> {
                 this.indexEntries.remove(e.key());
-                this.cache.remove(getCacheKey(e));
+                keys.add(getCacheKey(e));
             });
+
+            this.cache.removeBatch(keys);
         }
 
         // Update the summary (no need for holding the lock here; we are not modifying the index).
@@ -308,16 +324,18 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
      * Appends the given range of bytes at the given offset.
      *
      * @param offset The offset within the StreamSegment to append at.
-     * @param data   The range of bytes to append.
+     * @param data   A ByteBuf containing the range of bytes to append. Its contents are copied into the Cache.
      * @throws NullPointerException     If data is null.
      * @throws IllegalArgumentException If the operation would cause writing beyond the StreamSegment's Length.
      * @throws IllegalArgumentException If the offset is invalid (does not match the previous append offset).
+     * @throws CacheFullException       If the Cache is full and nothing could be evicted from it.
      */
-    void append(long offset, byte[] data) {
+    void append(long offset, ByteBuf data) {
         Exceptions.checkNotClosed(this.closed, this);
         Preconditions.checkState(!isMerged(), "StreamSegment has been merged into a different one. Cannot append more ReadIndex entries.");
 
-        if (data.length == 0) {
+        int dataLength = data.readableBytes();
+        if (dataLength == 0) {
             // Nothing to do. Adding empty read entries will only make our system slower and harder to debug.
             return;
         }
@@ -326,13 +344,78 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         // Adding at the end means that we always need to "catch-up" with Length. Check to see if adding
         // this entry will make us catch up to it or not.
         long length = this.metadata.getLength();
-        long endOffset = offset + data.length;
+        long endOffset = offset + dataLength;
         Exceptions.checkArgument(endOffset <= length, "offset", "The given range of bytes (%d-%d) is beyond the StreamSegment Length (%d).", offset, endOffset, length);
 
-        // Then append an entry for it in the ReadIndex. It's ok to insert into the cache outside of the lock here,
+        // Small appends are coalesced into the last entry, if possible.
+        if (appendInPlace(offset, data)) {
+            return;
+        }
+
+        // Otherwise append a new entry for it in the ReadIndex. It's ok to insert into the cache outside of the lock here,
         // since there is no chance of competing with another write request for the same offset at the same time.
-        this.cache.insert(new CacheKey(this.metadata.getId(), offset), data);
-        appendEntry(new CacheIndexEntry(offset, data.length));
+        CacheKey key = new CacheKey(this.metadata.getId(), offset);
+        while (true) {
+            try {
+                this.cache.insert(key, data);
+                break;
+            } catch (CacheFullException ex) {
+                // The Cache has reached its hard limit before the CacheManager got a chance to evict anything. Unlike data
+                // read from Storage, appended data is not in Storage yet, so we cannot skip caching it. Evict what we can
+                // and try again (this must not be done while holding the lock, since eviction needs it).
+                log.warn("{}: Cache full while appending (Offset = {}, Length = {}). Attempting to free up space.",
+                        this.traceObjectId, offset, dataLength);
+                if (!this.cacheManager.tryCleanup()) {
+                    throw ex;
+                }
+            }
+        }
+
+        appendEntry(new CacheIndexEntry(offset, dataLength));
+    }
+
+    /**
+     * Attempts to append the given range of bytes to the last entry in the ReadIndex (and to its Cache entry), in place.
+     * This will only succeed if the Cache supports in-place appends, the last entry is a CacheIndexEntry that has not been
+     * evicted yet, and the resulting entry does not exceed ReadIndexConfig.getMemoryAppendMaxLength().
+     *
+     * @param offset The offset within the StreamSegment to append at.
+     * @param data   A ByteBuf containing the range of bytes to append.
+     * @return True if the data has been appended to the last entry, false if a new entry needs to be created for it.
+     */
+    private boolean appendInPlace(long offset, ByteBuf data) {
+        int dataLength = data.readableBytes();
+        synchronized (this.lock) {
+            CacheIndexEntry entry = this.lastAppendedEntry;
+            if (entry == null
+                    || entry.getLength() + dataLength > this.config.getMemoryAppendMaxLength()
+                    || this.indexEntries.get(entry.key()) != entry) {
+                // Nothing to append to, the entry would be too large, or it has been evicted.
+                return false;
+            }
+
+            Exceptions.checkArgument(offset == this.lastAppendedOffset + 1, "offset", "The given range of bytes (%d-%d) does not start right after the last appended range (%d).", offset, offset + dataLength - 1, this.lastAppendedOffset);
+
+            // We need to hold the lock while appending to the Cache, otherwise the entry may be evicted in the meantime,
+            // or a concurrent read may get a Cache view that does not match the entry's length.
+            try {
+                if (!this.cache.append(getCacheKey(entry), data)) {
+                    return false;
+                }
+            } catch (CacheFullException ex) {
+                // The entry has not been modified. Let the caller create a new entry, which knows how to handle this.
+                return false;
+            }
+
+            // The entry now contains fresh data; move it to the current generation.
+            this.summary.remove(entry.getLength(), entry.getGeneration());
+            entry.increaseLength(dataLength);
+            entry.setGeneration(this.summary.add(entry.getLength()));
+            this.lastAppendedOffset = entry.getLastStreamSegmentOffset();
+        }
+
+        log.debug("{}: Append In Place (Offset = {}, Length = {}).", this.traceObjectId, offset, dataLength);
+        return true;
     }
 
     /**
@@ -449,23 +532,51 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
             ReadIndexEntry oldEntry = addToIndex(entry);
             assert oldEntry == null : String.format("Added a new entry in the ReadIndex that overrode an existing element. New = %s, Old = %s.", entry, oldEntry);
             this.lastAppendedOffset = lastOffset;
+            this.lastAppendedEntry = entry instanceof CacheIndexEntry ? (CacheIndexEntry) entry : null;
         }
     }
 
-    private void insert(long offset, ByteArraySegment data) {
-        log.debug("{}: Insert (Offset = {}, Length = {}).", this.traceObjectId, offset, data.getLength());
+    /**
+     * Inserts the given range of bytes (which has been read from Storage) at the given offset.
+     *
+     * @param offset     The offset within the StreamSegment to insert at.
+     * @param data       The data to insert.
+     * @param prefetched True if the data has been read ahead (nobody has accessed it yet), false otherwise.
+     */
+    private void insert(long offset, ByteArraySegment data, boolean prefetched) {
+        log.debug("{}: Insert (Offset = {}, Length = {}, Prefetched = {}).", this.traceObjectId, offset, data.getLength(), prefetched);
+        if (this.cacheManager.getCacheUtilization() >= 1) {
+            // Admission control: the Cache is already over its budget, so don't make it worse by adding data to it that
+            // we may never need again (the requester already has it).
+            log.debug("{}: Insert skipped (Offset = {}, Length = {}): Cache is full.", this.traceObjectId, offset, data.getLength());
+            return;
+        }
 
         // There is a very small chance we might be adding data twice, if we get two concurrent requests that slipped past
         // the StorageReadManager. Fixing it would be complicated, so let's see if it poses any problems.
         CacheIndexEntry entry = new CacheIndexEntry(offset, data.getLength());
+        if (prefetched) {
+            entry.markPrefetched();
+        }
+
         long lastOffset = entry.getLastStreamSegmentOffset();
         Exceptions.checkArgument(lastOffset < this.metadata.getStorageLength(), "entry",
                 "The given range of bytes (%d-%d) does not correspond to the StreamSegment range that is in Storage (%d).",
                 entry.getStreamSegmentOffset(), lastOffset, this.metadata.getStorageLength());
         ReadIndexEntry oldEntry;
         synchronized (this.lock) {
-            this.cache.insert(getCacheKey(entry), data);
-            oldEntry = addToIndex(entry);
+            try {
+                this.cache.insert(getCacheKey(entry), data);
+            } catch (CacheFullException ex) {
+                // Same as above; the CacheManager will catch up eventually. The data is in Storage, so we can read it again.
+                log.warn("{}: Insert skipped (Offset = {}, Length = {}): {}",
+                        this.traceObjectId, offset, data.getLength(), ex.getMessage());
+                return;
+            }
+
+            // Data read from Storage is aged, so that it will be evicted before more valuable data (i.e., the tail) unless
+            // it is used again.
+            oldEntry = addToIndex(entry, this.config.getCachePolicy().getStorageReadGenerations());
         }
 
         if (oldEntry != null) {
@@ -476,12 +587,21 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
 
     @GuardedBy("lock")
     private ReadIndexEntry addToIndex(ReadIndexEntry entry) {
+        return addToIndex(entry, 0);
+    }
+
+    @GuardedBy("lock")
+    private ReadIndexEntry addToIndex(ReadIndexEntry entry, int generationAge) {
         // Insert the new entry and figure out if an old entry was overwritten.
         ReadIndexEntry oldEntry = this.indexEntries.put(entry);
         if (entry.isDataEntry()) {
             if (entry instanceof MergedIndexEntry) {
                 // This entry has already existed in the cache for a while; do not change its generation.
                 this.summary.add(entry.getLength(), entry.getGeneration());
+            } else if (generationAge > 0) {
+                // Update the Stats with the entry's length, and set the entry's generation to an older one.
+                int generation = this.summary.addAged(entry.getLength(), generationAge);
+                entry.setGeneration(generation);
             } else {
                 // Update the Stats with the entry's length, and set the entry's generation as well.
                 int generation = this.summary.add(entry.getLength());
@@ -595,7 +715,7 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
                 return null;
             } else {
                 // Fetch data from the cache for the first entry, but do not update the cache hit stats.
-                nextEntry = createMemoryRead(indexEntry, startOffset, length, false);
+                nextEntry = createMemoryRead(indexEntry, startOffset, length, false, true);
             }
         }
 
@@ -694,6 +814,20 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
      * @return A ReadResultEntry representing the data to return.
      */
     private CompletableReadResultEntry getSingleReadResultEntry(long resultStartOffset, int maxLength) {
+        return getSingleReadResultEntry(resultStartOffset, maxLength, true);
+    }
+
+    /**
+     * Same as getSingleReadResultEntry(long, int), but allows specifying whether Cache hits should be returned as copies
+     * of the data or as views over the Cache contents.
+     *
+     * @param resultStartOffset The Offset within the StreamSegment where to start returning data from.
+     * @param maxLength         The maximum number of bytes to return.
+     * @param makeCopy          If true, Cache hits will contain a copy of the data, otherwise they will contain a view
+     *                          which must be released by the consumer.
+     * @return A ReadResultEntry representing the data to return.
+     */
+    private CompletableReadResultEntry getSingleReadResultEntry(long resultStartOffset, int maxLength, boolean makeCopy) {
         Exceptions.checkNotClosed(this.closed, this);
 
         if (maxLength < 0) {
@@ -725,7 +859,7 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
                         result = createDataNotAvailableRead(resultStartOffset, maxLength);
                     } else if (indexEntry.isDataEntry()) {
                         // ResultStartOffset is after the StartOffset and before the End Offset of this entry.
-                        result = createMemoryRead(indexEntry, resultStartOffset, maxLength, true);
+                        result = createMemoryRead(indexEntry, resultStartOffset, maxLength, true, makeCopy);
                     } else if (indexEntry instanceof RedirectIndexEntry) {
                         // ResultStartOffset is after the StartOffset and before the End Offset of this entry, but this
                         // is a Redirect; reissue the request to the appropriate index.
@@ -752,35 +886,135 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
      *
      * @param resultStartOffset The Offset within the StreamSegment where to start returning data from.
      * @param maxLength         The maximum number of bytes to return.
+     * @param makeCopy          If true, Cache hits will contain a copy of the data, otherwise they will contain a view
+     *                          which must be released by the consumer.
      * @return A ReadResultEntry representing the data to return.
      */
-    private CompletableReadResultEntry getMultiReadResultEntry(long resultStartOffset, int maxLength) {
-        int readLength = 0;
-
-        CompletableReadResultEntry nextEntry = getSingleReadResultEntry(resultStartOffset, maxLength);
+    private CompletableReadResultEntry getMultiReadResultEntry(long resultStartOffset, int maxLength, boolean makeCopy) {
+        CompletableReadResultEntry nextEntry = getSingleReadResultEntry(resultStartOffset, maxLength, makeCopy);
         if (nextEntry == null || !(nextEntry instanceof CacheReadResultEntry)) {
             // We can only coalesce CacheReadResultEntries.
             return nextEntry;
         }
 
+        if (!makeCopy) {
+            return coalesceMemoryViews((CacheReadResultEntry) nextEntry, resultStartOffset, maxLength);
+        }
+
+        assert Futures.isSuccessful(nextEntry.getContent()) : "Found CacheReadResultEntry that is not completed yet: " + nextEntry;
+        val entryContents = nextEntry.getContent().join();
+        int readLength = entryContents.getLength();
+        int minReadLength = this.config.getMemoryReadMinLength();
+        if (readLength >= minReadLength || readLength >= maxLength) {
+            // Nothing to coalesce.
+            return (CacheReadResultEntry) nextEntry;
+        }
+
         // Collect the contents of congruent Index Entries into a list, as long as we still encounter data in the cache.
         ArrayList<InputStream> contents = new ArrayList<>();
-        do {
-            assert Futures.isSuccessful(nextEntry.getContent()) : "Found CacheReadResultEntry that is not completed yet: " + nextEntry;
-            val entryContents = nextEntry.getContent().join();
-            contents.add(entryContents.getData());
-            readLength += entryContents.getLength();
-            if (readLength >= this.config.getMemoryReadMinLength() || readLength >= maxLength) {
-                break;
-            }
-
-            nextEntry = getSingleMemoryReadResultEntry(resultStartOffset + readLength, maxLength - readLength);
-        } while (nextEntry != null);
+        contents.add(entryContents.getData());
+        readLength += collectMemoryData(resultStartOffset + readLength, minReadLength - readLength, maxLength - readLength, contents);
 
         // Coalesce the results into a single InputStream and return the result.
         return new CacheReadResultEntry(resultStartOffset, new SequenceInputStream(Iterators.asEnumeration(contents.iterator())), readLength);
     }
 
+    /**
+     * Collects (copies of) the contents of congruent Index Entries whose data is in the cache, starting at the given offset.
+     * All the entries are fetched from the Cache using a single batch call.
+     *
+     * @param startOffset The Offset within the StreamSegment where to start collecting data from.
+     * @param minLength   The number of bytes after which to stop collecting data.
+     * @param maxLength   The maximum number of bytes to collect.
+     * @param contents    A List to add the data to.
+     * @return The number of bytes collected.
+     */
+    private int collectMemoryData(long startOffset, int minLength, int maxLength, List<InputStream> contents) {
+        synchronized (this.lock) {
+            // Find the entries we need (and update their cache generations).
+            ArrayList<ReadIndexEntry> entries = new ArrayList<>();
+            ArrayList<CacheKey> keys = new ArrayList<>();
+            long offset = startOffset;
+            int length = 0;
+            while (length < minLength && length < maxLength && checkReadAvailability(offset, false) == ReadAvailability.Available) {
+                ReadIndexEntry entry = this.indexEntries.get(offset);
+                if (entry == null || !entry.isDataEntry()) {
+                    break;
+                }
+
+                recordAccess(entry);
+                entries.add(entry);
+                keys.add(getCacheKey(entry));
+                int entryLength = (int) Math.min(maxLength - length, entry.getLastStreamSegmentOffset() - offset + 1);
+                length += entryLength;
+                offset += entryLength;
+            }
+
+            if (entries.isEmpty()) {
+                return 0;
+            }
+
+            // Fetch their contents and trim them to what we need.
+            List<byte[]> data = this.cache.getBatch(keys);
+            offset = startOffset;
+            length = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                ReadIndexEntry entry = entries.get(i);
+                byte[] entryData = data.get(i);
+                assert entryData != null : String.format("No Cache Entry could be retrieved for entry %s", entry);
+                int entryOffset = (int) (offset - entry.getStreamSegmentOffset());
+                int entryLength = (int) Math.min(maxLength - length, entry.getLength() - entryOffset);
+                contents.add(new ByteArrayInputStream(entryData, entryOffset, entryLength));
+                length += entryLength;
+                offset += entryLength;
+            }
+
+            return length;
+        }
+    }
+
+    /**
+     * Same as the coalescing part of getMultiReadResultEntry(), but for CacheReadResultEntries that are backed by Cache
+     * views. The views are combined (without copying) into a single ByteBuf, which is then returned as a single entry.
+     *
+     * @param firstEntry        The first CacheReadResultEntry to include.
+     * @param resultStartOffset The Offset within the StreamSegment where to start returning data from.
+     * @param maxLength         The maximum number of bytes to return.
+     * @return A CacheReadResultEntry representing the data to return.
+     */
+    private CacheReadResultEntry coalesceMemoryViews(CacheReadResultEntry firstEntry, long resultStartOffset, int maxLength) {
+        ArrayList<ByteBuf> contents = new ArrayList<>();
+        int readLength = 0;
+        CacheReadResultEntry nextEntry = firstEntry;
+        try {
+            do {
+                assert Futures.isSuccessful(nextEntry.getContent()) : "Found CacheReadResultEntry that is not completed yet: " + nextEntry;
+                val entryContents = nextEntry.getContent().join();
+                assert entryContents.getBuffer() != null : "Found CacheReadResultEntry that is not backed by a Cache view: " + nextEntry;
+                contents.add(entryContents.getBuffer());
+                readLength += entryContents.getLength();
+                if (readLength >= this.config.getMemoryReadMinLength() || readLength >= maxLength) {
+                    break;
+                }
+
+                nextEntry = getSingleMemoryReadResultEntry(resultStartOffset + readLength, maxLength - readLength, false);
+            } while (nextEntry != null);
+        } catch (Throwable ex) {
+            // We own these views until we hand them out. Make sure we don't leak them.
+            contents.forEach(ByteBuf::release);
+            throw ex;
+        }
+
+        if (contents.size() == 1) {
+            // Nothing to coalesce.
+            return firstEntry;
+        }
+
+        // Combine the views into a single ByteBuf; this transfers ownership of the views to it.
+        ByteBuf data = Unpooled.wrappedBuffer(contents.size(), contents.toArray(new ByteBuf[contents.size()]));
+        return new CacheReadResultEntry(resultStartOffset, data);
+    }
+
     /**
      * Returns a CacheReadResultEntry that matches the specified search parameters, but only if the data is readily available
      * in the cache and if there is an index entry that starts at that location.. As opposed from getSingleReadResultEntry(),
@@ -788,9 +1022,11 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
      *
      * @param resultStartOffset The Offset within the StreamSegment where to start returning data from.
      * @param maxLength         The maximum number of bytes to return.
+     * @param makeCopy          If true, the result will contain a copy of the data, otherwise it will contain a view
+     *                          which must be released by the consumer.
      * @return A CacheReadResultEntry representing the data to return.
      */
-    private CacheReadResultEntry getSingleMemoryReadResultEntry(long resultStartOffset, int maxLength) {
+    private CacheReadResultEntry getSingleMemoryReadResultEntry(long resultStartOffset, int maxLength, boolean makeCopy) {
         Exceptions.checkNotClosed(this.closed, this);
 
         if (maxLength > 0 && checkReadAvailability(resultStartOffset, false) == ReadAvailability.Available) {
@@ -799,7 +1035,7 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
                 ReadIndexEntry indexEntry = this.indexEntries.get(resultStartOffset);
                 if (indexEntry != null && indexEntry.isDataEntry()) {
                     // We found an entry; return a result for it.
-                    return createMemoryRead(indexEntry, resultStartOffset, maxLength, true);
+                    return createMemoryRead(indexEntry, resultStartOffset, maxLength, true, makeCopy);
                 }
             }
         }
@@ -874,25 +1110,58 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
      * @param streamSegmentOffset The Offset in the StreamSegment where to the ReadResultEntry starts at.
      * @param maxLength           The maximum length of the Read, from the Offset of this ReadResultEntry.
      * @param updateStats         If true, the entry's cache generation is updated as a result of this call.
+     * @param makeCopy            If true, the ReadResultEntry will contain a copy of the data, otherwise it will contain a
+     *                            view over the Cache contents, which must be released by the consumer.
      */
     @GuardedBy("lock")
-    private CacheReadResultEntry createMemoryRead(ReadIndexEntry entry, long streamSegmentOffset, int maxLength, boolean updateStats) {
+    private CacheReadResultEntry createMemoryRead(ReadIndexEntry entry, long streamSegmentOffset, int maxLength, boolean updateStats, boolean makeCopy) {
         assert streamSegmentOffset >= entry.getStreamSegmentOffset() : String.format("streamSegmentOffset{%d} < entry.getStreamSegmentOffset{%d}", streamSegmentOffset, entry.getStreamSegmentOffset());
 
         int entryOffset = (int) (streamSegmentOffset - entry.getStreamSegmentOffset());
 
         int length = (int) Math.min(maxLength, entry.getLength() - entryOffset);
         assert length > 0 : String.format("length{%d} <= 0. streamSegmentOffset = %d, maxLength = %d, entry.offset = %d, entry.length = %d", length, streamSegmentOffset, maxLength, entry.getStreamSegmentOffset(), entry.getLength());
-        byte[] data = this.cache.get(getCacheKey(entry));
-        assert data != null : String.format("No Cache Entry could be retrieved for entry %s", entry);
-
         if (updateStats) {
-            // Update its generation before returning it.
+            recordAccess(entry);
+        }
+
+        if (makeCopy && length == entry.getLength()) {
+            byte[] data = this.cache.get(getCacheKey(entry));
+            assert data != null : String.format("No Cache Entry could be retrieved for entry %s", entry);
+            return new CacheReadResultEntry(entry.getStreamSegmentOffset(), data, entryOffset, length);
+        } else if (makeCopy) {
+            // Entries may be much larger than individual appends (see ReadIndexConfig.getMemoryAppendMaxLength()), so
+            // only copy the range that we need.
+            ByteBuf view = this.cache.getView(getCacheKey(entry));
+            assert view != null : String.format("No Cache Entry could be retrieved for entry %s", entry);
+            try {
+                byte[] data = new byte[length];
+                view.getBytes(view.readerIndex() + entryOffset, data);
+                return new CacheReadResultEntry(streamSegmentOffset, data, 0, length);
+            } finally {
+                view.release();
+            }
+        } else {
+            // The slice shares the view's reference count, so releasing it will release the view.
+            ByteBuf view = this.cache.getView(getCacheKey(entry));
+            assert view != null : String.format("No Cache Entry could be retrieved for entry %s", entry);
+            return new CacheReadResultEntry(streamSegmentOffset, view.slice(view.readerIndex() + entryOffset, length));
+        }
+    }
+
+    /**
+     * Updates the cache generation of the given entry to reflect the fact that it has just been accessed.
+     *
+     * @param entry The entry that has been accessed.
+     */
+    @GuardedBy("lock")
+    private void recordAccess(ReadIndexEntry entry) {
+        if (!entry.recordAccess()) {
+            // The first access to prefetched data does not count: that data would have been read from Storage otherwise,
+            // and treating it as used would let long scans push out the tail.
             int generation = this.summary.touchOne(entry.getGeneration());
             entry.setGeneration(generation);
         }
-
-        return new CacheReadResultEntry(entry.getStreamSegmentOffset(), data, entryOffset, length);
     }
 
     /**
@@ -915,13 +1184,79 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
             if (!result.isDerived()) {
                 // Only insert primary results into the cache. Derived results are always sub-portions of primaries
                 // and there is no need to insert them too, as they are already contained within.
-                insert(offset, data);
+                insert(offset, data, false);
             }
         };
 
         // Queue the request for async processing.
         length = getReadAlignedLength(offset, length);
         this.storageReadManager.execute(new StorageReadManager.Request(offset, length, doneCallback, failureCallback, timeout));
+        if (this.storageReadManager.isSequential()) {
+            // This looks like a catch-up reader; fetch the next few blocks so it does not have to wait for Storage again.
+            queueReadAhead(offset + length, timeout);
+        }
+    }
+
+    /**
+     * Issues Storage reads for the aligned blocks (see ReadIndexConfig.getStorageReadAlignment()) following the given
+     * offset and inserts their contents into the Cache. Blocks that are already (even partially) in the index are skipped.
+     * Only entire blocks are read ahead: since regular Storage reads never cross a block boundary, this means they are
+     * either fully contained within a read-ahead request (and will use its result) or do not overlap it at all.
+     *
+     * @param offset  The offset to read ahead from. This will be rounded up to the next block boundary.
+     * @param timeout Timeout for the Storage reads.
+     */
+    private void queueReadAhead(long offset, Duration timeout) {
+        int blockCount = getReadAheadBlockCount();
+        int alignment = this.config.getStorageReadAlignment();
+        long storageLength = this.metadata.getStorageLength();
+        long blockOffset = offset % alignment == 0 ? offset : offset - offset % alignment + alignment;
+        for (int i = 0; i < blockCount && blockOffset < storageLength; i++) {
+            final long readOffset = blockOffset;
+            int readLength = (int) Math.min(alignment, storageLength - readOffset);
+            blockOffset += alignment;
+            if (hasEntriesInRange(readOffset, readLength)) {
+                continue;
+            }
+
+            Consumer<StorageReadManager.Result> doneCallback = result -> {
+                if (!result.isDerived()) {
+                    insert(readOffset, result.getData(), true);
+                }
+            };
+            Consumer<Throwable> failureCallback = ex ->
+                    log.debug("{}: ReadAhead failed (Offset = {}, Length = {}). {}", this.traceObjectId, readOffset, readLength, ex.toString());
+            this.storageReadManager.readAhead(new StorageReadManager.Request(readOffset, readLength, doneCallback, failureCallback, timeout));
+        }
+    }
+
+    /**
+     * Determines how many blocks to read ahead, based on the configuration and on how full the Cache is. Reading ahead
+     * is done at full depth while the Cache is at most half full, gradually reduced as it fills up, and disabled while the
+     * Cache exceeds its CachePolicy (so that read-ahead data does not cause other data to be evicted).
+     */
+    private int getReadAheadBlockCount() {
+        int maxCount = this.config.getStorageReadAheadCount();
+        double utilization = this.cacheManager.getCacheUtilization();
+        if (maxCount == 0 || utilization >= 1) {
+            return 0;
+        }
+
+        return Math.max(1, (int) Math.round(maxCount * Math.min(1, 2 * (1 - utilization))));
+    }
+
+    /**
+     * Determines whether there are any index entries that overlap the given range.
+     *
+     * @param offset The first offset in the range.
+     * @param length The length of the range.
+     * @return True if there is at least one index entry that overlaps the given range, false otherwise.
+     */
+    private boolean hasEntriesInRange(long offset, int length) {
+        synchronized (this.lock) {
+            ReadIndexEntry entry = this.indexEntries.getFloor(offset + length - 1);
+            return entry != null && entry.getLastStreamSegmentOffset() >= offset;
+        }
     }
 
     /**
@@ -15,7 +15,6 @@ import io.pravega.segmentstore.contracts.ReadResult;
 import io.pravega.segmentstore.contracts.ReadResultEntry;
 import io.pravega.segmentstore.contracts.ReadResultEntryContents;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.BiFunction;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -33,6 +32,7 @@ class StreamSegmentReadResult implements ReadResult {
     private int consumedLength;
     private boolean canRead;
     private boolean closed;
+    private boolean copyOnRead;
 
     //endregion
 
@@ -43,8 +43,7 @@ class StreamSegmentReadResult implements ReadResult {
      *
      * @param streamSegmentStartOffset The StreamSegment Offset where the ReadResult starts at.
      * @param maxResultLength          The maximum number of bytes to read.
-     * @param getNextItem              A Bi-Function that returns the next ReadResultEntry to consume. The first argument
-     *                                 is startOffset (long) and the second is remainingLength (int).
+     * @param getNextItem              A NextEntrySupplier that returns the next ReadResultEntry to consume.
      * @throws NullPointerException     If getNextItem is null.
      * @throws IllegalArgumentException If any of the arguments are invalid.
      */
@@ -59,6 +58,7 @@ class StreamSegmentReadResult implements ReadResult {
         this.getNextItem = getNextItem;
         this.consumedLength = 0;
         this.canRead = true;
+        this.copyOnRead = true;
     }
 
     //endregion
@@ -85,6 +85,16 @@ class StreamSegmentReadResult implements ReadResult {
         return this.closed || !hasNext();
     }
 
+    @Override
+    public boolean isCopyOnRead() {
+        return this.copyOnRead;
+    }
+
+    @Override
+    public void setCopyOnRead(boolean copyOnRead) {
+        this.copyOnRead = copyOnRead;
+    }
+
     @Override
     public String toString() {
         return String.format("Offset = %d, MaxLength = %d, Consumed = %d", this.streamSegmentStartOffset, this.maxResultLength, this.consumedLength);
@@ -160,7 +170,7 @@ class StreamSegmentReadResult implements ReadResult {
         // Retrieve the next item.
         long startOffset = this.streamSegmentStartOffset + this.consumedLength;
         int remainingLength = this.maxResultLength - this.consumedLength;
-        CompletableReadResultEntry entry = this.getNextItem.apply(startOffset, remainingLength);
+        CompletableReadResultEntry entry = this.getNextItem.apply(startOffset, remainingLength, this.copyOnRead);
 
         if (entry == null) {
             assert remainingLength <= 0 : String.format("No ReadResultEntry received when one was expected. Offset %d, MaxLen %d.", startOffset, remainingLength);
@@ -195,10 +205,20 @@ class StreamSegmentReadResult implements ReadResult {
     //region NextEntrySupplier
 
     /**
-     * Defines a Function that given a startOffset (long) and remainingLength (int), returns the next entry to be consumed (ReadResultEntry).
+     * Defines a Function that returns the next entry to be consumed (ReadResultEntry).
      */
     @FunctionalInterface
-    interface NextEntrySupplier extends BiFunction<Long, Integer, CompletableReadResultEntry> {
+    interface NextEntrySupplier {
+        /**
+         * Gets the next entry to be consumed.
+         *
+         * @param startOffset     The offset within the StreamSegment where the entry should begin at.
+         * @param remainingLength The maximum number of bytes remaining in the ReadResult.
+         * @param makeCopy        If true, the entry's contents must be a copy of the data. If false, the contents may be
+         *                        a view over data held elsewhere (see ReadResult.isCopyOnRead()).
+         * @return The next entry.
+         */
+        CompletableReadResultEntry apply(long startOffset, int remainingLength, boolean makeCopy);
     }
 
     //endregion
@@ -61,7 +61,8 @@ public final class StreamSegmentStorageReader {
         private final AtomicReference<SegmentHandle> handle = new AtomicReference<>();
 
         @Override
-        public CompletableReadResultEntry apply(Long readOffset, Integer readLength) {
+        public CompletableReadResultEntry apply(long readOffset, int readLength, boolean makeCopy) {
+            // Data read from Storage is always a copy, so makeCopy has no effect here.
             if (readOffset < this.segmentInfo.getStartOffset()) {
                 // We attempted to read from a truncated portion of the Segment.
                 return new TruncatedReadResultEntry(readOffset, readLength, this.segmentInfo.getStartOffset());
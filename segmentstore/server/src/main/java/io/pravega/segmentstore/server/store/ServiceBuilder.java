@@ -365,9 +365,14 @@ public class ServiceBuilder implements AutoCloseable {
 
     private static class ReadOnlyServiceBuilder extends ServiceBuilder {
         private static final int READONLY_CONTAINER_COUNT = 1; // Everything maps to a single container.
+        /**
+         * Maps Segments to the (regular) Segment Containers that own them, whose Storage adapters must be used to read them.
+         */
+        private final SegmentToContainerMapper storageContainerMapper;
 
         private ReadOnlyServiceBuilder(ServiceBuilderConfig serviceBuilderConfig, ServiceConfig serviceConfig, ExecutorBuilder executorBuilder) {
             super(serviceBuilderConfig, serviceConfig, executorBuilder);
+            this.storageContainerMapper = new SegmentToContainerMapper(serviceConfig.getContainerCount());
 
             // We attach a LocalSegmentContainerManager, since we only have one Container Running.
             // Note that withContainerManager() is disabled in ReadOnlyServiceBuilder, hence we must invoke the one on
@@ -383,7 +388,7 @@ public class ServiceBuilder implements AutoCloseable {
         @Override
         protected SegmentContainerFactory createSegmentContainerFactory() {
             StorageFactory storageFactory = createStorageFactory();
-            return new ReadOnlySegmentContainerFactory(storageFactory, getCoreExecutor());
+            return new ReadOnlySegmentContainerFactory(storageFactory, this.storageContainerMapper, getCoreExecutor());
         }
 
         @Override
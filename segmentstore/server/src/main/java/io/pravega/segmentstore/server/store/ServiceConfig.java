@@ -39,6 +39,7 @@ public class ServiceConfig {
     public static final Property<String> CLUSTER_NAME = Property.named("clusterName", "pravega-cluster");
     public static final Property<DataLogType> DATALOG_IMPLEMENTATION = Property.named("dataLogImplementation", DataLogType.INMEMORY);
     public static final Property<StorageType> STORAGE_IMPLEMENTATION = Property.named("storageImplementation", StorageType.INMEMORY);
+    public static final Property<CacheType> CACHE_IMPLEMENTATION = Property.named("cacheImplementation", CacheType.ROCKSDB);
     public static final Property<Boolean> READONLY_SEGMENT_STORE = Property.named("readOnlySegmentStore", false);
 
     public static final String COMPONENT_CODE = "pravegaservice";
@@ -53,6 +54,11 @@ public class ServiceConfig {
          */
         BOOKKEEPER,
 
+        /**
+         * DataLog is implemented by files on the local disk. Suitable for single-node deployments only.
+         */
+        FILESYSTEM,
+
         /**
          * InMemory DataLog. Contents will be lost when the process exits.
          */
@@ -81,6 +87,18 @@ public class ServiceConfig {
         INMEMORY
     }
 
+    public enum CacheType {
+        /**
+         * Cache is implemented by an in-process RocksDB database, which can spill over to local disk.
+         */
+        ROCKSDB,
+
+        /**
+         * Cache is implemented using fixed-size blocks in direct (off-heap) memory. Contents never spill over to disk.
+         */
+        DIRECTMEMORY
+    }
+
     //endregion
 
     //region Members
@@ -176,6 +194,12 @@ public class ServiceConfig {
     @Getter
     private final StorageType storageImplementation;
 
+    /**
+     * The Type of Cache Implementation to use.
+     */
+    @Getter
+    private final CacheType cacheImplementation;
+
     /**
      * Whether this SegmentStore instance is Read-Only (i.e., it can only process reads from Storage and nothing else).
      * Note that if this is set to 'true', then many other settings will not apply. The most important other one to set
@@ -227,6 +251,7 @@ public class ServiceConfig {
         this.clusterName = properties.get(CLUSTER_NAME);
         this.dataLogTypeImplementation = properties.getEnum(DATALOG_IMPLEMENTATION, DataLogType.class);
         this.storageImplementation = properties.getEnum(STORAGE_IMPLEMENTATION, StorageType.class);
+        this.cacheImplementation = properties.getEnum(CACHE_IMPLEMENTATION, CacheType.class);
         this.readOnlySegmentStore = properties.getBoolean(READONLY_SEGMENT_STORE);
     }
 
@@ -10,6 +10,7 @@
 package io.pravega.segmentstore.server.store;
 
 import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
 import io.pravega.common.LoggerHelpers;
 import io.pravega.common.concurrent.Futures;
 import io.pravega.segmentstore.contracts.AttributeUpdate;
@@ -72,6 +73,22 @@ public class StreamSegmentService implements StreamSegmentStore {
                 "appendWithOffset", streamSegmentName, offset, data.length, attributeUpdates);
     }
 
+    @Override
+    public CompletableFuture<Void> append(String streamSegmentName, ByteBuf data, Collection<AttributeUpdate> attributeUpdates, Duration timeout) {
+        return invoke(
+                streamSegmentName,
+                container -> container.append(streamSegmentName, data, attributeUpdates, timeout),
+                "append", streamSegmentName, data.readableBytes(), attributeUpdates);
+    }
+
+    @Override
+    public CompletableFuture<Void> append(String streamSegmentName, long offset, ByteBuf data, Collection<AttributeUpdate> attributeUpdates, Duration timeout) {
+        return invoke(
+                streamSegmentName,
+                container -> container.append(streamSegmentName, offset, data, attributeUpdates, timeout),
+                "appendWithOffset", streamSegmentName, offset, data.readableBytes(), attributeUpdates);
+    }
+
     @Override
     public CompletableFuture<Void> updateAttributes(String streamSegmentName, Collection<AttributeUpdate> attributeUpdates, Duration timeout) {
         return invoke(
@@ -26,11 +26,15 @@ import io.pravega.segmentstore.server.logs.operations.Operation;
 import io.pravega.segmentstore.server.logs.operations.StorageOperation;
 import io.pravega.segmentstore.storage.Storage;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Queue;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
@@ -258,22 +262,32 @@ class StorageWriter extends AbstractThreadPoolService implements Writer {
 
     /**
      * Flushes eligible operations to Storage, if necessary. Does not perform any mergers.
+     *
+     * At most WriterConfig.getMaxConcurrentFlushes() SegmentAggregators are flushed at the same time. They are flushed
+     * in order of their LowestUncommittedSequenceNumber, so the ones that hold back the acknowledgement (truncation) the
+     * most go first. Once WriterConfig.getMaxFlushBytesPerIteration() bytes have been written, no more flushes are
+     * started; the remaining SegmentAggregators still need to flush, so the next iteration begins right away.
      */
     private CompletableFuture<Void> flush(Void ignored) {
         checkRunning();
         long traceId = LoggerHelpers.traceEnterWithContext(log, this.traceObjectId, "flush");
 
         // Flush everything we can flush.
-        val flushFutures = this.aggregators.values().stream()
-                                           .filter(SegmentAggregator::mustFlush)
-                                           .map(a -> a.flush(this.config.getFlushTimeout()))
-                                           .collect(Collectors.toList());
+        val toFlush = this.aggregators.values().stream()
+                                      .filter(SegmentAggregator::mustFlush)
+                                      .sorted(Comparator.comparingLong(SegmentAggregator::getLowestUncommittedSequenceNumber))
+                                      .collect(Collectors.toCollection(ConcurrentLinkedQueue::new));
+
+        FlushStageResult result = new FlushStageResult();
+        int flushCount = Math.min(toFlush.size(), this.config.getMaxConcurrentFlushes());
+        val flushFutures = new ArrayList<CompletableFuture<Void>>(flushCount);
+        for (int i = 0; i < flushCount; i++) {
+            flushFutures.add(flushNext(toFlush, result));
+        }
 
         return Futures
-                .allOfWithResults(flushFutures)
-                .thenAcceptAsync(flushResults -> {
-                    FlushStageResult result = new FlushStageResult();
-                    flushResults.forEach(result::withFlushResult);
+                .allOf(flushFutures)
+                .thenRunAsync(() -> {
                     if (result.getFlushedBytes() + result.getMergedBytes() + result.count > 0) {
                         logStageEvent("Flush", result);
                     }
@@ -282,6 +296,23 @@ class StorageWriter extends AbstractThreadPoolService implements Writer {
                 }, this.executor);
     }
 
+    /**
+     * Flushes SegmentAggregators from the given queue, one at a time, until the queue is empty or the flush budget for
+     * this iteration has been used up.
+     */
+    private CompletableFuture<Void> flushNext(Queue<SegmentAggregator> toFlush, FlushStageResult result) {
+        return Futures.loop(
+                () -> !toFlush.isEmpty() && result.getTotalBytes() < this.config.getMaxFlushBytesPerIteration(),
+                () -> {
+                    SegmentAggregator aggregator = toFlush.poll();
+                    return aggregator == null
+                            ? CompletableFuture.completedFuture(new FlushResult())
+                            : aggregator.flush(this.config.getFlushTimeout());
+                },
+                result::withFlushResult,
+                this.executor);
+    }
+
     /**
      * Cleans up all SegmentAggregators that are currently closed.
      */
@@ -465,13 +496,17 @@ class StorageWriter extends AbstractThreadPoolService implements Writer {
         int count;
 
         @Override
-        public FlushStageResult withFlushResult(FlushResult flushResult) {
+        public synchronized FlushStageResult withFlushResult(FlushResult flushResult) {
             this.count++;
             return (FlushStageResult) super.withFlushResult(flushResult);
         }
 
+        synchronized long getTotalBytes() {
+            return getFlushedBytes() + getMergedBytes();
+        }
+
         @Override
-        public String toString() {
+        public synchronized String toString() {
             return String.format("Count=%d, %s", this.count, super.toString());
         }
     }
@@ -33,6 +33,8 @@ public class WriterConfig {
     public static final Property<Long> FLUSH_TIMEOUT_MILLIS = Property.named("flushTimeoutMillis", 60 * 1000L);
     public static final Property<Long> ACK_TIMEOUT_MILLIS = Property.named("ackTimeoutMillis", 15 * 1000L);
     public static final Property<Long> SHUTDOWN_TIMEOUT_MILLIS = Property.named("shutdownTimeoutMillis", 10 * 1000L);
+    public static final Property<Integer> MAX_CONCURRENT_FLUSHES = Property.named("maxConcurrentFlushes", 100);
+    public static final Property<Long> MAX_FLUSH_BYTES_PER_ITERATION = Property.named("maxFlushBytesPerIteration", 1024 * 1024 * 1024L);
     private static final String COMPONENT_CODE = "writer";
 
     //endregion
@@ -99,6 +101,19 @@ public class WriterConfig {
     @Getter
     private final Duration shutdownTimeout;
 
+    /**
+     * The maximum number of SegmentAggregators that can be flushed to Storage at the same time.
+     */
+    @Getter
+    private final int maxConcurrentFlushes;
+
+    /**
+     * The number of bytes (flushed or merged) after which no more SegmentAggregators are flushed in the current
+     * iteration. The remaining ones are flushed in the next iteration, after the flushed data has been acknowledged.
+     */
+    @Getter
+    private final long maxFlushBytesPerIteration;
+
     //endregion
 
     //region Constructor
@@ -137,6 +152,15 @@ public class WriterConfig {
         this.flushTimeout = Duration.ofMillis(properties.getLong(FLUSH_TIMEOUT_MILLIS));
         this.ackTimeout = Duration.ofMillis(properties.getLong(ACK_TIMEOUT_MILLIS));
         this.shutdownTimeout = Duration.ofMillis(properties.getLong(SHUTDOWN_TIMEOUT_MILLIS));
+        this.maxConcurrentFlushes = properties.getInt(MAX_CONCURRENT_FLUSHES);
+        if (this.maxConcurrentFlushes <= 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", MAX_CONCURRENT_FLUSHES));
+        }
+
+        this.maxFlushBytesPerIteration = properties.getLong(MAX_FLUSH_BYTES_PER_ITERATION);
+        if (this.maxFlushBytesPerIteration <= 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", MAX_FLUSH_BYTES_PER_ITERATION));
+        }
     }
 
     /**
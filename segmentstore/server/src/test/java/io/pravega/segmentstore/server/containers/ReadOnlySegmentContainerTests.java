@@ -14,13 +14,18 @@ import io.pravega.segmentstore.contracts.StreamSegmentInformation;
 import io.pravega.segmentstore.contracts.StreamSegmentNotExistsException;
 import io.pravega.segmentstore.server.SegmentContainer;
 import io.pravega.segmentstore.server.reading.StreamSegmentStorageReaderTests;
+import io.pravega.segmentstore.storage.AsyncStorageWrapper;
 import io.pravega.segmentstore.storage.Storage;
 import io.pravega.segmentstore.storage.mocks.InMemoryStorageFactory;
+import io.pravega.segmentstore.storage.packing.PackedStorage;
+import io.pravega.shared.segment.SegmentToContainerMapper;
+import io.pravega.shared.segment.StreamSegmentNameUtils;
 import io.pravega.test.common.AssertExtensions;
 import io.pravega.test.common.ThreadPooledTestSuite;
 import java.io.ByteArrayInputStream;
 import java.time.Duration;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -39,6 +44,7 @@ public class ReadOnlySegmentContainerTests extends ThreadPooledTestSuite {
     private static final int SEGMENT_LENGTH = 3 * ReadOnlySegmentContainer.MAX_READ_AT_ONCE_BYTES;
     private static final Duration TIMEOUT = Duration.ofSeconds(10);
     private static final String SEGMENT_NAME = "Segment";
+    private static final int CONTAINER_COUNT = 4;
     @Rule
     public Timeout globalTimeout = Timeout.seconds(10);
 
@@ -115,6 +121,55 @@ public class ReadOnlySegmentContainerTests extends ThreadPooledTestSuite {
                 (int) (writtenData.length - truncatedInfo.getStartOffset()), writtenData);
     }
 
+    /**
+     * Tests that each Segment is read using a Storage adapter for the Container that owns it, which is required when each
+     * Container stores its Segments in its own Pack.
+     */
+    @Test
+    public void testReadPackedSegments() throws Exception {
+        final int segmentCount = 10;
+        @Cleanup
+        val storageFactory = new PackedInMemoryStorageFactory();
+        val mapper = new SegmentToContainerMapper(CONTAINER_COUNT);
+        @Cleanup
+        val container = new ReadOnlySegmentContainer(storageFactory, mapper, executorService());
+        container.startAsync().awaitRunning();
+
+        // Write each Segment using a Storage adapter for the Container it maps to.
+        val rnd = new Random(0);
+        val segments = new HashMap<String, byte[]>();
+        for (int i = 0; i < segmentCount; i++) {
+            String segmentName = SEGMENT_NAME + i;
+            byte[] data = new byte[(i + 1) * 100];
+            rnd.nextBytes(data);
+            int containerId = mapper.getContainerId(segmentName);
+            @Cleanup
+            val storage = storageFactory.createStorageAdapter(containerId);
+            storage.initialize(1);
+            storage.create(segmentName, TIMEOUT)
+                    .thenCompose(si -> storage.openWrite(segmentName))
+                    .thenCompose(handle -> storage.write(handle, 0, new ByteArrayInputStream(data), data.length, TIMEOUT))
+                    .join();
+            segments.put(segmentName, data);
+
+            // Other Containers cannot see this Segment.
+            @Cleanup
+            val otherStorage = storageFactory.createStorageAdapter((containerId + 1) % CONTAINER_COUNT);
+            otherStorage.initialize(1);
+            Assert.assertFalse("Not expecting Segment to be visible to another Container.",
+                    otherStorage.exists(segmentName, TIMEOUT).join());
+        }
+
+        for (val e : segments.entrySet()) {
+            byte[] data = e.getValue();
+            val info = container.getStreamSegmentInfo(e.getKey(), false, TIMEOUT).join();
+            Assert.assertEquals("Unexpected Length for " + e.getKey(), data.length, info.getLength());
+            @Cleanup
+            val rr = container.read(e.getKey(), 0, data.length, TIMEOUT).join();
+            StreamSegmentStorageReaderTests.verifyReadResult(rr, info, 0, data.length, data);
+        }
+    }
+
     /**
      * Tests the read() method when the segment does not exist.
      */
@@ -172,6 +227,21 @@ public class ReadOnlySegmentContainerTests extends ThreadPooledTestSuite {
                 ex -> ex instanceof UnsupportedOperationException);
     }
 
+    /**
+     * An InMemoryStorageFactory that stores the Segments of each Container in a Pack of its own.
+     */
+    private class PackedInMemoryStorageFactory extends InMemoryStorageFactory {
+        PackedInMemoryStorageFactory() {
+            super(executorService());
+        }
+
+        @Override
+        public Storage createStorageAdapter(int containerId) {
+            String packName = StreamSegmentNameUtils.getContainerPackName(containerId);
+            return new AsyncStorageWrapper(new PackedStorage(this.baseStorage, packName), this.executor);
+        }
+    }
+
     private class TestContext implements AutoCloseable {
         final SegmentContainer container;
         final Storage storage;
@@ -180,7 +250,7 @@ public class ReadOnlySegmentContainerTests extends ThreadPooledTestSuite {
 
         TestContext() {
             this.storageFactory = new InMemoryStorageFactory(executorService());
-            this.container = new ReadOnlySegmentContainer(this.storageFactory, executorService());
+            this.container = new ReadOnlySegmentContainer(this.storageFactory, new SegmentToContainerMapper(CONTAINER_COUNT), executorService());
             this.storage = this.storageFactory.createStorageAdapter();
             this.stateStore = new SegmentStateStore(this.storage, executorService());
         }
@@ -28,6 +28,7 @@ import io.pravega.segmentstore.server.SegmentMetadataComparer;
 import io.pravega.segmentstore.server.UpdateableContainerMetadata;
 import io.pravega.segmentstore.server.UpdateableSegmentMetadata;
 import io.pravega.segmentstore.server.containers.StreamSegmentMetadata;
+import io.pravega.segmentstore.server.logs.operations.IncrementalMetadataCheckpointOperation;
 import io.pravega.segmentstore.server.logs.operations.MergeTransactionOperation;
 import io.pravega.segmentstore.server.logs.operations.MetadataCheckpointOperation;
 import io.pravega.segmentstore.server.logs.operations.Operation;
@@ -185,7 +186,7 @@ public class ContainerMetadataUpdateTransactionTests {
         txn.preProcessOperation(appendOp);
         txn.acceptOperation(appendOp);
         Assert.assertEquals("acceptOperation did not update the transaction.",
-                SEGMENT_LENGTH + appendOp.getData().length, txn.getStreamSegmentMetadata(SEGMENT_ID).getLength());
+                SEGMENT_LENGTH + appendOp.getLength(), txn.getStreamSegmentMetadata(SEGMENT_ID).getLength());
         Assert.assertEquals("acceptOperation updated the metadata.",
                 SEGMENT_LENGTH, metadata.getStreamSegmentMetadata(SEGMENT_ID).getLength());
     }
@@ -1025,6 +1026,66 @@ public class ContainerMetadataUpdateTransactionTests {
         assertMetadataSame("Unexpected metadata after deserializing checkpoint.", metadata, checkpointedMetadata);
     }
 
+    /**
+     * Tests the processMetadataOperation method with IncrementalMetadataCheckpoint operations.
+     */
+    @Test
+    public void testProcessIncrementalMetadataCheckpoint() throws Exception {
+        // When encountering IncrementalMetadataCheckpoint in non-Recovery Mode, the ContainerMetadataUpdateTransaction
+        // serializes only those Segments that changed since the previous checkpoint.
+        // When encountering IncrementalMetadataCheckpoint in Recovery Mode, the ContainerMetadataUpdateTransaction merges
+        // those Segments into the metadata rebuilt from the preceding full checkpoint (if any).
+        String newSegmentName = "NewSegmentId";
+        AtomicLong seqNo = new AtomicLong();
+        UpdateableContainerMetadata metadata = createMetadata();
+        val txn = createUpdateTransaction(metadata);
+
+        // Take a full checkpoint, then map a new Segment, append to it and take an incremental checkpoint.
+        val fullCheckpoint = createMetadataCheckpoint();
+        processOperation(fullCheckpoint, txn, seqNo::incrementAndGet);
+        StreamSegmentMapOperation mapOp = new StreamSegmentMapOperation(
+                StreamSegmentInformation.builder().name(newSegmentName).length(SEGMENT_LENGTH).build());
+        processOperation(mapOp, txn, seqNo::incrementAndGet);
+        processOperation(new StreamSegmentAppendOperation(mapOp.getStreamSegmentId(), DEFAULT_APPEND_DATA, createAttributeUpdates()), txn, seqNo::incrementAndGet);
+        val incrementalCheckpoint = new IncrementalMetadataCheckpointOperation(fullCheckpoint.getSequenceNumber());
+        processOperation(incrementalCheckpoint, txn, seqNo::incrementAndGet);
+        txn.commit(metadata);
+        Assert.assertFalse("Incremental checkpoint was recorded as a valid truncation point.",
+                metadata.isValidTruncationPoint(incrementalCheckpoint.getSequenceNumber()));
+
+        // Merging the incremental checkpoint on top of the full one should yield the same metadata, even without the
+        // operations in between them.
+        val recoveredMetadata = createBlankMetadata();
+        recoveredMetadata.enterRecoveryMode();
+        val recoveryTxn = createUpdateTransaction(recoveredMetadata);
+        processOperation(fullCheckpoint, recoveryTxn, () -> 1L);
+        recoveryTxn.preProcessOperation(incrementalCheckpoint);
+        recoveryTxn.commit(recoveredMetadata);
+        recoveredMetadata.exitRecoveryMode();
+        assertMetadataSame("Unexpected metadata after merging incremental checkpoint.", metadata, recoveredMetadata);
+
+        // The incremental checkpoint should only contain the Segment that changed. Apply it on top of an empty checkpoint.
+        val emptyCheckpoint = createMetadataCheckpoint();
+        processOperation(emptyCheckpoint, createUpdateTransaction(createBlankMetadata()), () -> 1L);
+        val deltaMetadata = createBlankMetadata();
+        deltaMetadata.enterRecoveryMode();
+        val deltaTxn = createUpdateTransaction(deltaMetadata);
+        processOperation(emptyCheckpoint, deltaTxn, () -> 1L);
+        deltaTxn.preProcessOperation(incrementalCheckpoint);
+        deltaTxn.commit(deltaMetadata);
+        AssertExtensions.assertContainsSameElements("Unexpected Segments in incremental checkpoint.",
+                Collections.singleton(mapOp.getStreamSegmentId()), deltaMetadata.getAllStreamSegmentIds());
+
+        // Incremental checkpoints that are not preceded by a full checkpoint are ignored.
+        val blankMetadata = createBlankMetadata();
+        blankMetadata.enterRecoveryMode();
+        val blankTxn = createUpdateTransaction(blankMetadata);
+        blankTxn.preProcessOperation(incrementalCheckpoint);
+        blankTxn.commit(blankMetadata);
+        Assert.assertEquals("Incremental checkpoint was applied without a full checkpoint.",
+                0, blankMetadata.getAllStreamSegmentIds().size());
+    }
+
     /**
      * Tests the processMetadataOperation method with StorageMetadataCheckpoint operations.
      */
@@ -228,6 +228,38 @@ public class DataFrameOutputStreamTests {
         DataFrameTestHelpers.checkReadRecords(writtenFrames, records, ByteArraySegment::new);
     }
 
+    /**
+     * Tests the fact that buffers are only reused after all the DataFrames using them have been released.
+     */
+    @Test
+    public void testBufferPooling() throws Exception {
+        int maxFrameSize = 512;
+        ArrayList<byte[]> records = DataFrameTestHelpers.generateRecords(3, 1, 100);
+        ArrayList<DataFrame> writtenFrames = new ArrayList<>();
+        AtomicReference<byte[]> firstBuffer = new AtomicReference<>();
+        try (DataFrameOutputStream s = new DataFrameOutputStream(maxFrameSize, false, false, 1, writtenFrames::add)) {
+            for (byte[] record : records) {
+                s.startNewRecord();
+                s.write(record);
+                s.endRecord();
+                s.flush();
+                s.releaseBuffer(); // Force each record into a frame backed by its own buffer, if none can be reused.
+                if (writtenFrames.size() == 2) {
+                    // Release the first two frames; the first buffer should be pooled (the second does not fit).
+                    Assert.assertNotSame("A buffer was reused while a DataFrame was still using it.",
+                            writtenFrames.get(0).getData().array(), writtenFrames.get(1).getData().array());
+                    firstBuffer.set(writtenFrames.get(0).getData().array());
+                    writtenFrames.get(0).release();
+                    writtenFrames.get(1).release();
+                }
+            }
+        }
+
+        Assert.assertEquals("Unexpected number of frames.", records.size(), writtenFrames.size());
+        Assert.assertSame("Expected a pooled buffer to be reused.", firstBuffer.get(), writtenFrames.get(2).getData().array());
+        DataFrameTestHelpers.checkReadRecords(writtenFrames.subList(2, 3), records.subList(2, 3), ByteArraySegment::new);
+    }
+
     /**
      * Tests the behavior of startNewRecord(), write(byte) and write(byte[]) when the commit callback throws an exception.
      */
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.function.BiConsumer;
@@ -89,6 +90,44 @@ public class DataFrameReaderTests extends ThreadPooledTestSuite {
         }
     }
 
+    /**
+     * Tests the ability of the DataFrameReader to deserialize LogItems ahead of its caller, in parallel, while still
+     * returning them in order, and without depending on the Executor to make progress.
+     */
+    @Test
+    public void testReadsWithReadAhead() throws Exception {
+        final int readAheadCount = 10;
+        ArrayList<TestLogItem> records = DataFrameTestHelpers.generateLogItems(100, SMALL_RECORD_MIN_SIZE, SMALL_RECORD_MAX_SIZE, 0);
+        records.addAll(DataFrameTestHelpers.generateLogItems(100, LARGE_RECORD_MIN_SIZE, LARGE_RECORD_MAX_SIZE, records.size()));
+        try (TestDurableDataLog dataLog = TestDurableDataLog.create(CONTAINER_ID, FRAME_SIZE, executorService())) {
+            dataLog.initialize(TIMEOUT);
+
+            BiConsumer<Throwable, DataFrameBuilder.CommitArgs> errorCallback = (ex, a) ->
+                    Assert.fail(String.format("Unexpected error occurred upon commit. %s", ex));
+            val args = new DataFrameBuilder.Args(Callbacks::doNothing, Callbacks::doNothing, errorCallback, executorService());
+            try (DataFrameBuilder<TestLogItem> b = new DataFrameBuilder<>(dataLog, args)) {
+                for (TestLogItem r : records) {
+                    b.append(r);
+                }
+
+                b.flush();
+            }
+
+            TestLogItemFactory logItemFactory = new TestLogItemFactory();
+            DataFrameReader<TestLogItem> reader = new DataFrameReader<>(dataLog, logItemFactory, CONTAINER_ID, readAheadCount, executorService());
+            List<TestLogItem> readItems = readAll(reader);
+            checkReadResult(records, Collections.emptyList(), readItems);
+
+            // The reader must make progress even if the Executor never gets to run anything (i.e., all its threads are
+            // blocked, possibly waiting on this very reader).
+            val starvedTasks = new ArrayList<Runnable>();
+            reader = new DataFrameReader<>(dataLog, logItemFactory, CONTAINER_ID, readAheadCount, starvedTasks::add);
+            readItems = readAll(reader);
+            checkReadResult(records, Collections.emptyList(), readItems);
+            Assert.assertEquals("Expected every LogItem to be handed to the Executor.", records.size(), starvedTasks.size());
+        }
+    }
+
     /**
      * Tests the case when we begin reading from a DataFrame which begins with a partial record. That record needs to
      * be dropped (not returned). DataFrameReader should always return full records.
@@ -75,6 +75,88 @@ public class DataFrameTests {
         DataFrameTestHelpers.checkReadRecords(readFrame, allRecords, b -> b);
     }
 
+    /**
+     * Tests the ability to serialize a DataFrame with compression enabled, and then deserialize it and read the records back.
+     */
+    @Test
+    public void testCompression() throws Exception {
+        int maxFrameSize = 1024 * 1024;
+        int maxRecordCount = 2500;
+        int minRecordSize = 0;
+        int maxRecordSize = 1024;
+
+        // Compressible records (all zeroes).
+        List<ByteArraySegment> compressibleRecords = DataFrameTestHelpers.generateRecords(maxRecordCount, minRecordSize, maxRecordSize,
+                r -> new ByteArraySegment(new byte[r.length]));
+        DataFrame writeFrame = DataFrame.ofSize(maxFrameSize, false, true);
+        appendRecords(compressibleRecords, writeFrame);
+        writeFrame.seal();
+        val frameData = writeFrame.getData();
+        Assert.assertEquals("Unexpected length from getData().", writeFrame.getLength(), frameData.getLength());
+        AssertExtensions.assertLessThan("Expected the frame to be compressed.", writeFrame.getBufferLength(), frameData.getLength());
+        DataFrame readFrame = DataFrame.from(new ByteArrayInputStream(frameData.array(), frameData.arrayOffset(), frameData.getLength()), frameData.getLength());
+        DataFrameTestHelpers.checkReadRecords(readFrame, compressibleRecords, b -> b);
+
+        // Incompressible records (random data). These should be serialized uncompressed.
+        List<ByteArraySegment> randomRecords = DataFrameTestHelpers.generateRecords(maxRecordCount, minRecordSize, maxRecordSize, ByteArraySegment::new);
+        writeFrame = DataFrame.ofSize(maxFrameSize, false, true);
+        appendRecords(randomRecords, writeFrame);
+        writeFrame.seal();
+        val randomFrameData = writeFrame.getData();
+        Assert.assertEquals("Not expecting an incompressible frame to be compressed.", writeFrame.getBufferLength(), randomFrameData.getLength());
+        readFrame = DataFrame.from(new ByteArrayInputStream(randomFrameData.array(), randomFrameData.arrayOffset(), randomFrameData.getLength()), randomFrameData.getLength());
+        DataFrameTestHelpers.checkReadRecords(readFrame, randomRecords, b -> b);
+    }
+
+    /**
+     * Tests that DataFrames are written using the original (version 0) format unless checksums or compression are
+     * enabled, and that both formats can be read back.
+     */
+    @Test
+    public void testSerializationVersion() throws Exception {
+        int maxFrameSize = 1024 * 1024;
+        List<ByteArraySegment> allRecords = DataFrameTestHelpers.generateRecords(100, 0, 1024, ByteArraySegment::new);
+        for (int i = 0; i < 4; i++) {
+            boolean checksum = (i & 1) != 0;
+            boolean compress = (i & 2) != 0;
+            DataFrame writeFrame = DataFrame.ofSize(maxFrameSize, checksum, compress);
+            appendRecords(allRecords, writeFrame);
+            writeFrame.seal();
+
+            val frameData = writeFrame.getData();
+            int expectedVersion = checksum || compress ? 1 : 0;
+            Assert.assertEquals("Unexpected serialization version (checksum = " + checksum + ", compress = " + compress + ").",
+                    expectedVersion, frameData.get(0));
+            DataFrame readFrame = DataFrame.from(
+                    new ByteArrayInputStream(frameData.array(), frameData.arrayOffset(), frameData.getLength()), frameData.getLength());
+            DataFrameTestHelpers.checkReadRecords(readFrame, allRecords, b -> b);
+        }
+    }
+
+    /**
+     * Tests the fact that the DataFrame detects corrupted contents upon deserialization.
+     */
+    @Test
+    public void testChecksum() {
+        int maxFrameSize = 1024 * 1024;
+        List<ByteArraySegment> allRecords = DataFrameTestHelpers.generateRecords(2500, 0, 1024, ByteArraySegment::new);
+        for (boolean compress : new boolean[]{false, true}) {
+            DataFrame writeFrame = DataFrame.ofSize(maxFrameSize, true, compress);
+            appendRecords(allRecords, writeFrame);
+            writeFrame.seal();
+
+            // Flip a bit in the last byte of the frame (which is part of the contents).
+            val frameData = writeFrame.getData();
+            byte[] serialization = new byte[frameData.getLength()];
+            System.arraycopy(frameData.array(), frameData.arrayOffset(), serialization, 0, serialization.length);
+            serialization[serialization.length - 1] ^= 1;
+            AssertExtensions.assertThrows(
+                    "DataFrame.from() did not detect a corrupted frame (compress = " + compress + ").",
+                    () -> DataFrame.from(new ByteArrayInputStream(serialization), serialization.length),
+                    ex -> ex instanceof SerializationException);
+        }
+    }
+
     /**
      * Tests the ability to Start/End/Discard an entry.
      */
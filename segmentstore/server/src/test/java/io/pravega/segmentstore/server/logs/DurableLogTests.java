@@ -30,6 +30,7 @@ import io.pravega.segmentstore.server.TestDurableDataLogFactory;
 import io.pravega.segmentstore.server.UpdateableContainerMetadata;
 import io.pravega.segmentstore.server.UpdateableSegmentMetadata;
 import io.pravega.segmentstore.server.containers.StreamSegmentContainerMetadata;
+import io.pravega.segmentstore.server.logs.operations.IncrementalMetadataCheckpointOperation;
 import io.pravega.segmentstore.server.logs.operations.MetadataCheckpointOperation;
 import io.pravega.segmentstore.server.logs.operations.Operation;
 import io.pravega.segmentstore.server.logs.operations.OperationComparer;
@@ -623,14 +624,48 @@ public class DurableLogTests extends OperationLogTestBase {
                 10);
     }
 
+    /**
+     * Tests the ability of the DurableLog to interleave IncrementalMetadataCheckpointOperations with full
+     * MetadataCheckpointOperations, when configured to do so.
+     */
+    @Test
+    public void testIncrementalMetadataCheckpoint() throws Exception {
+        int checkpointEvery = 30;
+        int maxIncrementalCount = 2;
+        List<Operation> readOperations = testMetadataCheckpoint(
+                () -> DurableLogConfig
+                        .builder()
+                        .with(DurableLogConfig.CHECKPOINT_MIN_COMMIT_COUNT, 10)
+                        .with(DurableLogConfig.CHECKPOINT_COMMIT_COUNT, checkpointEvery)
+                        .with(DurableLogConfig.CHECKPOINT_MAX_INCREMENTAL_COUNT, maxIncrementalCount)
+                        .build(),
+                checkpointEvery);
+
+        int incrementalCount = 0;
+        int consecutiveIncrementalCount = 0;
+        for (Operation o : readOperations) {
+            if (o instanceof MetadataCheckpointOperation) {
+                consecutiveIncrementalCount = 0;
+            } else if (o instanceof IncrementalMetadataCheckpointOperation) {
+                incrementalCount++;
+                consecutiveIncrementalCount++;
+                AssertExtensions.assertLessThanOrEqual("Too many consecutive incremental checkpoints.",
+                        maxIncrementalCount, consecutiveIncrementalCount);
+            }
+        }
+
+        AssertExtensions.assertGreaterThan("No incremental checkpoints were injected.", 0, incrementalCount);
+    }
+
     /**
      * Tests the ability of the DurableLog to add MetadataCheckpointOperations.
      *
      * @param createDurableLogConfig     A Supplier that creates a DurableLogConfig object.
      * @param waitForProcessingFrequency The frequency at which to stop and wait for operations to be processed by the
      *                                   DurableLog before adding others.
+     * @return All the Operations that were read back from the DurableLog.
      */
-    private void testMetadataCheckpoint(Supplier<DurableLogConfig> createDurableLogConfig, int waitForProcessingFrequency) throws Exception {
+    private List<Operation> testMetadataCheckpoint(Supplier<DurableLogConfig> createDurableLogConfig, int waitForProcessingFrequency) throws Exception {
         int streamSegmentCount = 500;
         int appendsPerStreamSegment = 20;
 
@@ -659,10 +694,10 @@ public class DurableLogTests extends OperationLogTestBase {
         OperationWithCompletion.allOf(completionFutures).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
         List<Operation> readOperations = readAllDurableLog(durableLog);
 
-        // Count the number of injected MetadataCheckpointOperations.
+        // Count the number of injected MetadataCheckpointOperations (full or incremental).
         int injectedOperationCount = 0;
         for (Operation o : readOperations) {
-            if (o instanceof MetadataCheckpointOperation) {
+            if (o instanceof MetadataCheckpointOperation || o instanceof IncrementalMetadataCheckpointOperation) {
                 injectedOperationCount++;
             }
         }
@@ -678,6 +713,7 @@ public class DurableLogTests extends OperationLogTestBase {
 
         // Stop the processor.
         durableLog.stopAsync().awaitTerminated();
+        return readOperations;
     }
 
     //endregion
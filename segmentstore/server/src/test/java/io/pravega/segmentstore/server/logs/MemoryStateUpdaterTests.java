@@ -9,6 +9,7 @@
  */
 package io.pravega.segmentstore.server.logs;
 
+import io.netty.buffer.ByteBuf;
 import io.pravega.common.Exceptions;
 import io.pravega.common.util.SequencedItemList;
 import io.pravega.segmentstore.contracts.ReadResult;
@@ -169,7 +170,7 @@ public class MemoryStateUpdaterTests {
                 operations.add(mapOp);
                 StreamSegmentAppendOperation appendOp = new StreamSegmentAppendOperation(i, Integer.toString(i).getBytes(), null);
                 appendOp.setStreamSegmentOffset(offset);
-                offset += appendOp.getData().length;
+                offset += appendOp.getLength();
                 operations.add(appendOp);
                 operations.add(new MergeTransactionOperation(i, j));
             }
@@ -202,7 +203,7 @@ public class MemoryStateUpdaterTests {
         }
 
         @Override
-        public void append(long segmentId, long offset, byte[] data) {
+        public void append(long segmentId, long offset, ByteBuf data) {
             invoke(new MethodInvocation(APPEND)
                     .withArg("streamSegmentId", segmentId)
                     .withArg("offset", offset)
@@ -10,6 +10,7 @@
 package io.pravega.segmentstore.server.logs;
 
 import com.google.common.collect.Iterators;
+import io.netty.buffer.ByteBufUtil;
 import io.pravega.common.ObjectClosedException;
 import io.pravega.common.concurrent.Futures;
 import io.pravega.common.util.SequencedItemList;
@@ -335,7 +336,7 @@ abstract class OperationLogTestBase extends ThreadPooledTestSuite {
                 StreamSegmentAppendOperation appendOperation = (StreamSegmentAppendOperation) o.operation;
                 result.put(
                         appendOperation.getStreamSegmentId(),
-                        result.getOrDefault(appendOperation.getStreamSegmentId(), 0) + appendOperation.getData().length);
+                        result.getOrDefault(appendOperation.getStreamSegmentId(), 0) + (int) appendOperation.getLength());
             } else if (o.operation instanceof MergeTransactionOperation) {
                 MergeTransactionOperation mergeOperation = (MergeTransactionOperation) o.operation;
 
@@ -370,7 +371,7 @@ abstract class OperationLogTestBase extends ThreadPooledTestSuite {
                     partialContents.put(appendOperation.getStreamSegmentId(), segmentContents);
                 }
 
-                segmentContents.add(new ByteArrayInputStream(appendOperation.getData()));
+                segmentContents.add(new ByteArrayInputStream(ByteBufUtil.getBytes(appendOperation.getData())));
             } else if (o.operation instanceof MergeTransactionOperation) {
                 MergeTransactionOperation mergeOperation = (MergeTransactionOperation) o.operation;
                 List<ByteArrayInputStream> targetSegmentContents = partialContents.get(mergeOperation.getStreamSegmentId());
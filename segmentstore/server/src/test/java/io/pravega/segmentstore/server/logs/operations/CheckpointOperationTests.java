@@ -25,6 +25,13 @@ public abstract class CheckpointOperationTests extends OperationTestsBase<Checkp
         }
     }
 
+    public static class IncrementalMetadataCheckpointOperationTests extends CheckpointOperationTests {
+        @Override
+        protected CheckpointOperationBase createOperation(Random random) {
+            return new IncrementalMetadataCheckpointOperation(random.nextInt(Integer.MAX_VALUE));
+        }
+    }
+
     public static class StorageMetadataCheckpointOperationTests extends CheckpointOperationTests {
         @Override
         protected CheckpointOperationBase createOperation(Random random) {
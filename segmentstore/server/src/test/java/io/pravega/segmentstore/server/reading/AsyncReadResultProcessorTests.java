@@ -61,7 +61,7 @@ public class AsyncReadResultProcessorTests extends ThreadPooledTestSuite {
 
         // Setup an entry provider supplier.
         AtomicInteger currentIndex = new AtomicInteger();
-        StreamSegmentReadResult.NextEntrySupplier supplier = (offset, length) -> {
+        StreamSegmentReadResult.NextEntrySupplier supplier = (offset, length, makeCopy) -> {
             int idx = currentIndex.getAndIncrement();
             if (idx >= entries.size()) {
                 return null;
@@ -99,7 +99,7 @@ public class AsyncReadResultProcessorTests extends ThreadPooledTestSuite {
 
         // Setup an entry provider supplier.
         AtomicInteger currentIndex = new AtomicInteger();
-        StreamSegmentReadResult.NextEntrySupplier supplier = (offset, length) -> {
+        StreamSegmentReadResult.NextEntrySupplier supplier = (offset, length, makeCopy) -> {
             int idx = currentIndex.getAndIncrement();
             if (idx >= entries.size()) {
                 return null;
@@ -137,7 +137,7 @@ public class AsyncReadResultProcessorTests extends ThreadPooledTestSuite {
         final Semaphore barrier = new Semaphore(0);
 
         // Setup an entry provider supplier that returns Future Reads, which will eventually fail.
-        StreamSegmentReadResult.NextEntrySupplier supplier = (offset, length) -> {
+        StreamSegmentReadResult.NextEntrySupplier supplier = (offset, length, makeCopy) -> {
             Supplier<ReadResultEntryContents> entryContentsSupplier = () -> {
                 barrier.acquireUninterruptibly();
                 throw new IntentionalException("Intentional");
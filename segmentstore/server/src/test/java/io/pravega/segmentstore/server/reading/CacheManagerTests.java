@@ -14,11 +14,14 @@ import io.pravega.test.common.AssertExtensions;
 import io.pravega.test.common.ThreadPooledTestSuite;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import lombok.Cleanup;
+import lombok.val;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -228,6 +231,89 @@ public class CacheManagerTests extends ThreadPooledTestSuite {
         cm.applyCachePolicy();
     }
 
+    /**
+     * Tests that the CacheManager takes into account the number of bytes actually used by the Cache, if larger than what
+     * the clients report.
+     */
+    @Test
+    public void testCacheUsedBytes() {
+        final CachePolicy policy = new CachePolicy(1024, Duration.ofHours(10000), Duration.ofHours(1));
+        val usedBytes = new AtomicLong(policy.getMaxSize());
+        @Cleanup
+        TestCacheManager cm = new TestCacheManager(policy, usedBytes::get, executorService());
+        TestClient client = new TestClient();
+        cm.register(client);
+        val updateCount = new AtomicInteger();
+        client.setUpdateGenerationsImpl((current, oldest) -> {
+            Assert.assertEquals("Not expecting the oldest generation to change.", 0, (long) oldest);
+            updateCount.incrementAndGet();
+            return 0L;
+        });
+
+        // Within the policy.
+        client.setCacheStatus(policy.getMaxSize() / 2, 0, 0);
+        cm.applyCachePolicy();
+        Assert.assertEquals("Unexpected utilization.", 1.0, cm.getCacheUtilization(), 0);
+        Assert.assertEquals("Expected the current generation to change.", 1, updateCount.get());
+
+        // The clients are still within the policy, but the Cache has outgrown it (i.e., due to rounding).
+        usedBytes.set(policy.getMaxSize() + 1);
+        client.setCacheStatus(policy.getMaxSize() / 2, 0, 1);
+        client.setUpdateGenerationsImpl((current, oldest) -> {
+            Assert.assertEquals("Expected oldest generation to change.", 1, (long) oldest);
+            updateCount.incrementAndGet();
+            return 0L;
+        });
+        cm.applyCachePolicy();
+        Assert.assertEquals("Expected generations to change.", 2, updateCount.get());
+        Assert.assertTrue("Unexpected utilization.", cm.getCacheUtilization() > 1);
+    }
+
+    /**
+     * Tests the tryCleanup() method, which evicts the oldest generations regardless of the policy.
+     */
+    @Test
+    public void testTryCleanup() {
+        final CachePolicy policy = new CachePolicy(1024, Duration.ofHours(10000), Duration.ofHours(1));
+        @Cleanup
+        TestCacheManager cm = new TestCacheManager(policy, executorService());
+        TestClient client = new TestClient();
+        cm.register(client);
+
+        // Nothing to evict.
+        client.setCacheStatus(0, 0, 0);
+        client.setUpdateGenerationsImpl((current, oldest) -> {
+            Assert.fail("Not expecting any updates in generations.");
+            return -1L;
+        });
+        Assert.assertFalse("Not expecting anything to be evicted from an empty Cache.", cm.tryCleanup());
+
+        // Generations 0 through 4; nothing can be evicted from generations 0 and 1, but something can from generation 2.
+        client.setUpdateGenerationsImpl((current, oldest) -> 0L);
+        for (int i = 0; i < 5; i++) {
+            client.setCacheStatus(10, 0, i);
+            cm.applyCachePolicy();
+        }
+
+        val evictedGenerations = new ArrayList<Integer>();
+        client.setUpdateGenerationsImpl((current, oldest) -> {
+            evictedGenerations.add(oldest);
+            return oldest == 3 ? 1L : 0L;
+        });
+        Assert.assertTrue("Expected something to be evicted.", cm.tryCleanup());
+        Assert.assertEquals("Unexpected generations evicted.", Arrays.asList(1, 2, 3), evictedGenerations);
+
+        // Nothing else can be evicted.
+        evictedGenerations.clear();
+        client.setCacheStatus(10, 3, 5);
+        client.setUpdateGenerationsImpl((current, oldest) -> {
+            evictedGenerations.add(oldest);
+            return 0L;
+        });
+        Assert.assertFalse("Not expecting anything to be evicted.", cm.tryCleanup());
+        Assert.assertEquals("Unexpected generations evicted.", Arrays.asList(4, 5, 6), evictedGenerations);
+    }
+
     private static class TestClient implements CacheManager.Client {
         private CacheManager.CacheStatus currentStatus;
         private BiFunction<Integer, Integer, Long> updateGenerationsImpl = (current, oldest) -> -1L;
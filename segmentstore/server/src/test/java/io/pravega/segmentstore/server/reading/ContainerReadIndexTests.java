@@ -9,8 +9,10 @@
  */
 package io.pravega.segmentstore.server.reading;
 
+import io.netty.buffer.ByteBuf;
 import io.pravega.common.concurrent.Futures;
 import io.pravega.common.io.StreamHelpers;
+import io.pravega.common.util.ByteArraySegment;
 import io.pravega.segmentstore.contracts.ReadResult;
 import io.pravega.segmentstore.contracts.ReadResultEntry;
 import io.pravega.segmentstore.contracts.ReadResultEntryContents;
@@ -39,6 +41,7 @@ import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -47,6 +50,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -105,6 +109,63 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
         checkReadIndex("PostAppend", segmentContents, context);
     }
 
+    /**
+     * Tests the ability of the ReadIndex to coalesce multiple appends into a single index (and Cache) entry, if the Cache
+     * supports in-place appends.
+     */
+    @Test
+    public void testAppendCoalescing() throws Exception {
+        final int maxEntryLength = 1000;
+        val config = ReadIndexConfig.builder()
+                                    .with(ReadIndexConfig.MEMORY_READ_MIN_LENGTH, DEFAULT_CONFIG.getMemoryReadMinLength())
+                                    .with(ReadIndexConfig.STORAGE_READ_ALIGNMENT, DEFAULT_CONFIG.getStorageReadAlignment())
+                                    .with(ReadIndexConfig.MEMORY_APPEND_MAX_LENGTH, maxEntryLength)
+                                    .with(ReadIndexConfig.CACHE_POLICY_MAX_SIZE, Long.MAX_VALUE)
+                                    .with(ReadIndexConfig.CACHE_POLICY_MAX_TIME, 1000000)
+                                    .with(ReadIndexConfig.CACHE_POLICY_GENERATION_TIME, 10000)
+                                    .build();
+
+        @Cleanup
+        TestContext context = new TestContext(config, config.getCachePolicy());
+        context.cacheFactory.cache.appendEnabled = true;
+        ArrayList<Long> segmentIds = createSegments(context);
+        HashMap<Long, ByteArrayOutputStream> segmentContents = new HashMap<>();
+        appendData(segmentIds, segmentContents, context);
+
+        // Each append is much smaller than the max entry length, so most of them should have been coalesced.
+        TestCache cache = context.cacheFactory.cache;
+        Assert.assertEquals("Unexpected number of Cache inserts and appends.", segmentIds.size() * APPENDS_PER_SEGMENT,
+                cache.insertCount.get() + cache.appendCount.get());
+        AssertExtensions.assertGreaterThan("Expected most appends to be coalesced.", cache.insertCount.get(), cache.appendCount.get());
+        int minInsertCount = segmentIds.stream().mapToInt(id -> (segmentContents.get(id).size() - 1) / maxEntryLength + 1).sum();
+        AssertExtensions.assertGreaterThanOrEqual("Entries were coalesced beyond the max entry length.", minInsertCount, cache.insertCount.get());
+
+        checkReadIndex("PostAppend", segmentContents, context);
+        checkReadIndexDirect(segmentContents, context);
+
+        // Truncate and evict everything; subsequent appends must not be coalesced into evicted entries.
+        HashSet<CacheKey> removedKeys = new HashSet<>();
+        cache.removeCallback = removedKeys::add;
+        for (long segmentId : segmentIds) {
+            val sm = context.metadata.getStreamSegmentMetadata(segmentId);
+            sm.setStorageLength(sm.getLength());
+            sm.setStartOffset(sm.getLength());
+        }
+
+        context.cacheManager.applyCachePolicy();
+        Assert.assertEquals("Expected all Cache entries to be removed.", cache.insertCount.get(), removedKeys.size());
+
+        int insertCount = cache.insertCount.get();
+        for (long segmentId : segmentIds) {
+            byte[] data = getAppendData(context.metadata.getStreamSegmentMetadata(segmentId).getName(), segmentId, APPENDS_PER_SEGMENT, 0);
+            appendSingleWrite(segmentId, data, context);
+            recordAppend(segmentId, data, segmentContents);
+        }
+
+        Assert.assertEquals("Expected new Cache entries to be inserted after eviction.", insertCount + segmentIds.size(), cache.insertCount.get());
+        checkReadIndex("PostEviction", segmentContents, context);
+    }
+
     /**
      * Tests the ability for the ReadIndex to batch multiple index entries together into a bigger read. This test
      * writes a lot of very small appends to the index, then issues a full read (from the beginning) while configuring
@@ -113,6 +174,18 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
      */
     @Test
     public void testBatchedRead() throws Exception {
+        testBatchedRead(true);
+    }
+
+    /**
+     * Same as testBatchedRead(), but the ReadResult is configured to return views over the Cache instead of copies.
+     */
+    @Test
+    public void testBatchedReadNoCopy() throws Exception {
+        testBatchedRead(false);
+    }
+
+    private void testBatchedRead(boolean copyOnRead) throws Exception {
         final int totalAppendLength = 500 * 1000;
         final int maxAppendLength = 100;
         final int minReadLength = 16 * 1024;
@@ -161,6 +234,7 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
         // Check all the appended data.
         @Cleanup
         ReadResult readResult = context.readIndex.read(segmentId, 0, totalAppendLength, TIMEOUT);
+        readResult.setCopyOnRead(copyOnRead);
         long expectedCurrentOffset = 0;
         boolean encounteredStorageRead = false;
         while (readResult.hasNext()) {
@@ -175,8 +249,14 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
             }
 
             // Check the entry contents.
-            byte[] entryData = new byte[entry.getContent().join().getLength()];
-            StreamHelpers.readAll(entry.getContent().join().getData(), entryData, 0, entryData.length);
+            val contents = entry.getContent().join();
+            if (entry.getType() == ReadResultEntryType.Cache) {
+                Assert.assertEquals("Unexpected result from getBuffer() for a Cache entry.", copyOnRead, contents.getBuffer() == null);
+            }
+
+            byte[] entryData = new byte[contents.getLength()];
+            StreamHelpers.readAll(contents.getData(), entryData, 0, entryData.length);
+            contents.release();
             AssertExtensions.assertArrayEquals("Unexpected data read at offset " + expectedCurrentOffset, segmentData, (int) expectedCurrentOffset, entryData, 0, entryData.length);
             expectedCurrentOffset += entryData.length;
 
@@ -636,6 +716,76 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
         checkReadIndex("CacheReads", segmentContents, context);
     }
 
+    /**
+     * Tests the ability of the ReadIndex to read ahead from Storage for sequential (catch-up) readers.
+     */
+    @Test
+    public void testReadAhead() throws Exception {
+        final int alignment = DEFAULT_CONFIG.getStorageReadAlignment();
+        final int readAheadCount = 4;
+        final byte[] segmentData = new byte[alignment * (readAheadCount + 3)];
+        new Random(0).nextBytes(segmentData);
+        val config = ConfigHelpers
+                .withInfiniteCachePolicy(ReadIndexConfig.builder()
+                                                        .with(ReadIndexConfig.MEMORY_READ_MIN_LENGTH, 0)
+                                                        .with(ReadIndexConfig.STORAGE_READ_ALIGNMENT, alignment)
+                                                        .with(ReadIndexConfig.STORAGE_READ_AHEAD_COUNT, readAheadCount))
+                .build();
+
+        @Cleanup
+        TestContext context = new TestContext(config, config.getCachePolicy());
+        final long segmentId = createSegment(0, context);
+        createSegmentsInStorage(context);
+        final UpdateableSegmentMetadata segmentMetadata = context.metadata.getStreamSegmentMetadata(segmentId);
+        val writeHandle = context.storage.openWrite(segmentMetadata.getName()).join();
+        context.storage.write(writeHandle, 0, new ByteArrayInputStream(segmentData), segmentData.length, TIMEOUT).join();
+        segmentMetadata.setStorageLength(segmentData.length);
+        segmentMetadata.setLength(segmentData.length);
+
+        // Read-ahead blocks start after the second block, since we only read ahead once we detect sequential reads.
+        CompletableFuture<Void> readAheadCompleted = new CompletableFuture<>();
+        AtomicInteger readAheadInsertCount = new AtomicInteger();
+        context.cacheFactory.cache.insertCallback = key -> {
+            if (key.getOffset() >= 2 * alignment && readAheadInsertCount.incrementAndGet() == readAheadCount) {
+                readAheadCompleted.complete(null);
+            }
+        };
+
+        // Sequentially read the first two blocks from Storage.
+        for (int i = 0; i < 2; i++) {
+            @Cleanup
+            ReadResult readResult = context.readIndex.read(segmentId, i * alignment, alignment, TIMEOUT);
+            ReadResultEntry entry = readResult.next();
+            Assert.assertEquals("Unexpected ReadResultEntryType for block " + i, ReadResultEntryType.Storage, entry.getType());
+            entry.requestContent(TIMEOUT);
+            Assert.assertEquals("Unexpected read length for block " + i, alignment, entry.getContent().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).getLength());
+        }
+
+        readAheadCompleted.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+        // Delete the segment from Storage; the read-ahead blocks must be served from the Cache.
+        context.storage.delete(writeHandle, TIMEOUT).join();
+        int readAheadLength = readAheadCount * alignment;
+        @Cleanup
+        ReadResult readResult = context.readIndex.read(segmentId, 2 * alignment, readAheadLength, TIMEOUT);
+        byte[] readData = new byte[readAheadLength];
+        int readLength = 0;
+        while (readResult.hasNext()) {
+            ReadResultEntry entry = readResult.next();
+            Assert.assertEquals("Unexpected ReadResultEntryType at offset " + entry.getStreamSegmentOffset(), ReadResultEntryType.Cache, entry.getType());
+            ReadResultEntryContents contents = entry.getContent().join();
+            StreamHelpers.readAll(contents.getData(), readData, readLength, contents.getLength());
+            readLength += contents.getLength();
+        }
+
+        AssertExtensions.assertArrayEquals("Unexpected read-ahead data.", segmentData, 2 * alignment, readData, 0, readAheadLength);
+
+        // The block after that was not read ahead.
+        @Cleanup
+        ReadResult lastResult = context.readIndex.read(segmentId, 2 * alignment + readAheadLength, alignment, TIMEOUT);
+        Assert.assertEquals("Unexpected ReadResultEntryType beyond read-ahead range.", ReadResultEntryType.Storage, lastResult.next().getType());
+    }
+
     /**
      * Tests the ability to handle Storage read failures.
      */
@@ -750,9 +900,11 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
         final int preStorageEntryCount = entriesPerSegment - postStorageEntryCount; // 75% of the entries are before the StorageOffset.
         CachePolicy cachePolicy = new CachePolicy(cacheMaxSize, Duration.ofMillis(1000 * 2 * entriesPerSegment), Duration.ofMillis(1000));
 
-        // To properly test this, we want predictable storage reads.
+        // To properly test this, we want predictable storage reads (and no read-ahead).
         ReadIndexConfig config = ConfigHelpers
-                .withInfiniteCachePolicy(ReadIndexConfig.builder().with(ReadIndexConfig.STORAGE_READ_ALIGNMENT, appendSize))
+                .withInfiniteCachePolicy(ReadIndexConfig.builder()
+                                                        .with(ReadIndexConfig.STORAGE_READ_ALIGNMENT, appendSize)
+                                                        .with(ReadIndexConfig.STORAGE_READ_AHEAD_COUNT, 0))
                 .build();
 
         ArrayList<CacheKey> removedKeys = new ArrayList<>();
@@ -886,6 +1038,98 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
         }
     }
 
+    /**
+     * Tests a catch-up reader scanning through a Segment's Storage data while appends are made to its tail, with a Cache
+     * that can only hold a few entries. Data read from Storage is inserted into older Cache generations, so the catch-up
+     * reader should only evict its own data and leave the most recent tail appends in the Cache.
+     */
+    @Test
+    public void testCatchUpReadsWithTailAppends() throws Exception {
+        final int appendSize = 100;
+        final int catchUpCount = 50;
+        final int storageReadGenerations = 10;
+
+        // With aged Storage reads, each of the last few generations only contains one tail append, so all the most
+        // recent tail appends fit in the cache. Without it, every generation also has a catch-up entry, so about half of
+        // them are evicted.
+        int cachedTailCount = testCatchUpReadsWithTailAppends(appendSize, catchUpCount, storageReadGenerations, storageReadGenerations);
+        Assert.assertEquals("Unexpected number of recent tail appends in the Cache with aged Storage reads.",
+                storageReadGenerations, cachedTailCount);
+        cachedTailCount = testCatchUpReadsWithTailAppends(appendSize, catchUpCount, storageReadGenerations, 0);
+        AssertExtensions.assertLessThan("Expected catch-up reads to evict tail appends without aged Storage reads.",
+                storageReadGenerations, cachedTailCount);
+    }
+
+    /**
+     * Interleaves catch-up reads with tail appends, applying the Cache Policy after each pair.
+     *
+     * @param appendSize         The size of each append and each catch-up read.
+     * @param catchUpCount       The number of catch-up reads (and of tail appends).
+     * @param recentTailCount    The number of tail appends (from the end) to check, which is also the number of entries
+     *                           the Cache can hold.
+     * @param storageReadAgeGens The number of generations by which data read from Storage should be aged.
+     * @return The number of the last recentTailCount tail appends that are still in the Cache.
+     */
+    private int testCatchUpReadsWithTailAppends(int appendSize, int catchUpCount, int recentTailCount, int storageReadAgeGens)
+            throws Exception {
+        final int generationMillis = 1000;
+        // Not a multiple of appendSize, so the Cache is never exactly full (that would stop Storage reads from being cached).
+        final long cacheMaxSize = recentTailCount * appendSize + appendSize / 2;
+        ReadIndexConfig config = ReadIndexConfig.builder()
+                                                .with(ReadIndexConfig.MEMORY_READ_MIN_LENGTH, 0)
+                                                .with(ReadIndexConfig.STORAGE_READ_ALIGNMENT, appendSize)
+                                                .with(ReadIndexConfig.STORAGE_READ_AHEAD_COUNT, 0)
+                                                .with(ReadIndexConfig.CACHE_POLICY_MAX_SIZE, cacheMaxSize)
+                                                .with(ReadIndexConfig.CACHE_POLICY_MAX_TIME, 1000 * generationMillis)
+                                                .with(ReadIndexConfig.CACHE_POLICY_GENERATION_TIME, generationMillis)
+                                                .with(ReadIndexConfig.CACHE_POLICY_STORAGE_READ_AGE, storageReadAgeGens * generationMillis)
+                                                .build();
+
+        @Cleanup
+        TestContext context = new TestContext(config, config.getCachePolicy());
+        final long segmentId = createSegment(0, context);
+        createSegmentsInStorage(context);
+        final UpdateableSegmentMetadata sm = context.metadata.getStreamSegmentMetadata(segmentId);
+        final int catchUpLength = catchUpCount * appendSize;
+
+        // Storage contains both the data to catch up on and all the tail appends, but the latter are not yet in the metadata.
+        byte[] storageData = new byte[2 * catchUpLength];
+        new Random(0).nextBytes(storageData);
+        val handle = context.storage.openWrite(sm.getName()).join();
+        context.storage.write(handle, 0, new ByteArrayInputStream(storageData), storageData.length, TIMEOUT).join();
+        sm.setStorageLength(catchUpLength);
+        sm.setLength(catchUpLength);
+
+        for (int i = 0; i < catchUpCount; i++) {
+            // Catch-up read.
+            @Cleanup
+            ReadResult result = context.readIndex.read(segmentId, i * appendSize, appendSize, TIMEOUT);
+            ReadResultEntry entry = result.next();
+            Assert.assertEquals("Unexpected type of ReadResultEntry for catch-up read " + i, ReadResultEntryType.Storage, entry.getType());
+            entry.requestContent(TIMEOUT);
+            ReadResultEntryContents contents = entry.getContent().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            Assert.assertEquals("Unexpected catch-up read length.", appendSize, contents.getLength());
+
+            // Tail append, which is immediately flushed to Storage (so it is eligible for eviction).
+            long offset = sm.getLength();
+            sm.setLength(offset + appendSize);
+            context.readIndex.append(segmentId, offset, Arrays.copyOfRange(storageData, (int) offset, (int) offset + appendSize));
+            sm.setStorageLength(sm.getLength());
+            context.cacheManager.applyCachePolicy();
+        }
+
+        int cachedTailCount = 0;
+        for (int i = catchUpCount - recentTailCount; i < catchUpCount; i++) {
+            @Cleanup
+            ReadResult result = context.readIndex.read(segmentId, catchUpLength + i * appendSize, appendSize, TIMEOUT);
+            if (result.next().getType() == ReadResultEntryType.Cache) {
+                cachedTailCount++;
+            }
+        }
+
+        return cachedTailCount;
+    }
+
     // region Scenario-based tests
 
     /**
@@ -1338,11 +1582,50 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
 
     private static class TestCache extends InMemoryCache {
         Consumer<CacheKey> removeCallback;
+        Consumer<CacheKey> insertCallback;
+        volatile boolean appendEnabled;
+        final AtomicInteger insertCount = new AtomicInteger();
+        final AtomicInteger appendCount = new AtomicInteger();
 
         TestCache(String id) {
             super(id);
         }
 
+        @Override
+        public void insert(Cache.Key key, byte[] data) {
+            this.insertCount.incrementAndGet();
+            super.insert(key, data);
+            invokeInsertCallback(key);
+        }
+
+        @Override
+        public void insert(Cache.Key key, ByteArraySegment data) {
+            this.insertCount.incrementAndGet();
+            super.insert(key, data);
+            invokeInsertCallback(key);
+        }
+
+        private void invokeInsertCallback(Cache.Key key) {
+            Consumer<CacheKey> callback = this.insertCallback;
+            if (callback != null) {
+                callback.accept((CacheKey) key);
+            }
+        }
+
+        @Override
+        public boolean append(Cache.Key key, ByteBuf data) {
+            byte[] existingData = get(key);
+            if (!this.appendEnabled || existingData == null) {
+                return false;
+            }
+
+            byte[] newData = Arrays.copyOf(existingData, existingData.length + data.readableBytes());
+            data.getBytes(data.readerIndex(), newData, existingData.length, data.readableBytes());
+            super.insert(key, newData);
+            this.appendCount.incrementAndGet();
+            return true;
+        }
+
         @Override
         public void remove(Cache.Key key) {
             Consumer<CacheKey> callback = this.removeCallback;
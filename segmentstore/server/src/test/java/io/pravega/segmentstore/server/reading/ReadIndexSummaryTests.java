@@ -92,6 +92,33 @@ public class ReadIndexSummaryTests {
         testRemove(addedSizes, totalSize, GENERATION_COUNT - 1, s);
     }
 
+    /**
+     * Tests the functionality of addAged - adding elements to older generations than the current one.
+     */
+    @Test
+    public void testAddAged() {
+        ReadIndexSummary s = new ReadIndexSummary();
+        s.setCurrentGeneration(GENERATION_COUNT);
+        s.setOldestGeneration(GENERATION_COUNT / 2);
+
+        // Within bounds.
+        Assert.assertEquals("Unexpected generation for zero age.", GENERATION_COUNT, s.addAged(1, 0));
+        Assert.assertEquals("Unexpected generation for non-zero age.", GENERATION_COUNT - 10, s.addAged(2, 10));
+
+        // Ages going beyond the oldest generation are clamped to it.
+        Assert.assertEquals("Unexpected generation for an age beyond the oldest generation.", GENERATION_COUNT / 2, s.addAged(3, GENERATION_COUNT));
+
+        CacheManager.CacheStatus currentStatus = s.toCacheStatus();
+        Assert.assertEquals("Unexpected total size.", 6, currentStatus.getSize());
+        Assert.assertEquals("Unexpected oldest generation.", GENERATION_COUNT / 2, currentStatus.getOldestGeneration());
+        Assert.assertEquals("Unexpected newest generation.", GENERATION_COUNT, currentStatus.getNewestGeneration());
+
+        // Aged items are promoted to the current generation when touched.
+        Assert.assertEquals("Unexpected return value from touchOne().", GENERATION_COUNT, s.touchOne(GENERATION_COUNT / 2));
+        currentStatus = s.toCacheStatus();
+        Assert.assertEquals("Unexpected oldest generation after touching.", GENERATION_COUNT - 10, currentStatus.getOldestGeneration());
+    }
+
     private void testRemove(Queue<Integer> addedSizes, long totalSize, int maxGeneration, ReadIndexSummary s) {
         for (int generation = 0; generation < GENERATION_COUNT; generation++) {
             for (int i = 0; i < ITEMS_PER_GENERATION; i++) {
@@ -179,6 +179,39 @@ public class StorageReadManagerTests extends ThreadPooledTestSuite {
                 ex -> ex instanceof IntentionalException);
     }
 
+    /**
+     * Tests the detection of sequential reads and the ability to queue read-ahead requests.
+     */
+    @Test
+    public void testSequentialReadsAndReadAhead() {
+        TestStorage storage = new TestStorage();
+        storage.readImplementation = CompletableFuture::new; // Never complete the reads, so that all requests remain pending.
+        @Cleanup
+        StorageReadManager reader = new StorageReadManager(SEGMENT_METADATA, storage, executorService());
+        Assert.assertFalse("Not expecting sequential reads initially.", reader.isSequential());
+
+        reader.execute(newRequest(0, 100));
+        Assert.assertFalse("Not expecting the first read to be sequential.", reader.isSequential());
+        reader.execute(newRequest(100, 100));
+        Assert.assertTrue("Expecting a read that starts where the previous one ended to be sequential.", reader.isSequential());
+
+        Assert.assertTrue("Expecting a non-overlapping read-ahead request to be queued.", reader.readAhead(newRequest(200, 100)));
+        Assert.assertFalse("Not expecting a read-ahead request that overlaps a pending read-ahead request to be queued.",
+                reader.readAhead(newRequest(250, 100)));
+        Assert.assertFalse("Not expecting a read-ahead request that overlaps a pending request to be queued.",
+                reader.readAhead(newRequest(150, 100)));
+        Assert.assertFalse("Not expecting a read-ahead request that contains a pending request to be queued.",
+                reader.readAhead(newRequest(50, 200)));
+        Assert.assertTrue("Read-ahead requests should not affect sequential detection.", reader.isSequential());
+
+        reader.execute(newRequest(300, 100));
+        Assert.assertTrue("Expecting a read that starts where a read-ahead request ended to be sequential.", reader.isSequential());
+        reader.execute(newRequest(500, 100));
+        Assert.assertFalse("Not expecting a read that skips over data to be sequential.", reader.isSequential());
+        reader.execute(newRequest(400, 100));
+        Assert.assertFalse("Not expecting a read that goes backwards to be sequential.", reader.isSequential());
+    }
+
     /**
      * Tests the ability to auto-cancel the requests when the StorageReadManager is closed.
      */
@@ -216,6 +249,10 @@ public class StorageReadManagerTests extends ThreadPooledTestSuite {
         }
     }
 
+    private StorageReadManager.Request newRequest(long offset, int length) {
+        return new StorageReadManager.Request(offset, length, r -> { }, ex -> { }, TIMEOUT);
+    }
+
     private byte[] populateSegment(Storage storage) {
         Random random = new Random();
         int length = MIN_SEGMENT_LENGTH + random.nextInt(MAX_SEGMENT_LENGTH - MIN_SEGMENT_LENGTH);
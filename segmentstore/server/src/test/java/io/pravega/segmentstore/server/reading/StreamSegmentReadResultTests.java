@@ -38,7 +38,7 @@ public class StreamSegmentReadResultTests {
     @Test
     public void testNextFullyConsumed() {
         AtomicReference<TestReadResultEntry> nextEntry = new AtomicReference<>();
-        StreamSegmentReadResult.NextEntrySupplier nes = (offset, length) -> nextEntry.get();
+        StreamSegmentReadResult.NextEntrySupplier nes = (offset, length, makeCopy) -> nextEntry.get();
 
         // We issue a read with length = MAX_RESULT_LENGTH, and return items, 1 byte at a time.
         @Cleanup
@@ -93,7 +93,7 @@ public class StreamSegmentReadResultTests {
 
     private void testNextTerminal(BiFunction<Long, Integer, TestReadResultEntry> terminalEntryCreator) {
         AtomicReference<TestReadResultEntry> nextEntry = new AtomicReference<>();
-        StreamSegmentReadResult.NextEntrySupplier nes = (offset, length) -> nextEntry.get();
+        StreamSegmentReadResult.NextEntrySupplier nes = (offset, length, makeCopy) -> nextEntry.get();
 
         // We issue a read with length = MAX_RESULT_LENGTH, and return only half the items, 1 byte at a time.
         @Cleanup
@@ -127,7 +127,7 @@ public class StreamSegmentReadResultTests {
     @Test
     public void testClose() {
         AtomicReference<TestReadResultEntry> nextEntry = new AtomicReference<>();
-        StreamSegmentReadResult.NextEntrySupplier nes = (offset, length) -> nextEntry.get();
+        StreamSegmentReadResult.NextEntrySupplier nes = (offset, length, makeCopy) -> nextEntry.get();
 
         // We issue a read with length = MAX_RESULT_LENGTH, but we only get to read one item from it.
         StreamSegmentReadResult r = new StreamSegmentReadResult(START_OFFSET, MAX_RESULT_LENGTH, nes, "");
@@ -150,7 +150,7 @@ public class StreamSegmentReadResultTests {
     @Test
     public void testNextWaitOnPrevious() throws Exception {
         AtomicReference<TestReadResultEntry> nextEntry = new AtomicReference<>();
-        StreamSegmentReadResult.NextEntrySupplier nes = (offset, length) -> nextEntry.get();
+        StreamSegmentReadResult.NextEntrySupplier nes = (offset, length, makeCopy) -> nextEntry.get();
 
         // We issue a read, get one item, do not consume it, and then read a second time.
         @Cleanup
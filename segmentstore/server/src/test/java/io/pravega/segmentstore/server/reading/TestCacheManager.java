@@ -10,6 +10,7 @@
 package io.pravega.segmentstore.server.reading;
 
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.LongSupplier;
 
 /**
  * Exposes the applyCachePolicy method in the CacheManager.
@@ -19,6 +20,10 @@ class TestCacheManager extends CacheManager {
         super(policy, executorService);
     }
 
+    TestCacheManager(CachePolicy policy, LongSupplier getCacheUsedBytes, ScheduledExecutorService executorService) {
+        super(policy, getCacheUsedBytes, executorService);
+    }
+
     @Override
     public void applyCachePolicy() {
         super.applyCachePolicy();
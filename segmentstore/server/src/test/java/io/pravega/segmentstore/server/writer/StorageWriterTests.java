@@ -10,6 +10,7 @@
 package io.pravega.segmentstore.server.writer;
 
 import io.pravega.common.Exceptions;
+import io.pravega.common.concurrent.Futures;
 import io.pravega.segmentstore.contracts.SegmentProperties;
 import io.pravega.segmentstore.server.ContainerMetadata;
 import io.pravega.segmentstore.server.DataCorruptionException;
@@ -42,6 +43,7 @@ import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -101,6 +103,79 @@ public class StorageWriterTests extends ThreadPooledTestSuite {
         testWriter(context);
     }
 
+    /**
+     * Tests the StorageWriter when it may only flush one Segment at a time, and only a few bytes per iteration.
+     * Everything should still make it to Storage, only over more iterations.
+     */
+    @Test
+    public void testLimitedFlushes() throws Exception {
+        final WriterConfig config = WriterConfig.builder()
+                                                .with(WriterConfig.FLUSH_THRESHOLD_BYTES, 1000)
+                                                .with(WriterConfig.FLUSH_THRESHOLD_MILLIS, 1000L)
+                                                .with(WriterConfig.MIN_READ_TIMEOUT_MILLIS, 10L)
+                                                .with(WriterConfig.MAX_READ_TIMEOUT_MILLIS, 250L)
+                                                .with(WriterConfig.MAX_ITEMS_TO_READ_AT_ONCE, 100)
+                                                .with(WriterConfig.ERROR_SLEEP_MILLIS, 0L)
+                                                .with(WriterConfig.MAX_CONCURRENT_FLUSHES, 1) // This differs from DEFAULT_CONFIG.
+                                                .with(WriterConfig.MAX_FLUSH_BYTES_PER_ITERATION, 2000L) // This differs from DEFAULT_CONFIG.
+                                                .build();
+
+        @Cleanup
+        TestContext context = new TestContext(config);
+        testWriter(context);
+    }
+
+    /**
+     * Tests the order in which SegmentAggregators are flushed, as well as the limits on flushing imposed by
+     * WriterConfig.getMaxConcurrentFlushes() and WriterConfig.getMaxFlushBytesPerIteration(). Every Segment receives
+     * a single append which exceeds the flush threshold, in the reverse order of the Segment Ids.
+     */
+    @Test
+    public void testFlushScheduling() throws Exception {
+        final int appendLength = 2000;
+        final int maxConcurrentFlushes = 3;
+        final String readMarker = "(read)";
+
+        // 1. One flush at a time, with a budget of one append per iteration. Aggregators must be flushed in the order
+        // of their LowestUncommittedSequenceNumber, and no iteration may flush more than one of them.
+        @Cleanup
+        TestContext context = new TestContext(getFlushSchedulingConfig(1, appendLength));
+        val events = Collections.synchronizedList(new ArrayList<String>());
+        context.dataSource.setReadSyncErrorInjector(new ErrorInjector<>(count -> {
+            events.add(readMarker);
+            return false;
+        }, IntentionalException::new));
+        context.storage.setWriteInterceptor((segmentName, offset, data, length, storage) -> {
+            events.add(segmentName);
+            return null;
+        });
+
+        val expectedOrder = testFlushScheduling(appendLength, context);
+        val eventSnapshot = new ArrayList<String>(events);
+        val actualOrder = eventSnapshot.stream().filter(e -> !e.equals(readMarker)).collect(Collectors.toList());
+        AssertExtensions.assertListEquals("Unexpected flush order.", expectedOrder, actualOrder, String::equals);
+        int flushesSinceRead = 0;
+        for (String e : eventSnapshot) {
+            flushesSinceRead = e.equals(readMarker) ? 0 : flushesSinceRead + 1;
+            Assert.assertTrue("More than one flush in a single iteration.", flushesSinceRead <= 1);
+        }
+
+        // 2. No flush budget, but a limited number of concurrent flushes.
+        @Cleanup
+        TestContext concurrentContext = new TestContext(getFlushSchedulingConfig(maxConcurrentFlushes, Long.MAX_VALUE));
+        val activeFlushes = new AtomicInteger();
+        val maxActiveFlushes = new AtomicInteger();
+        concurrentContext.storage.setWriteInterceptor((segmentName, offset, data, length, storage) -> {
+            maxActiveFlushes.accumulateAndGet(activeFlushes.incrementAndGet(), Math::max);
+            return Futures.delayedFuture(Duration.ofMillis(50), executorService())
+                          .thenRun(activeFlushes::decrementAndGet);
+        });
+
+        testFlushScheduling(appendLength, concurrentContext);
+        AssertExtensions.assertGreaterThan("Expected flushes to be concurrent.", 1, maxActiveFlushes.get());
+        Assert.assertTrue("Too many concurrent flushes: " + maxActiveFlushes.get(), maxActiveFlushes.get() <= maxConcurrentFlushes);
+    }
+
     /**
      * Tests the StorageWriter in a scenario where the DataSource throws random exceptions. Simulated errors are for
      * the following operations:
@@ -546,6 +621,52 @@ public class StorageWriterTests extends ThreadPooledTestSuite {
         }
     }
 
+    /**
+     * Appends one entry of the given length to each Segment, in the reverse order of their Ids, runs the StorageWriter
+     * until everything is acknowledged and verifies that each Segment has been fully written to Storage.
+     *
+     * @param appendLength The length of each append.
+     * @param context      The TestContext to use.
+     * @return The names of the Segments, in the order in which their appends were added.
+     */
+    private List<String> testFlushScheduling(int appendLength, TestContext context) throws Exception {
+        ArrayList<Long> segmentIds = createSegments(context);
+        Collections.reverse(segmentIds);
+        val appendOrder = new ArrayList<String>();
+        for (long segmentId : segmentIds) {
+            UpdateableSegmentMetadata segmentMetadata = context.metadata.getStreamSegmentMetadata(segmentId);
+            segmentMetadata.setLength(appendLength);
+            StreamSegmentAppendOperation op = new StreamSegmentAppendOperation(segmentId, new byte[appendLength], null);
+            op.setStreamSegmentOffset(0);
+            context.dataSource.recordAppend(op);
+            context.dataSource.add(new CachedStreamSegmentAppendOperation(op));
+            appendOrder.add(segmentMetadata.getName());
+        }
+
+        metadataCheckpoint(context);
+        context.writer.startAsync();
+        context.dataSource.waitFullyAcked().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        for (String segmentName : appendOrder) {
+            SegmentProperties sp = context.storage.getStreamSegmentInfo(segmentName, TIMEOUT).join();
+            Assert.assertEquals("Unexpected Storage length for " + segmentName, appendLength, sp.getLength());
+        }
+
+        return appendOrder;
+    }
+
+    private WriterConfig getFlushSchedulingConfig(int maxConcurrentFlushes, long maxFlushBytesPerIteration) {
+        return WriterConfig.builder()
+                           .with(WriterConfig.FLUSH_THRESHOLD_BYTES, 1000)
+                           .with(WriterConfig.FLUSH_THRESHOLD_MILLIS, 1000L)
+                           .with(WriterConfig.MIN_READ_TIMEOUT_MILLIS, 10L)
+                           .with(WriterConfig.MAX_READ_TIMEOUT_MILLIS, 250L)
+                           .with(WriterConfig.MAX_ITEMS_TO_READ_AT_ONCE, 100)
+                           .with(WriterConfig.ERROR_SLEEP_MILLIS, 0L)
+                           .with(WriterConfig.MAX_CONCURRENT_FLUSHES, maxConcurrentFlushes)
+                           .with(WriterConfig.MAX_FLUSH_BYTES_PER_ITERATION, maxFlushBytesPerIteration)
+                           .build();
+    }
+
     //region Helpers
 
     private void verifyFinalOutput(HashMap<Long, ByteArrayOutputStream> segmentContents, Collection<Long> transactionIds, TestContext context) {
@@ -11,6 +11,7 @@ package io.pravega.segmentstore.server.writer;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterators;
+import io.netty.buffer.ByteBufUtil;
 import io.pravega.common.Exceptions;
 import io.pravega.common.concurrent.Futures;
 import io.pravega.common.function.Callbacks;
@@ -173,7 +174,7 @@ class TestWriterDataSource implements WriterDataSource, AutoCloseable {
             }
         }
 
-        ad.append(operation.getStreamSegmentOffset(), operation.getData());
+        ad.append(operation.getStreamSegmentOffset(), ByteBufUtil.getBytes(operation.getData()));
     }
 
     /**
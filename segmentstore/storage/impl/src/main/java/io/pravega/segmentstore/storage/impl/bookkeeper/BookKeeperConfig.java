@@ -36,6 +36,8 @@ public class BookKeeperConfig {
     public static final Property<Integer> BK_WRITE_QUORUM_SIZE = Property.named("bkWriteQuorumSize", 3);
     public static final Property<Integer> BK_WRITE_TIMEOUT = Property.named("bkWriteTimeoutMillis", 5000);
     public static final Property<Integer> BK_LEDGER_MAX_SIZE = Property.named("bkLedgerMaxSize", 1024 * 1024 * 1024);
+    public static final Property<Integer> BK_READ_BATCH_SIZE = Property.named("bkReadBatchSize", 64);
+    public static final Property<Integer> BK_WRITE_STRIPE_COUNT = Property.named("bkWriteStripeCount", 1);
     public static final Property<String> BK_PASSWORD = Property.named("bkPass", "");
     public static final Property<String> BK_LEDGER_PATH = Property.named("bkLedgerPath", "");
     public static final String COMPONENT_CODE = "bookkeeper";
@@ -122,6 +124,20 @@ public class BookKeeperConfig {
      */
     @Getter
     private final int bkLedgerMaxSize;
+
+    /**
+     * The number of entries to fetch from BookKeeper at once when reading. The next batch is fetched in the background
+     * while the current one is being processed.
+     */
+    @Getter
+    private final int bkReadBatchSize;
+
+    /**
+     * The number of Ledgers each log writes to concurrently. If greater than 1, consecutive writes are spread out in a
+     * round-robin fashion across this many Ledgers (stripes), each of which is created with its own Ensemble.
+     */
+    @Getter
+    private final int bkWriteStripeCount;
     private final byte[] bkPassword;
 
     //endregion
@@ -156,6 +172,18 @@ public class BookKeeperConfig {
 
         this.bkWriteTimeoutMillis = properties.getInt(BK_WRITE_TIMEOUT);
         this.bkLedgerMaxSize = properties.getInt(BK_LEDGER_MAX_SIZE);
+        this.bkReadBatchSize = properties.getInt(BK_READ_BATCH_SIZE);
+        if (this.bkReadBatchSize <= 0) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be a positive integer.",
+                    BK_READ_BATCH_SIZE, this.bkReadBatchSize));
+        }
+
+        this.bkWriteStripeCount = properties.getInt(BK_WRITE_STRIPE_COUNT);
+        if (this.bkWriteStripeCount <= 0) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be a positive integer.",
+                    BK_WRITE_STRIPE_COUNT, this.bkWriteStripeCount));
+        }
+
         this.bkPassword = properties.get(BK_PASSWORD).getBytes(Charset.forName("UTF-8"));
     }
 
@@ -30,6 +30,7 @@ import io.pravega.segmentstore.storage.QueueStats;
 import io.pravega.segmentstore.storage.WriteFailureException;
 import io.pravega.segmentstore.storage.WriteTooLongException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -67,6 +68,15 @@ import org.apache.zookeeper.data.Stat;
  * * This is done according to the protocol described here: https://bookkeeper.apache.org/docs/r4.4.0/bookkeeperLedgers2Logs.html
  * * See JavaDocs for the initialize() method (Open-Fence) and the rollover() method (for Rollovers) for details.
  * <p>
+ * Striping:
+ * * If BookKeeperConfig.getBkWriteStripeCount() is greater than 1, the log writes to a group of that many Ledgers at
+ * once. Writes are assigned to the Ledgers (stripes) in the group in a round-robin fashion, in the order in which they
+ * are executed, so the N-th write in a group is always Entry (N / StripeCount) in stripe (N % StripeCount).
+ * * All the Ledgers in a group are created, recorded in the Log Metadata, fenced, rolled over and truncated together.
+ * * Since stripes may acknowledge writes out of order, a write is only completed after all the writes preceding it
+ * have been acknowledged. A write that fails cannot be retried in the same group; the whole group is rolled over and
+ * that write (along with all the writes after it) is re-executed in the new group.
+ * <p>
  * Reading the log
  * * Reading the log can only be done from the beginning. There is no random-access available.
  * * The Log Reader is designed to work well immediately after recovery. Due to BookKeeper behavior, reading while writing
@@ -88,7 +98,9 @@ class BookKeeperLog implements DurableDataLog {
     private final Object lock = new Object();
     private final String traceObjectId;
     @GuardedBy("lock")
-    private WriteLedger writeLedger;
+    private List<WriteLedger> writeLedgers;
+    @GuardedBy("lock")
+    private long nextStripedEntryId;
     @GuardedBy("lock")
     private LogMetadata logMetadata;
     private final WriteQueue writes;
@@ -157,22 +169,24 @@ class BookKeeperLog implements DurableDataLog {
             this.rolloverProcessor.close();
             this.writeProcessor.close();
 
-            // Close active ledger.
-            WriteLedger writeLedger;
+            // Close active ledger(s).
+            List<WriteLedger> writeLedgers;
             synchronized (this.lock) {
-                writeLedger = this.writeLedger;
-                this.writeLedger = null;
+                writeLedgers = this.writeLedgers;
+                this.writeLedgers = null;
                 this.logMetadata = null;
             }
 
             // Close the write queue and cancel the pending writes.
             this.writes.close().forEach(w -> w.fail(new CancellationException("BookKeeperLog has been closed."), true));
 
-            if (writeLedger != null) {
-                try {
-                    Ledgers.close(writeLedger.ledger);
-                } catch (DurableDataLogException bkEx) {
-                    log.error("{}: Unable to close LedgerHandle for Ledger {}.", this.traceObjectId, writeLedger.ledger.getId(), bkEx);
+            if (writeLedgers != null) {
+                for (WriteLedger writeLedger : writeLedgers) {
+                    try {
+                        Ledgers.close(writeLedger.ledger);
+                    } catch (DurableDataLogException bkEx) {
+                        log.error("{}: Unable to close LedgerHandle for Ledger {}.", this.traceObjectId, writeLedger.ledger.getId(), bkEx);
+                    }
                 }
             }
 
@@ -187,8 +201,8 @@ class BookKeeperLog implements DurableDataLog {
     /**
      * Open-Fences this BookKeeper log using the following protocol:
      * 1. Read Log Metadata from ZooKeeper.
-     * 2. Fence at least the last 2 ledgers in the Ledger List.
-     * 3. Create a new Ledger.
+     * 2. Fence at least the last 2 ledgers (or striped Ledger groups) in the Ledger List.
+     * 3. Create a new Ledger (or as many Ledgers as configured stripes).
      * 3.1 If any of the steps so far fails, the process is interrupted at the point of failure, and no cleanup is attempted.
      * 4. Update Log Metadata using compare-and-set (this update contains the new ledger and new epoch).
      * 4.1 If CAS fails on metadata update, the newly created Ledger is deleted (this means we were fenced out by some
@@ -203,8 +217,8 @@ class BookKeeperLog implements DurableDataLog {
     @Override
     public void initialize(Duration timeout) throws DurableDataLogException {
         synchronized (this.lock) {
-            Preconditions.checkState(this.writeLedger == null, "BookKeeperLog is already initialized.");
-            assert this.logMetadata == null : "writeLedger == null but logMetadata != null";
+            Preconditions.checkState(this.writeLedgers == null, "BookKeeperLog is already initialized.");
+            assert this.logMetadata == null : "writeLedgers == null but logMetadata != null";
 
             // Get metadata about the current state of the log, if any.
             LogMetadata metadata = loadMetadata();
@@ -214,15 +228,14 @@ class BookKeeperLog implements DurableDataLog {
                 Ledgers.fenceOut(metadata.getLedgers(), this.bookKeeper, this.config, this.traceObjectId);
             }
 
-            // Create new ledger.
-            LedgerHandle newLedger = Ledgers.create(this.bookKeeper, this.config);
-            log.info("{}: Created Ledger {}.", this.traceObjectId, newLedger.getId());
+            // Create new ledger(s).
+            List<LedgerHandle> newLedgers = createLedgers();
+            log.info("{}: Created Ledger(s) {}.", this.traceObjectId, getLedgerIds(newLedgers));
 
-            // Update node with new ledger.
-            metadata = updateMetadata(metadata, newLedger);
-            LedgerMetadata ledgerMetadata = metadata.getLedger(newLedger.getId());
-            assert ledgerMetadata != null : "cannot find newly added ledger metadata";
-            this.writeLedger = new WriteLedger(newLedger, ledgerMetadata);
+            // Update node with new ledger(s).
+            metadata = updateMetadata(metadata, newLedgers);
+            this.writeLedgers = createWriteLedgers(newLedgers, metadata);
+            this.nextStripedEntryId = 0;
             this.logMetadata = metadata;
             log.info("{}: Initialized.", this.traceObjectId);
         }
@@ -295,9 +308,10 @@ class BookKeeperLog implements DurableDataLog {
      * Write Processor main loop. This method is not thread safe and should only be invoked as part of the Write Processor.
      */
     private void processWritesSync() {
-        if (getWriteLedger().ledger.isClosed()) {
-            // Current ledger is closed. Execute the rollover processor to safely create a new ledger. This will reinvoke
-            // the write processor upon finish, so the writes can be reattempted.
+        if (isClosedOrFailed(getWriteLedgers())) {
+            // Current ledger is closed (or, if striped, one of the ledgers in the current group is closed or had a write
+            // fail). Execute the rollover processor to safely create a new ledger. This will reinvoke the write processor
+            // upon finish, so the writes can be reattempted.
             this.rolloverProcessor.runAsync();
         } else if (!processPendingWrites() && !this.closed.get()) {
             // We were not able to complete execution of all writes. Try again.
@@ -312,6 +326,11 @@ class BookKeeperLog implements DurableDataLog {
      */
     private boolean processPendingWrites() {
         long traceId = LoggerHelpers.traceEnterWithContext(log, this.traceObjectId, "processPendingWrites");
+        if (isStriped()) {
+            // Complete any striped writes that can be completed, and move any writes that need to be re-executed from
+            // rolled over ledger groups into the current one.
+            handleStripedWrites();
+        }
 
         // Clean up the write queue of all finished writes that are complete (successfully or failed for good)
         val cs = this.writes.removeFinishedWrites();
@@ -327,15 +346,21 @@ class BookKeeperLog implements DurableDataLog {
             return true;
         }
 
-        // Calculate how much estimated space there is in the current ledger.
-        final long maxTotalSize = this.config.getBkLedgerMaxSize() - getWriteLedger().ledger.getLength();
+        // Calculate how much estimated space there is in the current ledger (or ledger group).
+        final long maxTotalSize = getWriteLedgers().stream().mapToLong(wl -> this.config.getBkLedgerMaxSize() - wl.ledger.getLength()).sum();
 
         // Get the writes to execute from the queue.
         List<Write> toExecute = this.writes.getWritesToExecute(maxTotalSize);
+        if (isStriped() && toExecute.size() > 0 && !isCurrentLedgerGroup(toExecute.get(0).getWriteLedger())) {
+            // There are writes in a previous ledger group whose outcome is not known yet. We must wait for them to complete
+            // (which will reinvoke the write processor) before executing anything else, otherwise we may reorder them.
+            LoggerHelpers.traceLeave(log, this.traceObjectId, "processPendingWrites", traceId, 0);
+            return true;
+        }
 
         // Check to see if any writes executed on closed ledgers, in which case they either need to be failed (if deemed
-        // appropriate, or retried).
-        if (handleClosedLedgers(toExecute)) {
+        // appropriate, or retried). Striped writes have already been taken care of in handleStripedWrites().
+        if (!isStriped() && handleClosedLedgers(toExecute)) {
             // If any changes were made to the Writes in the list, re-do the search to get a more accurate list of Writes
             // to execute (since some may have changed Ledgers, more writes may not be eligible for execution).
             toExecute = this.writes.getWritesToExecute(maxTotalSize);
@@ -346,6 +371,14 @@ class BookKeeperLog implements DurableDataLog {
         for (int i = 0; i < toExecute.size(); i++) {
             Write w = toExecute.get(i);
             try {
+                if (isStriped() && !assignStripe(w)) {
+                    // This write cannot be executed in the current ledger group. Roll it over; the rollover processor
+                    // will reinvoke the write processor upon finish.
+                    this.rolloverProcessor.runAsync();
+                    LoggerHelpers.traceLeave(log, this.traceObjectId, "processPendingWrites", traceId, i);
+                    return true;
+                }
+
                 // Record the beginning of a new attempt.
                 int attemptCount = w.beginAttempt();
                 if (attemptCount > this.config.getMaxWriteAttempts()) {
@@ -358,6 +391,11 @@ class BookKeeperLog implements DurableDataLog {
             } catch (Throwable ex) {
                 // Synchronous failure (or RetriesExhausted). Fail current write.
                 boolean isFinal = !isRetryable(ex);
+                if (isStriped()) {
+                    // This write cannot be retried in the same ledger group.
+                    w.getWriteLedger().setFailed(true);
+                }
+
                 w.fail(ex, isFinal);
 
                 // And fail all remaining writes as well.
@@ -418,6 +456,71 @@ class BookKeeperLog implements DurableDataLog {
         return anythingChanged;
     }
 
+    /**
+     * Inspects all the pending Writes in a striped log, in order, and:
+     * * Completes those Writes which have been acknowledged (or, if in a rolled over ledger group, are confirmed to have
+     * been written), as long as all the Writes preceding them have been completed.
+     * * Moves to the current ledger group those Writes in rolled over ledger groups that cannot be completed, as long as
+     * the outcome of all the Writes preceding them is known.
+     * The N-th write in a striped ledger group can only be read back if all the writes before it in the same group have
+     * been written too (see LogReader). As such, once a Write cannot be completed, none of the Writes after it can be
+     * completed either; they will all be re-executed in the current ledger group (any copies of them in the previous
+     * group will be ignored when reading).
+     */
+    private void handleStripedWrites() {
+        WriteLedger currentLedger = getWriteLedger();
+        Map<Long, Long> lastAddsConfirmed = new HashMap<>();
+        boolean canComplete = true; // All preceding Writes have been completed.
+        boolean canMove = true; // All preceding Writes have been completed or moved to the current ledger group.
+        for (Write w : this.writes.getPendingWrites()) {
+            if (canComplete && w.isAcknowledged()) {
+                completeWrite(w);
+                continue;
+            }
+
+            if (!isCurrentLedgerGroup(w.getWriteLedger())) {
+                if (w.isInProgress() && !w.isAcknowledged()) {
+                    // We do not know the outcome of this Write yet. We will be invoked again when it completes.
+                    canMove = false;
+                } else if (canComplete && w.getEntryId() >= 0 && w.getEntryId() <= fetchLastAddConfirmed(w.getWriteLedger(), lastAddsConfirmed)) {
+                    // Write was actually successful. Complete it and move on.
+                    completeWrite(w);
+                    continue;
+                } else if (canMove) {
+                    // Write needs to be re-executed in the current ledger group.
+                    w.setWriteLedger(currentLedger);
+                }
+            }
+
+            canComplete = false;
+        }
+    }
+
+    /**
+     * Assigns the given Write to the next stripe in the current ledger group. This method is not thread safe and should
+     * only be invoked as part of the Write Processor.
+     *
+     * @param write The Write to assign.
+     * @return True if the Write has been assigned, false if the current ledger group must be rolled over before this
+     * Write can be executed (either because a Write failed in it or because this Write has already been attempted in it).
+     */
+    private boolean assignStripe(Write write) {
+        synchronized (this.lock) {
+            if (write.getStripedEntryId() >= 0) {
+                // This Write has already been attempted in this ledger group; it cannot be retried here.
+                write.getWriteLedger().setFailed(true);
+                return false;
+            } else if (isClosedOrFailed(this.writeLedgers)) {
+                return false;
+            }
+
+            long entryId = this.nextStripedEntryId++;
+            write.setWriteLedger(this.writeLedgers.get((int) (entryId % this.writeLedgers.size())));
+            write.setStripedEntryId(entryId);
+            return true;
+        }
+    }
+
     /**
      * Reliably gets the LastAddConfirmed for the WriteLedger
      *
@@ -465,13 +568,31 @@ class BookKeeperLog implements DurableDataLog {
                     : "Handle.Id mismatch: " + write.getWriteLedger().ledger.getId() + " vs " + handle.getId();
             write.setEntryId(entryId);
             if (rc == 0) {
-                // Successful write. If we get this, then by virtue of how the Writes are executed (always wait for writes
-                // in previous ledgers to complete before initiating, and BookKeeper guaranteeing that all writes in this
-                // ledger prior to this writes are done), it is safe to complete the callback future now.
-                completeWrite(write);
+                if (write.getStripedEntryId() < 0) {
+                    // Successful write. If we get this, then by virtue of how the Writes are executed (always wait for writes
+                    // in previous ledgers to complete before initiating, and BookKeeper guaranteeing that all writes in this
+                    // ledger prior to this writes are done), it is safe to complete the callback future now.
+                    completeWrite(write);
+                } else if (entryId == write.getStripedEntryId() / this.config.getBkWriteStripeCount()) {
+                    // Successful striped write. Other stripes may still have writes prior to this one in flight, so we
+                    // can only complete it once they are done. The Write Processor will take care of that.
+                    write.acknowledge();
+                } else {
+                    // The Entry Id does not match the stripe the Write was assigned to, so it would not be read back in
+                    // the right order. Treat it as a failure.
+                    write.getWriteLedger().setFailed(true);
+                    write.fail(new WriteFailureException(String.format("Unexpected Entry Id %d for striped Entry Id %d.",
+                            entryId, write.getStripedEntryId())), false);
+                }
+
                 return;
             }
 
+            if (write.getStripedEntryId() >= 0) {
+                // Striped writes cannot be retried in the same ledger group. Make sure it gets rolled over.
+                write.getWriteLedger().setFailed(true);
+            }
+
             // Convert the response code into an Exception. Eventually this will be picked up by the WriteProcessor which
             // will retry it or fail it permanently (this includes exceptions from rollovers).
             handleWriteException(rc, write);
@@ -633,32 +754,26 @@ class BookKeeperLog implements DurableDataLog {
     }
 
     /**
-     * Updates the metadata and persists it as a result of adding a new Ledger.
+     * Updates the metadata and persists it as a result of adding new Ledgers.
      *
      * @param currentMetadata The current metadata.
-     * @param newLedger       The newly added Ledger.
-     * @return A new instance of the LogMetadata, which includes the new ledger.
+     * @param newLedgers      The newly added Ledgers. If more than one, these will make up a striped ledger group.
+     * @return A new instance of the LogMetadata, which includes the new ledgers.
      * @throws DurableDataLogException If an Exception occurred.
      */
-    private LogMetadata updateMetadata(LogMetadata currentMetadata, LedgerHandle newLedger) throws DurableDataLogException {
+    private LogMetadata updateMetadata(LogMetadata currentMetadata, List<LedgerHandle> newLedgers) throws DurableDataLogException {
         boolean create = currentMetadata == null;
         if (create) {
             // This is the first ledger ever in the metadata.
-            currentMetadata = new LogMetadata(newLedger.getId());
+            currentMetadata = new LogMetadata(getLedgerIds(newLedgers));
         } else {
-            currentMetadata = currentMetadata.addLedger(newLedger.getId(), true);
+            currentMetadata = currentMetadata.addLedgers(getLedgerIds(newLedgers), true);
         }
 
         try {
             persistMetadata(currentMetadata, create);
         } catch (DurableDataLogException ex) {
-            try {
-                Ledgers.delete(newLedger.getId(), this.bookKeeper);
-            } catch (Exception deleteEx) {
-                log.warn("{}: Unable to delete newly created ledger {}.", this.traceObjectId, newLedger.getId(), deleteEx);
-                ex.addSuppressed(deleteEx);
-            }
-
+            deleteLedgers(newLedgers, ex);
             throw ex;
         }
 
@@ -714,9 +829,11 @@ class BookKeeperLog implements DurableDataLog {
     //region Ledger Rollover
 
     /**
-     * Triggers an asynchronous rollover, if the current Write Ledger has exceeded its maximum length.
+     * Triggers an asynchronous rollover, if the current Write Ledger has exceeded its maximum length. If striped, the
+     * whole ledger group is rolled over if any of its ledgers has exceeded its maximum length, is closed or has had a
+     * write fail.
      * The rollover protocol is as follows:
-     * 1. Create a new ledger.
+     * 1. Create a new ledger (or as many ledgers as configured stripes).
      * 2. Create an in-memory copy of the metadata and add the new ledger to it.
      * 3. Update the metadata in ZooKeeper using compare-and-set.
      * 3.1 If the update fails, the newly created ledger is deleted and the operation stops.
@@ -735,8 +852,8 @@ class BookKeeperLog implements DurableDataLog {
         }
 
         long traceId = LoggerHelpers.traceEnterWithContext(log, this.traceObjectId, "rollover");
-        val l = getWriteLedger().ledger;
-        if (!l.isClosed() && l.getLength() < this.config.getBkLedgerMaxSize()) {
+        val ledgers = getWriteLedgers();
+        if (!isClosedOrFailed(ledgers) && ledgers.stream().allMatch(wl -> wl.ledger.getLength() < this.config.getBkLedgerMaxSize())) {
             // Nothing to do. Trigger the write processor just in case this rollover was invoked because the write
             // processor got a pointer to a LedgerHandle that was just closed by a previous run of the rollover processor.
             this.writeProcessor.runAsync();
@@ -745,36 +862,55 @@ class BookKeeperLog implements DurableDataLog {
         }
 
         try {
-            // Create new ledger.
-            LedgerHandle newLedger = Ledgers.create(this.bookKeeper, this.config);
-            log.debug("{}: Rollover: created new ledger {}.", this.traceObjectId, newLedger.getId());
+            // Create new ledger(s).
+            List<LedgerHandle> newLedgers = createLedgers();
+            log.debug("{}: Rollover: created new ledger(s) {}.", this.traceObjectId, getLedgerIds(newLedgers));
 
             // Update the metadata.
             LogMetadata metadata = getLogMetadata();
-            metadata = updateMetadata(metadata, newLedger);
-            LedgerMetadata ledgerMetadata = metadata.getLedger(newLedger.getId());
-            assert ledgerMetadata != null : "cannot find newly added ledger metadata";
+            metadata = updateMetadata(metadata, newLedgers);
+            List<WriteLedger> newWriteLedgers = createWriteLedgers(newLedgers, metadata);
             log.debug("{}: Rollover: updated metadata '{}.", this.traceObjectId, metadata);
 
-            // Update pointers to the new ledger and metadata.
-            LedgerHandle oldLedger;
+            // Update pointers to the new ledger(s) and metadata.
+            List<WriteLedger> oldLedgers;
             synchronized (this.lock) {
-                oldLedger = this.writeLedger.ledger;
-                if (!oldLedger.isClosed()) {
-                    // Only mark the old ledger as Rolled Over if it is still open. Otherwise it means it was closed
-                    // because of some failure and should not be marked as such.
-                    this.writeLedger.setRolledOver(true);
+                oldLedgers = this.writeLedgers;
+                for (WriteLedger oldLedger : oldLedgers) {
+                    if (!oldLedger.ledger.isClosed() && !oldLedger.isFailed()) {
+                        // Only mark the old ledger as Rolled Over if it is still open. Otherwise it means it was closed
+                        // because of some failure and should not be marked as such.
+                        oldLedger.setRolledOver(true);
+                    }
                 }
 
-                this.writeLedger = new WriteLedger(newLedger, ledgerMetadata);
+                this.writeLedgers = newWriteLedgers;
+                this.nextStripedEntryId = 0;
                 this.logMetadata = metadata;
             }
 
-            // Close the old ledger. This must be done outside of the lock, otherwise the pending writes (and their callbacks)
-            // will be invoked within the lock, thus likely candidates for deadlocks.
-            Ledgers.close(oldLedger);
-            log.info("{}: Rollover: swapped ledger and metadata pointers (Old = {}, New = {}) and closed old ledger.",
-                    this.traceObjectId, oldLedger.getId(), newLedger.getId());
+            // Close the old ledger(s). This must be done outside of the lock, otherwise the pending writes (and their
+            // callbacks) will be invoked within the lock, thus likely candidates for deadlocks.
+            DurableDataLogException closeEx = null;
+            for (WriteLedger oldLedger : oldLedgers) {
+                try {
+                    Ledgers.close(oldLedger.ledger);
+                } catch (DurableDataLogException ex) {
+                    if (closeEx == null) {
+                        closeEx = ex;
+                    } else {
+                        closeEx.addSuppressed(ex);
+                    }
+                }
+            }
+
+            if (closeEx != null) {
+                throw closeEx;
+            }
+
+            log.info("{}: Rollover: swapped ledger and metadata pointers (Old = {}, New = {}) and closed old ledger(s).",
+                    this.traceObjectId, oldLedgers.stream().map(wl -> wl.ledger.getId()).collect(Collectors.toList()),
+                    getLedgerIds(newLedgers));
         } finally {
             // It's possible that we have writes in the queue that didn't get picked up because they exceeded the predicted
             // ledger length. Invoke the Write Processor to execute them.
@@ -798,17 +934,84 @@ class BookKeeperLog implements DurableDataLog {
         }
     }
 
+    /**
+     * Gets the current WriteLedger. If striped, this is the first ledger in the current ledger group.
+     */
     private WriteLedger getWriteLedger() {
         synchronized (this.lock) {
-            return this.writeLedger;
+            return this.writeLedgers == null ? null : this.writeLedgers.get(0);
+        }
+    }
+
+    /**
+     * Gets all the ledgers in the current ledger group (a single one, if not striped).
+     */
+    private List<WriteLedger> getWriteLedgers() {
+        synchronized (this.lock) {
+            return this.writeLedgers;
+        }
+    }
+
+    private boolean isStriped() {
+        return this.config.getBkWriteStripeCount() > 1;
+    }
+
+    private boolean isCurrentLedgerGroup(WriteLedger writeLedger) {
+        return writeLedger.metadata.getSequence() == getWriteLedger().metadata.getSequence();
+    }
+
+    private static boolean isClosedOrFailed(List<WriteLedger> writeLedgers) {
+        return writeLedgers.stream().anyMatch(wl -> wl.ledger.isClosed() || wl.isFailed());
+    }
+
+    /**
+     * Creates as many new Ledgers as configured stripes. If not all of them could be created, those that were are deleted.
+     */
+    private List<LedgerHandle> createLedgers() throws DurableDataLogException {
+        List<LedgerHandle> result = new ArrayList<>(this.config.getBkWriteStripeCount());
+        try {
+            for (int i = 0; i < this.config.getBkWriteStripeCount(); i++) {
+                result.add(Ledgers.create(this.bookKeeper, this.config));
+            }
+        } catch (DurableDataLogException ex) {
+            deleteLedgers(result, ex);
+            throw ex;
         }
+
+        return result;
+    }
+
+    private void deleteLedgers(List<LedgerHandle> ledgers, Exception ex) {
+        for (LedgerHandle ledger : ledgers) {
+            try {
+                Ledgers.delete(ledger.getId(), this.bookKeeper);
+            } catch (Exception deleteEx) {
+                log.warn("{}: Unable to delete newly created ledger {}.", this.traceObjectId, ledger.getId(), deleteEx);
+                ex.addSuppressed(deleteEx);
+            }
+        }
+    }
+
+    private List<WriteLedger> createWriteLedgers(List<LedgerHandle> ledgers, LogMetadata metadata) {
+        List<WriteLedger> result = new ArrayList<>(ledgers.size());
+        for (LedgerHandle ledger : ledgers) {
+            LedgerMetadata ledgerMetadata = metadata.getLedger(ledger.getId());
+            assert ledgerMetadata != null : "cannot find newly added ledger metadata";
+            result.add(new WriteLedger(ledger, ledgerMetadata));
+        }
+
+        return result;
+    }
+
+    private static List<Long> getLedgerIds(List<LedgerHandle> ledgers) {
+        return ledgers.stream().map(LedgerHandle::getId).collect(Collectors.toList());
     }
 
     private void ensurePreconditions() {
         Exceptions.checkNotClosed(this.closed.get(), this);
         synchronized (this.lock) {
-            Preconditions.checkState(this.writeLedger != null, "BookKeeperLog is not initialized.");
-            assert this.logMetadata != null : "writeLedger != null but logMetadata == null";
+            Preconditions.checkState(this.writeLedgers != null, "BookKeeperLog is not initialized.");
+            assert this.logMetadata != null : "writeLedgers != null but logMetadata == null";
         }
     }
 
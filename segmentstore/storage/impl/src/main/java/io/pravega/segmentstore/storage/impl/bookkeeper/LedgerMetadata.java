@@ -22,12 +22,41 @@ class LedgerMetadata {
     private final long ledgerId;
 
     /**
-     * The metadata-assigned internal sequence number of the Ledger inside the log.
+     * The metadata-assigned internal sequence number of the Ledger inside the log. All the Ledgers making up a striped
+     * Ledger group share the same sequence number.
      */
     private final int sequence;
 
+    /**
+     * The index of this Ledger within its striped Ledger group (0 if the log is not striped).
+     */
+    private final int stripe;
+
+    /**
+     * Creates a new instance of the LedgerMetadata class for a non-striped Ledger.
+     *
+     * @param ledgerId The BookKeeper-assigned Ledger Id.
+     * @param sequence The metadata-assigned sequence number of the Ledger.
+     */
+    LedgerMetadata(long ledgerId, int sequence) {
+        this(ledgerId, sequence, 0);
+    }
+
+    /**
+     * Creates a new instance of the LedgerMetadata class.
+     *
+     * @param ledgerId The BookKeeper-assigned Ledger Id.
+     * @param sequence The metadata-assigned sequence number of the Ledger.
+     * @param stripe   The index of the Ledger within its striped Ledger group.
+     */
+    LedgerMetadata(long ledgerId, int sequence, int stripe) {
+        this.ledgerId = ledgerId;
+        this.sequence = sequence;
+        this.stripe = stripe;
+    }
+
     @Override
     public String toString() {
-        return String.format("Id = %d, Sequence = %d", this.ledgerId, this.sequence);
+        return String.format("Id = %d, Sequence = %d, Stripe = %d", this.ledgerId, this.sequence, this.stripe);
     }
 }
@@ -13,8 +13,10 @@ import io.pravega.common.Exceptions;
 import io.pravega.segmentstore.storage.DataLogNotAvailableException;
 import io.pravega.segmentstore.storage.DurableDataLogException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.apache.bookkeeper.client.AsyncCallback;
 import org.apache.bookkeeper.client.BKException;
 import org.apache.bookkeeper.client.BookKeeper;
 import org.apache.bookkeeper.client.LedgerHandle;
@@ -25,7 +27,7 @@ import org.apache.bookkeeper.client.LedgerHandle;
 @Slf4j
 final class Ledgers {
     /**
-     * How many ledgers to fence out (from the end of the list) when acquiring lock.
+     * How many ledgers (or striped Ledger groups) to fence out (from the end of the list) when acquiring lock.
      */
     private static final int MIN_FENCE_LEDGER_COUNT = 2;
     private static final BookKeeper.DigestType LEDGER_DIGEST_TYPE = BookKeeper.DigestType.MAC;
@@ -89,6 +91,48 @@ final class Ledgers {
         }
     }
 
+    /**
+     * Asynchronously opens a ledger. This operation also fences out the ledger in case anyone else was writing to it.
+     *
+     * @param ledgerId   The Id of the Ledger to open.
+     * @param bookKeeper A references to the BookKeeper client to use.
+     * @param config     Configuration to use.
+     * @return A CompletableFuture that, when completed, will contain a LedgerHandle for the newly opened ledger. If the
+     * operation failed, it will be failed with a DurableDataLogException, which wraps the causing exception.
+     */
+    static CompletableFuture<LedgerHandle> openFenceAsync(long ledgerId, BookKeeper bookKeeper, BookKeeperConfig config) {
+        CompletableFuture<LedgerHandle> result = new CompletableFuture<>();
+        bookKeeper.asyncOpenLedger(ledgerId, LEDGER_DIGEST_TYPE, config.getBKPassword(),
+                openCallback(result, String.format("Unable to open-fence ledger %d.", ledgerId)), null);
+        return result;
+    }
+
+    /**
+     * Asynchronously opens a ledger for reading. This operation does not fence out the ledger.
+     *
+     * @param ledgerId   The Id of the Ledger to open.
+     * @param bookKeeper A references to the BookKeeper client to use.
+     * @param config     Configuration to use.
+     * @return A CompletableFuture that, when completed, will contain a LedgerHandle for the newly opened ledger. If the
+     * operation failed, it will be failed with a DurableDataLogException, which wraps the causing exception.
+     */
+    static CompletableFuture<LedgerHandle> openReadAsync(long ledgerId, BookKeeper bookKeeper, BookKeeperConfig config) {
+        CompletableFuture<LedgerHandle> result = new CompletableFuture<>();
+        bookKeeper.asyncOpenLedgerNoRecovery(ledgerId, LEDGER_DIGEST_TYPE, config.getBKPassword(),
+                openCallback(result, String.format("Unable to open-read ledger %d.", ledgerId)), null);
+        return result;
+    }
+
+    private static AsyncCallback.OpenCallback openCallback(CompletableFuture<LedgerHandle> result, String errorMessage) {
+        return (rc, handle, ctx) -> {
+            if (rc == BKException.Code.OK) {
+                result.complete(handle);
+            } else {
+                result.completeExceptionally(new DurableDataLogException(errorMessage, BKException.create(rc)));
+            }
+        };
+    }
+
     /**
      * Reliably retrieves the LastAddConfirmed for the Ledger with given LedgerId, by opening the Ledger in fencing mode
      * and getting the value. NOTE: this open-fences the Ledger which will effectively stop any writing action on it.
@@ -151,28 +195,47 @@ final class Ledgers {
      * @param config        Configuration to use.
      * @param traceObjectId Used for logging.
      * @return A LedgerAddress representing the address of the last written entry in the Log. This value is null if the log
-     * is empty.
+     * is empty. If the last non-empty Ledger group is striped, this is the address of the last entry written to any of
+     * its stripes.
      * @throws DurableDataLogException If an exception occurred. The causing exception is wrapped inside it.
      */
     static LedgerAddress fenceOut(List<LedgerMetadata> ledgerIds, BookKeeper bookKeeper, BookKeeperConfig config, String traceObjectId) throws DurableDataLogException {
         // Fence out the last few ledgers, in descending order. We need to fence out at least MIN_FENCE_LEDGER_COUNT,
         // but we also need to find the LedgerId & EntryID of the last written entry (it's possible that the last few
-        // ledgers are empty, so we need to look until we find one).
+        // ledgers are empty, so we need to look until we find one). Striped Ledger groups are always fenced out as a
+        // whole, since any of their stripes may have been written to.
         int count = 0;
+        int currentSequence = Integer.MIN_VALUE;
+        LedgerAddress currentGroupAddress = null;
         val iterator = ledgerIds.listIterator(ledgerIds.size());
         LedgerAddress lastAddress = null;
-        while (iterator.hasPrevious() && (count < MIN_FENCE_LEDGER_COUNT || lastAddress == null)) {
+        while (iterator.hasPrevious()) {
             LedgerMetadata ledgerMetadata = iterator.previous();
+            if (ledgerMetadata.getSequence() != currentSequence) {
+                // Beginning of a new Ledger group.
+                lastAddress = lastAddress == null ? currentGroupAddress : lastAddress;
+                if (count >= MIN_FENCE_LEDGER_COUNT && lastAddress != null) {
+                    break;
+                }
+
+                currentSequence = ledgerMetadata.getSequence();
+                currentGroupAddress = null;
+                count++;
+            }
+
             LedgerHandle handle = openFence(ledgerMetadata.getLedgerId(), bookKeeper, config);
-            if (lastAddress == null && handle.getLastAddConfirmed() >= 0) {
-                lastAddress = new LedgerAddress(ledgerMetadata, handle.getLastAddConfirmed());
+            if (handle.getLastAddConfirmed() >= 0) {
+                int stripeCount = (int) ledgerIds.stream().filter(lm -> lm.getSequence() == ledgerMetadata.getSequence()).count();
+                long entryId = handle.getLastAddConfirmed() * stripeCount + ledgerMetadata.getStripe();
+                if (currentGroupAddress == null || currentGroupAddress.getEntryId() < entryId) {
+                    currentGroupAddress = new LedgerAddress(ledgerMetadata.getSequence(), ledgerMetadata.getLedgerId(), entryId);
+                }
             }
 
             close(handle);
             log.info("{}: Fenced out Ledger {}.", traceObjectId, ledgerMetadata);
-            count++;
         }
 
-        return lastAddress;
+        return lastAddress == null ? currentGroupAddress : lastAddress;
     }
 }
@@ -22,11 +22,24 @@ import lombok.val;
 
 /**
  * Metadata for a Ledger-based log.
+ * <p>
+ * If the log is striped, each Ledger Sequence is made up of a group of Ledgers (stripes) which were written to
+ * concurrently: the N-th write in such a group is written to stripe (N % StripeCount), as Entry (N / StripeCount) in
+ * that Ledger. When reading, the stripes are merged back into a single sequence of entries.
  */
 class LogMetadata {
     //region Members
 
-    private static final byte SERIALIZATION_VERSION = 0;
+    /**
+     * Serialization version for Logs without striped Ledgers: each Ledger is serialized as (LedgerId, Sequence).
+     */
+    private static final byte SERIALIZATION_VERSION_NO_STRIPES = 0;
+
+    /**
+     * Serialization version for Logs with striped Ledgers: each Ledger is serialized as (LedgerId, Sequence, Stripe). This
+     * is only used if the Log contains striped Ledgers, since older versions cannot read it.
+     */
+    private static final byte SERIALIZATION_VERSION_STRIPES = 1;
     /**
      * The initial epoch to use for the Log.
      */
@@ -78,7 +91,16 @@ class LogMetadata {
      * @param initialLedgerId The Id of the Ledger to start the log with.
      */
     LogMetadata(long initialLedgerId) {
-        this(INITIAL_EPOCH, Collections.singletonList(new LedgerMetadata(initialLedgerId, INITIAL_LEDGER_SEQUENCE)), INITIAL_TRUNCATION_ADDRESS);
+        this(Collections.singletonList(initialLedgerId));
+    }
+
+    /**
+     * Creates a new instance of the LogMetadata class with one (striped) Ledger group and epoch set to the default value.
+     *
+     * @param initialLedgerIds The Ids of the Ledgers (stripes) to start the log with, in stripe order.
+     */
+    LogMetadata(List<Long> initialLedgerIds) {
+        this(INITIAL_EPOCH, createLedgerGroup(initialLedgerIds, INITIAL_LEDGER_SEQUENCE), INITIAL_TRUNCATION_ADDRESS);
     }
 
     /**
@@ -109,18 +131,30 @@ class LogMetadata {
      * @return A new instance of the LogMetadata class.
      */
     LogMetadata addLedger(long ledgerId, boolean incrementEpoch) {
+        return addLedgers(Collections.singletonList(ledgerId), incrementEpoch);
+    }
+
+    /**
+     * Creates a new instance of the LogMetadata class which contains an additional (striped) Ledger group. All the
+     * Ledgers in this group will share the same sequence number.
+     *
+     * @param ledgerIds      The Ids of the Ledgers to add, in stripe order.
+     * @param incrementEpoch If true, the new LogMetadata object will have its epoch incremented (compared to this object's).
+     * @return A new instance of the LogMetadata class.
+     */
+    LogMetadata addLedgers(List<Long> ledgerIds, boolean incrementEpoch) {
         long newEpoch = this.epoch;
         if (incrementEpoch) {
             newEpoch++;
         }
 
         // Copy existing ledgers.
-        List<LedgerMetadata> newLedgers = new ArrayList<>(this.ledgers.size() + 1);
+        List<LedgerMetadata> newLedgers = new ArrayList<>(this.ledgers.size() + ledgerIds.size());
         newLedgers.addAll(this.ledgers);
 
-        // Create and add metadata for the new ledger.
+        // Create and add metadata for the new ledgers.
         int sequence = this.ledgers.size() == 0 ? INITIAL_LEDGER_SEQUENCE : this.ledgers.get(this.ledgers.size() - 1).getSequence() + 1;
-        newLedgers.add(new LedgerMetadata(ledgerId, sequence));
+        newLedgers.addAll(createLedgerGroup(ledgerIds, sequence));
         return new LogMetadata(newEpoch, Collections.unmodifiableList(newLedgers), this.truncationAddress)
                 .withUpdateVersion(this.updateVersion.get());
     }
@@ -132,10 +166,15 @@ class LogMetadata {
      * @return A new instance of the LogMetadata class.
      */
     LogMetadata truncate(LedgerAddress upToAddress) {
-        // Exclude all those Ledgers that have a LedgerId less than the one we are given. An optimization to this would
+        // Exclude all those Ledgers that have a LedgerId less than the one we are given, except for the other stripes of
+        // its Ledger group, if striped (a Ledger group can only be truncated out as a whole). An optimization to this would
         // involve trimming out the ledger which has a matching ledger id and the entry is is the last one, but that would
         // involve opening the Ledger in BookKeeper and inspecting it, which would take too long.
-        val newLedgers = this.ledgers.stream().filter(lm -> lm.getLedgerId() >= upToAddress.getLedgerId()).collect(Collectors.toList());
+        LedgerMetadata upToLedger = getLedger(upToAddress.getLedgerId());
+        val newLedgers = this.ledgers.stream()
+                                     .filter(lm -> lm.getLedgerId() >= upToAddress.getLedgerId()
+                                             || (upToLedger != null && lm.getSequence() == upToLedger.getSequence()))
+                                     .collect(Collectors.toList());
         return new LogMetadata(this.epoch, Collections.unmodifiableList(newLedgers), upToAddress)
                 .withUpdateVersion(this.updateVersion.get());
     }
@@ -177,6 +216,17 @@ class LogMetadata {
         return null;
     }
 
+    /**
+     * Gets the Ledgers (stripes) making up the Ledger group with given sequence, in stripe order.
+     *
+     * @param ledgerSequence The Ledger Sequence to search.
+     * @return A List containing the sought LedgerMetadatas. This List will be empty if no such Ledgers exist, or have
+     * one element if the Ledger Sequence is not striped.
+     */
+    List<LedgerMetadata> getLedgerGroup(int ledgerSequence) {
+        return this.ledgers.stream().filter(lm -> lm.getSequence() == ledgerSequence).collect(Collectors.toList());
+    }
+
     /**
      * Gets the Ledger Address immediately following the given address.
      *
@@ -184,6 +234,8 @@ class LogMetadata {
      * @param lastEntryId If known, then Entry Id of the last entry in the ledger to which address is pointing. This is
      *                    used to determine if the next address should be returned on the next ledger. If not known,
      *                    this should be Long.MAX_VALUE, in which case the next address will always be on the same ledger.
+     *                    For striped Ledger groups, both this value and the Entry Id of the address refer to the index
+     *                    of the entry within the whole group.
      * @return The next address, or null if no such address exists (i.e., if we reached the end of the log).
      */
     LedgerAddress getNextAddress(LedgerAddress address, long lastEntryId) {
@@ -201,21 +253,16 @@ class LogMetadata {
             // Same ledger, next entry.
             result = new LedgerAddress(address.getLedgerSequence(), address.getLedgerId(), address.getEntryId() + 1);
         } else {
-            // Next ledger. First try a binary search, hoping the ledger in the address actually exists.
+            // Next ledger (for striped Ledger groups, this is the first stripe of the next group). First try a binary
+            // search, hoping the ledger in the address actually exists.
             LedgerMetadata ledgerMetadata = null;
-            int index = getLedgerMetadataIndex(address.getLedgerId()) + 1;
-            if (index > 0) {
-                // Ledger is in the list. Make sure it's not the last one.
-                if (index < this.ledgers.size()) {
-                    ledgerMetadata = this.ledgers.get(index);
-                }
-            } else {
-                // Ledger was not in the list. We need to find the first ledger with an id larger than the one we have.
-                for (LedgerMetadata lm : this.ledgers) {
-                    if (lm.getLedgerId() > address.getLedgerId()) {
-                        ledgerMetadata = lm;
-                        break;
-                    }
+            LedgerMetadata currentLedger = getLedger(address.getLedgerId());
+            for (LedgerMetadata lm : this.ledgers) {
+                // If the ledger is in the list, look for the next sequence. If not, we need to find the first ledger
+                // with an id larger than the one we have.
+                if (currentLedger != null ? lm.getSequence() > currentLedger.getSequence() : lm.getLedgerId() > address.getLedgerId()) {
+                    ledgerMetadata = lm;
+                    break;
                 }
             }
 
@@ -231,6 +278,16 @@ class LogMetadata {
         return result;
     }
 
+    private static List<LedgerMetadata> createLedgerGroup(List<Long> ledgerIds, int sequence) {
+        Preconditions.checkArgument(ledgerIds.size() > 0, "ledgerIds must not be empty.");
+        List<LedgerMetadata> result = new ArrayList<>(ledgerIds.size());
+        for (int i = 0; i < ledgerIds.size(); i++) {
+            result.add(new LedgerMetadata(ledgerIds.get(i), sequence, i));
+        }
+
+        return Collections.unmodifiableList(result);
+    }
+
     private int getLedgerMetadataIndex(long ledgerId) {
         return CollectionHelpers.binarySearch(this.ledgers, lm -> Long.compare(ledgerId, lm.getLedgerId()));
     }
@@ -245,10 +302,15 @@ class LogMetadata {
      * @return A new byte array with the serialized contents of this object.
      */
     byte[] serialize() {
+        // Only use the striped format if we need to, so that Logs which do not use striping can still be read by older
+        // versions (which would misinterpret the Stripe field).
+        boolean striped = this.ledgers.stream().anyMatch(lm -> lm.getStripe() != 0);
+
         // Serialization version (Byte), Epoch (Long), TruncationAddress (3*Long), Ledger Length (Int), Ledgers.
-        val length = Byte.BYTES + Long.BYTES + Long.BYTES * 3 + Integer.BYTES + (Long.BYTES + Integer.BYTES) * this.ledgers.size();
+        val ledgerLength = Long.BYTES + Integer.BYTES + (striped ? Integer.BYTES : 0);
+        val length = Byte.BYTES + Long.BYTES + Long.BYTES * 3 + Integer.BYTES + ledgerLength * this.ledgers.size();
         ByteBuffer bb = ByteBuffer.allocate(length);
-        bb.put(SERIALIZATION_VERSION);
+        bb.put(striped ? SERIALIZATION_VERSION_STRIPES : SERIALIZATION_VERSION_NO_STRIPES);
         bb.putLong(this.epoch);
 
         // Truncation Address.
@@ -260,6 +322,9 @@ class LogMetadata {
         this.ledgers.forEach(lm -> {
             bb.putLong(lm.getLedgerId());
             bb.putInt(lm.getSequence());
+            if (striped) {
+                bb.putInt(lm.getStripe());
+            }
         });
         return bb.array();
     }
@@ -272,7 +337,7 @@ class LogMetadata {
      */
     static LogMetadata deserialize(byte[] serialization) {
         ByteBuffer bb = ByteBuffer.wrap(serialization);
-        bb.get(); // We skip version for now because we only have one.
+        byte version = bb.get();
         long epoch = bb.getLong();
 
         // Truncation Address.
@@ -285,7 +350,8 @@ class LogMetadata {
         for (int i = 0; i < ledgerCount; i++) {
             long ledgerId = bb.getLong();
             int seq = bb.getInt();
-            ledgers.add(new LedgerMetadata(ledgerId, seq));
+            int stripe = version >= SERIALIZATION_VERSION_STRIPES ? bb.getInt() : 0;
+            ledgers.add(new LedgerMetadata(ledgerId, seq, stripe));
         }
 
         return new LogMetadata(epoch, Collections.unmodifiableList(ledgers), new LedgerAddress(truncationSeqNo, truncationLedgerId));
@@ -11,25 +11,40 @@ package io.pravega.segmentstore.storage.impl.bookkeeper;
 
 import com.google.common.base.Preconditions;
 import io.pravega.common.Exceptions;
+import io.pravega.common.concurrent.Futures;
 import io.pravega.common.util.CloseableIterator;
 import io.pravega.segmentstore.storage.DurableDataLog;
 import io.pravega.segmentstore.storage.DurableDataLogException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.concurrent.NotThreadSafe;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.apache.bookkeeper.client.BKException;
 import org.apache.bookkeeper.client.BookKeeper;
 import org.apache.bookkeeper.client.LedgerEntry;
 import org.apache.bookkeeper.client.LedgerHandle;
 
 /**
  * Performs read from BookKeeper Logs.
+ * <p>
+ * Reads are pipelined: entries are fetched from each Ledger in batches (see BookKeeperConfig.getBkReadBatchSize()),
+ * and the next batch is always being fetched in the background while the current one is being consumed. Similarly,
+ * the next Ledger is opened in the background as soon as the current one has been opened. All of this is done using
+ * BookKeeper's async APIs, so no threads are tied up (or need to be available) for it: the caller is the only one that
+ * blocks, and it only does so when it needs something that has not arrived yet.
+ * <p>
+ * Striped Ledger groups are read by fetching from all their Ledgers (stripes) in parallel and merging them back into
+ * the order in which the entries were written: the N-th entry in the group is Entry (N / StripeCount) in stripe
+ * (N % StripeCount). The group ends at the first entry which does not exist in its stripe; any entries after that in
+ * the other stripes were never acknowledged to the writer (which re-wrote them in the next group) and are ignored.
  */
 @Slf4j
 @NotThreadSafe
@@ -40,7 +55,8 @@ class LogReader implements CloseableIterator<DurableDataLog.ReadItem, DurableDat
     private final LogMetadata metadata;
     private final AtomicBoolean closed;
     private final BookKeeperConfig config;
-    private ReadLedger currentLedger;
+    private ReadLedgerGroup currentLedger;
+    private CompletableFuture<ReadLedgerGroup> nextLedger;
 
     //endregion
 
@@ -68,14 +84,19 @@ class LogReader implements CloseableIterator<DurableDataLog.ReadItem, DurableDat
     public void close() {
         if (!this.closed.getAndSet(true)) {
             if (this.currentLedger != null) {
-                try {
-                    Ledgers.close(this.currentLedger.handle);
-                } catch (DurableDataLogException bkEx) {
-                    log.error("Unable to close LedgerHandle for Ledger {}.", this.currentLedger.handle.getId(), bkEx);
-                }
-
+                this.currentLedger.close();
                 this.currentLedger = null;
             }
+
+            if (this.nextLedger != null) {
+                // This Ledger may still be opening; close it whenever that is done.
+                this.nextLedger.thenAccept(ledger -> {
+                    if (ledger != null) {
+                        ledger.close();
+                    }
+                });
+                this.nextLedger = null;
+            }
         }
     }
 
@@ -90,68 +111,117 @@ class LogReader implements CloseableIterator<DurableDataLog.ReadItem, DurableDat
         if (this.currentLedger == null) {
             // First time we call this. Locate the first ledger based on the metadata truncation address. We don't know
             // how many entries are in that first ledger, so open it anyway so we can figure out.
-            openNextLedger(this.metadata.getNextAddress(this.metadata.getTruncationAddress(), Long.MAX_VALUE));
+            try {
+                setCurrentLedger(await(openLedger(this.metadata.getNextAddress(this.metadata.getTruncationAddress(), Long.MAX_VALUE))));
+            } catch (DurableDataLogException ex) {
+                close();
+                throw ex;
+            }
         }
 
         while (this.currentLedger != null && (!this.currentLedger.canRead())) {
-            // We have reached the end of the current ledger. Find next one, and skip over empty ledgers).
-            val lastAddress = new LedgerAddress(this.currentLedger.metadata, this.currentLedger.handle.getLastAddConfirmed());
-            Ledgers.close(this.currentLedger.handle);
-            openNextLedger(this.metadata.getNextAddress(lastAddress, this.currentLedger.handle.getLastAddConfirmed()));
+            // We have reached the end of the current ledger. Move on to the next one (and skip over empty ledgers).
+            this.currentLedger.close();
+            this.currentLedger = null;
+            CompletableFuture<ReadLedgerGroup> nextLedger = this.nextLedger;
+            this.nextLedger = null;
+            try {
+                setCurrentLedger(await(nextLedger));
+            } catch (DurableDataLogException ex) {
+                close();
+                throw ex;
+            }
         }
 
         // Try to read from the current reader.
-        if (this.currentLedger == null || this.currentLedger.reader == null) {
+        if (this.currentLedger == null) {
+            // We have reached the end.
+            close();
             return null;
         }
 
-        return new LogReader.ReadItem(this.currentLedger.reader.nextElement(), this.currentLedger.metadata);
+        try {
+            return this.currentLedger.nextItem();
+        } catch (DurableDataLogException ex) {
+            close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Sets the given ReadLedgerGroup as the current one and begins opening the one after it in the background.
+     */
+    private void setCurrentLedger(ReadLedgerGroup ledger) {
+        this.currentLedger = ledger;
+        if (ledger != null) {
+            // We do not necessarily know the last entry in a (striped) group, so ask for the address following the first
+            // entry in it, while indicating that that is also its last entry. This will point to the next group.
+            val nextAddress = this.metadata.getNextAddress(new LedgerAddress(ledger.getMetadata(), 0), 0);
+            this.nextLedger = openLedger(nextAddress);
+        }
     }
 
-    private void openNextLedger(LedgerAddress address) throws DurableDataLogException {
+    /**
+     * Opens the Ledger (or all the Ledgers in the striped Ledger group) pointed to by the given address and begins
+     * fetching its entries, starting from that address.
+     *
+     * @param address The address to start reading from. If null, nothing is opened.
+     * @return A CompletableFuture that, when completed, will contain a ReadLedgerGroup, or null if address is null. If the
+     * Ledger could not be opened, it will be failed with a DurableDataLogException.
+     */
+    private CompletableFuture<ReadLedgerGroup> openLedger(LedgerAddress address) {
         if (address == null) {
             // We have reached the end.
-            close();
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
-        LedgerMetadata metadata = this.metadata.getLedger(address.getLedgerId());
-        assert metadata != null : "no LedgerMetadata could be found with valid LedgerAddress " + address;
+        List<LedgerMetadata> stripes = this.metadata.getLedgerGroup(address.getLedgerSequence());
+        assert stripes.size() > 0 : "no LedgerMetadata could be found with valid LedgerAddress " + address;
         val allMetadatas = this.metadata.getLedgers();
+        boolean isLastGroup = allMetadatas.size() == 0
+                || stripes.get(0).getSequence() == allMetadatas.get(allMetadatas.size() - 1).getSequence();
+
+        List<CompletableFuture<ReadLedger>> result = new ArrayList<>(stripes.size());
+        for (LedgerMetadata metadata : stripes) {
+            // Open the ledger.
+            CompletableFuture<LedgerHandle> ledger;
+            if (isLastGroup) {
+                // This is our last ledger (the active one); we need to make sure open it without recovery since otherwise we
+                // we would fence ourselves out.
+                ledger = Ledgers.openReadAsync(metadata.getLedgerId(), this.bookKeeper, this.config);
+            } else {
+                // Older ledger. Open with recovery to make sure any uncommitted fragments will be recovered. Since we do our
+                // Log fencing based on the last Ledger, open-fencing this Ledger will not have any adverse effects.
+                ledger = Ledgers.openFenceAsync(metadata.getLedgerId(), this.bookKeeper, this.config);
+            }
 
-        // Open the ledger.
-        LedgerHandle ledger;
-        if (allMetadatas.size() == 0 || metadata == allMetadatas.get(allMetadatas.size() - 1)) {
-            // This is our last ledger (the active one); we need to make sure open it without recovery since otherwise we
-            // we would fence ourselves out.
-            ledger = Ledgers.openRead(metadata.getLedgerId(), this.bookKeeper, this.config);
-        } else {
-            // Older ledger. Open with recovery to make sure any uncommitted fragments will be recovered. Since we do our
-            // Log fencing based on the last Ledger, open-fencing this Ledger will not have any adverse effects.
-            ledger = Ledgers.openFence(metadata.getLedgerId(), this.bookKeeper, this.config);
+            // The first entry to read from this stripe is the first one at or after the address (for non-striped
+            // ledgers, this is the address itself).
+            long firstEntryId = (address.getEntryId() + stripes.size() - 1 - metadata.getStripe()) / stripes.size();
+            result.add(ledger.thenApply(handle ->
+                    new ReadLedger(metadata, handle, firstEntryId, handle.getLastAddConfirmed(), this.config.getBkReadBatchSize())));
         }
 
-        long lastEntryId = ledger.getLastAddConfirmed();
-        if (lastEntryId < address.getEntryId()) {
-            // This ledger is empty.
-            Ledgers.close(ledger);
-            this.currentLedger = new ReadLedger(metadata, ledger, null);
-            return;
-        }
+        return Futures.allOfWithResults(result)
+                .thenApply(readLedgers -> new ReadLedgerGroup(readLedgers, address.getEntryId()))
+                .whenComplete((group, ex) -> {
+                    if (ex != null) {
+                        // Close whatever stripes we did manage to open.
+                        result.forEach(f -> f.thenAccept(ReadLedger::close));
+                    }
+                });
+    }
 
-        ReadLedger previousLedger;
+    private static <T> T await(CompletableFuture<T> future) throws DurableDataLogException {
         try {
-            val reader = Exceptions.handleInterrupted(() -> ledger.readEntries(address.getEntryId(), lastEntryId));
-            previousLedger = this.currentLedger;
-            this.currentLedger = new ReadLedger(metadata, ledger, reader);
-            if (previousLedger != null) {
-                // Close previous ledger handle.
-                Ledgers.close(previousLedger.handle);
-            }
+            return Exceptions.handleInterrupted(future::get);
         } catch (Exception ex) {
-            Ledgers.close(ledger);
-            close();
-            throw new DurableDataLogException("Error while reading from BookKeeper.", ex);
+            Throwable cause = Exceptions.unwrap(ex);
+            if (cause instanceof DurableDataLogException) {
+                throw (DurableDataLogException) cause;
+            }
+
+            throw new DurableDataLogException("Error while reading from BookKeeper.", cause);
         }
     }
 
@@ -168,8 +238,8 @@ class LogReader implements CloseableIterator<DurableDataLog.ReadItem, DurableDat
         private final LedgerAddress address;
 
         @SneakyThrows(IOException.class)
-        ReadItem(LedgerEntry entry, LedgerMetadata ledgerMetadata) {
-            this.address = new LedgerAddress(ledgerMetadata, entry.getEntryId());
+        ReadItem(LedgerEntry entry, LedgerAddress address) {
+            this.address = address;
             this.payload = entry.getEntryInputStream();
             this.length = this.payload.available();
         }
@@ -182,19 +252,116 @@ class LogReader implements CloseableIterator<DurableDataLog.ReadItem, DurableDat
 
     //endregion
 
+    //region ReadLedgerGroup
+
+    /**
+     * A group of open Ledgers (stripes) that are being read from and merged together. For non-striped logs, this is made
+     * up of a single Ledger.
+     */
+    private static class ReadLedgerGroup {
+        private final List<ReadLedger> stripes;
+        private long nextEntryId;
+
+        ReadLedgerGroup(List<ReadLedger> stripes, long firstEntryId) {
+            this.stripes = stripes;
+            this.nextEntryId = firstEntryId;
+        }
+
+        LedgerMetadata getMetadata() {
+            return this.stripes.get(0).metadata;
+        }
+
+        boolean canRead() {
+            return getNextStripe().canRead();
+        }
+
+        ReadItem nextItem() throws DurableDataLogException {
+            ReadLedger stripe = getNextStripe();
+            LedgerEntry entry = stripe.nextEntry();
+            long entryId = entry.getEntryId() * this.stripes.size() + stripe.metadata.getStripe();
+            assert entryId == this.nextEntryId : "unexpected entry id " + entryId + ", expected " + this.nextEntryId;
+            this.nextEntryId++;
+            return new ReadItem(entry, new LedgerAddress(stripe.metadata.getSequence(), stripe.metadata.getLedgerId(), entryId));
+        }
+
+        private ReadLedger getNextStripe() {
+            return this.stripes.get((int) (this.nextEntryId % this.stripes.size()));
+        }
+
+        void close() {
+            this.stripes.forEach(ReadLedger::close);
+        }
+    }
+
+    //endregion
+
     //region ReadLedger
 
-    @RequiredArgsConstructor
+    /**
+     * An open Ledger that is being read from. Keeps one batch of entries being fetched in the background while the
+     * current one is being consumed.
+     */
     private static class ReadLedger {
         final LedgerMetadata metadata;
         final LedgerHandle handle;
-        final Enumeration<LedgerEntry> reader;
+        final long lastEntryId;
+        private final int batchSize;
+        private long nextEntryToFetch;
+        private Enumeration<LedgerEntry> currentBatch;
+        private CompletableFuture<Enumeration<LedgerEntry>> nextBatch;
+
+        ReadLedger(LedgerMetadata metadata, LedgerHandle handle, long firstEntryId, long lastEntryId, int batchSize) {
+            this.metadata = metadata;
+            this.handle = handle;
+            this.lastEntryId = lastEntryId;
+            this.batchSize = batchSize;
+            this.nextEntryToFetch = firstEntryId;
+            fetchNextBatch();
+        }
 
         boolean canRead() {
-            return this.reader != null && this.reader.hasMoreElements();
+            return (this.currentBatch != null && this.currentBatch.hasMoreElements()) || this.nextBatch != null;
+        }
+
+        LedgerEntry nextEntry() throws DurableDataLogException {
+            if (this.currentBatch == null || !this.currentBatch.hasMoreElements()) {
+                assert this.nextBatch != null : "nextEntry() invoked when canRead() == false";
+                this.currentBatch = await(this.nextBatch);
+                fetchNextBatch();
+            }
+
+            return this.currentBatch.nextElement();
+        }
+
+        private void fetchNextBatch() {
+            if (this.nextEntryToFetch > this.lastEntryId) {
+                // Nothing more to fetch.
+                this.nextBatch = null;
+                return;
+            }
+
+            long firstEntryId = this.nextEntryToFetch;
+            long lastEntryId = Math.min(this.lastEntryId, firstEntryId + this.batchSize - 1);
+            this.nextEntryToFetch = lastEntryId + 1;
+            CompletableFuture<Enumeration<LedgerEntry>> result = new CompletableFuture<>();
+            this.handle.asyncReadEntries(firstEntryId, lastEntryId, (rc, lh, entries, ctx) -> {
+                if (rc == BKException.Code.OK) {
+                    result.complete(entries);
+                } else {
+                    result.completeExceptionally(BKException.create(rc));
+                }
+            }, null);
+            this.nextBatch = result;
+        }
+
+        void close() {
+            try {
+                Ledgers.close(this.handle);
+            } catch (DurableDataLogException bkEx) {
+                log.error("Unable to close LedgerHandle for Ledger {}.", this.handle.getId(), bkEx);
+            }
         }
     }
 
     //endregion
 }
-
@@ -14,6 +14,7 @@ import io.pravega.common.Timer;
 import io.pravega.common.util.ArrayView;
 import io.pravega.segmentstore.storage.LogAddress;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -31,6 +32,8 @@ class Write {
     private final AtomicInteger attemptCount;
     private final AtomicReference<WriteLedger> writeLedger;
     private final AtomicLong entryId;
+    private final AtomicLong stripedEntryId;
+    private final AtomicBoolean acknowledged;
     private final AtomicReference<Timer> beginAttemptTimer;
     private final AtomicReference<Throwable> failureCause;
     @Getter
@@ -57,6 +60,8 @@ class Write {
         this.attemptCount = new AtomicInteger();
         this.failureCause = new AtomicReference<>();
         this.entryId = new AtomicLong(Long.MIN_VALUE);
+        this.stripedEntryId = new AtomicLong(Long.MIN_VALUE);
+        this.acknowledged = new AtomicBoolean();
         this.beginAttemptTimer = new AtomicReference<>();
     }
 
@@ -80,6 +85,51 @@ class Write {
     void setWriteLedger(WriteLedger writeLedger) {
         this.writeLedger.set(writeLedger);
         this.entryId.set(Long.MIN_VALUE);
+        this.stripedEntryId.set(Long.MIN_VALUE);
+        if (this.acknowledged.getAndSet(false)) {
+            // An acknowledged write is still in progress (see acknowledge()). Since it is being moved to a different
+            // ledger, it will need to be re-executed.
+            endAttempt();
+        }
+    }
+
+    /**
+     * Sets the Entry Id of this Write within its striped Ledger group. This is the index of the Write within the
+     * entire group (as opposed from getEntryId(), which is the index within the stripe it was written to).
+     *
+     * @param value The value to assign.
+     */
+    void setStripedEntryId(long value) {
+        this.stripedEntryId.set(value);
+    }
+
+    /**
+     * Gets the Entry Id of this Write within its striped Ledger group, or a negative value if this has not been assigned
+     * (or the Write is not part of a striped Ledger group).
+     *
+     * @return The result.
+     */
+    long getStripedEntryId() {
+        return this.stripedEntryId.get();
+    }
+
+    /**
+     * Records the fact that this Write has been acknowledged by BookKeeper but cannot be completed yet. This is used
+     * for striped Ledger groups, where a Write may only be completed after all the Writes preceding it have been
+     * acknowledged. The Write will remain in progress until it is either completed or moved to a different Ledger.
+     */
+    void acknowledge() {
+        Preconditions.checkState(isInProgress(), "Write is not in progress. Cannot acknowledge.");
+        this.acknowledged.set(true);
+    }
+
+    /**
+     * Gets a value indicating whether this Write has been acknowledged by BookKeeper but not yet completed.
+     *
+     * @return True or false.
+     */
+    boolean isAcknowledged() {
+        return this.acknowledged.get() && !isDone();
     }
 
     /**
@@ -151,7 +201,11 @@ class Write {
     Timer complete() {
         Preconditions.checkState(this.entryId.get() >= 0, "entryId not set; cannot complete Write.");
         this.failureCause.set(null);
-        this.result.complete(new LedgerAddress(this.writeLedger.get().metadata, this.entryId.get()));
+        LedgerMetadata metadata = this.writeLedger.get().metadata;
+        long stripedEntryId = this.stripedEntryId.get();
+        this.result.complete(stripedEntryId >= 0
+                ? new LedgerAddress(metadata.getSequence(), metadata.getLedgerId(), stripedEntryId)
+                : new LedgerAddress(metadata, this.entryId.get()));
         return endAttempt();
     }
 
@@ -30,6 +30,14 @@ class WriteLedger {
     @Setter
     private boolean rolledOver;
 
+    /**
+     * Whether a write to this Ledger has failed. This is only used for striped Ledger groups, where writes cannot be
+     * retried on the same Ledger (that would break the Entry Id to group index mapping); such groups must be rolled over.
+     */
+    @Getter
+    @Setter
+    private boolean failed;
+
     @Override
     public String toString() {
         return String.format("%s, Length = %d, Closed = %s", this.metadata, this.ledger.getLength(), this.ledger.isClosed());
@@ -21,6 +21,7 @@ import java.util.Deque;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import lombok.Getter;
@@ -120,7 +121,8 @@ class WriteQueue {
      * example, the head of the queue has a bunch of completed Writes).
      * This method will return writes as long as:
      * * The MaxSize limit is not reached
-     * * The writes to return have the same Ledger Id assigned as the first write in the queue.
+     * * The writes to return have the same Ledger Sequence assigned as the first write in the queue (for striped Ledger
+     * groups, these may be different Ledgers within the same group).
      *
      * @param maximumAccumulatedSize The maximum total accumulated size of the items to return. Once this value is exceeded,
      *                               no further writes are returned.
@@ -130,9 +132,9 @@ class WriteQueue {
         Exceptions.checkNotClosed(this.closed, this);
         long accumulatedSize = 0;
 
-        // Collect all remaining writes, as long as they are not currently in-progress and have the same ledger id
+        // Collect all remaining writes, as long as they are not currently in-progress and have the same ledger sequence
         // as the first item in the ledger.
-        long firstLedgerId = this.writes.peekFirst().getWriteLedger().metadata.getLedgerId();
+        int firstLedgerSequence = this.writes.peekFirst().getWriteLedger().metadata.getSequence();
         boolean canSkip = true;
 
         List<Write> result = new ArrayList<>();
@@ -153,7 +155,7 @@ class WriteQueue {
                     // with their updating their status. Try again next time (when that write completes).
                     return Collections.emptyList();
                 }
-            } else if (write.getWriteLedger().metadata.getLedgerId() != firstLedgerId) {
+            } else if (write.getWriteLedger().metadata.getSequence() != firstLedgerSequence) {
                 // We cannot initiate writes in a new ledger until all writes in the previous ledger completed.
                 break;
             } else if (!write.isDone()) {
@@ -165,6 +167,16 @@ class WriteQueue {
         return result;
     }
 
+    /**
+     * Gets an ordered List of all the Writes in the queue that are not yet completed (successfully or not).
+     *
+     * @return The result.
+     */
+    synchronized List<Write> getPendingWrites() {
+        Exceptions.checkNotClosed(this.closed, this);
+        return this.writes.stream().filter(w -> !w.isDone()).collect(Collectors.toList());
+    }
+
     /**
      * Removes all the completed writes (whether successful or failed) from the beginning of the queue, until the first
      * non-completed item is encountered or the queue is empty.
@@ -0,0 +1,399 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.directmemory;
+
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.pravega.common.Exceptions;
+import io.pravega.common.function.Callbacks;
+import io.pravega.common.util.ByteArraySegment;
+import io.pravega.segmentstore.storage.Cache;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache that stores its data in direct (off-heap) memory, using Blocks allocated from a (shared) SlabAllocator.
+ *
+ * Each Cache Entry is made up of a chain of Blocks. Inserting an entry copies the data into its chain, while retrieving
+ * an entry copies the chain's contents back into a single byte array. Removing (or replacing) an entry returns its Blocks
+ * to the SlabAllocator's free list.
+ *
+ * Entries can also be retrieved (without copying) using getView(), which returns a ByteBuf wrapping the entry's Blocks.
+ * Each such view pins the entry: its Blocks will not be freed until both the entry has been removed (or replaced) and all
+ * views on it have been released.
+ *
+ * Entries can be appended to in place: new data fills up the unused space in the entry's last Block and then spills into
+ * newly allocated Blocks that are linked at the end of the chain. Existing views are unaffected, as they only cover the
+ * entry's contents as of the time they were created.
+ */
+@Slf4j
+@ThreadSafe
+class DirectMemoryCache implements Cache {
+    //region Members
+
+    @Getter
+    private final String id;
+    private final String logId;
+    private final SlabAllocator allocator;
+    @GuardedBy("lock")
+    private final HashMap<Key, Entry> entries;
+    private final ReadWriteLock lock;
+    private final AtomicBoolean closed;
+    private final Consumer<String> closeCallback;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the DirectMemoryCache class.
+     *
+     * @param id            The Cache Id.
+     * @param allocator     The SlabAllocator to allocate Blocks from.
+     * @param closeCallback A callback to invoke when the cache is closed.
+     */
+    DirectMemoryCache(String id, SlabAllocator allocator, Consumer<String> closeCallback) {
+        Exceptions.checkNotNullOrEmpty(id, "id");
+        Preconditions.checkNotNull(allocator, "allocator");
+
+        this.id = id;
+        this.logId = String.format("DirectMemoryCache[%s]", id);
+        this.allocator = allocator;
+        this.closeCallback = closeCallback;
+        this.entries = new HashMap<>();
+        this.lock = new ReentrantReadWriteLock();
+        this.closed = new AtomicBoolean();
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        if (this.closed.compareAndSet(false, true)) {
+            // Return all our Blocks to the allocator, since it is shared with other Caches.
+            ArrayList<Entry> toFree;
+            this.lock.writeLock().lock();
+            try {
+                toFree = new ArrayList<>(this.entries.values());
+                this.entries.clear();
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+
+            toFree.forEach(this::release);
+            log.info("{}: Closed.", this.logId);
+
+            Consumer<String> callback = this.closeCallback;
+            if (callback != null) {
+                Callbacks.invokeSafely(callback, this.id, null);
+            }
+        }
+    }
+
+    //endregion
+
+    //region Cache Implementation
+
+    @Override
+    public void insert(Key key, byte[] data) {
+        insert(key, data, 0, data.length);
+    }
+
+    @Override
+    public void insert(Key key, ByteArraySegment data) {
+        insert(key, data.array(), data.arrayOffset(), data.getLength());
+    }
+
+    @Override
+    public void insert(Key key, ByteBuf data) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+
+        // Copy straight from the ByteBuf into our Blocks, without going through an intermediate array.
+        int length = data.readableBytes();
+        Entry entry = new Entry(length == 0 ? SlabAllocator.NO_BLOCK : this.allocator.allocate(length), length);
+        entry.lastBlock = write(entry.firstBlock, data, data.readerIndex(), length);
+        publish(key, entry);
+    }
+
+    @Override
+    public boolean append(Key key, ByteBuf data) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        int length = data.readableBytes();
+        Entry entry;
+        int entryLength;
+        int lastBlock;
+        this.lock.readLock().lock();
+        try {
+            entry = this.entries.get(key);
+            if (entry == null || entry.firstBlock == SlabAllocator.NO_BLOCK) {
+                // Nothing to append to (empty entries have no Blocks, so they would need to be replaced instead).
+                return false;
+            }
+
+            // Pin the entry so its Blocks are not freed while we write into them.
+            entry.references.incrementAndGet();
+            entryLength = entry.length;
+            lastBlock = entry.lastBlock;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        try {
+            // Fill up the unused space in the last Block, then put the rest into a newly allocated chain. Readers cannot
+            // see any of this data until we update the entry's length, so we can do it all outside of the lock.
+            int blockSize = this.allocator.getBlockSize();
+            int lastBlockUsed = entryLength % blockSize == 0 ? blockSize : entryLength % blockSize;
+            int copied = Math.min(blockSize - lastBlockUsed, length);
+            if (copied > 0) {
+                this.allocator.write(lastBlock, lastBlockUsed, data, data.readerIndex(), copied);
+            }
+
+            int newChain = SlabAllocator.NO_BLOCK;
+            int newLastBlock = lastBlock;
+            if (copied < length) {
+                newChain = this.allocator.allocate(length - copied);
+                newLastBlock = write(newChain, data, data.readerIndex() + copied, length - copied);
+            }
+
+            this.lock.writeLock().lock();
+            try {
+                if (this.entries.get(key) != entry || entry.length != entryLength) {
+                    // The entry was removed or replaced (or appended to by someone else) in the meantime.
+                    this.allocator.free(newChain);
+                    return false;
+                }
+
+                if (newChain != SlabAllocator.NO_BLOCK) {
+                    this.allocator.link(lastBlock, newChain);
+                }
+
+                entry.length = entryLength + length;
+                entry.lastBlock = newLastBlock;
+                return true;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        } finally {
+            release(entry);
+        }
+    }
+
+    @Override
+    public byte[] get(Key key) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        this.lock.readLock().lock();
+        try {
+            // We need to hold the (read) lock while copying, otherwise the Blocks may be freed (and reused) underneath us.
+            Entry entry = this.entries.get(key);
+            return entry == null ? null : read(entry);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ByteBuf getView(Key key) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        Entry entry;
+        int length;
+        this.lock.readLock().lock();
+        try {
+            // Pin the entry while holding the lock; this guarantees the Blocks will not be freed until the view is released.
+            entry = this.entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+
+            entry.references.incrementAndGet();
+            length = entry.length;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        return new EntryView(entry, length);
+    }
+
+    @Override
+    public void remove(Key key) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        Entry entry;
+        this.lock.writeLock().lock();
+        try {
+            entry = this.entries.remove(key);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        if (entry != null) {
+            release(entry);
+        }
+    }
+
+    //endregion
+
+    //region Helpers
+
+    private void insert(Key key, byte[] array, int offset, int length) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+
+        // Allocate and populate the Blocks outside of the lock. Nobody else can access them until we publish the entry.
+        Entry entry = new Entry(length == 0 ? SlabAllocator.NO_BLOCK : this.allocator.allocate(length), length);
+        entry.lastBlock = write(entry, array, offset);
+        publish(key, entry);
+    }
+
+    private void publish(Key key, Entry entry) {
+        Entry oldEntry;
+        this.lock.writeLock().lock();
+        try {
+            oldEntry = this.entries.put(key, entry);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        if (oldEntry != null) {
+            release(oldEntry);
+        }
+    }
+
+    private int write(Entry entry, byte[] array, int offset) {
+        int blockSize = this.allocator.getBlockSize();
+        int block = entry.firstBlock;
+        int lastBlock = block;
+        int copied = 0;
+        while (copied < entry.length) {
+            int copyLength = Math.min(blockSize, entry.length - copied);
+            this.allocator.write(block, array, offset + copied, copyLength);
+            copied += copyLength;
+            lastBlock = block;
+            block = this.allocator.getNext(block);
+        }
+
+        return lastBlock;
+    }
+
+    private int write(int firstBlock, ByteBuf data, int index, int length) {
+        int blockSize = this.allocator.getBlockSize();
+        int block = firstBlock;
+        int lastBlock = block;
+        int copied = 0;
+        while (copied < length) {
+            int copyLength = Math.min(blockSize, length - copied);
+            this.allocator.write(block, 0, data, index + copied, copyLength);
+            copied += copyLength;
+            lastBlock = block;
+            block = this.allocator.getNext(block);
+        }
+
+        return lastBlock;
+    }
+
+    private void release(Entry entry) {
+        if (entry.references.decrementAndGet() == 0) {
+            this.allocator.free(entry.firstBlock);
+        }
+    }
+
+    @GuardedBy("lock")
+    private byte[] read(Entry entry) {
+        byte[] result = new byte[entry.length];
+        int blockSize = this.allocator.getBlockSize();
+        int block = entry.firstBlock;
+        int copied = 0;
+        while (copied < entry.length) {
+            int copyLength = Math.min(blockSize, entry.length - copied);
+            this.allocator.read(block, result, copied, copyLength);
+            copied += copyLength;
+            block = this.allocator.getNext(block);
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return this.logId;
+    }
+
+    //endregion
+
+    //region Entry
+
+    /**
+     * Pointer to the Block chain that makes up a Cache Entry. The length and last Block only change (when appending) while
+     * holding the Cache's write lock.
+     */
+    private static class Entry {
+        private final int firstBlock;
+        private int length;
+        private int lastBlock;
+        /**
+         * Number of references to this entry: one from the Cache itself (while the entry is in it), plus one for each
+         * outstanding EntryView. The Blocks are returned to the allocator when this reaches 0.
+         */
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        Entry(int firstBlock, int length) {
+            this.firstBlock = firstBlock;
+            this.length = length;
+            this.lastBlock = firstBlock;
+        }
+    }
+
+    //endregion
+
+    //region EntryView
+
+    /**
+     * Read-only, zero-copy view of a Cache Entry, made up of one component for each of the entry's Blocks. Releases its
+     * reference to the entry when deallocated. Only covers the entry's contents as of the time it was created (subsequent
+     * appends are not reflected in it).
+     */
+    private class EntryView extends CompositeByteBuf {
+        private final Entry entry;
+
+        EntryView(Entry entry, int entryLength) {
+            // Allow one component per Block, otherwise CompositeByteBuf would consolidate (copy) them.
+            super(UnpooledByteBufAllocator.DEFAULT, true, entryLength / allocator.getBlockSize() + 1);
+            this.entry = entry;
+            int blockSize = allocator.getBlockSize();
+            int block = entry.firstBlock;
+            int offset = 0;
+            while (offset < entryLength) {
+                int length = Math.min(blockSize, entryLength - offset);
+                addComponent(true, Unpooled.wrappedBuffer(allocator.getView(block, length)));
+                offset += length;
+                block = allocator.getNext(block);
+            }
+        }
+
+        @Override
+        protected void deallocate() {
+            super.deallocate();
+            release(this.entry);
+        }
+    }
+
+    //endregion
+}
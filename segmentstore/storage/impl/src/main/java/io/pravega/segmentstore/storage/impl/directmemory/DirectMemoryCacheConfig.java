@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.directmemory;
+
+import io.pravega.common.util.ConfigBuilder;
+import io.pravega.common.util.ConfigurationException;
+import io.pravega.common.util.InvalidPropertyValueException;
+import io.pravega.common.util.Property;
+import io.pravega.common.util.TypedProperties;
+import lombok.Getter;
+
+/**
+ * Configuration for the Direct Memory (off-heap) Cache.
+ */
+public class DirectMemoryCacheConfig {
+    //region Config Names
+
+    public static final Property<Long> MAX_SIZE = Property.named("maxSize", 16L * 1024 * 1024 * 1024);
+    public static final Property<Integer> BLOCK_SIZE = Property.named("blockSize", 4 * 1024);
+    public static final Property<Integer> SLAB_SIZE = Property.named("slabSize", 32 * 1024 * 1024);
+    private static final String COMPONENT_CODE = "directmemory";
+
+    //endregion
+
+    //region Members
+
+    /**
+     * The maximum number of bytes of direct memory that can be allocated for all the Caches created by the same
+     * DirectMemoryCacheFactory. This is a hard limit: any insertion that would exceed it will be rejected.
+     */
+    @Getter
+    private final long maxSize;
+
+    /**
+     * The size of a Cache Block, in bytes. This is the unit of allocation for each Cache Entry; every entry uses
+     * up a whole number of blocks.
+     */
+    @Getter
+    private final int blockSize;
+
+    /**
+     * The size of a Slab, in bytes. This is the unit of allocation for direct memory. Slabs are allocated on demand
+     * (until maxSize is reached) and are then split into Blocks.
+     */
+    @Getter
+    private final int slabSize;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the DirectMemoryCacheConfig class.
+     *
+     * @param properties The TypedProperties object to read Properties from.
+     */
+    private DirectMemoryCacheConfig(TypedProperties properties) throws ConfigurationException {
+        this.maxSize = properties.getLong(MAX_SIZE);
+        this.blockSize = properties.getInt(BLOCK_SIZE);
+        this.slabSize = properties.getInt(SLAB_SIZE);
+        if (this.blockSize <= 0) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be a positive integer.",
+                    BLOCK_SIZE, this.blockSize));
+        }
+
+        if (this.slabSize < this.blockSize || this.slabSize % this.blockSize != 0) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be a multiple of %s (%d).",
+                    SLAB_SIZE, this.slabSize, BLOCK_SIZE, this.blockSize));
+        }
+
+        if (this.maxSize < this.slabSize) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be greater than or equal to %s (%d).",
+                    MAX_SIZE, this.maxSize, SLAB_SIZE, this.slabSize));
+        }
+    }
+
+    /**
+     * Creates a new ConfigBuilder that can be used to create instances of this class.
+     *
+     * @return A new Builder for this class.
+     */
+    public static ConfigBuilder<DirectMemoryCacheConfig> builder() {
+        return new ConfigBuilder<>(COMPONENT_CODE, DirectMemoryCacheConfig::new);
+    }
+
+    //endregion
+}
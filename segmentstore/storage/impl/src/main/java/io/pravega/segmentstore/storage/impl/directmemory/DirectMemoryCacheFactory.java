@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.directmemory;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.segmentstore.storage.Cache;
+import io.pravega.segmentstore.storage.CacheFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.concurrent.GuardedBy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache Factory for the Direct Memory Cache implementation. All Caches created by the same factory share the same
+ * SlabAllocator, and thus the same memory budget.
+ */
+@Slf4j
+public class DirectMemoryCacheFactory implements CacheFactory {
+    //region Members
+
+    private static final String LOG_ID = "DirectMemoryCacheFactory";
+    @GuardedBy("caches")
+    private final HashMap<String, DirectMemoryCache> caches;
+    private final SlabAllocator allocator;
+    private final AtomicBoolean closed;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the DirectMemoryCacheFactory class.
+     *
+     * @param config The configuration to use.
+     */
+    public DirectMemoryCacheFactory(DirectMemoryCacheConfig config) {
+        Preconditions.checkNotNull(config, "config");
+        this.allocator = new SlabAllocator(config);
+        this.caches = new HashMap<>();
+        this.closed = new AtomicBoolean();
+        log.info("{}: Initialized (MaxSize = {}, BlockSize = {}, SlabSize = {}).",
+                LOG_ID, config.getMaxSize(), config.getBlockSize(), config.getSlabSize());
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        if (this.closed.compareAndSet(false, true)) {
+            ArrayList<DirectMemoryCache> toClose;
+            synchronized (this.caches) {
+                toClose = new ArrayList<>(this.caches.values());
+            }
+
+            toClose.forEach(DirectMemoryCache::close);
+            this.allocator.close();
+            log.info("{}: Closed.", LOG_ID);
+        }
+    }
+
+    //endregion
+
+    //region CacheFactory Implementation
+
+    @Override
+    public Cache getCache(String id) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        synchronized (this.caches) {
+            return this.caches.computeIfAbsent(id, key -> new DirectMemoryCache(key, this.allocator, this::cacheClosed));
+        }
+    }
+
+    /**
+     * Gets a value indicating the number of bytes of direct memory that are currently allocated by this factory.
+     */
+    public long getAllocatedBytes() {
+        return this.allocator.getAllocatedBytes();
+    }
+
+    /**
+     * Gets a value indicating the number of bytes of direct memory that are currently used by Cache Entries. Since each
+     * entry uses a whole number of blocks, this may be larger than the sum of the lengths of all the entries.
+     */
+    @Override
+    public long getUsedBytes() {
+        return this.allocator.getUsedBytes();
+    }
+
+    private void cacheClosed(String cacheId) {
+        synchronized (this.caches) {
+            this.caches.remove(cacheId);
+        }
+    }
+
+    //endregion
+}
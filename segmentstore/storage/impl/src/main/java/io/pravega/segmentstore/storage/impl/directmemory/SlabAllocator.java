@@ -0,0 +1,326 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.directmemory;
+
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.pravega.common.Exceptions;
+import io.pravega.segmentstore.storage.CacheFullException;
+import java.nio.ByteBuffer;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Allocates fixed-size Blocks out of direct-memory Slabs.
+ *
+ * Slabs are allocated on demand (up to a configured maximum) and each of them is split into equal-sized Blocks. A Block
+ * is identified by a non-negative integer (its Block Address), which encodes both the Slab it belongs to and its position
+ * within that Slab. Every Block has an associated link (the address of the next Block in its chain), which is used to
+ * chain together all the Blocks making up a Cache Entry, as well as all the free Blocks (the free list).
+ *
+ * Block chains handed out by allocate() are exclusively owned by the caller until they are returned via free(). The caller
+ * is responsible for making sure no reads or writes are performed on a chain after it has been freed.
+ */
+@Slf4j
+@ThreadSafe
+class SlabAllocator implements AutoCloseable {
+    //region Members
+
+    /**
+     * Block Address indicating the end of a chain.
+     */
+    static final int NO_BLOCK = -1;
+    private static final String LOG_ID = "SlabAllocator";
+    private final int blockSize;
+    private final int blocksPerSlab;
+    private final ByteBuffer[] slabs;
+    private final int[][] links;
+    @GuardedBy("this")
+    private int slabCount;
+    @GuardedBy("this")
+    private int freeListHead;
+    @GuardedBy("this")
+    private int freeBlockCount;
+    @GuardedBy("this")
+    private boolean closed;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the SlabAllocator class.
+     *
+     * @param config The configuration to use.
+     */
+    SlabAllocator(DirectMemoryCacheConfig config) {
+        Preconditions.checkNotNull(config, "config");
+        this.blockSize = config.getBlockSize();
+        this.blocksPerSlab = config.getSlabSize() / config.getBlockSize();
+        int maxSlabCount = (int) Math.max(1, config.getMaxSize() / config.getSlabSize());
+        this.slabs = new ByteBuffer[maxSlabCount];
+        this.links = new int[maxSlabCount][];
+        this.freeListHead = NO_BLOCK;
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+
+            this.closed = true;
+
+            // Drop all references to the Slabs. Direct memory will be released once these are garbage-collected.
+            for (int i = 0; i < this.slabCount; i++) {
+                this.slabs[i] = null;
+                this.links[i] = null;
+            }
+
+            this.slabCount = 0;
+            this.freeListHead = NO_BLOCK;
+            this.freeBlockCount = 0;
+        }
+
+        log.info("{}: Closed.", LOG_ID);
+    }
+
+    //endregion
+
+    //region Properties
+
+    /**
+     * Gets a value indicating the size of a Block.
+     */
+    int getBlockSize() {
+        return this.blockSize;
+    }
+
+    /**
+     * Gets a value indicating the number of bytes of direct memory currently allocated (in Slabs).
+     */
+    synchronized long getAllocatedBytes() {
+        return (long) this.slabCount * this.blocksPerSlab * this.blockSize;
+    }
+
+    /**
+     * Gets a value indicating the number of bytes currently in use by Block chains that have not yet been freed.
+     */
+    synchronized long getUsedBytes() {
+        return ((long) this.slabCount * this.blocksPerSlab - this.freeBlockCount) * this.blockSize;
+    }
+
+    /**
+     * Gets a value indicating the maximum number of bytes that this allocator can allocate.
+     */
+    long getMaxBytes() {
+        return (long) this.slabs.length * this.blocksPerSlab * this.blockSize;
+    }
+
+    //endregion
+
+    //region Allocation
+
+    /**
+     * Allocates a chain of Blocks that can hold the given number of bytes.
+     *
+     * @param length The number of bytes to allocate. Must be positive.
+     * @return The address of the first Block in the chain.
+     * @throws CacheFullException If there is not enough free space to accommodate the request.
+     */
+    int allocate(int length) {
+        Preconditions.checkArgument(length > 0, "length must be a positive integer.");
+        int blockCount = length / this.blockSize + (length % this.blockSize == 0 ? 0 : 1);
+        synchronized (this) {
+            Exceptions.checkNotClosed(this.closed, this);
+            while (this.freeBlockCount < blockCount) {
+                if (!allocateSlab()) {
+                    throw new CacheFullException(String.format(
+                            "Unable to allocate %d bytes. Allocated = %d, Used = %d, Max = %d.",
+                            length, getAllocatedBytes(), getUsedBytes(), getMaxBytes()));
+                }
+            }
+
+            // Detach the first blockCount blocks off the free list.
+            int head = this.freeListHead;
+            int tail = head;
+            for (int i = 1; i < blockCount; i++) {
+                tail = getNext(tail);
+            }
+
+            this.freeListHead = getNext(tail);
+            setNext(tail, NO_BLOCK);
+            this.freeBlockCount -= blockCount;
+            return head;
+        }
+    }
+
+    /**
+     * Returns a chain of Blocks (previously obtained via allocate()) back to the free list.
+     *
+     * @param head The address of the first Block in the chain.
+     */
+    void free(int head) {
+        if (head == NO_BLOCK) {
+            return;
+        }
+
+        synchronized (this) {
+            if (this.closed) {
+                // Nothing to return the Blocks to.
+                return;
+            }
+
+            int count = 1;
+            int tail = head;
+            int next = getNext(tail);
+            while (next != NO_BLOCK) {
+                tail = next;
+                next = getNext(tail);
+                count++;
+            }
+
+            setNext(tail, this.freeListHead);
+            this.freeListHead = head;
+            this.freeBlockCount += count;
+        }
+    }
+
+    @GuardedBy("this")
+    private boolean allocateSlab() {
+        if (this.slabCount >= this.slabs.length) {
+            return false;
+        }
+
+        int slabId = this.slabCount;
+        this.slabs[slabId] = ByteBuffer.allocateDirect(this.blocksPerSlab * this.blockSize);
+        int[] slabLinks = new int[this.blocksPerSlab];
+        int firstBlock = slabId * this.blocksPerSlab;
+        for (int i = 0; i < slabLinks.length - 1; i++) {
+            slabLinks[i] = firstBlock + i + 1;
+        }
+
+        // The new Slab's Blocks go to the front of the free list.
+        slabLinks[slabLinks.length - 1] = this.freeListHead;
+        this.links[slabId] = slabLinks;
+        this.freeListHead = firstBlock;
+        this.freeBlockCount += this.blocksPerSlab;
+        this.slabCount++;
+        log.info("{}: Allocated Slab {}. Allocated = {}, Max = {}.", LOG_ID, slabId, getAllocatedBytes(), getMaxBytes());
+        return true;
+    }
+
+    //endregion
+
+    //region Block Access
+
+    /**
+     * Gets the address of the Block following the given one in its chain.
+     *
+     * @param block The Block Address.
+     * @return The address of the next Block, or NO_BLOCK if this is the last Block in the chain.
+     */
+    int getNext(int block) {
+        return this.links[block / this.blocksPerSlab][block % this.blocksPerSlab];
+    }
+
+    private void setNext(int block, int next) {
+        this.links[block / this.blocksPerSlab][block % this.blocksPerSlab] = next;
+    }
+
+    /**
+     * Copies the given data into the given Block.
+     *
+     * @param block       The Block Address.
+     * @param source      The array to copy from.
+     * @param offset      The offset in the array to start copying from.
+     * @param length      The number of bytes to copy. Must not exceed the Block Size.
+     */
+    void write(int block, byte[] source, int offset, int length) {
+        assert length <= this.blockSize : "length exceeds block size";
+        ByteBuffer buffer = this.slabs[block / this.blocksPerSlab].duplicate();
+        buffer.position((block % this.blocksPerSlab) * this.blockSize);
+        buffer.put(source, offset, length);
+    }
+
+    /**
+     * Links the given chain of Blocks after the given Block.
+     *
+     * @param block The Block Address. This must be the last Block in its chain, and the caller must own that chain.
+     * @param next  The address of the first Block in the chain to link (as obtained via allocate()).
+     */
+    void link(int block, int next) {
+        assert getNext(block) == NO_BLOCK : "block is not the last in its chain";
+        setNext(block, next);
+    }
+
+    /**
+     * Copies the given data into the given Block.
+     *
+     * @param block       The Block Address.
+     * @param blockOffset The offset within the Block to start copying at.
+     * @param source      The ByteBuf to copy from. Its reader index is not changed.
+     * @param index       The index in the ByteBuf to start copying from.
+     * @param length      The number of bytes to copy. Must not exceed the remaining space in the Block.
+     */
+    void write(int block, int blockOffset, ByteBuf source, int index, int length) {
+        assert blockOffset >= 0 && blockOffset + length <= this.blockSize : "length exceeds block size";
+        ByteBuffer buffer = this.slabs[block / this.blocksPerSlab].duplicate();
+        int position = (block % this.blocksPerSlab) * this.blockSize + blockOffset;
+        buffer.position(position);
+        buffer.limit(position + length);
+        source.getBytes(index, buffer);
+    }
+
+    /**
+     * Copies data from the given Block into the given array.
+     *
+     * @param block       The Block Address.
+     * @param target      The array to copy into.
+     * @param offset      The offset in the array to start copying at.
+     * @param length      The number of bytes to copy. Must not exceed the Block Size.
+     */
+    void read(int block, byte[] target, int offset, int length) {
+        assert length <= this.blockSize : "length exceeds block size";
+        ByteBuffer buffer = this.slabs[block / this.blocksPerSlab].duplicate();
+        buffer.position((block % this.blocksPerSlab) * this.blockSize);
+        buffer.get(target, offset, length);
+    }
+
+    /**
+     * Gets a read-only ByteBuffer that wraps (without copying) the first bytes of the given Block. The returned buffer
+     * is only valid for as long as the Block's chain has not been freed.
+     *
+     * @param block       The Block Address.
+     * @param length      The number of bytes to include. Must not exceed the Block Size.
+     * @return A read-only ByteBuffer.
+     */
+    ByteBuffer getView(int block, int length) {
+        assert length <= this.blockSize : "length exceeds block size";
+        ByteBuffer buffer = this.slabs[block / this.blocksPerSlab].duplicate();
+        int position = (block % this.blocksPerSlab) * this.blockSize;
+        buffer.position(position);
+        buffer.limit(position + length);
+        return buffer.slice().asReadOnlyBuffer();
+    }
+
+    //endregion
+
+    @Override
+    public String toString() {
+        return LOG_ID;
+    }
+}
@@ -28,6 +28,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import io.pravega.common.Exceptions;
 import io.pravega.common.LoggerHelpers;
+import io.pravega.common.Timer;
 import io.pravega.common.io.StreamHelpers;
 import io.pravega.common.util.ImmutableDate;
 import io.pravega.segmentstore.contracts.BadOffsetException;
@@ -40,9 +41,15 @@ import io.pravega.segmentstore.contracts.StreamSegmentSealedException;
 import io.pravega.segmentstore.storage.SegmentHandle;
 import io.pravega.segmentstore.storage.SyncStorage;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.Lombok;
 import lombok.SneakyThrows;
@@ -74,6 +81,11 @@ import lombok.extern.slf4j.Slf4j;
  * Multi part copy calls are idempotent too. Copying the same object at the same offset multiple times from different
  * hosts does not cause any form of inconsistency.
  *
+ * Reads that are larger than the configured part size are split into disjoint ranged reads that are executed in parallel
+ * on the given I/O executor (which is shared by all the instances created by the same ExtendedS3StorageFactory). Writes
+ * are always issued as a single ranged PutObject at the offset that was checked against the length of the object, so
+ * they never rewrite any data preceding that offset.
+ *
  */
 
 @Slf4j
@@ -85,17 +97,26 @@ public class ExtendedS3Storage implements SyncStorage {
 
     private final ExtendedS3StorageConfig config;
     private final S3Client client;
+    private final ExecutorService executor;
     private final AtomicBoolean closed;
 
     //endregion
 
     //region constructor
 
-    public ExtendedS3Storage(S3Client client, ExtendedS3StorageConfig config) {
+    /**
+     * Creates a new instance of the ExtendedS3Storage class.
+     *
+     * @param client   The S3Client to use.
+     * @param config   The configuration to use.
+     * @param executor An executor to execute ranged reads on. This should not be the executor that invokes the methods
+     *                 of this class, since those block until the ranged reads complete.
+     */
+    public ExtendedS3Storage(S3Client client, ExtendedS3StorageConfig config, ExecutorService executor) {
         this.config = Preconditions.checkNotNull(config, "config");
         this.client = Preconditions.checkNotNull(client, "client");
+        this.executor = Preconditions.checkNotNull(executor, "executor");
         this.closed = new AtomicBoolean(false);
-
     }
 
     //endregion
@@ -212,8 +233,35 @@ public class ExtendedS3Storage implements SyncStorage {
             throw new ArrayIndexOutOfBoundsException();
         }
 
+        Timer timer = new Timer();
+        int bytesRead;
+        if (length <= this.config.getPartSize()) {
+            bytesRead = readRange(handle.getSegmentName(), offset, buffer, bufferOffset, length);
+        } else {
+            // Each ranged read fills its own, disjoint, region of the buffer.
+            List<Future<Integer>> parts = new ArrayList<>();
+            for (int partOffset = 0; partOffset < length; partOffset += this.config.getPartSize()) {
+                final int po = partOffset;
+                final int partLength = Math.min(length - partOffset, this.config.getPartSize());
+                parts.add(this.executor.submit(() -> readRange(handle.getSegmentName(), offset + po, buffer, bufferOffset + po, partLength)));
+            }
+
+            bytesRead = 0;
+            for (int partBytesRead : awaitAll(parts)) {
+                bytesRead += partBytesRead;
+            }
+        }
+
+        ExtendedS3Metrics.READ_LATENCY.reportSuccessEvent(timer.getElapsed());
+        ExtendedS3Metrics.READ_BYTES.add(bytesRead);
+        LoggerHelpers.traceLeave(log, "read", traceId, bytesRead);
+        return bytesRead;
+    }
+
+    private int readRange(String segmentName, long offset, byte[] buffer, int bufferOffset, int length) throws Exception {
+        Timer timer = new Timer();
         try (InputStream reader = client.readObjectStream(config.getBucket(),
-                config.getRoot() + handle.getSegmentName(), Range.fromOffsetLength(offset, length))) {
+                config.getRoot() + segmentName, Range.fromOffsetLength(offset, length))) {
             /*
              * TODO: This implementation assumes that if S3Client.readObjectStream returns null, then
              * the object does not exist and we throw StreamNotExistsException. The javadoc, however,
@@ -223,12 +271,11 @@ public class ExtendedS3Storage implements SyncStorage {
              * See https://github.com/pravega/pravega/issues/1549
              */
             if (reader == null) {
-                throw new StreamSegmentNotExistsException(handle.getSegmentName());
+                throw new StreamSegmentNotExistsException(segmentName);
             }
 
             int bytesRead = StreamHelpers.readAll(reader, buffer, bufferOffset, length);
-
-            LoggerHelpers.traceLeave(log, "read", traceId, bytesRead);
+            ExtendedS3Metrics.RANGE_READ_LATENCY.reportSuccessEvent(timer.getElapsed());
             return bytesRead;
         }
     }
@@ -314,7 +361,7 @@ public class ExtendedS3Storage implements SyncStorage {
         return doGetStreamSegmentInfo(streamSegmentName);
     }
 
-    private Void doWrite(SegmentHandle handle, long offset, InputStream data, int length) throws StreamSegmentException {
+    private Void doWrite(SegmentHandle handle, long offset, InputStream data, int length) throws Exception {
         Preconditions.checkArgument(!handle.isReadOnly(), "handle must not be read-only.");
 
         long traceId = LoggerHelpers.traceEnter(log, "write", handle.getSegmentName(), offset, length);
@@ -329,8 +376,12 @@ public class ExtendedS3Storage implements SyncStorage {
             throw new BadOffsetException(handle.getSegmentName(), si.getLength(), offset);
         }
 
+        Timer timer = new Timer();
         client.putObject(this.config.getBucket(), this.config.getRoot() + handle.getSegmentName(),
                 Range.fromOffsetLength(offset, length), data);
+
+        ExtendedS3Metrics.WRITE_LATENCY.reportSuccessEvent(timer.getElapsed());
+        ExtendedS3Metrics.WRITE_BYTES.add(length);
         LoggerHelpers.traceLeave(log, "write", traceId);
         return null;
     }
@@ -426,6 +477,42 @@ public class ExtendedS3Storage implements SyncStorage {
         return null;
     }
 
+    /**
+     * Waits for all the given Futures to complete and returns their results, in order. If any of them failed, the first
+     * failure is rethrown, but only after all of them have completed (since they may be using the caller's buffers).
+     */
+    private <T> List<T> awaitAll(Collection<Future<T>> futures) throws Exception {
+        List<T> result = new ArrayList<>(futures.size());
+        Exception failure = null;
+        for (Future<T> f : futures) {
+            try {
+                result.add(await(f));
+            } catch (Exception ex) {
+                if (failure == null) {
+                    failure = ex;
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        return result;
+    }
+
+    private <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception) {
+                throw (Exception) ex.getCause();
+            }
+
+            throw ex;
+        }
+    }
+
     private <T> T throwException(String segmentName, Exception e) throws StreamSegmentException {
         if (e instanceof S3Exception && !Strings.isNullOrEmpty(((S3Exception) e).getErrorCode())) {
             String errorCode = ((S3Exception) e).getErrorCode();
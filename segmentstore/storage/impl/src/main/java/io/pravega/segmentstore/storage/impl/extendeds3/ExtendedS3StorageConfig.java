@@ -31,6 +31,8 @@ public class ExtendedS3StorageConfig {
     public static final Property<String> BUCKET = Property.named("bucket", "");
     public static final Property<String> NAMESPACE = Property.named("namespace", ""); // use default namespace
     public static final Property<Boolean> USENONEMATCH = Property.named("useNoneMatch", false);
+    public static final Property<Integer> PART_SIZE = Property.named("partSize", 256 * 1024);
+    public static final Property<Integer> MAX_CONCURRENT_REQUESTS = Property.named("maxConcurrentRequests", 8);
 
     private static final String COMPONENT_CODE = "extendeds3";
 
@@ -81,6 +83,21 @@ public class ExtendedS3StorageConfig {
     @Getter
     private final boolean useNoneMatch;
 
+    /**
+     *  The size of each part when splitting large reads into ranged GETs. Reads of at most this many bytes are issued as
+     *  a single request. Ranged GETs have no minimum size, so this should be smaller than the Read Index's Storage read
+     *  alignment (readindex.storageReadAlignment) for any of its reads to be split.
+     */
+    @Getter
+    private final int partSize;
+
+    /**
+     *  The maximum number of ranged GETs that may be in flight at any given time, across all the Storage adapters created
+     *  by the same ExtendedS3StorageFactory.
+     */
+    @Getter
+    private final int maxConcurrentRequests;
+
     //endregion
 
     //region Constructor
@@ -98,6 +115,15 @@ public class ExtendedS3StorageConfig {
         this.bucket = properties.get(BUCKET);
         this.namespace = properties.get(NAMESPACE);
         this.useNoneMatch = properties.getBoolean(USENONEMATCH);
+        this.partSize = properties.getInt(PART_SIZE);
+        if (this.partSize <= 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", PART_SIZE));
+        }
+
+        this.maxConcurrentRequests = properties.getInt(MAX_CONCURRENT_REQUESTS);
+        if (this.maxConcurrentRequests <= 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", MAX_CONCURRENT_REQUESTS));
+        }
     }
 
     /**
@@ -12,41 +12,81 @@ package io.pravega.segmentstore.storage.impl.extendeds3;
 import com.emc.object.s3.S3Config;
 import com.emc.object.s3.jersey.S3JerseyClient;
 import com.google.common.base.Preconditions;
+import io.pravega.common.concurrent.ExecutorServiceHelpers;
 import io.pravega.segmentstore.storage.AsyncStorageWrapper;
 import io.pravega.segmentstore.storage.Storage;
 import io.pravega.segmentstore.storage.StorageFactory;
+import io.pravega.segmentstore.storage.packing.PackedStorage;
+import io.pravega.segmentstore.storage.packing.PackedStorageConfig;
 import io.pravega.segmentstore.storage.rolling.RollingStorage;
+import io.pravega.shared.segment.StreamSegmentNameUtils;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
- * Factory for ExtendedS3 Storage adapters.
+ * Factory for ExtendedS3 Storage adapters. All the adapters created by this factory share the same (bounded) pool for
+ * executing ranged reads, which is shut down when the factory is closed.
  */
-public class ExtendedS3StorageFactory implements StorageFactory {
+public class ExtendedS3StorageFactory implements StorageFactory, AutoCloseable {
     private final ExtendedS3StorageConfig config;
+    private final PackedStorageConfig packingConfig;
     private final ExecutorService executor;
+    private final ScheduledExecutorService ioExecutor;
 
     /**
-     * Creates a new instance of the NFSStorageFactory class.
+     * Creates a new instance of the ExtendedS3StorageFactory class, which does not pack Segments.
      *
      * @param config   The Configuration to use.
      * @param executor An executor to use for background operations.
      */
     public ExtendedS3StorageFactory(ExtendedS3StorageConfig config, ExecutorService executor) {
+        this(config, PackedStorageConfig.builder().build(), executor);
+    }
+
+    /**
+     * Creates a new instance of the ExtendedS3StorageFactory class.
+     *
+     * @param config        The Configuration to use.
+     * @param packingConfig The Configuration to use for packing the Segments of each Container.
+     * @param executor      An executor to use for background operations.
+     */
+    public ExtendedS3StorageFactory(ExtendedS3StorageConfig config, PackedStorageConfig packingConfig, ExecutorService executor) {
         Preconditions.checkNotNull(config, "config");
+        Preconditions.checkNotNull(packingConfig, "packingConfig");
         Preconditions.checkNotNull(executor, "executor");
         this.config = config;
+        this.packingConfig = packingConfig;
         this.executor = executor;
+        this.ioExecutor = ExecutorServiceHelpers.newScheduledThreadPool(config.getMaxConcurrentRequests(), "extendeds3-io");
     }
 
     @Override
     public Storage createStorageAdapter() {
+        return new AsyncStorageWrapper(new RollingStorage(createS3Storage()), this.executor);
+    }
+
+    @Override
+    public Storage createStorageAdapter(int containerId) {
+        if (!this.packingConfig.isEnabled()) {
+            return createStorageAdapter();
+        }
+
+        String packName = StreamSegmentNameUtils.getContainerPackName(containerId);
+        return new AsyncStorageWrapper(new PackedStorage(createS3Storage(), packName, this.packingConfig), this.executor);
+    }
+
+    private ExtendedS3Storage createS3Storage() {
         S3Config s3Config = new S3Config(config.getUrl())
                 .withIdentity(config.getAccessKey())
                 .withSecretKey(config.getSecretKey())
                 .withNamespace(config.getNamespace());
 
         S3JerseyClient client = new S3JerseyClient(s3Config);
-        ExtendedS3Storage s = new ExtendedS3Storage(client, this.config);
-        return new AsyncStorageWrapper(new RollingStorage(s), this.executor);
+        return new ExtendedS3Storage(client, this.config, this.ioExecutor);
+    }
+
+    @Override
+    public void close() {
+        this.ioExecutor.shutdown();
     }
 }
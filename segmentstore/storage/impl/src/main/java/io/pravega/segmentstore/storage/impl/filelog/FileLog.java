@@ -0,0 +1,638 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.filelog;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.common.ObjectClosedException;
+import io.pravega.common.Timer;
+import io.pravega.common.concurrent.Futures;
+import io.pravega.common.concurrent.SequentialAsyncProcessor;
+import io.pravega.common.util.ArrayView;
+import io.pravega.common.util.CloseableIterator;
+import io.pravega.common.util.Retry;
+import io.pravega.segmentstore.storage.DataLogInitializationException;
+import io.pravega.segmentstore.storage.DataLogWriterNotPrimaryException;
+import io.pravega.segmentstore.storage.DurableDataLog;
+import io.pravega.segmentstore.storage.DurableDataLogException;
+import io.pravega.segmentstore.storage.LogAddress;
+import io.pravega.segmentstore.storage.QueueStats;
+import io.pravega.segmentstore.storage.WriteFailureException;
+import io.pravega.segmentstore.storage.WriteTooLongException;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+/**
+ * DurableDataLog implementation that stores its data in files on the local disk.
+ * Overview:
+ * * Each log has its own directory, which contains a sequence of append-only log files (see LogFile), a metadata file
+ * and a lock file.
+ * * Each log file is preallocated when created. A new log file is created upon every successful initialization and
+ * whenever the current one is full; log files are never written to after that.
+ * <p>
+ * Writes (Group Commit):
+ * * Appends are queued up and written by a single background processor, in order.
+ * * All the appends that are pending when the processor runs (up to FileLogConfig.getMaxBatchSize()) are written to the
+ * active log file and then synced to disk at once. Their futures are completed only after the sync.
+ * <p>
+ * Fencing:
+ * * The log directory is protected by an exclusive lock on its lock file. Only one process may own it at any given time.
+ * * Within the same process, a newly initialized instance takes over the log from the previous owner (if any), which is
+ * fenced out: it is closed and all of its pending and subsequent appends fail with DataLogWriterNotPrimaryException.
+ * * The Epoch is stored in the metadata file and incremented upon every successful initialization.
+ * <p>
+ * Truncation:
+ * * The Truncation Address is stored in the metadata file. Log files that only contain entries at or before it are
+ * deleted; the reader skips any truncated entries in the remaining files.
+ */
+@Slf4j
+@ThreadSafe
+class FileLog implements DurableDataLog {
+    //region Members
+
+    private static final String METADATA_FILE_NAME = "metadata";
+    private static final String LOCK_FILE_NAME = "lock";
+    private static final byte METADATA_VERSION = 0;
+    private static final long NO_TRUNCATION = -1;
+    /**
+     * The instances that currently own each log directory in this process, indexed by the path of the directory.
+     */
+    private static final ConcurrentHashMap<String, FileLog> OWNERS = new ConcurrentHashMap<>();
+    private final File logDir;
+    private final FileLogConfig config;
+    private final ScheduledExecutorService executorService;
+    private final AtomicBoolean closed;
+    private final AtomicBoolean fenced;
+    private final Object lock = new Object();
+    /**
+     * Held by the Write Processor while it writes to (and syncs) the active log file, and by close() while it closes it,
+     * so that the active file is never closed (and trimmed) in the middle of a batch. If both this and lock need to be
+     * held, this one must be acquired first.
+     */
+    private final Object writeLock = new Object();
+    private final Object metadataLock = new Object();
+    private final String traceObjectId;
+    private final SequentialAsyncProcessor writeProcessor;
+    @GuardedBy("lock")
+    private final Deque<PendingWrite> pendingWrites;
+    @GuardedBy("lock")
+    private long pendingLength;
+    @GuardedBy("lock")
+    private int lastBatchDurationMillis;
+    @GuardedBy("lock")
+    private LogFile activeFile;
+    @GuardedBy("lock")
+    private long epoch;
+    @GuardedBy("lock")
+    private FileLogAddress truncationAddress;
+    @GuardedBy("lock")
+    private FileChannel lockChannel;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the FileLog class.
+     *
+     * @param containerId     The Id of the Container whose FileLog to open.
+     * @param config          Configuration to use.
+     * @param executorService An Executor to use for async operations.
+     */
+    FileLog(int containerId, FileLogConfig config, ScheduledExecutorService executorService) {
+        Preconditions.checkArgument(containerId >= 0, "containerId must be a non-negative integer.");
+        this.config = Preconditions.checkNotNull(config, "config");
+        this.executorService = Preconditions.checkNotNull(executorService, "executorService");
+        this.logDir = new File(this.config.getLogDir(), Integer.toString(containerId));
+        this.closed = new AtomicBoolean();
+        this.fenced = new AtomicBoolean();
+        this.traceObjectId = String.format("FileLog[%d]", containerId);
+        this.pendingWrites = new ArrayDeque<>();
+        this.epoch = -1;
+
+        // Writes are not retried: a failed write to the local disk will fail the log.
+        val retry = Retry.withExpBackoff(1, 1, 1).retryWhen(ex -> false).throwingOn(Exception.class);
+        this.writeProcessor = new SequentialAsyncProcessor(this::processWrites, retry, this::handleWriteProcessorFailures, this.executorService);
+    }
+
+    private void handleWriteProcessorFailures(Throwable exception) {
+        log.warn("{}: Write processor failed; closing.", this.traceObjectId, exception);
+        close();
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        if (!this.closed.getAndSet(true)) {
+            this.writeProcessor.close();
+
+            // Wait for any batch that is currently being written to finish before closing the active file. Any batch
+            // that is picked up after this will find that we are closed and will be failed.
+            List<PendingWrite> toCancel;
+            FileChannel lockChannel;
+            synchronized (this.writeLock) {
+                LogFile activeFile;
+                synchronized (this.lock) {
+                    activeFile = this.activeFile;
+                    this.activeFile = null;
+                    toCancel = new ArrayList<>(this.pendingWrites);
+                    this.pendingWrites.clear();
+                    this.pendingLength = 0;
+                    lockChannel = this.lockChannel;
+                    this.lockChannel = null;
+                }
+
+                if (activeFile != null) {
+                    try {
+                        activeFile.close();
+                    } catch (IOException ex) {
+                        log.error("{}: Unable to close log file {}.", this.traceObjectId, activeFile, ex);
+                    }
+                }
+            }
+
+            // Cancel the pending writes.
+            Exception cancelReason = getClosedException();
+            toCancel.forEach(w -> w.result.completeExceptionally(cancelReason));
+
+            // Closing the channel releases the lock as well.
+            if (lockChannel != null) {
+                try {
+                    lockChannel.close();
+                } catch (IOException ex) {
+                    log.error("{}: Unable to release the lock for '{}'.", this.traceObjectId, this.logDir, ex);
+                }
+            }
+
+            OWNERS.remove(this.logDir.getAbsolutePath(), this);
+
+            log.info("{}: Closed.", this.traceObjectId);
+        }
+    }
+
+    //endregion
+
+    //region DurableDataLog Implementation
+
+    /**
+     * Initializes this FileLog using the following protocol:
+     * 1. Fence out the previous owner of the log in this process (if any) and acquire the exclusive lock on the log
+     * directory.
+     * 2. Load the metadata and persist it back with an incremented epoch.
+     * 3. Create a new log file, after all the existing ones.
+     *
+     * @param timeout Timeout for the operation.
+     * @throws DataLogWriterNotPrimaryException If the lock is owned by someone else.
+     * @throws DataLogInitializationException   If a general initialization error occurred.
+     */
+    @Override
+    public void initialize(Duration timeout) throws DurableDataLogException {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        synchronized (this.lock) {
+            Preconditions.checkState(this.activeFile == null, "FileLog is already initialized.");
+            if (!this.logDir.isDirectory() && !this.logDir.mkdirs()) {
+                throw new DataLogInitializationException(String.format("Unable to create log directory '%s'.", this.logDir));
+            }
+
+            synchronized (OWNERS) {
+                String key = this.logDir.getAbsolutePath();
+                FileLog previous = OWNERS.get(key);
+                if (previous != null) {
+                    previous.fence();
+                }
+
+                acquireLock();
+                OWNERS.put(key, this);
+            }
+
+            try {
+                // Load the metadata and update the epoch.
+                Metadata metadata = loadMetadata();
+                Metadata newMetadata = new Metadata(metadata.epoch + 1, metadata.truncationAddress);
+                persistMetadata(newMetadata);
+
+                // Create a new log file.
+                List<Integer> fileIds = getFileIds();
+                int nextFileId = fileIds.isEmpty() ? 0 : fileIds.get(fileIds.size() - 1) + 1;
+                this.activeFile = new LogFile(this.logDir, nextFileId, this.config.getFileMaxSize());
+                this.epoch = newMetadata.epoch;
+                this.truncationAddress = newMetadata.truncationAddress;
+            } catch (IOException ex) {
+                throw new DataLogInitializationException(String.format("Unable to initialize log '%s'.", this.logDir), ex);
+            }
+
+            log.info("{}: Initialized (Epoch = {}, ActiveFile = {}, TruncationAddress = {}).",
+                    this.traceObjectId, this.epoch, this.activeFile, this.truncationAddress);
+        }
+    }
+
+    @Override
+    public CompletableFuture<LogAddress> append(ArrayView data, Duration timeout) {
+        if (this.fenced.get()) {
+            return Futures.failedFuture(new DataLogWriterNotPrimaryException("FileLog has been fenced out."));
+        }
+
+        ensurePreconditions();
+        if (data.getLength() > getMaxAppendLength()) {
+            return Futures.failedFuture(new WriteTooLongException(data.getLength(), getMaxAppendLength()));
+        }
+
+        // Queue up the write.
+        CompletableFuture<LogAddress> result = new CompletableFuture<>();
+        synchronized (this.lock) {
+            Exceptions.checkNotClosed(this.closed.get(), this);
+            this.pendingWrites.addLast(new PendingWrite(data, result));
+            this.pendingLength += data.getLength();
+        }
+
+        // Trigger Write Processor.
+        this.writeProcessor.runAsync();
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Void> truncate(LogAddress upToAddress, Duration timeout) {
+        ensurePreconditions();
+        Preconditions.checkArgument(upToAddress instanceof FileLogAddress, "upToAddress must be of type FileLogAddress.");
+        return CompletableFuture.runAsync(() -> tryTruncate((FileLogAddress) upToAddress), this.executorService);
+    }
+
+    @Override
+    public CloseableIterator<ReadItem, DurableDataLogException> getReader() throws DurableDataLogException {
+        ensurePreconditions();
+        FileLogAddress truncationAddress;
+        synchronized (this.lock) {
+            truncationAddress = this.truncationAddress;
+        }
+
+        return new FileLogReader(this.logDir, getFileIds(), truncationAddress);
+    }
+
+    @Override
+    public int getMaxAppendLength() {
+        return Math.min(FileLogConfig.MAX_APPEND_LENGTH, this.config.getFileMaxSize() - LogFile.HEADER_LENGTH);
+    }
+
+    @Override
+    public long getEpoch() {
+        ensurePreconditions();
+        synchronized (this.lock) {
+            return this.epoch;
+        }
+    }
+
+    @Override
+    public QueueStats getQueueStatistics() {
+        synchronized (this.lock) {
+            int size = this.pendingWrites.size();
+            double fillRatio = size == 0 ? 0 : Math.min(1, (double) this.pendingLength / size / getMaxAppendLength());
+            return new QueueStats(size, fillRatio, this.lastBatchDurationMillis);
+        }
+    }
+
+    //endregion
+
+    //region Writes
+
+    /**
+     * Write Processor main loop. This method is not thread safe and should only be invoked as part of the Write Processor.
+     * Writes all the pending writes (up to the maximum batch size) and then syncs them to disk at once.
+     */
+    private void processWrites() {
+        List<PendingWrite> batch = getNextBatch();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Timer timer = new Timer();
+        List<FileLogAddress> addresses = new ArrayList<>(batch.size());
+        synchronized (this.writeLock) {
+            if (this.closed.get()) {
+                // We were closed (or fenced out) after this batch was picked up; none of it has been written.
+                Exception failure = getClosedException();
+                batch.forEach(w -> w.result.completeExceptionally(failure));
+                return;
+            }
+
+            try {
+                LogFile file = getActiveFile();
+                for (PendingWrite w : batch) {
+                    if (!file.canAppend(w.data.getLength())) {
+                        file = rollover(file);
+                    }
+
+                    long offset = file.append(w.data);
+                    addresses.add(new FileLogAddress(file.getFileId(), offset));
+                }
+
+                file.sync();
+            } catch (Exception ex) {
+                // We cannot tell which of these writes made it to disk. Fail all of them (and all subsequent ones) and close.
+                log.error("{}: Unable to write {} entries; closing.", this.traceObjectId, batch.size(), ex);
+                Exception failure = this.closed.get() || ex instanceof ObjectClosedException
+                        ? getClosedException()
+                        : new WriteFailureException("Unable to write to log file.", ex);
+                batch.forEach(w -> w.result.completeExceptionally(failure));
+                close();
+                return;
+            }
+        }
+
+        // The batch has been synced to disk before anyone could close the active file, so it is durable (and will be
+        // picked up by whoever recovers from this log next) even if we have been closed or fenced out in the meantime.
+
+        boolean hasMore;
+        synchronized (this.lock) {
+            this.lastBatchDurationMillis = (int) timer.getElapsedMillis();
+            hasMore = !this.pendingWrites.isEmpty();
+        }
+
+        log.debug("{}: Wrote {} entries.", this.traceObjectId, batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(addresses.get(i));
+        }
+
+        if (hasMore && !this.closed.get()) {
+            try {
+                this.writeProcessor.runAsync();
+            } catch (ObjectClosedException ex) {
+                // We were closed in the meantime. All pending writes have been cancelled.
+                log.debug("{}: Not running WriteProcessor due to FileLog being closed.", this.traceObjectId);
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the pending writes that should be written next. Returns at least one write, if any are pending.
+     */
+    private List<PendingWrite> getNextBatch() {
+        List<PendingWrite> result = new ArrayList<>();
+        long batchLength = 0;
+        synchronized (this.lock) {
+            while (!this.pendingWrites.isEmpty()) {
+                int length = this.pendingWrites.peekFirst().data.getLength();
+                if (!result.isEmpty() && batchLength + length > this.config.getMaxBatchSize()) {
+                    break;
+                }
+
+                result.add(this.pendingWrites.removeFirst());
+                batchLength += length;
+                this.pendingLength -= length;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Closes the given (full) log file and creates a new one to write to. Must be invoked while holding writeLock.
+     *
+     * @param file The current active file.
+     * @return The new active file.
+     * @throws IOException If an IOException occurred.
+     */
+    private LogFile rollover(LogFile file) throws IOException {
+        // Closing the file syncs it to disk.
+        file.close();
+        LogFile newFile = new LogFile(this.logDir, file.getFileId() + 1, this.config.getFileMaxSize());
+        synchronized (this.lock) {
+            if (this.activeFile != file) {
+                // We were closed in the meantime.
+                newFile.close();
+                throw new ObjectClosedException(this);
+            }
+
+            this.activeFile = newFile;
+        }
+
+        log.info("{}: Rollover: closed log file {} and created log file {}.", this.traceObjectId, file, newFile);
+        return newFile;
+    }
+
+    /**
+     * Attempts to truncate the Log. The general steps are:
+     * 1. Persist the new Truncation Address in the metadata file.
+     * 2. Delete all log files that are before the one containing the Truncation Address.
+     *
+     * @param upToAddress The address up to which to truncate.
+     */
+    @SneakyThrows(IOException.class)
+    private void tryTruncate(FileLogAddress upToAddress) {
+        synchronized (this.metadataLock) {
+            Metadata newMetadata;
+            synchronized (this.lock) {
+                if (this.truncationAddress != null && this.truncationAddress.compareTo(upToAddress) >= 0) {
+                    // Already truncated.
+                    return;
+                }
+
+                newMetadata = new Metadata(this.epoch, upToAddress);
+            }
+
+            persistMetadata(newMetadata);
+            synchronized (this.lock) {
+                this.truncationAddress = upToAddress;
+            }
+        }
+
+        for (int fileId : getFileIds()) {
+            if (fileId < upToAddress.getFileId()) {
+                File file = LogFile.getFile(this.logDir, fileId);
+                if (!file.delete()) {
+                    // Nothing we can do if we can't delete a file; we've already updated the metadata. Log the error and
+                    // move on.
+                    log.error("{}: Unable to delete truncated log file '{}'.", this.traceObjectId, file);
+                }
+            }
+        }
+
+        log.info("{}: Truncated up to {}.", this.traceObjectId, upToAddress);
+    }
+
+    //endregion
+
+    //region Metadata and Locking
+
+    @GuardedBy("lock")
+    private void acquireLock() throws DurableDataLogException {
+        File lockFile = new File(this.logDir, LOCK_FILE_NAME);
+        FileChannel channel = null;
+        boolean locked;
+        try {
+            channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            locked = channel.tryLock() != null;
+        } catch (OverlappingFileLockException ex) {
+            // Another instance in this process owns the lock.
+            locked = false;
+        } catch (IOException ex) {
+            closeQuietly(channel);
+            throw new DataLogInitializationException(String.format("Unable to open lock file '%s'.", lockFile), ex);
+        }
+
+        if (!locked) {
+            closeQuietly(channel);
+            throw new DataLogWriterNotPrimaryException(String.format("Unable to acquire exclusive lock for log '%s'.", this.logDir));
+        }
+
+        // The lock is held until the channel is closed.
+        this.lockChannel = channel;
+    }
+
+    /**
+     * Fences out this instance, as another one in this process is taking over the log. Closing this instance
+     * synchronously closes the active log file (after waiting for any batch that is in the middle of being written, so
+     * no more entries can be written to it) and releases the lock.
+     */
+    private void fence() {
+        if (!this.fenced.getAndSet(true)) {
+            log.info("{}: Fenced out.", this.traceObjectId);
+            close();
+        }
+    }
+
+    private Metadata loadMetadata() throws IOException {
+        File file = new File(this.logDir, METADATA_FILE_NAME);
+        if (!file.exists()) {
+            log.info("{}: No metadata found in '{}'. This is OK if this is the first time accessing this log.", this.traceObjectId, this.logDir);
+            return new Metadata(0, null);
+        }
+
+        try (DataInputStream input = new DataInputStream(new FileInputStream(file))) {
+            byte version = input.readByte();
+            if (version != METADATA_VERSION) {
+                throw new IOException(String.format("Unsupported metadata version %d.", version));
+            }
+
+            long epoch = input.readLong();
+            long truncationSequence = input.readLong();
+            return new Metadata(epoch, truncationSequence == NO_TRUNCATION ? null : new FileLogAddress(truncationSequence));
+        }
+    }
+
+    /**
+     * Atomically replaces the metadata file with the given metadata.
+     */
+    private void persistMetadata(Metadata metadata) throws IOException {
+        File file = new File(this.logDir, METADATA_FILE_NAME);
+        File tmpFile = new File(this.logDir, METADATA_FILE_NAME + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmpFile);
+             DataOutputStream output = new DataOutputStream(fos)) {
+            output.writeByte(METADATA_VERSION);
+            output.writeLong(metadata.epoch);
+            output.writeLong(metadata.truncationAddress == null ? NO_TRUNCATION : metadata.truncationAddress.getSequence());
+            output.flush();
+            fos.getFD().sync();
+        }
+
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    //endregion
+
+    //region Helpers
+
+    /**
+     * Gets an ordered List of the Ids of all the log files in the log directory.
+     */
+    private List<Integer> getFileIds() {
+        File[] files = this.logDir.listFiles();
+        if (files == null) {
+            return new ArrayList<>();
+        }
+
+        return Arrays.stream(files)
+                     .map(LogFile::getFileId)
+                     .filter(id -> id >= 0)
+                     .sorted()
+                     .collect(Collectors.toList());
+    }
+
+    private Exception getClosedException() {
+        return this.fenced.get()
+                ? new DataLogWriterNotPrimaryException("FileLog has been fenced out.")
+                : new CancellationException("FileLog has been closed.");
+    }
+
+    private LogFile getActiveFile() {
+        synchronized (this.lock) {
+            Exceptions.checkNotClosed(this.activeFile == null, this);
+            return this.activeFile;
+        }
+    }
+
+    private void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                log.warn("{}: Unable to close lock file.", this.traceObjectId, ex);
+            }
+        }
+    }
+
+    private void ensurePreconditions() {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        synchronized (this.lock) {
+            Preconditions.checkState(this.activeFile != null, "FileLog is not initialized.");
+        }
+    }
+
+    //endregion
+
+    //region Metadata
+
+    @RequiredArgsConstructor
+    private static class Metadata {
+        final long epoch;
+        final FileLogAddress truncationAddress;
+    }
+
+    //endregion
+
+    //region PendingWrite
+
+    @RequiredArgsConstructor
+    private static class PendingWrite {
+        final ArrayView data;
+        final CompletableFuture<LogAddress> result;
+    }
+
+    //endregion
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.filelog;
+
+import com.google.common.base.Preconditions;
+import io.pravega.segmentstore.storage.LogAddress;
+
+/**
+ * LogAddress for FileLog. Points to the beginning of an entry within a log file.
+ */
+class FileLogAddress extends LogAddress implements Comparable<FileLogAddress> {
+    private static final long INT_MASK = 0xFFFFFFFFL;
+
+    /**
+     * Creates a new instance of the FileLogAddress class.
+     *
+     * @param fileId The Id of the log file that this Address corresponds to.
+     * @param offset The offset within the log file where the entry begins.
+     */
+    FileLogAddress(int fileId, long offset) {
+        this(((long) fileId << 32) + (offset & INT_MASK));
+        Preconditions.checkArgument(fileId >= 0, "fileId must be a non-negative number.");
+        Preconditions.checkArgument(offset >= 0 && offset <= INT_MASK, "offset must be a non-negative 32-bit number.");
+    }
+
+    /**
+     * Creates a new instance of the FileLogAddress class.
+     *
+     * @param sequence The sequence of the Address, which encodes both the file id and the offset within the file.
+     */
+    FileLogAddress(long sequence) {
+        super(sequence);
+    }
+
+    /**
+     * Gets a value representing the Id of the log file that this Address corresponds to.
+     *
+     * @return The result.
+     */
+    int getFileId() {
+        return (int) (getSequence() >>> 32);
+    }
+
+    /**
+     * Gets a value representing the offset within the log file where the entry begins.
+     *
+     * @return The result.
+     */
+    long getOffset() {
+        return getSequence() & INT_MASK;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s, FileId = %d, Offset = %d", super.toString(), getFileId(), getOffset());
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(getSequence());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof FileLogAddress) {
+            return this.compareTo((FileLogAddress) obj) == 0;
+        }
+
+        return false;
+    }
+
+    @Override
+    public int compareTo(FileLogAddress address) {
+        return Long.compare(getSequence(), address.getSequence());
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.filelog;
+
+import io.pravega.common.util.ConfigBuilder;
+import io.pravega.common.util.ConfigurationException;
+import io.pravega.common.util.InvalidPropertyValueException;
+import io.pravega.common.util.Property;
+import io.pravega.common.util.TypedProperties;
+import lombok.Getter;
+
+/**
+ * Configuration for the local file-based DurableDataLog.
+ */
+public class FileLogConfig {
+    //region Config Names
+
+    public static final Property<String> LOG_DIR = Property.named("logDir", "/tmp/pravega/filelog");
+    public static final Property<Integer> FILE_MAX_SIZE = Property.named("fileMaxSize", 256 * 1024 * 1024);
+    public static final Property<Integer> MAX_BATCH_SIZE = Property.named("maxBatchSize", 4 * 1024 * 1024);
+    public static final String COMPONENT_CODE = "filelog";
+
+    /**
+     * Maximum append length.
+     */
+    static final int MAX_APPEND_LENGTH = 1024 * 1024;
+
+    //endregion
+
+    //region Members
+
+    /**
+     * The directory where to store the logs. Each log is stored in its own sub-directory.
+     */
+    @Getter
+    private final String logDir;
+
+    /**
+     * The size of each log file, in bytes. Log files are preallocated to this size when created; once a file is full,
+     * a new one is created. If smaller than MAX_APPEND_LENGTH, this also limits the length of an append.
+     */
+    @Getter
+    private final int fileMaxSize;
+
+    /**
+     * The maximum number of bytes to write between two consecutive syncs to disk. All writes that are pending at the
+     * same time (up to this limit) are synced to disk at once.
+     */
+    @Getter
+    private final int maxBatchSize;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the FileLogConfig class.
+     *
+     * @param properties The TypedProperties object to read Properties from.
+     */
+    private FileLogConfig(TypedProperties properties) throws ConfigurationException {
+        this.logDir = properties.get(LOG_DIR);
+        this.fileMaxSize = properties.getInt(FILE_MAX_SIZE);
+        if (this.fileMaxSize <= LogFile.HEADER_LENGTH) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be greater than %d.",
+                    FILE_MAX_SIZE, this.fileMaxSize, LogFile.HEADER_LENGTH));
+        }
+
+        this.maxBatchSize = properties.getInt(MAX_BATCH_SIZE);
+        if (this.maxBatchSize <= 0) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be a positive integer.",
+                    MAX_BATCH_SIZE, this.maxBatchSize));
+        }
+    }
+
+    /**
+     * Creates a new ConfigBuilder that can be used to create instances of this class.
+     *
+     * @return A new Builder for this class.
+     */
+    public static ConfigBuilder<FileLogConfig> builder() {
+        return new ConfigBuilder<>(COMPONENT_CODE, FileLogConfig::new);
+    }
+
+    //endregion
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.filelog;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.segmentstore.storage.DataLogInitializationException;
+import io.pravega.segmentstore.storage.DurableDataLog;
+import io.pravega.segmentstore.storage.DurableDataLogException;
+import io.pravega.segmentstore.storage.DurableDataLogFactory;
+import java.io.File;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Factory for FileLogs.
+ */
+@Slf4j
+public class FileLogFactory implements DurableDataLogFactory {
+    private final FileLogConfig config;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean closed;
+
+    /**
+     * Creates a new instance of the FileLogFactory class.
+     *
+     * @param config   The configuration to use for all instances created.
+     * @param executor An executor to use for async operations.
+     */
+    public FileLogFactory(FileLogConfig config, ScheduledExecutorService executor) {
+        this.config = Preconditions.checkNotNull(config, "config");
+        this.executor = Preconditions.checkNotNull(executor, "executor");
+        this.closed = new AtomicBoolean();
+    }
+
+    @Override
+    public void initialize() throws DurableDataLogException {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        File logDir = new File(this.config.getLogDir());
+        if (!logDir.isDirectory() && !logDir.mkdirs()) {
+            throw new DataLogInitializationException(String.format("Unable to create directory '%s'.", logDir.getAbsolutePath()));
+        }
+
+        log.info("FileLogFactory initialized (LogDir = '{}').", logDir.getAbsolutePath());
+    }
+
+    @Override
+    public DurableDataLog createDurableDataLog(int containerId) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        return new FileLog(containerId, this.config, this.executor);
+    }
+
+    @Override
+    public void close() {
+        this.closed.set(true);
+    }
+}
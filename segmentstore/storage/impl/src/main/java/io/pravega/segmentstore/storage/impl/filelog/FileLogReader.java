@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.filelog;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.common.util.CloseableIterator;
+import io.pravega.segmentstore.storage.DurableDataLog;
+import io.pravega.segmentstore.storage.DurableDataLogException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.concurrent.NotThreadSafe;
+import lombok.Getter;
+
+/**
+ * Performs reads from FileLogs. Each log file is memory-mapped while being read.
+ */
+@NotThreadSafe
+class FileLogReader implements CloseableIterator<DurableDataLog.ReadItem, DurableDataLogException> {
+    //region Members
+
+    private final File logDir;
+    private final Deque<Integer> fileIds;
+    private final FileLogAddress truncationAddress;
+    private final AtomicBoolean closed;
+    private int currentFileId;
+    private ByteBuffer currentFile;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the FileLogReader class.
+     *
+     * @param logDir            The directory of the FileLog.
+     * @param fileIds           An ordered List of the Ids of the files to read.
+     * @param truncationAddress The address up to which the log has been truncated. Entries at or before this address
+     *                          will not be returned. May be null.
+     */
+    FileLogReader(File logDir, List<Integer> fileIds, FileLogAddress truncationAddress) {
+        this.logDir = Preconditions.checkNotNull(logDir, "logDir");
+        this.fileIds = new ArrayDeque<>(Preconditions.checkNotNull(fileIds, "fileIds"));
+        this.truncationAddress = truncationAddress;
+        this.closed = new AtomicBoolean();
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        if (!this.closed.getAndSet(true)) {
+            this.currentFile = null;
+            this.fileIds.clear();
+        }
+    }
+
+    //endregion
+
+    //region CloseableIterator Implementation
+
+    @Override
+    public DurableDataLog.ReadItem getNext() throws DurableDataLogException {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        while (true) {
+            if (this.currentFile == null && !openNextFile()) {
+                // We have reached the end.
+                close();
+                return null;
+            }
+
+            long offset = this.currentFile.position();
+            byte[] payload = LogFile.readEntry(this.currentFile);
+            if (payload == null) {
+                // We have reached the end of the current file.
+                this.currentFile = null;
+                continue;
+            }
+
+            FileLogAddress address = new FileLogAddress(this.currentFileId, offset);
+            if (this.truncationAddress == null || address.compareTo(this.truncationAddress) > 0) {
+                return new ReadItem(payload, address);
+            }
+        }
+    }
+
+    private boolean openNextFile() throws DurableDataLogException {
+        Integer fileId = this.fileIds.pollFirst();
+        if (fileId == null) {
+            return false;
+        }
+
+        File file = LogFile.getFile(this.logDir, fileId);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // The mapping remains valid after the channel is closed.
+            this.currentFile = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            this.currentFileId = fileId;
+            return true;
+        } catch (IOException ex) {
+            close();
+            throw new DurableDataLogException(String.format("Unable to read log file '%s'.", file), ex);
+        }
+    }
+
+    //endregion
+
+    //region ReadItem
+
+    private static class ReadItem implements DurableDataLog.ReadItem {
+        @Getter
+        private final InputStream payload;
+        @Getter
+        private final int length;
+        @Getter
+        private final FileLogAddress address;
+
+        ReadItem(byte[] payload, FileLogAddress address) {
+            this.payload = new ByteArrayInputStream(payload);
+            this.length = payload.length;
+            this.address = address;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s, Length = %d.", this.address, this.length);
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.filelog;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.util.ArrayView;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import javax.annotation.concurrent.NotThreadSafe;
+import lombok.Getter;
+
+/**
+ * A single append-only file in a FileLog.
+ *
+ * Each entry is framed as follows:
+ * * Length (4 bytes): the length of the payload.
+ * * Checksum (4 bytes): the CRC32 of the Length and the payload.
+ * * Payload (Length bytes).
+ *
+ * Files are preallocated (and hence zero-filled past their last entry). Since the checksum includes the length, an
+ * all-zero header is never a valid one, so the end of the data in a file is the first entry that fails to validate. This
+ * also takes care of torn writes (i.e., if the process crashed while writing an entry).
+ */
+@NotThreadSafe
+class LogFile implements AutoCloseable {
+    //region Members
+
+    static final int HEADER_LENGTH = 2 * Integer.BYTES;
+    private static final String FILE_PREFIX = "log-";
+    @Getter
+    private final int fileId;
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final ByteBuffer header;
+    private final int maxSize;
+    /**
+     * The number of bytes written to this file so far.
+     */
+    @Getter
+    private long length;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new, empty LogFile and preallocates it.
+     *
+     * @param logDir  The directory of the FileLog.
+     * @param fileId  The Id of the file.
+     * @param maxSize The maximum size of the file.
+     * @throws IOException If the file could not be created.
+     */
+    LogFile(File logDir, int fileId, int maxSize) throws IOException {
+        this.fileId = fileId;
+        this.maxSize = maxSize;
+        File f = getFile(logDir, fileId);
+        Preconditions.checkState(!f.exists(), "Log file '%s' already exists.", f);
+        this.file = new RandomAccessFile(f, "rw");
+        try {
+            this.file.setLength(maxSize);
+            this.channel = this.file.getChannel();
+        } catch (IOException ex) {
+            this.file.close();
+            throw ex;
+        }
+
+        this.header = ByteBuffer.allocate(HEADER_LENGTH);
+        this.length = 0;
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    /**
+     * Syncs this file to disk, trims the preallocated space that has not been used and closes it.
+     *
+     * @throws IOException If an IOException occurred.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (this.channel.isOpen()) {
+                this.channel.truncate(this.length);
+                this.channel.force(true);
+            }
+        } finally {
+            this.file.close();
+        }
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Gets a value indicating whether an entry of the given length would fit in this file.
+     *
+     * @param dataLength The length of the entry payload.
+     * @return True if it would fit, false otherwise.
+     */
+    boolean canAppend(int dataLength) {
+        return this.length + HEADER_LENGTH + dataLength <= this.maxSize;
+    }
+
+    /**
+     * Writes a new entry to this file. The entry is not guaranteed to be durable until the next call to sync().
+     *
+     * @param data The payload of the entry.
+     * @return The offset within the file where the entry begins.
+     * @throws IOException If an IOException occurred.
+     */
+    long append(ArrayView data) throws IOException {
+        Preconditions.checkArgument(canAppend(data.getLength()), "Entry does not fit in the log file.");
+        long offset = this.length;
+        this.header.clear();
+        this.header.putInt(data.getLength());
+        this.header.putInt(getChecksum(data.getLength(), data.array(), data.arrayOffset()));
+        this.header.flip();
+        ByteBuffer[] buffers = new ByteBuffer[]{this.header, ByteBuffer.wrap(data.array(), data.arrayOffset(), data.getLength())};
+        this.channel.position(offset);
+        long written = 0;
+        while (buffers[0].hasRemaining() || buffers[1].hasRemaining()) {
+            written += this.channel.write(buffers);
+        }
+
+        this.length = offset + written;
+        return offset;
+    }
+
+    /**
+     * Syncs all the entries written so far to disk. The file is preallocated, so there is no need to sync its metadata.
+     *
+     * @throws IOException If an IOException occurred.
+     */
+    void sync() throws IOException {
+        this.channel.force(false);
+    }
+
+    //endregion
+
+    //region Helpers
+
+    /**
+     * Reads the entry at the current position of the given buffer. If an entry can be read, the buffer's position is
+     * advanced past it.
+     *
+     * @param buffer The buffer to read from.
+     * @return The payload of the entry, or null if there is no valid entry at the current position (which means the end
+     * of the data in this file has been reached).
+     */
+    static byte[] readEntry(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_LENGTH) {
+            return null;
+        }
+
+        int position = buffer.position();
+        int length = buffer.getInt(position);
+        int checksum = buffer.getInt(position + Integer.BYTES);
+        if (length < 0 || length > buffer.remaining() - HEADER_LENGTH) {
+            return null;
+        }
+
+        byte[] payload = new byte[length];
+        buffer.position(position + HEADER_LENGTH);
+        buffer.get(payload);
+        if (getChecksum(length, payload, 0) != checksum) {
+            // Either a torn write or the preallocated (unwritten) part of the file.
+            buffer.position(position);
+            return null;
+        }
+
+        return payload;
+    }
+
+    /**
+     * Gets the File for the given file Id.
+     *
+     * @param logDir The directory of the FileLog.
+     * @param fileId The Id of the file.
+     * @return The File.
+     */
+    static File getFile(File logDir, int fileId) {
+        return new File(logDir, FILE_PREFIX + fileId);
+    }
+
+    /**
+     * Gets the Id of the given log file.
+     *
+     * @param file The File to inspect.
+     * @return The Id of the log file, or -1 if this is not a log file.
+     */
+    static int getFileId(File file) {
+        String name = file.getName();
+        if (file.isFile() && name.startsWith(FILE_PREFIX)) {
+            try {
+                return Integer.parseInt(name.substring(FILE_PREFIX.length()));
+            } catch (NumberFormatException ex) {
+                // Not one of ours.
+            }
+        }
+
+        return -1;
+    }
+
+    private static int getChecksum(int length, byte[] array, int offset) {
+        CRC32 crc = new CRC32();
+        crc.update(length >>> 24);
+        crc.update(length >>> 16);
+        crc.update(length >>> 8);
+        crc.update(length);
+        crc.update(array, offset, length);
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FileId = %d, Length = %d", this.fileId, this.length);
+    }
+
+    //endregion
+}
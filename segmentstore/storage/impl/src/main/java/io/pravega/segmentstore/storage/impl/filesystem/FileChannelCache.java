@@ -0,0 +1,311 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.filesystem;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded, least-recently-used cache of open FileChannels, keyed by Segment Name. Along with the channel, each entry
+ * caches the length and sealed state of the file as of when it was opened (the length is kept up to date by the writes
+ * executed through this cache), so that reads do not need to open and stat the file every time. Since an open channel
+ * does not observe its file being sealed (chmod) or deleted by someone else, writers should validate the cached entry
+ * against the current attributes of the file (see {@link #acquire(String, Path, PosixFileAttributes)}).
+ *
+ * Callers must {@link #release} every entry they {@link #acquire}. An entry that is evicted or invalidated while still in
+ * use is only closed after its last user releases it.
+ */
+@Slf4j
+@ThreadSafe
+class FileChannelCache implements AutoCloseable {
+    //region Members
+
+    private final int maxOpenFiles;
+    @GuardedBy("entries")
+    private final LinkedHashMap<String, OpenFile> entries;
+    @GuardedBy("entries")
+    private boolean closed;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the FileChannelCache class.
+     *
+     * @param maxOpenFiles The maximum number of files to keep open at any given time (not counting files that are still
+     *                     in use after having been evicted).
+     */
+    FileChannelCache(int maxOpenFiles) {
+        Preconditions.checkArgument(maxOpenFiles > 0, "maxOpenFiles must be a positive integer.");
+        this.maxOpenFiles = maxOpenFiles;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        List<OpenFile> toClose;
+        synchronized (this.entries) {
+            this.closed = true;
+            toClose = new ArrayList<>(this.entries.values());
+            this.entries.clear();
+            toClose.removeIf(f -> !f.markEvicted());
+        }
+
+        toClose.forEach(OpenFile::close);
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Gets an OpenFile for the given Segment, opening the file if it is not already open. The caller must invoke
+     * {@link #release} when done with it.
+     *
+     * @param segmentName The name of the Segment.
+     * @param path        The path of the file backing the Segment.
+     * @return An OpenFile for the Segment.
+     * @throws IOException If the file could not be opened (including if it does not exist).
+     */
+    OpenFile acquire(String segmentName, Path path) throws IOException {
+        return acquire(segmentName, path, null);
+    }
+
+    /**
+     * Gets an OpenFile for the given Segment, which refers to the same file and has the same sealed state as described by
+     * the given attributes. If the cached OpenFile does not match them (i.e., the file has since been sealed, unsealed,
+     * or deleted and recreated by someone else), it is discarded and the file is reopened. The caller must invoke
+     * {@link #release} when done with it.
+     *
+     * @param segmentName The name of the Segment.
+     * @param path        The path of the file backing the Segment.
+     * @param current     The current attributes of the file. If null, any cached OpenFile is returned as is.
+     * @return An OpenFile for the Segment.
+     * @throws IOException If the file could not be opened (including if it does not exist).
+     */
+    OpenFile acquire(String segmentName, Path path, PosixFileAttributes current) throws IOException {
+        OpenFile stale = null;
+        synchronized (this.entries) {
+            Exceptions.checkNotClosed(this.closed, this);
+            OpenFile existing = this.entries.get(segmentName);
+            if (existing != null && (current == null || existing.matches(current))) {
+                existing.refCount++;
+                return existing;
+            } else if (existing != null) {
+                this.entries.remove(segmentName);
+                if (existing.markEvicted()) {
+                    stale = existing;
+                }
+            }
+        }
+
+        if (stale != null) {
+            log.debug("Reopening '{}' since it has been modified externally.", segmentName);
+            stale.close();
+        }
+
+        // Open the file outside of the lock, since this may be a slow operation (i.e., on NFS).
+        OpenFile newFile = OpenFile.open(path);
+        OpenFile result;
+        List<OpenFile> toClose = new ArrayList<>();
+        synchronized (this.entries) {
+            result = this.entries.get(segmentName);
+            if (this.closed || result != null) {
+                // Someone else beat us to it (or we have been closed in the meantime); use theirs.
+                toClose.add(newFile);
+            } else {
+                result = newFile;
+                this.entries.put(segmentName, result);
+                Iterator<OpenFile> iterator = this.entries.values().iterator();
+                while (this.entries.size() > this.maxOpenFiles && iterator.hasNext()) {
+                    OpenFile eldest = iterator.next();
+                    iterator.remove();
+                    if (eldest.markEvicted()) {
+                        toClose.add(eldest);
+                    }
+                }
+            }
+
+            if (result != null) {
+                result.refCount++;
+            }
+        }
+
+        toClose.forEach(OpenFile::close);
+        Exceptions.checkNotClosed(result == null, this);
+        return result;
+    }
+
+    /**
+     * Releases an OpenFile that was previously obtained using {@link #acquire}.
+     *
+     * @param file The OpenFile to release.
+     */
+    void release(OpenFile file) {
+        boolean close;
+        synchronized (this.entries) {
+            Preconditions.checkState(file.refCount > 0, "OpenFile has not been acquired.");
+            file.refCount--;
+            close = file.evicted && file.refCount == 0;
+        }
+
+        if (close) {
+            file.close();
+        }
+    }
+
+    /**
+     * Removes any cached information about the given Segment and closes its file (once it is no longer in use). This
+     * must be invoked whenever the Segment is modified other than by writing to it (i.e., seal, concat or delete).
+     *
+     * @param segmentName The name of the Segment.
+     */
+    void invalidate(String segmentName) {
+        OpenFile toClose;
+        synchronized (this.entries) {
+            toClose = this.entries.remove(segmentName);
+            if (toClose != null && !toClose.markEvicted()) {
+                toClose = null;
+            }
+        }
+
+        if (toClose != null) {
+            toClose.close();
+        }
+    }
+
+    /**
+     * Gets the number of files that are currently cached.
+     */
+    int getOpenFileCount() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    //endregion
+
+    //region OpenFile
+
+    /**
+     * An open file, along with its cached state.
+     */
+    static class OpenFile {
+        @Getter
+        private final FileChannel channel;
+        /**
+         * Whether the file was sealed (not writable) when it was opened. If so, the channel is read-only.
+         */
+        @Getter
+        private final boolean sealed;
+        /**
+         * The key that uniquely identifies the file that was opened (i.e., its inode), if provided by the file system.
+         */
+        private final Object fileKey;
+        private final AtomicLong length;
+        @GuardedBy("FileChannelCache.entries")
+        private int refCount;
+        @GuardedBy("FileChannelCache.entries")
+        private boolean evicted;
+
+        private OpenFile(FileChannel channel, boolean sealed, Object fileKey, long length) {
+            this.channel = channel;
+            this.sealed = sealed;
+            this.fileKey = fileKey;
+            this.length = new AtomicLong(length);
+        }
+
+        private static OpenFile open(Path path) throws IOException {
+            PosixFileAttributes attrs = Files.readAttributes(path, PosixFileAttributes.class);
+            boolean sealed = isSealed(attrs);
+            FileChannel channel = sealed
+                    ? FileChannel.open(path, StandardOpenOption.READ)
+                    : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new OpenFile(channel, sealed, attrs.fileKey(), attrs.size());
+        }
+
+        private static boolean isSealed(PosixFileAttributes attrs) {
+            return !attrs.permissions().contains(PosixFilePermission.OWNER_WRITE);
+        }
+
+        /**
+         * Determines whether this OpenFile still reflects the file described by the given attributes: it is the same file
+         * (it has not been deleted and recreated since it was opened) and it has the same sealed state.
+         */
+        private boolean matches(PosixFileAttributes current) {
+            return this.sealed == isSealed(current) && Objects.equals(this.fileKey, current.fileKey());
+        }
+
+        /**
+         * Gets the length of the file, as known by this instance. This is the length when the file was opened, plus
+         * whatever was written through this OpenFile since then.
+         */
+        long getLength() {
+            return this.length.get();
+        }
+
+        /**
+         * Refreshes the cached length of the file from the (open) channel.
+         *
+         * @return The new length.
+         * @throws IOException If the length could not be retrieved.
+         */
+        long refreshLength() throws IOException {
+            return updateLength(this.channel.size());
+        }
+
+        /**
+         * Records that the file is at least the given length.
+         *
+         * @param length The length.
+         * @return The new length.
+         */
+        long updateLength(long length) {
+            return this.length.accumulateAndGet(length, Math::max);
+        }
+
+        private boolean markEvicted() {
+            this.evicted = true;
+            return this.refCount == 0;
+        }
+
+        private void close() {
+            try {
+                this.channel.close();
+            } catch (IOException ex) {
+                log.warn("Unable to close FileChannel.", ex);
+            }
+        }
+    }
+
+    //endregion
+}
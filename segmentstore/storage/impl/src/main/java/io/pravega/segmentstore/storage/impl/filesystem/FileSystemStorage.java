@@ -9,6 +9,7 @@
  */
 package io.pravega.segmentstore.storage.impl.filesystem;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import io.pravega.common.Exceptions;
@@ -73,6 +74,14 @@ import static java.nio.file.attribute.PosixFilePermission.OWNER_WRITE;
  * In the absence of locking this is the expected behavior in case of ownership change: both the hosts will keep
  * writing the same data at the same offset till the time the earlier owner gets a notification that it is not the
  * current owner. Once the earlier owner received this notification, it stops writing to the segment.
+ *
+ * Files are kept open in a bounded, least-recently-used cache (see FileChannelCache), along with their length and sealed
+ * state. As such, reads from recently accessed segments are single positional reads, without having to open or stat the
+ * file. Cached entries are invalidated whenever this instance seals, unseals, concats or deletes the segment; if the
+ * length of the file is found to be smaller than the requested offset, it is refreshed from the open file before failing
+ * the operation, which allows other instances to append to it. Writes do not rely on the cached state: every write
+ * checks the current attributes of the file, so that a write fails once another instance has sealed or deleted the file
+ * (and the file is reopened if it has been recreated), which is what fencing relies upon.
  */
 @Slf4j
 public class FileSystemStorage implements SyncStorage {
@@ -90,6 +99,7 @@ public class FileSystemStorage implements SyncStorage {
             PosixFilePermission.OTHERS_READ);
 
     private final FileSystemStorageConfig config;
+    private final FileChannelCache openFiles;
     private final AtomicBoolean closed;
 
     //endregion
@@ -103,8 +113,8 @@ public class FileSystemStorage implements SyncStorage {
      */
     public FileSystemStorage(FileSystemStorageConfig config) {
         this.config = Preconditions.checkNotNull(config, "config");
+        this.openFiles = new FileChannelCache(config.getMaxOpenFiles());
         this.closed = new AtomicBoolean(false);
-
     }
 
     //endregion
@@ -193,11 +203,21 @@ public class FileSystemStorage implements SyncStorage {
 
     @Override
     public void close() {
-        this.closed.set(true);
+        if (!this.closed.getAndSet(true)) {
+            this.openFiles.close();
+        }
     }
 
     //endregion
 
+    /**
+     * Gets the number of files currently kept open by this instance.
+     */
+    @VisibleForTesting
+    int getOpenFileCount() {
+        return this.openFiles.getOpenFileCount();
+    }
+
     //region private sync implementation
 
     private SegmentHandle doOpenRead(String streamSegmentName) throws StreamSegmentNotExistsException {
@@ -231,19 +251,24 @@ public class FileSystemStorage implements SyncStorage {
         Timer timer = new Timer();
 
         Path path = Paths.get(config.getRoot(), handle.getSegmentName());
+        FileChannelCache.OpenFile file = this.openFiles.acquire(handle.getSegmentName(), path);
+        try {
+            long fileSize = file.getLength();
+            if (fileSize < offset) {
+                // Someone else may have appended to the file since we opened it.
+                fileSize = file.refreshLength();
+            }
 
-        long fileSize = Files.size(path);
-        if (fileSize < offset) {
-            throw new IllegalArgumentException(String.format("Reading at offset (%d) which is beyond the " +
-                    "current size of segment (%d).", offset, fileSize));
-        }
+            if (fileSize < offset) {
+                throw new IllegalArgumentException(String.format("Reading at offset (%d) which is beyond the " +
+                        "current size of segment (%d).", offset, fileSize));
+            }
 
-        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
             int totalBytesRead = 0;
-
             do {
                 ByteBuffer readBuffer = ByteBuffer.wrap(buffer, bufferOffset, length);
-                int bytesRead = channel.read(readBuffer, offset);
+                int bytesRead = file.getChannel().read(readBuffer, offset);
+                offset += bytesRead;
                 bufferOffset += bytesRead;
                 totalBytesRead += bytesRead;
                 length -= bytesRead;
@@ -252,6 +277,8 @@ public class FileSystemStorage implements SyncStorage {
             FileSystemMetrics.READ_BYTES.add(totalBytesRead);
             LoggerHelpers.traceLeave(log, "read", traceId, totalBytesRead);
             return totalBytesRead;
+        } finally {
+            this.openFiles.release(file);
         }
     }
 
@@ -293,35 +320,50 @@ public class FileSystemStorage implements SyncStorage {
             throw new IllegalArgumentException("Write called on a readonly handle of segment " + handle.getSegmentName());
         }
 
+        // An open channel does not observe its file being sealed or deleted by someone else (i.e., a new owner fencing
+        // us out), so we must always check the current state of the file before writing to it. A missing file results
+        // in a NoSuchFileException, which is translated into StreamSegmentNotExistsException.
         Path path = Paths.get(config.getRoot(), handle.getSegmentName());
-
-        // Fix for the case where Pravega runs with super user privileges.
-        // This means that writes to readonly files also succeed. We need to explicitly check permissions in this case.
-        if (!isWritableFile(path)) {
+        PosixFileAttributes attrs = Files.readAttributes(path, PosixFileAttributes.class);
+        if (!attrs.permissions().contains(OWNER_WRITE)) {
+            // Fix for the case where Pravega runs with super user privileges.
+            // This means that writes to readonly files also succeed. We need to explicitly check permissions in this case.
+            this.openFiles.invalidate(handle.getSegmentName());
             throw new StreamSegmentSealedException(handle.getSegmentName());
         }
 
-        long fileSize = path.toFile().length();
-        if (fileSize < offset) {
-            throw new BadOffsetException(handle.getSegmentName(), fileSize, offset);
-        } else {
+        // Reopen the file if it has been deleted and recreated since we last opened it.
+        FileChannelCache.OpenFile file = this.openFiles.acquire(handle.getSegmentName(), path, attrs);
+        try {
+            long fileSize = file.updateLength(attrs.size());
+            if (fileSize < offset) {
+                // Someone else may have appended to the file since we checked it.
+                fileSize = file.refreshLength();
+            }
+
+            if (fileSize < offset) {
+                throw new BadOffsetException(handle.getSegmentName(), fileSize, offset);
+            }
+
             long totalBytesWritten = 0;
-            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
-                // Wrap the input data into a ReadableByteChannel, but do not close it. Doing so will result in closing
-                // the underlying InputStream, which is not desirable if it is to be reused.
-                ReadableByteChannel sourceChannel = Channels.newChannel(data);
-                while (length != 0) {
-                    long bytesWritten = channel.transferFrom(sourceChannel, offset, length);
-                    assert bytesWritten > 0 : "Unable to make any progress transferring data.";
-                    offset += bytesWritten;
-                    totalBytesWritten += bytesWritten;
-                    length -= bytesWritten;
-                }
+            // Wrap the input data into a ReadableByteChannel, but do not close it. Doing so will result in closing
+            // the underlying InputStream, which is not desirable if it is to be reused.
+            ReadableByteChannel sourceChannel = Channels.newChannel(data);
+            while (length != 0) {
+                long bytesWritten = file.getChannel().transferFrom(sourceChannel, offset, length);
+                assert bytesWritten > 0 : "Unable to make any progress transferring data.";
+                offset += bytesWritten;
+                totalBytesWritten += bytesWritten;
+                length -= bytesWritten;
             }
+
+            file.updateLength(offset);
             FileSystemMetrics.WRITE_LATENCY.reportSuccessEvent(timer.getElapsed());
             FileSystemMetrics.WRITE_BYTES.add(totalBytesWritten);
             LoggerHelpers.traceLeave(log, "write", traceId);
             return null;
+        } finally {
+            this.openFiles.release(file);
         }
     }
 
@@ -337,6 +379,7 @@ public class FileSystemStorage implements SyncStorage {
         }
 
         Files.setPosixFilePermissions(Paths.get(config.getRoot(), handle.getSegmentName()), READ_ONLY_PERMISSION);
+        this.openFiles.invalidate(handle.getSegmentName());
         LoggerHelpers.traceLeave(log, "seal", traceId);
         return null;
     }
@@ -344,6 +387,7 @@ public class FileSystemStorage implements SyncStorage {
     private Void doUnseal(SegmentHandle handle) throws IOException {
         long traceId = LoggerHelpers.traceEnter(log, "unseal", handle.getSegmentName());
         Files.setPosixFilePermissions(Paths.get(config.getRoot(), handle.getSegmentName()), READ_WRITE_PERMISSION);
+        this.openFiles.invalidate(handle.getSegmentName());
         LoggerHelpers.traceLeave(log, "unseal", traceId);
         return null;
     }
@@ -375,6 +419,8 @@ public class FileSystemStorage implements SyncStorage {
                 offset += bytesTransferred;
                 length -= bytesTransferred;
             }
+            this.openFiles.invalidate(targetHandle.getSegmentName());
+            this.openFiles.invalidate(sourceSegment);
             Files.delete(sourcePath);
             LoggerHelpers.traceLeave(log, "concat", traceId);
             return null;
@@ -382,6 +428,8 @@ public class FileSystemStorage implements SyncStorage {
     }
 
     private Void doDelete(SegmentHandle handle) throws IOException {
+        // Close the file before deleting it; some file systems (i.e., NFS) do not actually remove open files.
+        this.openFiles.invalidate(handle.getSegmentName());
         Files.delete(Paths.get(config.getRoot(), handle.getSegmentName()));
         return null;
     }
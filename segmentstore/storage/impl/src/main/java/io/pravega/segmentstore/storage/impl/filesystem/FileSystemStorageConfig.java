@@ -24,6 +24,8 @@ public class FileSystemStorageConfig {
     //region Config Names
 
     public static final Property<String> ROOT = Property.named("root", "/fs/");
+    public static final Property<Integer> MAX_OPEN_FILES = Property.named("maxOpenFiles", 128);
+    public static final Property<Integer> MAX_NATIVE_CONCAT_LENGTH = Property.named("maxNativeConcatLength", 1024 * 1024);
     public static final String COMPONENT_CODE = "filesystem";
 
     //endregion
@@ -37,6 +39,20 @@ public class FileSystemStorageConfig {
     @Getter
     private final String root;
 
+    /**
+     * The maximum number of files that each FileSystemStorage instance keeps open, so that reads and writes to recently
+     * accessed segments do not need to open and stat the file every time.
+     */
+    @Getter
+    private final int maxOpenFiles;
+
+    /**
+     * The maximum length of a Segment that is concatenated into another by copying its data. Larger Segments are
+     * concatenated by linking their files into the target's Header, without copying any data.
+     */
+    @Getter
+    private final int maxNativeConcatLength;
+
     //endregion
 
     //region Constructor
@@ -48,6 +64,15 @@ public class FileSystemStorageConfig {
      */
     private FileSystemStorageConfig(TypedProperties properties) throws ConfigurationException {
         this.root = properties.get(ROOT);
+        this.maxOpenFiles = properties.getInt(MAX_OPEN_FILES);
+        if (this.maxOpenFiles <= 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", MAX_OPEN_FILES));
+        }
+
+        this.maxNativeConcatLength = properties.getInt(MAX_NATIVE_CONCAT_LENGTH);
+        if (this.maxNativeConcatLength < 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a non-negative integer.", MAX_NATIVE_CONCAT_LENGTH));
+        }
     }
 
     /**
@@ -11,9 +11,13 @@ package io.pravega.segmentstore.storage.impl.filesystem;
 
 import com.google.common.base.Preconditions;
 import io.pravega.segmentstore.storage.AsyncStorageWrapper;
+import io.pravega.segmentstore.storage.SegmentRollingPolicy;
 import io.pravega.segmentstore.storage.Storage;
 import io.pravega.segmentstore.storage.StorageFactory;
+import io.pravega.segmentstore.storage.packing.PackedStorage;
+import io.pravega.segmentstore.storage.packing.PackedStorageConfig;
 import io.pravega.segmentstore.storage.rolling.RollingStorage;
+import io.pravega.shared.segment.StreamSegmentNameUtils;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -21,24 +25,50 @@ import java.util.concurrent.ExecutorService;
  */
 public class FileSystemStorageFactory implements StorageFactory {
     private final FileSystemStorageConfig config;
+    private final PackedStorageConfig packingConfig;
     private final ExecutorService executor;
 
     /**
-     * Creates a new instance of the FileSystemStorageFactory class.
+     * Creates a new instance of the FileSystemStorageFactory class, which does not pack Segments.
      *
      * @param config   The Configuration to use.
      * @param executor An executor to use for background operations.
      */
     public FileSystemStorageFactory(FileSystemStorageConfig config, ExecutorService executor) {
+        this(config, PackedStorageConfig.builder().build(), executor);
+    }
+
+    /**
+     * Creates a new instance of the FileSystemStorageFactory class.
+     *
+     * @param config        The Configuration to use.
+     * @param packingConfig The Configuration to use for packing the Segments of each Container.
+     * @param executor      An executor to use for background operations.
+     */
+    public FileSystemStorageFactory(FileSystemStorageConfig config, PackedStorageConfig packingConfig, ExecutorService executor) {
         Preconditions.checkNotNull(config, "config");
+        Preconditions.checkNotNull(packingConfig, "packingConfig");
         Preconditions.checkNotNull(executor, "executor");
         this.config = config;
+        this.packingConfig = packingConfig;
         this.executor = executor;
     }
 
     @Override
     public Storage createStorageAdapter() {
         FileSystemStorage s = new FileSystemStorage(this.config);
-        return new AsyncStorageWrapper(new RollingStorage(s), this.executor);
+        return new AsyncStorageWrapper(new RollingStorage(s, SegmentRollingPolicy.NO_ROLLING, this.config.getMaxNativeConcatLength()),
+                this.executor);
+    }
+
+    @Override
+    public Storage createStorageAdapter(int containerId) {
+        if (!this.packingConfig.isEnabled()) {
+            return createStorageAdapter();
+        }
+
+        FileSystemStorage s = new FileSystemStorage(this.config);
+        String packName = StreamSegmentNameUtils.getContainerPackName(containerId);
+        return new AsyncStorageWrapper(new PackedStorage(s, packName, this.packingConfig), this.executor);
     }
 }
@@ -13,7 +13,10 @@ import io.pravega.segmentstore.storage.AsyncStorageWrapper;
 import io.pravega.segmentstore.storage.Storage;
 import io.pravega.segmentstore.storage.StorageFactory;
 import com.google.common.base.Preconditions;
+import io.pravega.segmentstore.storage.packing.PackedStorage;
+import io.pravega.segmentstore.storage.packing.PackedStorageConfig;
 import io.pravega.segmentstore.storage.rolling.RollingStorage;
+import io.pravega.shared.segment.StreamSegmentNameUtils;
 import java.util.concurrent.Executor;
 
 /**
@@ -21,18 +24,32 @@ import java.util.concurrent.Executor;
  */
 public class HDFSStorageFactory implements StorageFactory {
     private final HDFSStorageConfig config;
+    private final PackedStorageConfig packingConfig;
     private final Executor executor;
 
     /**
-     * Creates a new instance of the HDFSStorageFactory class.
+     * Creates a new instance of the HDFSStorageFactory class, which does not pack Segments.
      *
      * @param config   The Configuration to use.
      * @param executor An executor to use for background operations.
      */
     public HDFSStorageFactory(HDFSStorageConfig config, Executor executor) {
+        this(config, PackedStorageConfig.builder().build(), executor);
+    }
+
+    /**
+     * Creates a new instance of the HDFSStorageFactory class.
+     *
+     * @param config        The Configuration to use.
+     * @param packingConfig The Configuration to use for packing the Segments of each Container.
+     * @param executor      An executor to use for background operations.
+     */
+    public HDFSStorageFactory(HDFSStorageConfig config, PackedStorageConfig packingConfig, Executor executor) {
         Preconditions.checkNotNull(config, "config");
+        Preconditions.checkNotNull(packingConfig, "packingConfig");
         Preconditions.checkNotNull(executor, "executor");
         this.config = config;
+        this.packingConfig = packingConfig;
         this.executor = executor;
     }
 
@@ -41,4 +58,15 @@ public class HDFSStorageFactory implements StorageFactory {
         HDFSStorage s = new HDFSStorage(this.config);
         return new AsyncStorageWrapper(new RollingStorage(s), this.executor);
     }
+
+    @Override
+    public Storage createStorageAdapter(int containerId) {
+        if (!this.packingConfig.isEnabled()) {
+            return createStorageAdapter();
+        }
+
+        HDFSStorage s = new HDFSStorage(this.config);
+        String packName = StreamSegmentNameUtils.getContainerPackName(containerId);
+        return new AsyncStorageWrapper(new PackedStorage(s, packName, this.packingConfig), this.executor);
+    }
 }
@@ -19,6 +19,10 @@ import io.pravega.segmentstore.storage.Cache;
 import io.pravega.segmentstore.storage.CacheException;
 import java.io.File;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -27,6 +31,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
 
 /**
@@ -168,6 +173,27 @@ class RocksDBCache implements Cache {
         insert(key, data.getCopy());
     }
 
+    @Override
+    public void insertBatch(Map<? extends Key, ByteArraySegment> entries) {
+        ensureInitializedAndNotClosed();
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Timer timer = new Timer();
+        try (WriteBatch batch = new WriteBatch()) {
+            for (Map.Entry<? extends Key, ByteArraySegment> e : entries.entrySet()) {
+                batch.put(e.getKey().serialize(), e.getValue().getCopy());
+            }
+
+            this.database.get().write(this.writeOptions, batch);
+        } catch (RocksDBException ex) {
+            throw convert(ex, "insert %d keys", entries.size());
+        }
+
+        RocksDBMetrics.insert(timer.getElapsedMillis());
+    }
+
     @Override
     public byte[] get(Key key) {
         ensureInitializedAndNotClosed();
@@ -183,6 +209,27 @@ class RocksDBCache implements Cache {
         return result;
     }
 
+    @Override
+    public List<byte[]> getBatch(List<? extends Key> keys) {
+        ensureInitializedAndNotClosed();
+        Timer timer = new Timer();
+        ArrayList<byte[]> serializedKeys = new ArrayList<>(keys.size());
+        keys.forEach(key -> serializedKeys.add(key.serialize()));
+        Map<byte[], byte[]> values;
+        try {
+            values = this.database.get().multiGet(serializedKeys);
+        } catch (RocksDBException ex) {
+            throw convert(ex, "get %d keys", keys.size());
+        }
+
+        // The resulting Map is keyed by the same byte array instances that we passed in (and it only contains the keys
+        // that exist), so we can look the values up by them in order to preserve the order of the keys.
+        ArrayList<byte[]> result = new ArrayList<>(keys.size());
+        serializedKeys.forEach(key -> result.add(values.get(key)));
+        RocksDBMetrics.get(timer.getElapsedMillis());
+        return result;
+    }
+
     @Override
     public void remove(Key key) {
         ensureInitializedAndNotClosed();
@@ -193,6 +240,24 @@ class RocksDBCache implements Cache {
         }
     }
 
+    @Override
+    public void removeBatch(Collection<? extends Key> keys) {
+        ensureInitializedAndNotClosed();
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        try (WriteBatch batch = new WriteBatch()) {
+            for (Key key : keys) {
+                batch.remove(key.serialize());
+            }
+
+            this.database.get().write(this.writeOptions, batch);
+        } catch (RocksDBException ex) {
+            throw convert(ex, "remove %d keys", keys.size());
+        }
+    }
+
     //endregion
 
     //region Helpers
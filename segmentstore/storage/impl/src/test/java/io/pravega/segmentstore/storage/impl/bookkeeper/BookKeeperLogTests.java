@@ -117,7 +117,16 @@ public class BookKeeperLogTests extends DurableDataLogTestBase {
         this.zkClient.get().start();
 
         // Setup config to use the port and namespace.
-        this.config.set(BookKeeperConfig
+        this.config.set(createConfig(namespace, 1));
+
+        // Create default factory.
+        val factory = new BookKeeperLogFactory(this.config.get(), this.zkClient.get(), executorService());
+        factory.initialize();
+        this.factory.set(factory);
+    }
+
+    private BookKeeperConfig createConfig(String namespace, int writeStripeCount) {
+        return BookKeeperConfig
                 .builder()
                 .with(BookKeeperConfig.ZK_ADDRESS, "localhost:" + BK_PORT.get())
                 .with(BookKeeperConfig.MAX_WRITE_ATTEMPTS, MAX_WRITE_ATTEMPTS)
@@ -128,12 +137,9 @@ public class BookKeeperLogTests extends DurableDataLogTestBase {
                 .with(BookKeeperConfig.BK_WRITE_QUORUM_SIZE, BOOKIE_COUNT)
                 .with(BookKeeperConfig.BK_ACK_QUORUM_SIZE, BOOKIE_COUNT)
                 .with(BookKeeperConfig.BK_WRITE_TIMEOUT, 1000) // This is the minimum we can set anyway.
-                .build());
-
-        // Create default factory.
-        val factory = new BookKeeperLogFactory(this.config.get(), this.zkClient.get(), executorService());
-        factory.initialize();
-        this.factory.set(factory);
+                .with(BookKeeperConfig.BK_READ_BATCH_SIZE, 10) // Multiple read batches per ledger.
+                .with(BookKeeperConfig.BK_WRITE_STRIPE_COUNT, writeStripeCount)
+                .build();
     }
 
     @After
@@ -293,6 +299,40 @@ public class BookKeeperLogTests extends DurableDataLogTestBase {
         }
     }
 
+    /**
+     * Tests the ability to write to and read from a striped log, across multiple ledger group rollovers.
+     */
+    @Test
+    public void testStripedLog() throws Exception {
+        final int stripeCount = 3;
+        @Cleanup
+        val factory = new BookKeeperLogFactory(createConfig(this.zkClient.get().getNamespace(), stripeCount), this.zkClient.get(), executorService());
+        factory.initialize();
+
+        TreeMap<LogAddress, byte[]> writeData;
+        try (DurableDataLog log = factory.createDurableDataLog(CONTAINER_ID)) {
+            log.initialize(TIMEOUT);
+            writeData = populate(log, getWriteCount());
+        }
+
+        // Verify the writes were spread across multiple ledger groups, and across multiple ledgers within each group.
+        long groupCount = writeData.keySet().stream().mapToInt(a -> ((LedgerAddress) a).getLedgerSequence()).distinct().count();
+        long ledgerCount = writeData.keySet().stream().mapToLong(a -> ((LedgerAddress) a).getLedgerId()).distinct().count();
+        AssertExtensions.assertGreaterThan("Expected the writes to span multiple ledger groups.", 1, groupCount);
+        AssertExtensions.assertGreaterThan("Expected the writes to span multiple ledgers in each group.", groupCount, ledgerCount);
+
+        // Verify we can read the log back, and that the ledger layout is taken from the metadata (and not from the config).
+        try (DurableDataLog log = factory.createDurableDataLog(CONTAINER_ID)) {
+            log.initialize(TIMEOUT);
+            verifyReads(log, writeData);
+        }
+
+        try (DurableDataLog log = createDurableDataLog()) {
+            log.initialize(TIMEOUT);
+            verifyReads(log, writeData);
+        }
+    }
+
     @Override
     protected int getThreadPoolSize() {
         return THREAD_POOL_SIZE;
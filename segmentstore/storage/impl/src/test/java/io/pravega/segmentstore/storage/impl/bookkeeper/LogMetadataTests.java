@@ -167,11 +167,78 @@ public class LogMetadataTests {
         val serialization = m1.serialize();
         val m2 = LogMetadata.deserialize(serialization);
 
+        // Logs without striped Ledgers must be serialized in the original format (Version 0, no Stripe field per Ledger),
+        // so that older versions can still read them.
+        Assert.assertEquals("Unexpected serialization version.", 0, serialization[0]);
+        Assert.assertEquals("Unexpected serialization length.",
+                Byte.BYTES + Long.BYTES * 4 + Integer.BYTES + (Long.BYTES + Integer.BYTES) * m1.getLedgers().size(),
+                serialization.length);
+
         Assert.assertEquals("Unexpected epoch.", m1.getEpoch(), m2.getEpoch());
         Assert.assertEquals("Unexpected TruncationAddress.", m1.getTruncationAddress().getSequence(), m2.getTruncationAddress().getSequence());
         Assert.assertEquals("Unexpected TruncationAddress.", m1.getTruncationAddress().getLedgerId(), m2.getTruncationAddress().getLedgerId());
         AssertExtensions.assertListEquals("Unexpected ledgers.", m1.getLedgers(), m2.getLedgers(),
-                (l1, l2) -> l1.getSequence() == l2.getSequence() && l1.getLedgerId() == l2.getLedgerId());
+                (l1, l2) -> l1.getSequence() == l2.getSequence() && l1.getLedgerId() == l2.getLedgerId()
+                        && l1.getStripe() == l2.getStripe());
+    }
+
+    /**
+     * Tests addLedgers(), getLedgerGroup(), truncate(), getNextAddress() and serialization with striped Ledger groups.
+     */
+    @Test(timeout = 5000)
+    public void testStripedLedgers() {
+        final int stripeCount = 3;
+        Supplier<Long> nextLedgerId = new AtomicLong()::incrementAndGet;
+        LogMetadata m = null;
+        val expectedLedgerIds = new ArrayList<Long>();
+        for (int i = 0; i < LEDGER_COUNT; i++) {
+            val ledgerIds = new ArrayList<Long>();
+            for (int j = 0; j < stripeCount; j++) {
+                ledgerIds.add(nextLedgerId.get());
+            }
+
+            expectedLedgerIds.addAll(ledgerIds);
+            if (m == null) {
+                m = new LogMetadata(ledgerIds).withUpdateVersion(i);
+            } else {
+                m.withUpdateVersion(i);
+                m = m.addLedgers(ledgerIds, true);
+            }
+        }
+
+        checkLedgerIds(expectedLedgerIds, m);
+
+        // Verify that all the Ledgers in a group share the same sequence and that stripes are assigned in order.
+        val groupSequences = m.getLedgers().stream().map(LedgerMetadata::getSequence).distinct().collect(Collectors.toList());
+        Assert.assertEquals("Unexpected number of ledger groups.", LEDGER_COUNT, groupSequences.size());
+        for (int seq : groupSequences) {
+            val group = m.getLedgerGroup(seq);
+            Assert.assertEquals("Unexpected ledger group size.", stripeCount, group.size());
+            for (int i = 0; i < group.size(); i++) {
+                Assert.assertEquals("Unexpected stripe.", i, group.get(i).getStripe());
+            }
+        }
+
+        // Truncating to any Ledger in a group must preserve the whole group.
+        val secondGroup = m.getLedgerGroup(groupSequences.get(1));
+        for (val lm : secondGroup) {
+            val truncated = m.truncate(new LedgerAddress(lm.getSequence(), lm.getLedgerId(), 123));
+            checkLedgerIds(expectedLedgerIds.subList(stripeCount, expectedLedgerIds.size()), truncated);
+        }
+
+        // Moving on from any Ledger in a group should point to the first Ledger of the next group.
+        val thirdGroup = m.getLedgerGroup(groupSequences.get(2));
+        for (val lm : secondGroup) {
+            val a = m.getNextAddress(new LedgerAddress(lm.getSequence(), lm.getLedgerId(), 3), 3);
+            Assert.assertEquals("Unexpected ledger id when result should be in the next group.", thirdGroup.get(0).getLedgerId(), a.getLedgerId());
+            Assert.assertEquals("Unexpected entry id when result should be in the next group.", 0, a.getEntryId());
+        }
+
+        // Serialization.
+        val serialization = m.serialize();
+        Assert.assertEquals("Unexpected serialization version.", 1, serialization[0]);
+        val m2 = LogMetadata.deserialize(serialization);
+        AssertExtensions.assertListEquals("Unexpected ledgers after deserialization.", m.getLedgers(), m2.getLedgers(), Object::equals);
     }
 
     private void checkLedgerIds(List<Long> expectedLedgerIds, LogMetadata metadata) {
@@ -237,9 +237,61 @@ public class WriteQueueTests {
                 writes.subList(ledgerChangeIndex, writes.size()), result4, Object::equals);
     }
 
+    /**
+     * Tests the getWritesToExecute() and getPendingWrites() methods with Writes spread across a striped Ledger group.
+     */
+    @Test
+    public void testStripedLedgers() {
+        final int stripeCount = 3;
+        final int groupChangeIndex = ITEM_COUNT / 2;
+        val q = new WriteQueue();
+        val writes = new ArrayList<Write>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            // The first group is made of Ledgers with Ids [0, stripeCount); the second one has a single Ledger.
+            val ledger = i < groupChangeIndex
+                    ? new TestWriteLedger(i % stripeCount, 0, i % stripeCount)
+                    : new TestWriteLedger(stripeCount, 1, 0);
+            val w = new Write(new ByteArraySegment(new byte[1]), ledger, new CompletableFuture<>());
+            q.add(w);
+            writes.add(w);
+        }
+
+        // All the writes in the first group should be returned, regardless of which Ledger they are assigned to.
+        val result1 = q.getWritesToExecute(Long.MAX_VALUE);
+        AssertExtensions.assertListEquals("Unexpected writes fetched from a striped ledger group.",
+                writes.subList(0, groupChangeIndex), result1, Object::equals);
+
+        // Acknowledge a few writes. These are still in progress (and pending), but should not be returned for execution.
+        for (int i = 0; i < stripeCount; i++) {
+            writes.get(i).beginAttempt();
+            writes.get(i).setEntryId(0);
+            writes.get(i).acknowledge();
+            Assert.assertTrue("Expected write to be acknowledged.", writes.get(i).isAcknowledged());
+        }
+
+        val result2 = q.getWritesToExecute(Long.MAX_VALUE);
+        AssertExtensions.assertListEquals("Unexpected writes fetched when some writes are acknowledged.",
+                writes.subList(stripeCount, groupChangeIndex), result2, Object::equals);
+        AssertExtensions.assertListEquals("Unexpected pending writes when some writes are acknowledged.",
+                writes, q.getPendingWrites(), Object::equals);
+
+        // Complete the acknowledged writes.
+        for (int i = 0; i < stripeCount; i++) {
+            writes.get(i).complete();
+            Assert.assertFalse("Not expecting a completed write to be acknowledged.", writes.get(i).isAcknowledged());
+        }
+
+        AssertExtensions.assertListEquals("Unexpected pending writes after completing some writes.",
+                writes.subList(stripeCount, writes.size()), q.getPendingWrites(), Object::equals);
+    }
+
     private static class TestWriteLedger extends WriteLedger {
         TestWriteLedger(int ledgerId) {
             super(null, new LedgerMetadata(ledgerId, ledgerId));
         }
+
+        TestWriteLedger(int ledgerId, int sequence, int stripe) {
+            super(null, new LedgerMetadata(ledgerId, sequence, stripe));
+        }
     }
 }
@@ -0,0 +1,282 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.directmemory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.pravega.common.util.ByteArraySegment;
+import io.pravega.segmentstore.storage.Cache;
+import io.pravega.segmentstore.storage.CacheFullException;
+import io.pravega.segmentstore.storage.CacheTestBase;
+import io.pravega.test.common.AssertExtensions;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import lombok.Cleanup;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Unit tests for DirectMemoryCache.
+ */
+public class DirectMemoryCacheTests extends CacheTestBase {
+    private static final int BLOCK_SIZE = 32;
+    private static final int SLAB_SIZE = BLOCK_SIZE * 1024;
+    private static final long MAX_SIZE = SLAB_SIZE * 512;
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(30);
+    private DirectMemoryCacheFactory factory;
+
+    @Before
+    public void setUp() {
+        this.factory = new DirectMemoryCacheFactory(createConfig(MAX_SIZE));
+    }
+
+    @After
+    public void tearDown() {
+        if (this.factory != null) {
+            this.factory.close();
+            this.factory = null;
+        }
+    }
+
+    @Override
+    protected Cache createCache(String cacheId) {
+        return this.factory.getCache(cacheId);
+    }
+
+    /**
+     * Tests the ability to store and retrieve entries that span multiple Blocks, as well as replacing existing entries.
+     */
+    @Test
+    public void testMultiBlockEntries() {
+        final int count = 100;
+        Random rnd = new Random(0);
+        @Cleanup
+        Cache cache = createCache("cache");
+        byte[][] data = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            data[i] = new byte[rnd.nextInt(BLOCK_SIZE * 10)];
+            rnd.nextBytes(data[i]);
+            cache.insert(new TestKey(i), data[i]);
+        }
+
+        for (int i = 0; i < count; i++) {
+            Assert.assertArrayEquals("Unexpected contents for entry " + i, data[i], cache.get(new TestKey(i)));
+        }
+
+        // Replace every other entry, using a ByteArraySegment this time.
+        for (int i = 0; i < count; i += 2) {
+            byte[] array = new byte[BLOCK_SIZE * 5 + 1];
+            rnd.nextBytes(array);
+            ByteArraySegment segment = new ByteArraySegment(array, 1, array.length - 1);
+            data[i] = segment.getCopy();
+            cache.insert(new TestKey(i), segment);
+        }
+
+        for (int i = 0; i < count; i++) {
+            Assert.assertArrayEquals("Unexpected contents for entry " + i + " after replacement.", data[i], cache.get(new TestKey(i)));
+        }
+
+        // Remove everything and verify all memory has been returned.
+        for (int i = 0; i < count; i++) {
+            cache.remove(new TestKey(i));
+        }
+
+        Assert.assertEquals("Not all blocks have been freed.", 0, this.factory.getUsedBytes());
+    }
+
+    /**
+     * Tests the fact that the Cache rejects insertions beyond its maximum size and that it can accept new insertions
+     * once memory is freed up.
+     */
+    @Test
+    public void testMaxSize() {
+        @Cleanup
+        DirectMemoryCacheFactory factory = new DirectMemoryCacheFactory(createConfig(SLAB_SIZE * 2));
+        @Cleanup
+        Cache cache1 = factory.getCache("cache1");
+        @Cleanup
+        Cache cache2 = factory.getCache("cache2");
+
+        // Fill up the memory using both caches (they share the same allocator).
+        cache1.insert(new TestKey(1), new byte[SLAB_SIZE]);
+        cache2.insert(new TestKey(2), new byte[SLAB_SIZE - BLOCK_SIZE]);
+        cache2.insert(new TestKey(3), new byte[1]);
+        Assert.assertEquals("Unexpected allocated size.", SLAB_SIZE * 2, factory.getAllocatedBytes());
+        Assert.assertEquals("Unexpected used size.", SLAB_SIZE * 2, factory.getUsedBytes());
+
+        AssertExtensions.assertThrows(
+                "insert() accepted an entry beyond the maximum size.",
+                () -> cache1.insert(new TestKey(4), new byte[1]),
+                ex -> ex instanceof CacheFullException);
+        Assert.assertNull("A failed insert() added an entry.", cache1.get(new TestKey(4)));
+
+        // Closing a cache frees up all of its memory, which can then be reused by the other cache.
+        cache1.close();
+        Assert.assertEquals("Unexpected used size after closing a cache.", SLAB_SIZE, factory.getUsedBytes());
+        byte[] data = new byte[SLAB_SIZE];
+        new Random(0).nextBytes(data);
+        cache2.insert(new TestKey(4), data);
+        Assert.assertArrayEquals("Unexpected contents for reused memory.", data, cache2.get(new TestKey(4)));
+        Assert.assertEquals("Unexpected allocated size after reuse.", SLAB_SIZE * 2, factory.getAllocatedBytes());
+    }
+
+    /**
+     * Tests the fact that views returned by getView() pin the entry's Blocks: they are not reused until all views have
+     * been released, even if the entry itself is removed or replaced in the meantime.
+     */
+    @Test
+    public void testViewPinning() {
+        Random rnd = new Random(0);
+        @Cleanup
+        Cache cache = createCache("cache");
+        byte[] data = new byte[BLOCK_SIZE * 3 + 1];
+        rnd.nextBytes(data);
+        TestKey key = new TestKey(1);
+        cache.insert(key, data);
+        long usedBytes = this.factory.getUsedBytes();
+
+        ByteBuf view1 = cache.getView(key);
+        ByteBuf view2 = cache.getView(key);
+        Assert.assertEquals("Unexpected view length.", data.length, view1.readableBytes());
+        Assert.assertArrayEquals("Unexpected view contents.", data, getContents(view1));
+
+        // Replace the entry. The views should still reflect the old contents and their Blocks must not be reused.
+        byte[] newData = new byte[data.length];
+        rnd.nextBytes(newData);
+        cache.insert(key, newData);
+        Assert.assertArrayEquals("Unexpected contents after replacement.", newData, cache.get(key));
+        Assert.assertArrayEquals("View contents changed after replacing the entry.", data, getContents(view1));
+        Assert.assertEquals("Blocks freed while still pinned by views.", usedBytes * 2, this.factory.getUsedBytes());
+
+        // Remove the entry; the views are still valid.
+        cache.remove(key);
+        Assert.assertNull("Entry not removed.", cache.get(key));
+        Assert.assertArrayEquals("View contents changed after removing the entry.", data, getContents(view2));
+        Assert.assertEquals("Blocks freed while still pinned by views.", usedBytes, this.factory.getUsedBytes());
+
+        // Release the views; only then should the Blocks be freed.
+        view1.release();
+        Assert.assertEquals("Blocks freed while still pinned by a view.", usedBytes, this.factory.getUsedBytes());
+        view2.release();
+        Assert.assertEquals("Blocks not freed after releasing all views.", 0, this.factory.getUsedBytes());
+    }
+
+    /**
+     * Tests the ability to insert entries directly from ByteBufs, including composite and direct ones.
+     */
+    @Test
+    public void testInsertByteBuf() {
+        Random rnd = new Random(0);
+        @Cleanup
+        Cache cache = createCache("cache");
+        byte[] data = new byte[BLOCK_SIZE * 4 + 3];
+        rnd.nextBytes(data);
+
+        // Composite buffer, made of a heap component and a direct component, with a non-zero reader index.
+        ByteBuf direct = Unpooled.directBuffer(data.length);
+        direct.writeBytes(data, BLOCK_SIZE + 1, data.length - BLOCK_SIZE - 1);
+        ByteBuf composite = Unpooled.wrappedBuffer(2, Unpooled.wrappedBuffer(data, 0, BLOCK_SIZE + 1), direct);
+        composite.readerIndex(1);
+        byte[] expected = Arrays.copyOfRange(data, 1, data.length);
+        try {
+            cache.insert(new TestKey(1), composite);
+            Assert.assertEquals("insert() modified the reader index of the source ByteBuf.", 1, composite.readerIndex());
+        } finally {
+            composite.release();
+        }
+
+        Assert.assertArrayEquals("Unexpected contents for composite ByteBuf.", expected, cache.get(new TestKey(1)));
+
+        // Empty buffer.
+        cache.insert(new TestKey(2), Unpooled.EMPTY_BUFFER);
+        Assert.assertEquals("Unexpected contents for empty ByteBuf.", 0, cache.get(new TestKey(2)).length);
+    }
+
+    /**
+     * Tests the ability to append to existing entries in place, both within the last Block and across Blocks, as well as
+     * the fact that existing views are not affected by appends.
+     */
+    @Test
+    public void testAppend() {
+        Random rnd = new Random(0);
+        @Cleanup
+        Cache cache = createCache("cache");
+        TestKey key = new TestKey(1);
+        Assert.assertFalse("append() succeeded for a non-existent entry.", cache.append(key, Unpooled.wrappedBuffer(new byte[1])));
+        cache.insert(new TestKey(2), new byte[0]);
+        Assert.assertFalse("append() succeeded for an empty entry.", cache.append(new TestKey(2), Unpooled.wrappedBuffer(new byte[1])));
+
+        byte[] data = new byte[BLOCK_SIZE / 2];
+        rnd.nextBytes(data);
+        cache.insert(key, data);
+        ByteBuf view = cache.getView(key);
+
+        // Append various lengths: within the last Block, exactly filling it, and spanning multiple new Blocks.
+        int[] appendLengths = new int[]{1, BLOCK_SIZE / 2 - 1, BLOCK_SIZE, BLOCK_SIZE * 3 + 5, 7};
+        for (int appendLength : appendLengths) {
+            byte[] appendData = new byte[appendLength + 1];
+            rnd.nextBytes(appendData);
+            ByteBuf buf = Unpooled.wrappedBuffer(appendData);
+            buf.readerIndex(1);
+            Assert.assertTrue("append() failed for an existing entry.", cache.append(key, buf));
+            Assert.assertEquals("append() modified the reader index of the source ByteBuf.", 1, buf.readerIndex());
+
+            byte[] expected = Arrays.copyOf(data, data.length + appendLength);
+            System.arraycopy(appendData, 1, expected, data.length, appendLength);
+            Assert.assertArrayEquals("View contents changed after append.", data, getContents(view));
+            data = expected;
+            Assert.assertArrayEquals("Unexpected contents after append.", data, cache.get(key));
+
+            ByteBuf newView = cache.getView(key);
+            Assert.assertArrayEquals("Unexpected view contents after append.", data, getContents(newView));
+            newView.release();
+        }
+
+        // Remove the entry and verify all memory (including the appended Blocks) has been returned.
+        view.release();
+        cache.remove(key);
+        cache.remove(new TestKey(2));
+        Assert.assertEquals("Not all blocks have been freed.", 0, this.factory.getUsedBytes());
+    }
+
+    private byte[] getContents(ByteBuf view) {
+        byte[] result = new byte[view.readableBytes()];
+        view.getBytes(view.readerIndex(), result);
+        return result;
+    }
+
+    private DirectMemoryCacheConfig createConfig(long maxSize) {
+        return DirectMemoryCacheConfig
+                .builder()
+                .with(DirectMemoryCacheConfig.MAX_SIZE, maxSize)
+                .with(DirectMemoryCacheConfig.BLOCK_SIZE, BLOCK_SIZE)
+                .with(DirectMemoryCacheConfig.SLAB_SIZE, SLAB_SIZE)
+                .build();
+    }
+
+    @RequiredArgsConstructor
+    @EqualsAndHashCode(callSuper = false)
+    private static class TestKey extends Cache.Key {
+        private final long id;
+
+        @Override
+        public byte[] serialize() {
+            return ByteBuffer.allocate(Long.BYTES).putLong(this.id).array();
+        }
+    }
+}
@@ -14,20 +14,26 @@ import com.emc.object.s3.S3Config;
 import com.emc.object.s3.bean.ObjectKey;
 import com.emc.object.s3.jersey.S3JerseyClient;
 import com.emc.object.s3.request.DeleteObjectsRequest;
+import io.pravega.segmentstore.contracts.BadOffsetException;
 import io.pravega.segmentstore.contracts.StreamSegmentExistsException;
 import io.pravega.segmentstore.storage.AsyncStorageWrapper;
 import io.pravega.segmentstore.storage.Storage;
 import io.pravega.segmentstore.storage.impl.IdempotentStorageTestBase;
 import io.pravega.segmentstore.storage.rolling.RollingStorageTestBase;
+import io.pravega.test.common.AssertExtensions;
 import io.pravega.test.common.TestUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.net.URI;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
+import lombok.Cleanup;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -80,9 +86,65 @@ public class ExtendedS3StorageTest extends IdempotentStorageTestBase {
     }
     //endregion
 
-    private static Storage createStorage(S3Client client, ExtendedS3StorageConfig adapterConfig, Executor executor) {
+    /**
+     * Tests that reads larger than the configured part size are split into ranged reads and that the data is stitched
+     * back together correctly, and that writes of any size are still subject to offset checks.
+     */
+    @Test
+    public void testParallelReads() throws Exception {
+        final int partSize = 256 * 1024;
+        final int writeLength = 100 * 1024;
+        final int writeCount = 12;
+        val adapterConfig = ExtendedS3StorageConfig.builder()
+                .with(ExtendedS3StorageConfig.BUCKET, setup.adapterConfig.getBucket())
+                .with(ExtendedS3StorageConfig.ACCESS_KEY_ID, "x")
+                .with(ExtendedS3StorageConfig.SECRET_KEY, "x")
+                .with(ExtendedS3StorageConfig.ROOT, "test")
+                .with(ExtendedS3StorageConfig.URI, setup.endpoint)
+                .with(ExtendedS3StorageConfig.PART_SIZE, partSize)
+                .with(ExtendedS3StorageConfig.MAX_CONCURRENT_REQUESTS, 2)
+                .build();
+        String segmentName = "foo_parts";
+        @Cleanup
+        val s = new ExtendedS3Storage(setup.client, adapterConfig, executorService());
+        s.initialize(DEFAULT_EPOCH);
+        s.create(segmentName);
+        val handle = s.openWrite(segmentName);
+
+        val expectedData = new ByteArrayOutputStream();
+        for (int i = 0; i < writeCount; i++) {
+            byte[] writeData = new byte[writeLength + i];
+            for (int j = 0; j < writeData.length; j++) {
+                writeData[j] = (byte) (i + j);
+            }
+
+            s.write(handle, expectedData.size(), new ByteArrayInputStream(writeData), writeData.length);
+            expectedData.write(writeData);
+        }
+
+        // A write at a stale offset must be rejected.
+        AssertExtensions.assertThrows(
+                "write() did not fail for a bad offset.",
+                () -> s.write(handle, writeLength, new ByteArrayInputStream(new byte[1]), 1),
+                ex -> ex instanceof BadOffsetException);
+
+        // Read everything in one call (ranged reads), as well as a smaller range that does not begin at a part boundary.
+        byte[] expected = expectedData.toByteArray();
+        byte[] readBuffer = new byte[expected.length];
+        int bytesRead = s.read(s.openRead(segmentName), 0, readBuffer, 0, readBuffer.length);
+        Assert.assertEquals("Unexpected number of bytes read.", expected.length, bytesRead);
+        Assert.assertArrayEquals("Unexpected data read.", expected, readBuffer);
+
+        final int offset = partSize / 2 + 1;
+        readBuffer = new byte[expected.length - offset - 1];
+        bytesRead = s.read(s.openRead(segmentName), offset, readBuffer, 0, readBuffer.length);
+        Assert.assertEquals("Unexpected number of bytes read from offset.", readBuffer.length, bytesRead);
+        AssertExtensions.assertArrayEquals("Unexpected data read from offset.", expected, offset, readBuffer, 0, readBuffer.length);
+    }
+
+    private static Storage createStorage(S3Client client, ExtendedS3StorageConfig adapterConfig, ExecutorService executor) {
         // We can't use the factory here because we're setting our own (mock) client.
-        ExtendedS3Storage storage = new ExtendedS3Storage(client, adapterConfig);
+        ExtendedS3Storage storage = new ExtendedS3Storage(client, adapterConfig, executor);
         return new AsyncStorageWrapper(storage, executor);
     }
 
@@ -113,7 +175,7 @@ public class ExtendedS3StorageTest extends IdempotentStorageTestBase {
 
         @Override
         protected Storage createStorage() {
-            ExtendedS3Storage storage = new ExtendedS3Storage(setup.client, setup.adapterConfig);
+            ExtendedS3Storage storage = new ExtendedS3Storage(setup.client, setup.adapterConfig, executorService());
             return wrap(storage);
         }
     }
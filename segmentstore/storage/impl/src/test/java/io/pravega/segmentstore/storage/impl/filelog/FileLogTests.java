@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.filelog;
+
+import io.pravega.common.Exceptions;
+import io.pravega.common.io.FileHelpers;
+import io.pravega.common.util.ByteArraySegment;
+import io.pravega.segmentstore.storage.DataLogWriterNotPrimaryException;
+import io.pravega.segmentstore.storage.DurableDataLog;
+import io.pravega.segmentstore.storage.DurableDataLogTestBase;
+import io.pravega.segmentstore.storage.LogAddress;
+import io.pravega.segmentstore.storage.WriteTooLongException;
+import io.pravega.test.common.AssertExtensions;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.val;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Unit tests for FileLog.
+ */
+public class FileLogTests extends DurableDataLogTestBase {
+    //region Setup, Config and Cleanup
+
+    private static final int CONTAINER_ID = 9999;
+    private static final int WRITE_COUNT = 500;
+    private static final int THREAD_POOL_SIZE = 3;
+    private static final int FILE_MAX_SIZE = WRITE_MAX_LENGTH * Math.max(10, WRITE_COUNT / 20);
+    private static final int MAX_BATCH_SIZE = WRITE_MAX_LENGTH * 10;
+
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(TIMEOUT.getSeconds());
+    private final AtomicReference<File> baseDir = new AtomicReference<>();
+    private final AtomicReference<FileLogFactory> factory = new AtomicReference<>();
+
+    @Before
+    public void setUp() throws Exception {
+        this.baseDir.set(Files.createTempDirectory("test_filelog").toFile().getAbsoluteFile());
+        FileLogConfig config = FileLogConfig
+                .builder()
+                .with(FileLogConfig.LOG_DIR, this.baseDir.get().getAbsolutePath())
+                .with(FileLogConfig.FILE_MAX_SIZE, FILE_MAX_SIZE) // Frequent rollovers.
+                .with(FileLogConfig.MAX_BATCH_SIZE, MAX_BATCH_SIZE)
+                .build();
+
+        val factory = new FileLogFactory(config, executorService());
+        factory.initialize();
+        this.factory.set(factory);
+    }
+
+    @After
+    public void tearDown() {
+        val factory = this.factory.getAndSet(null);
+        if (factory != null) {
+            factory.close();
+        }
+
+        val baseDir = this.baseDir.getAndSet(null);
+        if (baseDir != null) {
+            FileHelpers.deleteFileOrDirectory(baseDir);
+        }
+    }
+
+    @Override
+    protected int getThreadPoolSize() {
+        return THREAD_POOL_SIZE;
+    }
+
+    //endregion
+
+    /**
+     * Tests the ability to roll over to new log files once the active one is full.
+     *
+     * @throws Exception If one got thrown.
+     */
+    @Test
+    public void testRollover() throws Exception {
+        TreeMap<LogAddress, byte[]> writeData;
+        try (DurableDataLog log = createDurableDataLog()) {
+            log.initialize(TIMEOUT);
+            writeData = populate(log, getWriteCount());
+        }
+
+        long fileCount = writeData.keySet().stream().mapToInt(a -> ((FileLogAddress) a).getFileId()).distinct().count();
+        AssertExtensions.assertGreaterThan("Expected the writes to span multiple log files.", 1, fileCount);
+        for (File f : getLogFiles()) {
+            AssertExtensions.assertLessThanOrEqual("Log file exceeds the maximum size: " + f, FILE_MAX_SIZE, f.length());
+        }
+
+        try (DurableDataLog log = createDurableDataLog()) {
+            log.initialize(TIMEOUT);
+            verifyReads(log, writeData);
+        }
+    }
+
+    /**
+     * Tests the ability to recover from a torn write, i.e., a partially written entry at the end of a log file.
+     *
+     * @throws Exception If one got thrown.
+     */
+    @Test
+    public void testTornWrite() throws Exception {
+        TreeMap<LogAddress, byte[]> writeData = new TreeMap<>(Comparator.comparingLong(LogAddress::getSequence));
+        try (DurableDataLog log = createDurableDataLog()) {
+            log.initialize(TIMEOUT);
+            writeData.putAll(populate(log, getWriteCount()));
+        }
+
+        // Chop off the last byte of the last entry.
+        val lastAddress = (FileLogAddress) writeData.lastKey();
+        val lastFile = LogFile.getFile(getLogDir(), lastAddress.getFileId());
+        try (RandomAccessFile raf = new RandomAccessFile(lastFile, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+
+        writeData.remove(lastAddress);
+        try (DurableDataLog log = createDurableDataLog()) {
+            log.initialize(TIMEOUT);
+            verifyReads(log, writeData);
+
+            // Verify we can still write after recovery.
+            writeData.putAll(populate(log, getWriteCount()));
+        }
+
+        try (DurableDataLog log = createDurableDataLog()) {
+            log.initialize(TIMEOUT);
+            verifyReads(log, writeData);
+        }
+    }
+
+    /**
+     * Tests that truncating the log deletes the log files that are no longer needed.
+     *
+     * @throws Exception If one got thrown.
+     */
+    @Test
+    public void testTruncateDeletesFiles() throws Exception {
+        try (DurableDataLog log = createDurableDataLog()) {
+            log.initialize(TIMEOUT);
+            TreeMap<LogAddress, byte[]> writeData = populate(log, getWriteCount());
+            val truncationAddress = (FileLogAddress) writeData.lastKey();
+            log.truncate(truncationAddress, TIMEOUT).join();
+
+            for (File f : getLogFiles()) {
+                AssertExtensions.assertGreaterThanOrEqual("Truncated log file was not deleted: " + f,
+                        truncationAddress.getFileId(), LogFile.getFileId(f));
+            }
+
+            writeData.headMap(truncationAddress, true).clear();
+            verifyReads(log, writeData);
+        }
+    }
+
+    /**
+     * Tests that fencing out a FileLog while it is in the middle of writing does not lose any acknowledged entries, and
+     * that the entries that are not acknowledged fail with DataLogWriterNotPrimaryException.
+     *
+     * @throws Exception If one got thrown.
+     */
+    @Test
+    public void testFenceWithPendingWrites() throws Exception {
+        TreeMap<LogAddress, byte[]> writeData = new TreeMap<>(Comparator.comparingLong(LogAddress::getSequence));
+        try (DurableDataLog log1 = createDurableDataLog()) {
+            log1.initialize(TIMEOUT);
+            val data = new ArrayList<byte[]>();
+            val futures = new ArrayList<CompletableFuture<LogAddress>>();
+            for (int i = 0; i < getWriteCount(); i++) {
+                byte[] d = getWriteData();
+                futures.add(log1.append(new ByteArraySegment(d), TIMEOUT));
+                data.add(d);
+            }
+
+            // Take over the log while the writes above are still being processed.
+            try (DurableDataLog log2 = createDurableDataLog()) {
+                log2.initialize(TIMEOUT);
+                for (int i = 0; i < futures.size(); i++) {
+                    try {
+                        writeData.put(futures.get(i).join(), data.get(i));
+                    } catch (CompletionException ex) {
+                        Assert.assertTrue("Unexpected exception for unacknowledged write: " + ex,
+                                Exceptions.unwrap(ex) instanceof DataLogWriterNotPrimaryException);
+                    }
+                }
+
+                verifyReads(log2, writeData);
+            }
+        }
+    }
+
+    /**
+     * Tests that appends exceeding the maximum append length are rejected.
+     */
+    @Test
+    public void testAppendTooLong() throws Exception {
+        try (DurableDataLog log = createDurableDataLog()) {
+            log.initialize(TIMEOUT);
+            Assert.assertEquals("Unexpected max append length.", FILE_MAX_SIZE - LogFile.HEADER_LENGTH, log.getMaxAppendLength());
+            AssertExtensions.assertThrows(
+                    "append() accepted an entry that is too long.",
+                    () -> log.append(new ByteArraySegment(new byte[log.getMaxAppendLength() + 1]), TIMEOUT),
+                    ex -> ex instanceof WriteTooLongException);
+        }
+    }
+
+    private File getLogDir() {
+        return new File(this.baseDir.get(), Integer.toString(CONTAINER_ID));
+    }
+
+    private File[] getLogFiles() {
+        return Arrays.stream(getLogDir().listFiles())
+                     .filter(f -> LogFile.getFileId(f) >= 0)
+                     .toArray(File[]::new);
+    }
+
+    //region DurableDataLogTestBase implementation
+
+    @Override
+    protected DurableDataLog createDurableDataLog() {
+        return this.factory.get().createDurableDataLog(CONTAINER_ID);
+    }
+
+    @Override
+    protected DurableDataLog createDurableDataLog(Object sharedContext) {
+        return createDurableDataLog(); // Nothing different for shared context.
+    }
+
+    @Override
+    protected Object createSharedContext() {
+        return null; // No need for shared context.
+    }
+
+    @Override
+    protected LogAddress createLogAddress(long seqNo) {
+        return new FileLogAddress(seqNo);
+    }
+
+    @Override
+    protected int getWriteCount() {
+        return WRITE_COUNT;
+    }
+
+    //endregion
+}
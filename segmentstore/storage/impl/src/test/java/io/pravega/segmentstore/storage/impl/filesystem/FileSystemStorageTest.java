@@ -12,15 +12,22 @@ package io.pravega.segmentstore.storage.impl.filesystem;
 import io.pravega.common.io.FileHelpers;
 import io.pravega.segmentstore.contracts.BadOffsetException;
 import io.pravega.segmentstore.contracts.StreamSegmentNotExistsException;
+import io.pravega.segmentstore.contracts.StreamSegmentSealedException;
 import io.pravega.segmentstore.storage.AsyncStorageWrapper;
 import io.pravega.segmentstore.storage.Storage;
+import io.pravega.segmentstore.storage.StorageNotPrimaryException;
 import io.pravega.segmentstore.storage.impl.IdempotentStorageTestBase;
+import io.pravega.segmentstore.storage.packing.PackedStorageConfig;
 import io.pravega.segmentstore.storage.rolling.RollingStorageTestBase;
 import io.pravega.shared.metrics.MetricsConfig;
 import io.pravega.shared.metrics.MetricsProvider;
+import io.pravega.test.common.AssertExtensions;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.nio.file.Files;
+import java.util.HashMap;
+import lombok.Cleanup;
 import lombok.val;
 import org.junit.After;
 import org.junit.Assert;
@@ -132,6 +139,192 @@ public class FileSystemStorageTest extends IdempotentStorageTestBase {
 
     //endregion
 
+    /**
+     * Tests that files are kept open (up to the configured limit) across reads and writes, and that the cached state is
+     * invalidated when segments are sealed, concatenated or deleted.
+     */
+    @Test
+    public void testOpenFileCache() throws Exception {
+        final int maxOpenFiles = 3;
+        final int segmentCount = 5;
+        final int writeCount = 10;
+        val config = FileSystemStorageConfig
+                .builder()
+                .with(FileSystemStorageConfig.ROOT, this.baseDir.getAbsolutePath())
+                .with(FileSystemStorageConfig.MAX_OPEN_FILES, maxOpenFiles)
+                .build();
+        @Cleanup
+        val s = new FileSystemStorage(config);
+        s.initialize(DEFAULT_EPOCH);
+
+        // Interleave writes across more segments than we can keep open at once.
+        val segments = new HashMap<String, ByteArrayOutputStream>();
+        for (int i = 0; i < segmentCount; i++) {
+            String segmentName = "foo_cache_" + i;
+            s.create(segmentName);
+            segments.put(segmentName, new ByteArrayOutputStream());
+        }
+
+        for (int i = 0; i < writeCount; i++) {
+            for (val e : segments.entrySet()) {
+                byte[] writeData = String.format("Segment_%s_Append_%d", e.getKey(), i).getBytes();
+                s.write(s.openWrite(e.getKey()), e.getValue().size(), new ByteArrayInputStream(writeData), writeData.length);
+                e.getValue().write(writeData);
+                AssertExtensions.assertLessThanOrEqual("Too many open files.", maxOpenFiles, s.getOpenFileCount());
+            }
+        }
+
+        for (val e : segments.entrySet()) {
+            byte[] expected = e.getValue().toByteArray();
+            byte[] readBuffer = new byte[expected.length];
+            int bytesRead = s.read(s.openRead(e.getKey()), 0, readBuffer, 0, readBuffer.length);
+            Assert.assertEquals("Unexpected number of bytes read from " + e.getKey(), expected.length, bytesRead);
+            Assert.assertArrayEquals("Unexpected data read from " + e.getKey(), expected, readBuffer);
+        }
+
+        // Seal: a write handle obtained before sealing must not be able to write anymore.
+        val iterator = segments.entrySet().iterator();
+        val sealed = iterator.next();
+        val sealedHandle = s.openWrite(sealed.getKey());
+        s.seal(sealedHandle);
+        assertThrows("write() did not throw for a sealed segment.",
+                () -> s.write(sealedHandle, sealed.getValue().size(), new ByteArrayInputStream(new byte[1]), 1),
+                ex -> ex instanceof StreamSegmentSealedException);
+
+        // Concat: the new length of the target must be visible for subsequent writes.
+        val target = iterator.next();
+        val targetHandle = s.openWrite(target.getKey());
+        s.concat(targetHandle, target.getValue().size(), sealed.getKey());
+        target.getValue().write(sealed.getValue().toByteArray());
+        byte[] writeData = "after concat".getBytes();
+        s.write(targetHandle, target.getValue().size(), new ByteArrayInputStream(writeData), writeData.length);
+        target.getValue().write(writeData);
+        byte[] expected = target.getValue().toByteArray();
+        byte[] readBuffer = new byte[expected.length];
+        s.read(s.openRead(target.getKey()), 0, readBuffer, 0, readBuffer.length);
+        Assert.assertArrayEquals("Unexpected data read after concat.", expected, readBuffer);
+
+        // Delete: the segment must no longer be accessible through a previously obtained handle.
+        s.delete(targetHandle);
+        assertThrows("write() did not throw for a deleted segment.",
+                () -> s.write(targetHandle, 0, new ByteArrayInputStream(new byte[1]), 1),
+                ex -> ex instanceof StreamSegmentNotExistsException);
+        assertThrows("read() did not throw for a deleted segment.",
+                () -> s.read(targetHandle, 0, new byte[1], 0, 1),
+                ex -> ex instanceof StreamSegmentNotExistsException);
+    }
+
+    /**
+     * Tests that writes through an instance which has the file open fail (or are redirected to the new file) once another
+     * instance seals, deletes or recreates it.
+     */
+    @Test
+    public void testExternalModification() throws Exception {
+        final byte[] data = "hello".getBytes();
+        @Cleanup
+        val s1 = new FileSystemStorage(this.adapterConfig);
+        s1.initialize(DEFAULT_EPOCH);
+        @Cleanup
+        val s2 = new FileSystemStorage(this.adapterConfig);
+        s2.initialize(DEFAULT_EPOCH + 1);
+
+        // Seal.
+        String segmentName = "foo_sealed";
+        s1.create(segmentName);
+        val sealedHandle = s1.openWrite(segmentName);
+        s1.write(sealedHandle, 0, new ByteArrayInputStream(data), data.length);
+        s2.seal(s2.openWrite(segmentName));
+        assertThrows("write() did not throw for a segment sealed by another instance.",
+                () -> s1.write(sealedHandle, data.length, new ByteArrayInputStream(data), data.length),
+                ex -> ex instanceof StreamSegmentSealedException);
+        Assert.assertEquals("Unexpected length after rejected write.", data.length, s2.getStreamSegmentInfo(segmentName).getLength());
+
+        // Delete.
+        segmentName = "foo_deleted";
+        s1.create(segmentName);
+        val deletedHandle = s1.openWrite(segmentName);
+        s1.write(deletedHandle, 0, new ByteArrayInputStream(data), data.length);
+        s2.delete(s2.openWrite(segmentName));
+        assertThrows("write() did not throw for a segment deleted by another instance.",
+                () -> s1.write(deletedHandle, data.length, new ByteArrayInputStream(data), data.length),
+                ex -> ex instanceof StreamSegmentNotExistsException);
+
+        // Delete and recreate: the write must go to the new file.
+        s2.create(segmentName);
+        s1.write(deletedHandle, 0, new ByteArrayInputStream(data), data.length);
+        byte[] readBuffer = new byte[data.length];
+        s2.read(s2.openRead(segmentName), 0, readBuffer, 0, readBuffer.length);
+        Assert.assertArrayEquals("Write did not make it to the recreated file.", data, readBuffer);
+    }
+
+    /**
+     * Tests that FileSystemStorageFactory stores the Segments of each Container in a Pack of its own when packing is
+     * enabled, and that a new adapter for the same Container (i.e., after a failover) can take over those Segments and
+     * fence out the previous one.
+     */
+    @Test
+    public void testPackedStorageFactory() throws Exception {
+        final String segmentName = "foo_packed";
+        final int containerId = 1;
+        final byte[] data = "hello".getBytes();
+        val packingConfig = PackedStorageConfig.builder().with(PackedStorageConfig.ENABLED, true).build();
+        val factory = new FileSystemStorageFactory(this.adapterConfig, packingConfig, executorService());
+        @Cleanup
+        val s1 = factory.createStorageAdapter(containerId);
+        s1.initialize(DEFAULT_EPOCH);
+        s1.create(segmentName, TIMEOUT).join();
+        val oldHandle = s1.openWrite(segmentName).join();
+        s1.write(oldHandle, 0, new ByteArrayInputStream(data), data.length, TIMEOUT).join();
+
+        // The Segment does not have a file of its own, and it is not visible to other Containers or unpacked adapters.
+        Assert.assertFalse("Not expecting the Segment to have a file of its own.", new File(this.baseDir, segmentName).exists());
+        @Cleanup
+        val otherContainer = factory.createStorageAdapter(containerId + 1);
+        otherContainer.initialize(DEFAULT_EPOCH);
+        Assert.assertFalse("Not expecting the Segment to be visible to another Container.",
+                otherContainer.exists(segmentName, TIMEOUT).join());
+        @Cleanup
+        val unpacked = new FileSystemStorageFactory(this.adapterConfig, executorService()).createStorageAdapter(containerId);
+        unpacked.initialize(DEFAULT_EPOCH);
+        Assert.assertFalse("Not expecting the Segment to be visible to an unpacked adapter.",
+                unpacked.exists(segmentName, TIMEOUT).join());
+
+        // A new adapter for the same Container takes over the Segment and continues writing to it.
+        @Cleanup
+        val s2 = factory.createStorageAdapter(containerId);
+        s2.initialize(DEFAULT_EPOCH + 1);
+        val handle = s2.openWrite(segmentName).join();
+        s2.write(handle, data.length, new ByteArrayInputStream(data), data.length, TIMEOUT).join();
+        val expected = new ByteArrayOutputStream();
+        expected.write(data);
+        expected.write(data);
+        byte[] readBuffer = new byte[expected.size()];
+        int bytesRead = s2.read(s2.openRead(segmentName).join(), 0, readBuffer, 0, readBuffer.length, TIMEOUT).join();
+        Assert.assertEquals("Unexpected number of bytes read after failover.", readBuffer.length, bytesRead);
+        Assert.assertArrayEquals("Unexpected data read after failover.", expected.toByteArray(), readBuffer);
+
+        // The previous adapter has been fenced out.
+        final byte[] staleData = "stale".getBytes();
+        assertThrows("write() did not throw for a fenced out adapter.",
+                () -> s1.write(oldHandle, data.length, new ByteArrayInputStream(staleData), staleData.length, TIMEOUT),
+                ex -> ex instanceof StorageNotPrimaryException);
+        assertThrows("seal() did not throw for a fenced out adapter.",
+                () -> s1.seal(oldHandle, TIMEOUT),
+                ex -> ex instanceof StorageNotPrimaryException);
+        assertThrows("create() did not throw for a fenced out adapter.",
+                () -> s1.create(segmentName + "_new", TIMEOUT),
+                ex -> ex instanceof StorageNotPrimaryException);
+
+        // Nothing that the previous adapter attempted is visible to the new one.
+        val info = s2.getStreamSegmentInfo(segmentName, TIMEOUT).join();
+        Assert.assertEquals("Unexpected length after fenced out write.", expected.size(), info.getLength());
+        Assert.assertFalse("Not expecting the Segment to be sealed.", info.isSealed());
+        Assert.assertFalse("Not expecting a Segment created by a fenced out adapter.", s2.exists(segmentName + "_new", TIMEOUT).join());
+        bytesRead = s2.read(s2.openRead(segmentName).join(), 0, readBuffer, 0, readBuffer.length, TIMEOUT).join();
+        Assert.assertEquals("Unexpected number of bytes read after fenced out write.", readBuffer.length, bytesRead);
+        Assert.assertArrayEquals("Unexpected data read after fenced out write.", expected.toByteArray(), readBuffer);
+    }
+
     @Override
     protected Storage createStorage() {
         return new AsyncStorageWrapper(new FileSystemStorage(this.adapterConfig), executorService());
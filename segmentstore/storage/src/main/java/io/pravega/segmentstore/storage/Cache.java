@@ -9,7 +9,13 @@
  */
 package io.pravega.segmentstore.storage;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.pravega.common.util.ByteArraySegment;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Defines a Cache that can be used by the ReadIndex.
@@ -36,6 +42,51 @@ public interface Cache extends AutoCloseable {
      */
     void insert(Key key, ByteArraySegment data);
 
+    /**
+     * Inserts a new entry into the cache. The contents of the given ByteBuf (between its reader and writer indices) are
+     * copied into the cache, so it is safe to release the ByteBuf after this method returns. The reader index of the
+     * ByteBuf is not changed.
+     *
+     * @param key  The the key of the entry.
+     * @param data A ByteBuf containing the payload associated with the given key.
+     */
+    default void insert(Key key, ByteBuf data) {
+        if (data.hasArray()) {
+            insert(key, new ByteArraySegment(data.array(), data.arrayOffset() + data.readerIndex(), data.readableBytes()));
+        } else {
+            byte[] array = new byte[data.readableBytes()];
+            data.getBytes(data.readerIndex(), array);
+            insert(key, array);
+        }
+    }
+
+    /**
+     * Inserts multiple entries into the cache. Depending on the implementation, this may be much cheaper than inserting
+     * each entry individually. The entries are not guaranteed to be inserted atomically.
+     *
+     * @param entries A Map of Keys to the payloads to associate with them.
+     */
+    default void insertBatch(Map<? extends Key, ByteArraySegment> entries) {
+        entries.forEach(this::insert);
+    }
+
+    /**
+     * Appends data to an existing cache entry, in place (without copying or rewriting the entry's existing contents). This
+     * is an optional operation, which Caches that cannot do it efficiently need not support. Views previously obtained via
+     * getView() do not reflect the appended data.
+     *
+     * Concurrent appends to the same entry are not supported; the caller must serialize them.
+     *
+     * @param key  The the key of the entry.
+     * @param data A ByteBuf containing the data to append. Its contents (between its reader and writer indices) are copied
+     *             into the cache; its reader index is not changed.
+     * @return True if the data has been appended, false if this Cache does not support in-place appends or if there is no
+     * (non-empty) entry with the given key. In the latter case the Cache has not been modified.
+     */
+    default boolean append(Key key, ByteBuf data) {
+        return false;
+    }
+
     /**
      * Retrieves a cache entry with given key.
      *
@@ -44,6 +95,36 @@ public interface Cache extends AutoCloseable {
      */
     byte[] get(Key key);
 
+    /**
+     * Retrieves multiple cache entries. Depending on the implementation, this may be much cheaper than retrieving each
+     * entry individually.
+     *
+     * @param keys A List of Keys to search by.
+     * @return A List containing the payloads associated with the given keys, in the same order as the keys. The payload
+     * for a Key with no associated entry is null.
+     */
+    default List<byte[]> getBatch(List<? extends Key> keys) {
+        ArrayList<byte[]> result = new ArrayList<>(keys.size());
+        keys.forEach(key -> result.add(get(key)));
+        return result;
+    }
+
+    /**
+     * Retrieves a read-only view of the cache entry with given key. Depending on the implementation, this may avoid copying
+     * the entry's contents out of the Cache.
+     *
+     * The returned ByteBuf holds a reference to the entry's contents, which must be released (using ByteBuf.release())
+     * when no longer needed. The contents of the view will not change until then, even if the entry is removed or replaced
+     * in the meantime.
+     *
+     * @param key The key to search by.
+     * @return A ByteBuf representing the payload associated with the key, or null if no such entry exists.
+     */
+    default ByteBuf getView(Key key) {
+        byte[] data = get(key);
+        return data == null ? null : Unpooled.wrappedBuffer(data);
+    }
+
     /**
      * Removes any cache entry that is associated with the given key.
      *
@@ -51,6 +132,16 @@ public interface Cache extends AutoCloseable {
      */
     void remove(Key key);
 
+    /**
+     * Removes any cache entries that are associated with the given keys. Depending on the implementation, this may be much
+     * cheaper than removing each entry individually.
+     *
+     * @param keys The keys of the entries to remove.
+     */
+    default void removeBatch(Collection<? extends Key> keys) {
+        keys.forEach(this::remove);
+    }
+
     /**
      * Closes this cache and releases all resources owned by it.
      */
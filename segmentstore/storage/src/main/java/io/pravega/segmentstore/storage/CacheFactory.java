@@ -20,6 +20,15 @@ public interface CacheFactory extends AutoCloseable {
      */
     Cache getCache(String id);
 
+    /**
+     * Gets a value indicating the number of bytes that are currently used by all the Caches created by this factory,
+     * including any overhead (such as rounding each entry up to a whole number of blocks). Factories that do not keep
+     * track of this return 0.
+     */
+    default long getUsedBytes() {
+        return 0;
+    }
+
     @Override
     void close();
 }
@@ -17,4 +17,17 @@ public interface StorageFactory {
      * Creates a new instance of a Storage adapter.
      */
     Storage createStorageAdapter();
+
+    /**
+     * Creates a new instance of a Storage adapter for the given Segment Container. Factories that can store the Segments
+     * of each Container separately (i.e., in a single Pack; see PackedStorage) do so here; all others return the same
+     * kind of adapter as createStorageAdapter().
+     *
+     * @param containerId The Id of the Segment Container that will own the Storage adapter. The adapter is only
+     *                    guaranteed to be able to access the Segments that map to this Container.
+     * @return A new Storage adapter.
+     */
+    default Storage createStorageAdapter(int containerId) {
+        return createStorageAdapter();
+    }
 }
@@ -0,0 +1,408 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.packing;
+
+import com.google.common.base.Preconditions;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.concurrent.NotThreadSafe;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.val;
+
+/**
+ * In-memory state of a Pack: the Segments it contains (along with the location of their data) and the shared chunks
+ * that hold that data.
+ *
+ * The index is persisted as a log of records. Every modification is first serialized into a record (using one of the
+ * static methods in this class), which is then written to Storage and only afterwards applied using apply(). This way
+ * the in-memory state and the persisted log are always updated using the same code path. Each record is prefixed by
+ * its length so that a partially written (torn) record at the end of the log can be detected and ignored.
+ */
+@NotThreadSafe
+class PackIndex {
+    //region Serialization Constants
+
+    private static final byte CHUNK_ADDED = 1;
+    private static final byte CHUNK_REMOVED = 2;
+    private static final byte SEGMENT = 3;
+    private static final byte APPEND = 4;
+    private static final byte RELOCATE = 5;
+    private static final byte SEAL = 6;
+    private static final byte TRUNCATE = 7;
+    private static final byte DELETE = 8;
+    private static final byte CONCAT = 9;
+    private static final int HEADER_LENGTH = Integer.BYTES;
+
+    //endregion
+
+    //region Members
+
+    private final Map<String, PackedSegment> segments = new HashMap<>();
+    private final Map<Long, Chunk> chunks = new HashMap<>();
+    @Getter
+    private long nextChunkId = 0;
+
+    //endregion
+
+    //region Accessors
+
+    /**
+     * Gets the Segment with the given name, or null if no such Segment exists in this index.
+     */
+    PackedSegment getSegment(String segmentName) {
+        return this.segments.get(segmentName);
+    }
+
+    /**
+     * Gets the chunk with the given id, or null if no such chunk is tracked by this index.
+     */
+    Chunk getChunk(long chunkId) {
+        return this.chunks.get(chunkId);
+    }
+
+    /**
+     * Gets a copy of all the chunks tracked by this index.
+     */
+    List<Chunk> getChunks() {
+        return new ArrayList<>(this.chunks.values());
+    }
+
+    /**
+     * Gets all the Extents (along with the name of the Segment they belong to) that are stored in the given chunk.
+     *
+     * @param chunkId The id of the chunk.
+     * @return A List of Segment Name-Extent pairs.
+     */
+    List<Map.Entry<String, PackedSegment.Extent>> getExtents(long chunkId) {
+        List<Map.Entry<String, PackedSegment.Extent>> result = new ArrayList<>();
+        for (PackedSegment s : this.segments.values()) {
+            s.extents().stream()
+             .filter(e -> e.getChunkId() == chunkId)
+             .forEach(e -> result.add(new AbstractMap.SimpleImmutableEntry<>(s.getName(), e)));
+        }
+
+        return result;
+    }
+
+    //endregion
+
+    //region Applying Records
+
+    /**
+     * Applies all the complete records in the given buffer, in order. A partial record at the end is ignored.
+     *
+     * @param data   A buffer containing records.
+     * @param length The number of bytes in the buffer to process.
+     * @return The number of bytes that were applied (the offset of the first incomplete record, or length).
+     */
+    int applyAll(byte[] data, int length) {
+        int offset = 0;
+        while (offset + HEADER_LENGTH <= length) {
+            int recordLength = ByteBuffer.wrap(data, offset, HEADER_LENGTH).getInt();
+            if (recordLength <= 0 || offset + HEADER_LENGTH + recordLength > length) {
+                // Torn record.
+                break;
+            }
+
+            applyRecord(data, offset + HEADER_LENGTH, recordLength);
+            offset += HEADER_LENGTH + recordLength;
+        }
+
+        return offset;
+    }
+
+    /**
+     * Applies the given record, which must have been serialized using one of the static methods in this class.
+     *
+     * @param record The record to apply.
+     */
+    void apply(byte[] record) {
+        int applied = applyAll(record, record.length);
+        Preconditions.checkArgument(applied == record.length, "Not a complete record.");
+    }
+
+    @SneakyThrows(IOException.class)
+    private void applyRecord(byte[] data, int offset, int length) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length));
+        byte type = in.readByte();
+        switch (type) {
+            case CHUNK_ADDED:
+                long chunkId = in.readLong();
+                this.chunks.putIfAbsent(chunkId, new Chunk(chunkId));
+                this.nextChunkId = Math.max(this.nextChunkId, chunkId + 1);
+                break;
+            case CHUNK_REMOVED:
+                this.chunks.remove(in.readLong());
+                break;
+            case SEGMENT:
+                PackedSegment s = new PackedSegment(in.readUTF());
+                s.setStartOffset(in.readLong());
+                s.setLength(in.readLong());
+                s.setSealed(in.readBoolean());
+                this.segments.put(s.getName(), s);
+                break;
+            case APPEND:
+                applyAppend(in.readUTF(), in.readLong(), in.readLong(), in.readLong(), in.readLong());
+                break;
+            case RELOCATE:
+                applyRelocate(in.readUTF(), in.readLong(), in.readInt(), in.readLong(), in.readLong());
+                break;
+            case SEAL:
+                getExisting(in.readUTF()).setSealed(in.readBoolean());
+                break;
+            case TRUNCATE:
+                applyTruncate(in.readUTF(), in.readLong());
+                break;
+            case DELETE:
+                PackedSegment deleted = this.segments.remove(in.readUTF());
+                if (deleted != null) {
+                    deleted.extents().forEach(e -> adjustLiveBytes(e.getChunkId(), -e.getLength()));
+                }
+                break;
+            case CONCAT:
+                applyConcat(in.readUTF(), in.readUTF());
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown index record type %s.", type));
+        }
+    }
+
+    private void applyAppend(String segmentName, long segmentOffset, long chunkId, long chunkOffset, long length) {
+        PackedSegment s = getExisting(segmentName);
+        s.addExtent(new PackedSegment.Extent(segmentOffset, chunkId, chunkOffset, length));
+        s.setLength(Math.max(s.getLength(), segmentOffset + length));
+        Chunk c = getOrAddChunk(chunkId);
+        c.length = Math.max(c.length, chunkOffset + length);
+        c.liveBytes += length;
+    }
+
+    private void applyRelocate(String segmentName, long segmentOffset, int length, long chunkId, long chunkOffset) {
+        PackedSegment s = getExisting(segmentName);
+        long oldChunkId = s.relocate(segmentOffset, length, chunkId, chunkOffset);
+        adjustLiveBytes(oldChunkId, -length);
+        Chunk c = getOrAddChunk(chunkId);
+        c.length = Math.max(c.length, chunkOffset + length);
+        c.liveBytes += length;
+    }
+
+    private void applyTruncate(String segmentName, long offset) {
+        PackedSegment s = getExisting(segmentName);
+        if (offset > s.getStartOffset()) {
+            s.setStartOffset(offset);
+            s.truncateExtents(offset).forEach(e -> adjustLiveBytes(e.getChunkId(), -e.getLength()));
+        }
+    }
+
+    private void applyConcat(String targetName, String sourceName) {
+        PackedSegment target = getExisting(targetName);
+        PackedSegment source = getExisting(sourceName);
+        long delta = target.getLength();
+        for (PackedSegment.Extent e : source.extents()) {
+            target.addExtent(new PackedSegment.Extent(e.getSegmentOffset() + delta, e.getChunkId(), e.getChunkOffset(), e.getLength()));
+        }
+
+        target.setLength(target.getLength() + source.getLength());
+        this.segments.remove(sourceName);
+    }
+
+    private PackedSegment getExisting(String segmentName) {
+        PackedSegment s = this.segments.get(segmentName);
+        Preconditions.checkArgument(s != null, "Index does not contain Segment '%s'.", segmentName);
+        return s;
+    }
+
+    private Chunk getOrAddChunk(long chunkId) {
+        this.nextChunkId = Math.max(this.nextChunkId, chunkId + 1);
+        return this.chunks.computeIfAbsent(chunkId, Chunk::new);
+    }
+
+    private void adjustLiveBytes(long chunkId, long delta) {
+        Chunk c = this.chunks.get(chunkId);
+        if (c != null) {
+            c.liveBytes += delta;
+        }
+    }
+
+    //endregion
+
+    //region Serialization
+
+    /**
+     * Serializes the entire contents of this index into a sequence of records that, when applied to an empty index,
+     * will reproduce its current state.
+     *
+     * @return The serialization.
+     */
+    @SneakyThrows(IOException.class)
+    byte[] snapshot() {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        for (Chunk c : this.chunks.values()) {
+            os.write(chunkAdded(c.getId()));
+        }
+
+        for (PackedSegment s : this.segments.values()) {
+            os.write(segment(s.getName(), s.getStartOffset(), s.getLength(), s.isSealed()));
+            for (val e : s.extents()) {
+                os.write(append(s.getName(), e.getSegmentOffset(), e.getChunkId(), e.getChunkOffset(), e.getLength()));
+            }
+        }
+
+        return os.toByteArray();
+    }
+
+    /**
+     * Creates a record indicating a new chunk has been added to the Pack.
+     */
+    static byte[] chunkAdded(long chunkId) {
+        return serialize(CHUNK_ADDED, out -> out.writeLong(chunkId));
+    }
+
+    /**
+     * Creates a record indicating a chunk has been removed from the Pack.
+     */
+    static byte[] chunkRemoved(long chunkId) {
+        return serialize(CHUNK_REMOVED, out -> out.writeLong(chunkId));
+    }
+
+    /**
+     * Creates a record that defines a Segment (without any data). Used for creating new Segments and for snapshots.
+     */
+    static byte[] segment(String segmentName, long startOffset, long length, boolean sealed) {
+        return serialize(SEGMENT, out -> {
+            out.writeUTF(segmentName);
+            out.writeLong(startOffset);
+            out.writeLong(length);
+            out.writeBoolean(sealed);
+        });
+    }
+
+    /**
+     * Creates a record indicating that data has been appended to a Segment.
+     */
+    static byte[] append(String segmentName, long segmentOffset, long chunkId, long chunkOffset, long length) {
+        return serialize(APPEND, out -> {
+            out.writeUTF(segmentName);
+            out.writeLong(segmentOffset);
+            out.writeLong(chunkId);
+            out.writeLong(chunkOffset);
+            out.writeLong(length);
+        });
+    }
+
+    /**
+     * Creates a record indicating that a range of a Segment's data has been copied to a different location.
+     */
+    static byte[] relocate(String segmentName, long segmentOffset, int length, long chunkId, long chunkOffset) {
+        return serialize(RELOCATE, out -> {
+            out.writeUTF(segmentName);
+            out.writeLong(segmentOffset);
+            out.writeInt(length);
+            out.writeLong(chunkId);
+            out.writeLong(chunkOffset);
+        });
+    }
+
+    /**
+     * Creates a record indicating that a Segment has been sealed or unsealed.
+     */
+    static byte[] seal(String segmentName, boolean sealed) {
+        return serialize(SEAL, out -> {
+            out.writeUTF(segmentName);
+            out.writeBoolean(sealed);
+        });
+    }
+
+    /**
+     * Creates a record indicating that a Segment has been truncated.
+     */
+    static byte[] truncate(String segmentName, long offset) {
+        return serialize(TRUNCATE, out -> {
+            out.writeUTF(segmentName);
+            out.writeLong(offset);
+        });
+    }
+
+    /**
+     * Creates a record indicating that a Segment has been deleted.
+     */
+    static byte[] delete(String segmentName) {
+        return serialize(DELETE, out -> out.writeUTF(segmentName));
+    }
+
+    /**
+     * Creates a record indicating that a Segment has been concatenated at the end of another.
+     */
+    static byte[] concat(String targetSegmentName, String sourceSegmentName) {
+        return serialize(CONCAT, out -> {
+            out.writeUTF(targetSegmentName);
+            out.writeUTF(sourceSegmentName);
+        });
+    }
+
+    @SneakyThrows(IOException.class)
+    private static byte[] serialize(byte type, RecordWriter writer) {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(os);
+        out.writeInt(0); // Placeholder for the length; filled in below.
+        out.writeByte(type);
+        writer.write(out);
+        out.flush();
+        byte[] result = os.toByteArray();
+        ByteBuffer.wrap(result).putInt(0, result.length - HEADER_LENGTH);
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    //endregion
+
+    //region Chunk
+
+    /**
+     * A shared chunk in a Pack.
+     */
+    @RequiredArgsConstructor
+    static class Chunk {
+        @Getter
+        private final long id;
+        /**
+         * The number of bytes in this chunk that are known to have been written to (it may be larger in Storage if a
+         * write was not recorded in the index).
+         */
+        @Getter
+        private long length;
+        /**
+         * The number of bytes in this chunk that still belong to existing Segments.
+         */
+        @Getter
+        private long liveBytes;
+
+        @Override
+        public String toString() {
+            return String.format("Chunk %s (Length = %s, Live = %s)", this.id, this.length, this.liveBytes);
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.packing;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.util.CollectionHelpers;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.concurrent.NotThreadSafe;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * State of a single Segment stored in a PackedStorage: its length, truncation and seal status, and the Extents that
+ * locate its data in the Pack's shared chunks.
+ */
+@NotThreadSafe
+class PackedSegment {
+    //region Members
+
+    @Getter
+    private final String name;
+    @Getter
+    @Setter
+    private long startOffset;
+    @Getter
+    @Setter
+    private long length;
+    @Getter
+    @Setter
+    private boolean sealed;
+    /**
+     * Extents, ordered by Segment offset. They are contiguous, except for a gap at the beginning if the Segment has
+     * been truncated.
+     */
+    private final ArrayList<Extent> extents;
+
+    //endregion
+
+    /**
+     * Creates a new instance of the PackedSegment class.
+     *
+     * @param name The name of the Segment.
+     */
+    PackedSegment(String name) {
+        this.name = Preconditions.checkNotNull(name, "name");
+        this.extents = new ArrayList<>();
+    }
+
+    //region Extents
+
+    /**
+     * Gets an unmodifiable view of the Extents in this Segment.
+     */
+    List<Extent> extents() {
+        return Collections.unmodifiableList(this.extents);
+    }
+
+    /**
+     * Adds a new Extent at the end of this Segment. If it directly follows the last Extent in the same chunk, the two
+     * are merged.
+     *
+     * @param extent The Extent to add.
+     */
+    void addExtent(Extent extent) {
+        Extent last = this.extents.isEmpty() ? null : this.extents.get(this.extents.size() - 1);
+        if (last != null) {
+            Preconditions.checkArgument(extent.getSegmentOffset() >= last.getLastSegmentOffset(),
+                    "Extent %s overlaps with the last Extent %s of Segment '%s'.", extent, last, this.name);
+            if (last.getChunkId() == extent.getChunkId()
+                    && last.getLastSegmentOffset() == extent.getSegmentOffset()
+                    && last.getLastChunkOffset() == extent.getChunkOffset()) {
+                this.extents.set(this.extents.size() - 1,
+                        new Extent(last.getSegmentOffset(), last.getChunkId(), last.getChunkOffset(), last.getLength() + extent.getLength()));
+                return;
+            }
+        }
+
+        this.extents.add(extent);
+    }
+
+    /**
+     * Removes all the Extents that lie entirely before the given offset.
+     *
+     * @param offset The offset to truncate at.
+     * @return A List of the Extents that were removed.
+     */
+    List<Extent> truncateExtents(long offset) {
+        int count = 0;
+        while (count < this.extents.size() && this.extents.get(count).getLastSegmentOffset() <= offset) {
+            count++;
+        }
+
+        List<Extent> toRemove = this.extents.subList(0, count);
+        List<Extent> result = new ArrayList<>(toRemove);
+        toRemove.clear();
+        return result;
+    }
+
+    /**
+     * Changes the location of a range of this Segment's data. The range must be entirely contained in a single Extent;
+     * the Extent is split as needed.
+     *
+     * @param segmentOffset The offset in the Segment where the range begins.
+     * @param length        The length of the range.
+     * @param chunkId       The id of the chunk the range has been copied to.
+     * @param chunkOffset   The offset within the chunk the range has been copied to.
+     * @return The id of the chunk the range was previously located in.
+     */
+    long relocate(long segmentOffset, int length, long chunkId, long chunkOffset) {
+        int index = findExtent(segmentOffset);
+        Preconditions.checkArgument(index >= 0, "Segment '%s' has no data at offset %s.", this.name, segmentOffset);
+        Extent e = this.extents.get(index);
+        Preconditions.checkArgument(segmentOffset + length <= e.getLastSegmentOffset(),
+                "Range [%s, %s) of Segment '%s' spans more than one Extent.", segmentOffset, segmentOffset + length, this.name);
+
+        List<Extent> replacement = new ArrayList<>(3);
+        long prefixLength = segmentOffset - e.getSegmentOffset();
+        if (prefixLength > 0) {
+            replacement.add(new Extent(e.getSegmentOffset(), e.getChunkId(), e.getChunkOffset(), prefixLength));
+        }
+
+        replacement.add(new Extent(segmentOffset, chunkId, chunkOffset, length));
+        long suffixLength = e.getLastSegmentOffset() - segmentOffset - length;
+        if (suffixLength > 0) {
+            replacement.add(new Extent(segmentOffset + length, e.getChunkId(), e.getChunkOffset() + prefixLength + length, suffixLength));
+        }
+
+        this.extents.remove(index);
+        this.extents.addAll(index, replacement);
+        return e.getChunkId();
+    }
+
+    /**
+     * Gets the locations of the data in the given range of this Segment. The range must not be truncated and must be
+     * within the Segment's length.
+     *
+     * @param offset The offset in the Segment where the range begins.
+     * @param length The length of the range.
+     * @return A List of Extents, in order, that together make up the given range.
+     */
+    List<Extent> getExtents(long offset, int length) {
+        List<Extent> result = new ArrayList<>();
+        int index = findExtent(offset);
+        long endOffset = offset + length;
+        while (index >= 0 && index < this.extents.size() && offset < endOffset) {
+            Extent e = this.extents.get(index++);
+            long delta = offset - e.getSegmentOffset();
+            long sliceLength = Math.min(endOffset, e.getLastSegmentOffset()) - offset;
+            result.add(new Extent(offset, e.getChunkId(), e.getChunkOffset() + delta, sliceLength));
+            offset += sliceLength;
+        }
+
+        return result;
+    }
+
+    private int findExtent(long offset) {
+        return CollectionHelpers.binarySearch(this.extents,
+                e -> offset < e.getSegmentOffset() ? -1 : (offset >= e.getLastSegmentOffset() ? 1 : 0));
+    }
+
+    //endregion
+
+    @Override
+    public String toString() {
+        return String.format("%s (StartOffset = %s, Length = %s, Sealed = %s, Extents = %s)", this.name, this.startOffset,
+                this.length, this.sealed, this.extents.size());
+    }
+
+    //region Extent
+
+    /**
+     * A contiguous range of a Segment's data that is stored contiguously in a chunk.
+     */
+    @Data
+    static class Extent {
+        /**
+         * The offset within the Segment where this Extent begins.
+         */
+        private final long segmentOffset;
+        /**
+         * The id of the chunk this Extent is stored in.
+         */
+        private final long chunkId;
+        /**
+         * The offset within the chunk where this Extent begins.
+         */
+        private final long chunkOffset;
+        private final long length;
+
+        long getLastSegmentOffset() {
+            return this.segmentOffset + this.length;
+        }
+
+        long getLastChunkOffset() {
+            return this.chunkOffset + this.length;
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,23 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.packing;
+
+import io.pravega.segmentstore.storage.SegmentHandle;
+import lombok.Data;
+
+/**
+ * SegmentHandle for a Segment stored in a PackedStorage. All the state for the Segment is kept in the Pack's index, so
+ * this only needs to identify the Segment.
+ */
+@Data
+class PackedSegmentHandle implements SegmentHandle {
+    private final String segmentName;
+    private final boolean readOnly;
+}
@@ -0,0 +1,867 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.packing;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.common.LoggerHelpers;
+import io.pravega.segmentstore.contracts.BadOffsetException;
+import io.pravega.segmentstore.contracts.SegmentProperties;
+import io.pravega.segmentstore.contracts.StreamSegmentException;
+import io.pravega.segmentstore.contracts.StreamSegmentExistsException;
+import io.pravega.segmentstore.contracts.StreamSegmentInformation;
+import io.pravega.segmentstore.contracts.StreamSegmentNotExistsException;
+import io.pravega.segmentstore.contracts.StreamSegmentSealedException;
+import io.pravega.segmentstore.contracts.StreamSegmentTruncatedException;
+import io.pravega.segmentstore.storage.SegmentHandle;
+import io.pravega.segmentstore.storage.StorageNotPrimaryException;
+import io.pravega.segmentstore.storage.SyncStorage;
+import io.pravega.shared.segment.StreamSegmentNameUtils;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.concurrent.GuardedBy;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+/**
+ * A layer on top of a general SyncStorage implementation that stores the data for many Segments in a few shared chunks,
+ * instead of giving each Segment its own file (or object) in the underlying Storage.
+ *
+ * All the Segments created using this Storage make up a Pack, which consists of:
+ * * Chunks: files in the base Storage that hold data for any number of Segments. All writes, regardless of the Segment
+ * they are for, are appended to the Active Chunk, which is rolled over once it reaches its maximum length.
+ * * The Index: a log of records (see PackIndex) describing the Segments in the Pack (length, seal and truncation status)
+ * and where each range of their data (Extent) is located within the Chunks. Data is always written to a Chunk before
+ * the record that refers to it is appended to the Index; appending that record is what commits an operation.
+ * * The Index Pointer: the Index is written in generations, each one beginning with a snapshot of the whole Pack. The
+ * Index Pointer is a file that the number of each new generation is appended to.
+ *
+ * Segments are only logical ranges within the Chunks, so concat and truncate only require an Index record and do not
+ * move any data. Truncating or deleting Segments leaves unused data behind in the Chunks. Once the fraction of live data
+ * in a (non-active) Chunk drops below a threshold, the remaining data is copied to the Active Chunk (compaction) and the
+ * old Chunk is deleted.
+ *
+ * Ownership:
+ * * The first modify operation (including openWrite) makes this instance the owner of the Pack: it seals the current
+ * Index generation (which fences out the previous owner), loads it, and starts a new generation. Failing to append to
+ * the Index or the Active Chunk after that because a newer owner has sealed, replaced or deleted them is reported as
+ * StorageNotPrimaryException, and so is any subsequent modify operation: an instance that has been fenced out never
+ * attempts to take the Pack back.
+ * * Instances that have not done any modify operations can still read from the Pack; they catch up with the Index
+ * whenever they encounter Segments or offsets that they do not know about.
+ *
+ * All modify operations are serialized, since they append to the same Chunk and Index. Reads only hold the lock while
+ * locating the data, and read it from the Chunks without it.
+ */
+@Slf4j
+public class PackedStorage implements SyncStorage {
+    //region Members
+
+    /**
+     * The default maximum length of a Chunk.
+     */
+    public static final long DEFAULT_MAX_CHUNK_LENGTH = 64 * 1024 * 1024;
+    /**
+     * The default fraction of live data in a Chunk below which that Chunk is compacted.
+     */
+    public static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+    private static final int COPY_BUFFER_SIZE = 1024 * 1024;
+    private static final int MIN_INDEX_REWRITE_LENGTH = 1024 * 1024;
+    private static final int MAX_READ_ATTEMPTS = 3;
+    private static final long NO_GENERATION = -1;
+
+    private final SyncStorage baseStorage;
+    private final String packName;
+    private final String indexPointerName;
+    private final long maxChunkLength;
+    private final double compactionThreshold;
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private PackIndex index;
+    @GuardedBy("lock")
+    private long generation;
+    /**
+     * The number of bytes of the current Index generation that have been applied to the index.
+     */
+    @GuardedBy("lock")
+    private long indexLength;
+    /**
+     * The length of the snapshot at the beginning of the current Index generation.
+     */
+    @GuardedBy("lock")
+    private long snapshotLength;
+    /**
+     * Handle to the current Index generation. This is only set while this instance is the owner of the Pack.
+     */
+    @GuardedBy("lock")
+    private SegmentHandle indexHandle;
+    @GuardedBy("lock")
+    private SegmentHandle indexPointerHandle;
+    @GuardedBy("lock")
+    private SegmentHandle activeChunkHandle;
+    @GuardedBy("lock")
+    private long activeChunkId;
+    @GuardedBy("lock")
+    private long activeChunkLength;
+    /**
+     * Whether another instance has taken over the Pack from us.
+     */
+    @GuardedBy("lock")
+    private boolean fenced;
+    private final AtomicBoolean closed;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the PackedStorage class with default Chunk length and compaction threshold.
+     *
+     * @param baseStorage A SyncStorage that will be used to execute operations.
+     * @param packName    The name of the Pack. This is used as a prefix for the names of all the files that make up the
+     *                    Pack in the base Storage, so it must be unique to whoever owns this Storage (i.e., a Container).
+     */
+    public PackedStorage(SyncStorage baseStorage, String packName) {
+        this(baseStorage, packName, DEFAULT_MAX_CHUNK_LENGTH, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Creates a new instance of the PackedStorage class with Chunk length and compaction threshold from the given config.
+     *
+     * @param baseStorage A SyncStorage that will be used to execute operations.
+     * @param packName    The name of the Pack. This is used as a prefix for the names of all the files that make up the
+     *                    Pack in the base Storage, so it must be unique to whoever owns this Storage (i.e., a Container).
+     * @param config      The PackedStorageConfig to use.
+     */
+    public PackedStorage(SyncStorage baseStorage, String packName, PackedStorageConfig config) {
+        this(baseStorage, packName, config.getMaxChunkLength(), config.getCompactionThreshold());
+    }
+
+    /**
+     * Creates a new instance of the PackedStorage class.
+     *
+     * @param baseStorage         A SyncStorage that will be used to execute operations.
+     * @param packName            The name of the Pack. This is used as a prefix for the names of all the files that
+     *                            make up the Pack in the base Storage, so it must be unique to whoever owns this Storage
+     *                            (i.e., a Container).
+     * @param maxChunkLength      The maximum length of a Chunk.
+     * @param compactionThreshold The fraction of live data in a Chunk below which that Chunk is compacted. Must be
+     *                            in the interval [0, 1).
+     */
+    public PackedStorage(SyncStorage baseStorage, String packName, long maxChunkLength, double compactionThreshold) {
+        this.baseStorage = Preconditions.checkNotNull(baseStorage, "baseStorage");
+        this.packName = Exceptions.checkNotNullOrEmpty(packName, "packName");
+        Preconditions.checkArgument(maxChunkLength > 0, "maxChunkLength must be a positive number.");
+        Preconditions.checkArgument(compactionThreshold >= 0 && compactionThreshold < 1,
+                "compactionThreshold must be in the interval [0, 1).");
+        this.maxChunkLength = maxChunkLength;
+        this.compactionThreshold = compactionThreshold;
+        this.indexPointerName = StreamSegmentNameUtils.getPackIndexName(packName);
+        this.index = new PackIndex();
+        this.generation = NO_GENERATION;
+        this.closed = new AtomicBoolean();
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        if (!this.closed.getAndSet(true)) {
+            this.baseStorage.close();
+            log.info("{}: Closed.", this.packName);
+        }
+    }
+
+    //endregion
+
+    //region ReadOnlyStorage Implementation
+
+    @Override
+    public void initialize(long containerEpoch) {
+        // The Index is loaded lazily: upon first access if we are only reading, or when acquiring ownership otherwise.
+        this.baseStorage.initialize(containerEpoch);
+    }
+
+    @Override
+    public SegmentHandle openRead(String segmentName) throws StreamSegmentException {
+        long traceId = LoggerHelpers.traceEnter(log, "openRead", segmentName);
+        synchronized (this.lock) {
+            refresh();
+            getSegment(segmentName);
+        }
+
+        val handle = new PackedSegmentHandle(segmentName, true);
+        LoggerHelpers.traceLeave(log, "openRead", traceId, handle);
+        return handle;
+    }
+
+    @Override
+    public int read(SegmentHandle handle, long offset, byte[] buffer, int bufferOffset, int length) throws StreamSegmentException {
+        val h = asPackedHandle(handle);
+        long traceId = LoggerHelpers.traceEnter(log, "read", handle, offset, length);
+        Exceptions.checkArrayRange(bufferOffset, length, buffer.length, "bufferOffset", "length");
+        Preconditions.checkArgument(offset >= 0, "offset must be a non-negative number.");
+
+        int bytesRead = 0;
+        int attempts = 0;
+        while (bytesRead < length) {
+            long readOffset = offset + bytesRead;
+            List<PackedSegment.Extent> extents;
+            synchronized (this.lock) {
+                PackedSegment s = this.index.getSegment(h.getSegmentName());
+                if (attempts > 0 || s == null || offset + length > s.getLength()) {
+                    // We may be behind the owner of the Pack, or a Chunk may have been compacted away while we were
+                    // reading from it. Catch up with the Index before deciding what to do.
+                    refresh();
+                    s = getSegment(h.getSegmentName());
+                }
+
+                if (readOffset < s.getStartOffset()) {
+                    throw new StreamSegmentTruncatedException(h.getSegmentName(),
+                            String.format("Offset %s has been truncated (StartOffset = %s).", readOffset, s.getStartOffset()), null);
+                }
+
+                Preconditions.checkArgument(offset + length <= s.getLength(),
+                        "Offset %s + length %s is beyond the last offset %s of the segment.", offset, length, s.getLength());
+                extents = s.getExtents(readOffset, length - bytesRead);
+            }
+
+            try {
+                for (val e : extents) {
+                    readFully(getChunkName(e.getChunkId()), e.getChunkOffset(), buffer, bufferOffset + bytesRead, (int) e.getLength());
+                    bytesRead += (int) e.getLength();
+                }
+            } catch (StreamSegmentNotExistsException ex) {
+                if (++attempts >= MAX_READ_ATTEMPTS) {
+                    throw ex;
+                }
+
+                log.debug("{}: Chunk '{}' no longer exists while reading from '{}'; retrying.", this.packName,
+                        ex.getStreamSegmentName(), h.getSegmentName());
+            }
+        }
+
+        LoggerHelpers.traceLeave(log, "read", traceId, handle, offset, bytesRead);
+        return bytesRead;
+    }
+
+    @Override
+    public SegmentProperties getStreamSegmentInfo(String segmentName) throws StreamSegmentException {
+        synchronized (this.lock) {
+            refresh();
+            PackedSegment s = getSegment(segmentName);
+            return StreamSegmentInformation
+                    .builder()
+                    .name(segmentName)
+                    .startOffset(s.getStartOffset())
+                    .length(s.getLength())
+                    .sealed(s.isSealed())
+                    .build();
+        }
+    }
+
+    @Override
+    @SneakyThrows(StreamSegmentException.class)
+    public boolean exists(String segmentName) {
+        synchronized (this.lock) {
+            refresh();
+            return this.index.getSegment(segmentName) != null;
+        }
+    }
+
+    //endregion
+
+    //region SyncStorage Implementation
+
+    @Override
+    public SegmentProperties create(String segmentName) throws StreamSegmentException {
+        long traceId = LoggerHelpers.traceEnter(log, "create", segmentName);
+        synchronized (this.lock) {
+            ensureOwner(segmentName);
+            if (this.index.getSegment(segmentName) != null) {
+                throw new StreamSegmentExistsException(segmentName);
+            }
+
+            commit(segmentName, PackIndex.segment(segmentName, 0, 0, false));
+        }
+
+        LoggerHelpers.traceLeave(log, "create", traceId, segmentName);
+        return StreamSegmentInformation.builder().name(segmentName).build();
+    }
+
+    @Override
+    public SegmentHandle openWrite(String segmentName) throws StreamSegmentException {
+        long traceId = LoggerHelpers.traceEnter(log, "openWrite", segmentName);
+        PackedSegmentHandle handle;
+        synchronized (this.lock) {
+            ensureOwner(segmentName);
+            handle = new PackedSegmentHandle(segmentName, getSegment(segmentName).isSealed());
+        }
+
+        LoggerHelpers.traceLeave(log, "openWrite", traceId, handle);
+        return handle;
+    }
+
+    @Override
+    public void write(SegmentHandle handle, long offset, InputStream data, int length) throws StreamSegmentException {
+        val h = asWritableHandle(handle);
+        long traceId = LoggerHelpers.traceEnter(log, "write", handle, offset, length);
+        synchronized (this.lock) {
+            ensureOwner(h.getSegmentName());
+            PackedSegment s = getSegment(h.getSegmentName());
+            if (s.isSealed()) {
+                throw new StreamSegmentSealedException(h.getSegmentName());
+            }
+
+            if (s.getLength() != offset) {
+                throw new BadOffsetException(h.getSegmentName(), s.getLength(), offset);
+            }
+
+            // We may have to split the write over multiple Chunks in order to avoid exceeding any Chunk's maximum length.
+            int bytesWritten = 0;
+            while (bytesWritten < length) {
+                int writeLength = Math.min(length - bytesWritten, prepareActiveChunk(h.getSegmentName()));
+                long chunkOffset = appendToActiveChunk(h.getSegmentName(), data, writeLength);
+                commit(h.getSegmentName(), PackIndex.append(h.getSegmentName(), offset + bytesWritten, this.activeChunkId, chunkOffset, writeLength));
+                bytesWritten += writeLength;
+            }
+
+            rewriteIndexIfNeeded(h.getSegmentName());
+        }
+
+        LoggerHelpers.traceLeave(log, "write", traceId, handle, offset, length);
+    }
+
+    @Override
+    public void seal(SegmentHandle handle) throws StreamSegmentException {
+        val h = asWritableHandle(handle);
+        long traceId = LoggerHelpers.traceEnter(log, "seal", handle);
+        synchronized (this.lock) {
+            ensureOwner(h.getSegmentName());
+            if (!getSegment(h.getSegmentName()).isSealed()) {
+                commit(h.getSegmentName(), PackIndex.seal(h.getSegmentName(), true));
+            }
+        }
+
+        LoggerHelpers.traceLeave(log, "seal", traceId, handle);
+    }
+
+    @Override
+    public void unseal(SegmentHandle handle) throws StreamSegmentException {
+        val h = asPackedHandle(handle);
+        long traceId = LoggerHelpers.traceEnter(log, "unseal", handle);
+        synchronized (this.lock) {
+            ensureOwner(h.getSegmentName());
+            if (getSegment(h.getSegmentName()).isSealed()) {
+                commit(h.getSegmentName(), PackIndex.seal(h.getSegmentName(), false));
+            }
+        }
+
+        LoggerHelpers.traceLeave(log, "unseal", traceId, handle);
+    }
+
+    @Override
+    public void concat(SegmentHandle targetHandle, long offset, String sourceSegment) throws StreamSegmentException {
+        val target = asWritableHandle(targetHandle);
+        long traceId = LoggerHelpers.traceEnter(log, "concat", targetHandle, offset, sourceSegment);
+        synchronized (this.lock) {
+            ensureOwner(target.getSegmentName());
+            PackedSegment t = getSegment(target.getSegmentName());
+            PackedSegment s = getSegment(sourceSegment);
+            if (t.isSealed()) {
+                throw new StreamSegmentSealedException(target.getSegmentName());
+            }
+
+            Preconditions.checkState(s.isSealed(), "Cannot concat segment '%s' into '%s' because it is not sealed.",
+                    sourceSegment, target.getSegmentName());
+            Preconditions.checkState(s.getStartOffset() == 0, "Cannot concat segment '%s' into '%s' because it is truncated.",
+                    sourceSegment, target.getSegmentName());
+            if (t.getLength() != offset) {
+                throw new BadOffsetException(target.getSegmentName(), t.getLength(), offset);
+            }
+
+            // This only updates the Index; the source's data stays where it is.
+            commit(target.getSegmentName(), PackIndex.concat(target.getSegmentName(), sourceSegment));
+        }
+
+        LoggerHelpers.traceLeave(log, "concat", traceId, targetHandle, offset, sourceSegment);
+    }
+
+    @Override
+    public void delete(SegmentHandle handle) throws StreamSegmentException {
+        val h = asPackedHandle(handle);
+        long traceId = LoggerHelpers.traceEnter(log, "delete", handle);
+        synchronized (this.lock) {
+            ensureOwner(h.getSegmentName());
+            PackedSegment s = getSegment(h.getSegmentName());
+
+            // A read-only handle is allowed if the Segment is sealed, since that is what openWrite returns for it.
+            Preconditions.checkArgument(!h.isReadOnly() || s.isSealed(), "Cannot delete using a read-only handle.");
+            commit(h.getSegmentName(), PackIndex.delete(h.getSegmentName()));
+            collectGarbage(h.getSegmentName());
+        }
+
+        LoggerHelpers.traceLeave(log, "delete", traceId, handle);
+    }
+
+    @Override
+    public void truncate(SegmentHandle handle, long offset) throws StreamSegmentException {
+        val h = asWritableHandle(handle);
+        long traceId = LoggerHelpers.traceEnter(log, "truncate", handle, offset);
+        synchronized (this.lock) {
+            ensureOwner(h.getSegmentName());
+            PackedSegment s = getSegment(h.getSegmentName());
+            Preconditions.checkArgument(offset >= 0 && offset <= s.getLength(),
+                    "truncationOffset must be non-negative and at most the length of the Segment.");
+            if (offset > s.getStartOffset()) {
+                commit(h.getSegmentName(), PackIndex.truncate(h.getSegmentName(), offset));
+                collectGarbage(h.getSegmentName());
+            }
+        }
+
+        LoggerHelpers.traceLeave(log, "truncate", traceId, handle, offset);
+    }
+
+    @Override
+    public boolean supportsTruncation() {
+        return true;
+    }
+
+    //endregion
+
+    //region Index Management
+
+    /**
+     * Catches up with the Index, if this instance is not the owner of the Pack (otherwise our in-memory state is the
+     * most recent one).
+     */
+    @GuardedBy("lock")
+    private void refresh() throws StreamSegmentException {
+        if (this.indexHandle != null) {
+            return;
+        }
+
+        if (readGeneration() != this.generation) {
+            reload();
+        } else if (this.generation != NO_GENERATION) {
+            try {
+                readIndex();
+            } catch (StreamSegmentNotExistsException ex) {
+                // This generation has been replaced while we were looking at the Index Pointer.
+                reload();
+            }
+        }
+    }
+
+    /**
+     * Discards the in-memory state of the Pack and loads the current Index generation from Storage.
+     */
+    @GuardedBy("lock")
+    private void reload() throws StreamSegmentException {
+        for (int attempt = 1; ; attempt++) {
+            this.index = new PackIndex();
+            this.generation = readGeneration();
+            this.indexLength = 0;
+            if (this.generation == NO_GENERATION) {
+                return;
+            }
+
+            try {
+                readIndex();
+                log.debug("{}: Loaded index generation {} ({} bytes).", this.packName, this.generation, this.indexLength);
+                return;
+            } catch (StreamSegmentNotExistsException ex) {
+                // This generation has been replaced while we were loading it.
+                if (attempt >= MAX_READ_ATTEMPTS) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads and applies all the records in the current Index generation that we have not applied yet.
+     */
+    @GuardedBy("lock")
+    private void readIndex() throws StreamSegmentException {
+        String indexName = StreamSegmentNameUtils.getPackIndexName(this.packName, this.generation);
+        long length = this.baseStorage.getStreamSegmentInfo(indexName).getLength();
+        if (length > this.indexLength) {
+            byte[] buffer = new byte[Math.toIntExact(length - this.indexLength)];
+            readFully(indexName, this.indexLength, buffer, 0, buffer.length);
+            this.indexLength += this.index.applyAll(buffer, buffer.length);
+        }
+    }
+
+    /**
+     * Gets the current Index generation from the Index Pointer, or NO_GENERATION if the Pack has no Index yet.
+     */
+    @GuardedBy("lock")
+    private long readGeneration() throws StreamSegmentException {
+        long length;
+        try {
+            length = this.baseStorage.getStreamSegmentInfo(this.indexPointerName).getLength();
+        } catch (StreamSegmentNotExistsException ex) {
+            return NO_GENERATION;
+        }
+
+        // Only consider complete entries (see appendGeneration()).
+        long lastOffset = length / Long.BYTES * Long.BYTES - Long.BYTES;
+        if (lastOffset < 0) {
+            return NO_GENERATION;
+        }
+
+        byte[] buffer = new byte[Long.BYTES];
+        readFully(this.indexPointerName, lastOffset, buffer, 0, buffer.length);
+        return ByteBuffer.wrap(buffer).getLong();
+    }
+
+    /**
+     * Makes this instance the owner of the Pack, if it is not already.
+     */
+    @GuardedBy("lock")
+    private void ensureOwner(String segmentName) throws StreamSegmentException {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        if (this.fenced) {
+            throw new StorageNotPrimaryException(segmentName, "The Pack has been taken over by another instance.");
+        }
+
+        if (this.indexHandle != null) {
+            return;
+        }
+
+        log.info("{}: Acquiring ownership.", this.packName);
+        try {
+            this.baseStorage.create(this.indexPointerName);
+        } catch (StreamSegmentExistsException ex) {
+            // Nothing to do; this is not the first owner of this Pack.
+        }
+
+        this.indexPointerHandle = this.baseStorage.openWrite(this.indexPointerName);
+
+        // Seal the current Index generation so that nobody else may append to it, then load it in its final form.
+        long currentGeneration = readGeneration();
+        if (currentGeneration != NO_GENERATION) {
+            val currentIndexHandle = this.baseStorage.openWrite(StreamSegmentNameUtils.getPackIndexName(this.packName, currentGeneration));
+            if (!currentIndexHandle.isReadOnly()) {
+                this.baseStorage.seal(currentIndexHandle);
+            }
+        }
+
+        reload();
+
+        // Start a new generation, which also discards any torn record at the end of the previous one. All writes will go
+        // to a new Chunk, since we do not know if the previous owner left anything unaccounted for at the end of its own.
+        this.activeChunkHandle = null;
+        rewriteIndex(segmentName);
+        collectGarbage(segmentName);
+    }
+
+    /**
+     * Starts a new Index generation, beginning with a snapshot of the current state of the Pack.
+     */
+    @GuardedBy("lock")
+    private void rewriteIndex(String segmentName) throws StreamSegmentException {
+        long newGeneration = this.generation + 1;
+        String newIndexName = StreamSegmentNameUtils.getPackIndexName(this.packName, newGeneration);
+        try {
+            this.baseStorage.create(newIndexName);
+        } catch (StreamSegmentExistsException ex) {
+            if (this.indexHandle != null) {
+                // Somebody else has started this generation, which means they have taken over the Pack.
+                throw fence(segmentName, ex);
+            }
+
+            // Left behind by a previous owner that did not get to update the Index Pointer; it was never used.
+            this.baseStorage.delete(this.baseStorage.openWrite(newIndexName));
+            this.baseStorage.create(newIndexName);
+        }
+
+        val newIndexHandle = this.baseStorage.openWrite(newIndexName);
+        byte[] snapshot = this.index.snapshot();
+        try {
+            this.baseStorage.write(newIndexHandle, 0, new ByteArrayInputStream(snapshot), snapshot.length);
+            appendGeneration(newGeneration);
+        } catch (Exception ex) {
+            if (!Exceptions.mustRethrow(ex)) {
+                // Roll back, so that this generation may be attempted again.
+                try {
+                    log.warn("{}: Could not start index generation {}, rolling back.", this.packName, newGeneration, ex);
+                    this.baseStorage.delete(newIndexHandle);
+                } catch (Exception ex2) {
+                    ex.addSuppressed(ex2);
+                }
+            }
+
+            throw ex;
+        }
+
+        long oldGeneration = this.generation;
+        this.generation = newGeneration;
+        this.indexHandle = newIndexHandle;
+        this.indexLength = snapshot.length;
+        this.snapshotLength = snapshot.length;
+        log.info("{}: Started index generation {} ({} bytes).", this.packName, newGeneration, snapshot.length);
+
+        if (oldGeneration != NO_GENERATION) {
+            // Readers still on the old generation will find it missing and look at the Index Pointer again.
+            String oldIndexName = StreamSegmentNameUtils.getPackIndexName(this.packName, oldGeneration);
+            try {
+                this.baseStorage.delete(this.baseStorage.openWrite(oldIndexName));
+            } catch (StreamSegmentException ex) {
+                log.warn("{}: Could not delete index generation {}.", this.packName, oldGeneration, ex);
+            }
+        }
+    }
+
+    /**
+     * Starts a new Index generation if the current one has grown much larger than the snapshot it began with.
+     */
+    @GuardedBy("lock")
+    private void rewriteIndexIfNeeded(String segmentName) throws StreamSegmentException {
+        if (this.indexLength > Math.max(MIN_INDEX_REWRITE_LENGTH, 2 * this.snapshotLength)) {
+            rewriteIndex(segmentName);
+        }
+    }
+
+    /**
+     * Appends the given generation to the Index Pointer. Entries are aligned to their size, so that a partially written
+     * entry can be told apart from the last complete one.
+     */
+    @GuardedBy("lock")
+    private void appendGeneration(long newGeneration) throws StreamSegmentException {
+        long length = this.baseStorage.getStreamSegmentInfo(this.indexPointerName).getLength();
+        int padding = (int) ((Long.BYTES - length % Long.BYTES) % Long.BYTES);
+        ByteBuffer entry = ByteBuffer.allocate(padding + Long.BYTES);
+        entry.putLong(padding, newGeneration);
+        this.baseStorage.write(this.indexPointerHandle, length, new ByteArrayInputStream(entry.array()), entry.capacity());
+    }
+
+    /**
+     * Appends the given record to the Index and then applies it to our in-memory state.
+     */
+    @GuardedBy("lock")
+    private void commit(String segmentName, byte[] record) throws StreamSegmentException {
+        try {
+            this.baseStorage.write(this.indexHandle, this.indexLength, new ByteArrayInputStream(record), record.length);
+        } catch (Exception ex) {
+            // We do not know what the Index looks like in Storage anymore. Unless somebody else has taken over the Pack,
+            // acquire ownership again (which reloads the Index from Storage) upon the next modify operation.
+            this.indexHandle = null;
+            if (isFencingException(ex)) {
+                throw fence(segmentName, ex);
+            }
+
+            throw ex;
+        }
+
+        this.indexLength += record.length;
+        this.index.apply(record);
+    }
+
+    /**
+     * Records that another instance has taken over the Pack, which prevents any further modify operations.
+     *
+     * @return A StorageNotPrimaryException to throw.
+     */
+    @GuardedBy("lock")
+    private StorageNotPrimaryException fence(String segmentName, Exception cause) {
+        if (!this.fenced) {
+            log.warn("{}: Fenced out by another instance.", this.packName);
+            this.fenced = true;
+        }
+
+        this.indexHandle = null;
+        this.activeChunkHandle = null;
+        return new StorageNotPrimaryException(segmentName, cause);
+    }
+
+    /**
+     * Determines whether the given exception, thrown while appending to a file that only we may modify (the Index or the
+     * Active Chunk), indicates that some other instance has sealed, deleted or written to that file (or that the base
+     * Storage has fenced us out itself).
+     */
+    private boolean isFencingException(Exception ex) {
+        return ex instanceof BadOffsetException || ex instanceof StreamSegmentSealedException
+                || ex instanceof StreamSegmentNotExistsException || ex instanceof StorageNotPrimaryException;
+    }
+
+    //endregion
+
+    //region Chunk Management
+
+    /**
+     * Makes sure there is an Active Chunk that can accept more data.
+     *
+     * @return The number of bytes that can still be written to the Active Chunk.
+     */
+    @GuardedBy("lock")
+    private int prepareActiveChunk(String segmentName) throws StreamSegmentException {
+        if (this.activeChunkHandle == null || this.activeChunkLength >= this.maxChunkLength) {
+            if (this.activeChunkHandle != null) {
+                this.baseStorage.seal(this.activeChunkHandle);
+                this.activeChunkHandle = null;
+            }
+
+            // Record the Chunk before creating it, so that it is cleaned up should we fail at any point after this.
+            long chunkId = this.index.getNextChunkId();
+            commit(segmentName, PackIndex.chunkAdded(chunkId));
+            String chunkName = getChunkName(chunkId);
+            try {
+                this.baseStorage.create(chunkName);
+            } catch (StreamSegmentExistsException ex) {
+                // Left behind by a previous owner; not referenced by anything.
+                this.baseStorage.delete(this.baseStorage.openWrite(chunkName));
+                this.baseStorage.create(chunkName);
+            }
+
+            this.activeChunkHandle = this.baseStorage.openWrite(chunkName);
+            this.activeChunkId = chunkId;
+            this.activeChunkLength = 0;
+            log.debug("{}: Created Chunk '{}'.", this.packName, chunkName);
+        }
+
+        return (int) Math.min(Integer.MAX_VALUE, this.maxChunkLength - this.activeChunkLength);
+    }
+
+    /**
+     * Appends the given data to the Active Chunk.
+     *
+     * @return The offset within the Active Chunk where the data was written.
+     */
+    @GuardedBy("lock")
+    private long appendToActiveChunk(String segmentName, InputStream data, int length) throws StreamSegmentException {
+        long chunkOffset = this.activeChunkLength;
+        try {
+            this.baseStorage.write(this.activeChunkHandle, chunkOffset, data, length);
+        } catch (Exception ex) {
+            // We do not know how much of it made it to the Chunk. Continue in a new one, unless somebody else has taken
+            // over the Pack (a new owner never writes to our Active Chunk, but it may compact it away).
+            this.activeChunkHandle = null;
+            if (isFencingException(ex)) {
+                throw fence(segmentName, ex);
+            }
+
+            throw ex;
+        }
+
+        this.activeChunkLength += length;
+        return chunkOffset;
+    }
+
+    /**
+     * Deletes Chunks that no longer hold any live data and compacts those that hold too little of it.
+     */
+    @GuardedBy("lock")
+    private void collectGarbage(String segmentName) throws StreamSegmentException {
+        for (PackIndex.Chunk chunk : this.index.getChunks()) {
+            if (this.activeChunkHandle != null && chunk.getId() == this.activeChunkId) {
+                continue;
+            }
+
+            if (chunk.getLiveBytes() <= 0) {
+                deleteChunk(segmentName, chunk.getId());
+            } else if (chunk.getLiveBytes() < chunk.getLength() * this.compactionThreshold) {
+                compact(segmentName, chunk);
+                deleteChunk(segmentName, chunk.getId());
+            }
+        }
+
+        rewriteIndexIfNeeded(segmentName);
+    }
+
+    /**
+     * Copies all the live data out of the given Chunk (into the Active Chunk).
+     */
+    @GuardedBy("lock")
+    private void compact(String segmentName, PackIndex.Chunk chunk) throws StreamSegmentException {
+        log.debug("{}: Compacting {}.", this.packName, chunk);
+        String chunkName = getChunkName(chunk.getId());
+        for (val entry : this.index.getExtents(chunk.getId())) {
+            String name = entry.getKey();
+            PackedSegment.Extent e = entry.getValue();
+            long copied = 0;
+            while (copied < e.getLength()) {
+                int copyLength = (int) Math.min(Math.min(e.getLength() - copied, COPY_BUFFER_SIZE), prepareActiveChunk(segmentName));
+                byte[] buffer = new byte[copyLength];
+                readFully(chunkName, e.getChunkOffset() + copied, buffer, 0, copyLength);
+                long chunkOffset = appendToActiveChunk(segmentName, new ByteArrayInputStream(buffer), copyLength);
+                commit(segmentName, PackIndex.relocate(name, e.getSegmentOffset() + copied, copyLength, this.activeChunkId, chunkOffset));
+                copied += copyLength;
+            }
+        }
+    }
+
+    @GuardedBy("lock")
+    private void deleteChunk(String segmentName, long chunkId) throws StreamSegmentException {
+        String chunkName = getChunkName(chunkId);
+        try {
+            this.baseStorage.delete(this.baseStorage.openWrite(chunkName));
+            log.debug("{}: Deleted Chunk '{}'.", this.packName, chunkName);
+        } catch (StreamSegmentNotExistsException ex) {
+            // Already deleted (or never created).
+        }
+
+        commit(segmentName, PackIndex.chunkRemoved(chunkId));
+    }
+
+    private String getChunkName(long chunkId) {
+        return StreamSegmentNameUtils.getPackChunkName(this.packName, chunkId);
+    }
+
+    //endregion
+
+    //region Helpers
+
+    /**
+     * Reads exactly the given number of bytes from the given Segment in the base Storage.
+     */
+    private void readFully(String segmentName, long offset, byte[] buffer, int bufferOffset, int length) throws StreamSegmentException {
+        val handle = this.baseStorage.openRead(segmentName);
+        int bytesRead = 0;
+        while (bytesRead < length) {
+            int count = this.baseStorage.read(handle, offset + bytesRead, buffer, bufferOffset + bytesRead, length - bytesRead);
+            if (count <= 0) {
+                throw new IllegalStateException(String.format("Unable to read %d bytes from '%s' at offset %d.",
+                        length - bytesRead, segmentName, offset + bytesRead));
+            }
+
+            bytesRead += count;
+        }
+    }
+
+    @GuardedBy("lock")
+    private PackedSegment getSegment(String segmentName) throws StreamSegmentNotExistsException {
+        PackedSegment s = this.index.getSegment(segmentName);
+        if (s == null) {
+            throw new StreamSegmentNotExistsException(segmentName);
+        }
+
+        return s;
+    }
+
+    private PackedSegmentHandle asPackedHandle(SegmentHandle handle) {
+        Preconditions.checkArgument(handle instanceof PackedSegmentHandle, "handle must be of type PackedSegmentHandle.");
+        return (PackedSegmentHandle) handle;
+    }
+
+    private PackedSegmentHandle asWritableHandle(SegmentHandle handle) {
+        Preconditions.checkArgument(!handle.isReadOnly(), "handle must not be read-only.");
+        return asPackedHandle(handle);
+    }
+
+    //endregion
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.packing;
+
+import io.pravega.common.util.ConfigBuilder;
+import io.pravega.common.util.ConfigurationException;
+import io.pravega.common.util.Property;
+import io.pravega.common.util.TypedProperties;
+import lombok.Getter;
+
+/**
+ * Configuration for PackedStorage.
+ */
+public class PackedStorageConfig {
+    //region Config Names
+
+    public static final Property<Boolean> ENABLED = Property.named("enabled", false);
+    public static final Property<Long> MAX_CHUNK_LENGTH = Property.named("maxChunkLength", PackedStorage.DEFAULT_MAX_CHUNK_LENGTH);
+    public static final Property<Integer> COMPACTION_THRESHOLD_PERCENT = Property.named("compactionThresholdPercent",
+            (int) (PackedStorage.DEFAULT_COMPACTION_THRESHOLD * 100));
+    public static final String COMPONENT_CODE = "packing";
+
+    //endregion
+
+    //region Members
+
+    /**
+     * Whether each Segment Container stores all its Segments in a single Pack (see PackedStorage), instead of giving
+     * each Segment its own file (or object) in Storage.
+     */
+    @Getter
+    private final boolean enabled;
+
+    /**
+     * The maximum length of a Chunk (shared file) in a Pack.
+     */
+    @Getter
+    private final long maxChunkLength;
+
+    /**
+     * The fraction of live data in a Chunk below which that Chunk is compacted.
+     */
+    @Getter
+    private final double compactionThreshold;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the PackedStorageConfig class.
+     *
+     * @param properties The TypedProperties object to read Properties from.
+     */
+    private PackedStorageConfig(TypedProperties properties) throws ConfigurationException {
+        this.enabled = properties.getBoolean(ENABLED);
+        this.maxChunkLength = properties.getLong(MAX_CHUNK_LENGTH);
+        if (this.maxChunkLength <= 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", MAX_CHUNK_LENGTH));
+        }
+
+        int compactionThresholdPercent = properties.getInt(COMPACTION_THRESHOLD_PERCENT);
+        if (compactionThresholdPercent < 0 || compactionThresholdPercent >= 100) {
+            throw new ConfigurationException(String.format("Property '%s' must be an integer in the interval [0, 100).",
+                    COMPACTION_THRESHOLD_PERCENT));
+        }
+
+        this.compactionThreshold = compactionThresholdPercent / 100.0;
+    }
+
+    /**
+     * Creates a new ConfigBuilder that can be used to create instances of this class.
+     *
+     * @return A new Builder for this class.
+     */
+    public static ConfigBuilder<PackedStorageConfig> builder() {
+        return new ConfigBuilder<>(COMPONENT_CODE, PackedStorageConfig::new);
+    }
+
+    //endregion
+}
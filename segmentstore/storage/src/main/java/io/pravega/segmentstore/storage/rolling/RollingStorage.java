@@ -53,6 +53,13 @@ import lombok.val;
  * any SegmentChunks (freshly created), it is considered to exist.
  * * A Segment is considered to be Sealed if its Header is sealed.
  *
+ * Concatenation is done in one of two ways:
+ * * Natively, by asking the base Storage to concatenate the Source's only SegmentChunk into the Target's active one. This
+ * is used for small Sources (up to a configurable length), to avoid accumulating lots of tiny SegmentChunks.
+ * * By merging Headers: the Source's SegmentChunks are appended to the Target's Header (rebased to the Target's length),
+ * without touching any of their data. This makes concatenation a metadata-only operation, regardless of the Source's size,
+ * which is useful for base Storages whose native concat copies all the data (such as FileSystemStorage).
+ *
  * A note about compatibility:
  * * The RollingStorage wrapper is fully compatible with data and Segments that were created before RollingStorage was
  * applied. That means that it can access and modify existing Segments that were created without a Header, but all new
@@ -69,6 +76,7 @@ public class RollingStorage implements SyncStorage {
 
     private final SyncStorage baseStorage;
     private final SegmentRollingPolicy defaultRollingPolicy;
+    private final long maxNativeConcatLength;
     private final AtomicBoolean closed;
 
     //endregion
@@ -92,8 +100,24 @@ public class RollingStorage implements SyncStorage {
      *                             defined.
      */
     public RollingStorage(SyncStorage baseStorage, SegmentRollingPolicy defaultRollingPolicy) {
+        this(baseStorage, defaultRollingPolicy, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new instance of the RollingStorage class.
+     *
+     * @param baseStorage           A SyncStorage that will be used to execute operations.
+     * @param defaultRollingPolicy  A SegmentRollingPolicy to apply to every StreamSegment that does not have its own policy
+     *                              defined.
+     * @param maxNativeConcatLength The maximum length of a concat Source that may be concatenated natively (using the
+     *                              base Storage's concat). Larger Sources will be concatenated by merging Headers, which
+     *                              does not copy any data.
+     */
+    public RollingStorage(SyncStorage baseStorage, SegmentRollingPolicy defaultRollingPolicy, long maxNativeConcatLength) {
+        Preconditions.checkArgument(maxNativeConcatLength >= 0, "maxNativeConcatLength must be a non-negative number.");
         this.baseStorage = Preconditions.checkNotNull(baseStorage, "baseStorage");
         this.defaultRollingPolicy = Preconditions.checkNotNull(defaultRollingPolicy, "defaultRollingPolicy");
+        this.maxNativeConcatLength = maxNativeConcatLength;
         this.closed = new AtomicBoolean();
     }
 
@@ -373,8 +397,8 @@ public class RollingStorage implements SyncStorage {
                 "Cannot use Segment '%s' as concat source because it is truncated.", source.getSegmentName());
 
         if (shouldConcatNatively(source, target)) {
-            // The Source either does not have a Header or is made up of a single SegmentChunk that can fit entirely into
-            // the Target's Active SegmentChunk. Concat it directly without touching the header file; this helps prevent
+            // The Source either does not have a Header or is made up of a single, small, SegmentChunk that can fit entirely
+            // into the Target's Active SegmentChunk. Concat it directly without touching the header file; this helps prevent
             // having a lot of very small SegmentChunks around if the application has a lot of small transactions.
             log.debug("Concat '{}' into '{}' using native method.", source, target);
             SegmentChunk lastTarget = target.lastChunk();
@@ -618,6 +642,7 @@ public class RollingStorage implements SyncStorage {
         SegmentChunk lastSource = source.lastChunk();
         SegmentChunk lastTarget = target.lastChunk();
         return lastSource != null && lastSource.getStartOffset() == 0
+                && lastSource.getLength() <= this.maxNativeConcatLength
                 && lastTarget != null && !lastTarget.isSealed()
                 && lastTarget.getLength() + lastSource.getLength() <= target.getRollingPolicy().getMaxLength();
     }
@@ -9,7 +9,12 @@
  */
 package io.pravega.segmentstore.storage;
 
+import io.netty.buffer.ByteBuf;
+import io.pravega.common.util.ByteArraySegment;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.function.Consumer;
 import lombok.Cleanup;
 import lombok.EqualsAndHashCode;
@@ -47,6 +52,38 @@ public abstract class CacheTestBase {
         });
     }
 
+    /**
+     * Tests the getView() method.
+     */
+    @Test
+    public void testGetView() {
+        @Cleanup
+        Cache cache = createCache(CACHE_ID);
+
+        // Populate the cache.
+        forAllCombinations(key -> cache.insert(key, getData(key)));
+
+        // Retrieve views from the cache.
+        forAllCombinations(key -> {
+            byte[] expectedData = getData(key);
+            ByteBuf view = cache.getView(key);
+            Assert.assertNotNull("No view returned for existing key.", view);
+            try {
+                byte[] actualData = new byte[view.readableBytes()];
+                view.getBytes(view.readerIndex(), actualData);
+                Assert.assertArrayEquals("Unexpected view contents.", expectedData, actualData);
+            } finally {
+                view.release();
+            }
+        });
+
+        // Views of missing keys.
+        forAllCombinations(key -> {
+            cache.remove(key);
+            Assert.assertNull("A view was returned for a removed key.", cache.getView(key));
+        });
+    }
+
     /**
      * Verifies that Remove actually removes from the cache.
      */
@@ -65,6 +102,58 @@ public abstract class CacheTestBase {
         });
     }
 
+    /**
+     * Tests the insertBatch(), getBatch() and removeBatch() methods.
+     */
+    @Test
+    public void testBatchOperations() {
+        @Cleanup
+        Cache cache = createCache(CACHE_ID);
+
+        // Populate the cache, one batch per segment.
+        HashMap<CacheKey, ByteArraySegment> batch = new HashMap<>();
+        List<CacheKey> allKeys = new ArrayList<>();
+        forAllCombinations(key -> {
+            allKeys.add(key);
+            batch.put(key, new ByteArraySegment(getData(key)));
+            if (batch.size() == OFFSET_COUNT) {
+                cache.insertBatch(batch);
+                batch.clear();
+            }
+        });
+
+        cache.insertBatch(batch);
+        forAllCombinations(key -> Assert.assertArrayEquals("Unexpected cache contents after batch insertion.", getData(key), cache.get(key)));
+
+        // Retrieve everything (including missing keys) in a single batch and verify the order is preserved.
+        cache.remove(allKeys.get(0));
+        List<CacheKey> keys = new ArrayList<>(allKeys);
+        keys.add(new CacheKey(SEGMENT_COUNT, 0));
+        List<byte[]> data = cache.getBatch(keys);
+        Assert.assertEquals("Unexpected number of results from getBatch().", keys.size(), data.size());
+        Assert.assertNull("Unexpected result for removed key.", data.get(0));
+        Assert.assertNull("Unexpected result for non-existent key.", data.get(keys.size() - 1));
+        for (int i = 1; i < keys.size() - 1; i++) {
+            Assert.assertArrayEquals("Unexpected result from getBatch().", getData(keys.get(i)), data.get(i));
+        }
+
+        // Remove every other key in a single batch.
+        List<CacheKey> toRemove = new ArrayList<>();
+        for (int i = 0; i < allKeys.size(); i += 2) {
+            toRemove.add(allKeys.get(i));
+        }
+
+        cache.removeBatch(toRemove);
+        for (int i = 0; i < allKeys.size(); i++) {
+            CacheKey key = allKeys.get(i);
+            if (i % 2 == 0) {
+                Assert.assertNull("Cache still had contents after batch removal.", cache.get(key));
+            } else {
+                Assert.assertArrayEquals("Batch removal removed the wrong keys.", getData(key), cache.get(key));
+            }
+        }
+    }
+
     /**
      * Verifies that the cache is cleared when closing & reopening.
      */
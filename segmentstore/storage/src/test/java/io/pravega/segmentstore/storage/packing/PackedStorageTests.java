@@ -0,0 +1,327 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.packing;
+
+import io.pravega.segmentstore.contracts.StreamSegmentNotExistsException;
+import io.pravega.segmentstore.storage.AsyncStorageWrapper;
+import io.pravega.segmentstore.storage.Storage;
+import io.pravega.segmentstore.storage.StorageNotPrimaryException;
+import io.pravega.segmentstore.storage.StorageTestBase;
+import io.pravega.segmentstore.storage.SyncStorage;
+import io.pravega.segmentstore.storage.mocks.InMemoryStorage;
+import io.pravega.shared.segment.StreamSegmentNameUtils;
+import io.pravega.test.common.AssertExtensions;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Cleanup;
+import lombok.val;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Unit tests for the PackedStorage class.
+ */
+public class PackedStorageTests extends StorageTestBase {
+    private static final String PACK_NAME = "Pack";
+    private static final int MAX_CHUNK_LENGTH = 1000;
+    private static final double COMPACTION_THRESHOLD = 0.5;
+    private static final int SEGMENT_COUNT = 20;
+    private static final int MAX_CHUNK_ID = 100;
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(TIMEOUT.getSeconds());
+
+    /**
+     * Tests that the data for many Segments is written to a few shared Chunks, and that it can be read back by this
+     * instance as well as by a separate (read-only) instance.
+     */
+    @Test
+    public void testPacking() throws Exception {
+        @Cleanup
+        val baseStorage = new InMemoryStorage();
+        @Cleanup
+        val s = createPackedStorage(baseStorage);
+        s.initialize(DEFAULT_EPOCH);
+        val segments = createSegments(s);
+        populate(s, segments);
+
+        // None of the Segments should exist on its own in the base Storage, and the Chunks should be filled up.
+        long totalLength = segments.values().stream().mapToLong(ByteArrayOutputStream::size).sum();
+        long chunkCount = (totalLength + MAX_CHUNK_LENGTH - 1) / MAX_CHUNK_LENGTH;
+        for (String segmentName : segments.keySet()) {
+            Assert.assertFalse("Not expecting Segment to exist in the base Storage: " + segmentName, baseStorage.exists(segmentName));
+        }
+
+        Assert.assertEquals("Unexpected number of Chunks.", chunkCount, getChunkCount(baseStorage));
+        checkData(segments, s);
+
+        // A separate instance, which only reads, should see everything and catch up with subsequent writes.
+        // The base Storage has already been initialized by the first instance.
+        @Cleanup
+        val reader = createPackedStorage(baseStorage);
+        checkData(segments, reader);
+        populate(s, segments);
+        checkData(segments, reader);
+    }
+
+    /**
+     * Tests that Chunks are deleted or compacted after Segments are deleted or truncated, and that the remaining data
+     * is still accessible, including after recovery.
+     */
+    @Test
+    public void testCompaction() throws Exception {
+        @Cleanup
+        val baseStorage = new InMemoryStorage();
+        @Cleanup
+        val s = createPackedStorage(baseStorage);
+        s.initialize(DEFAULT_EPOCH);
+        val segments = createSegments(s);
+        populate(s, segments);
+        long totalLength = segments.values().stream().mapToLong(ByteArrayOutputStream::size).sum();
+
+        // Delete 3/4 of the Segments, and truncate half of the remaining ones.
+        int index = 0;
+        val iterator = segments.entrySet().iterator();
+        while (iterator.hasNext()) {
+            val e = iterator.next();
+            if (index % 4 != 0) {
+                s.delete(s.openWrite(e.getKey()));
+                iterator.remove();
+                AssertExtensions.assertThrows(
+                        "Segment still exists after deletion.",
+                        () -> s.openRead(e.getKey()),
+                        ex -> ex instanceof StreamSegmentNotExistsException);
+            } else if (index % 8 == 0) {
+                s.truncate(s.openWrite(e.getKey()), e.getValue().size() / 2);
+            }
+
+            index++;
+        }
+
+        // Every Chunk, except the active one, must now be at least half full of live data.
+        Assert.assertFalse("Expected the first Chunk to have been compacted.",
+                baseStorage.exists(StreamSegmentNameUtils.getPackChunkName(PACK_NAME, 0)));
+        long storedLength = 0;
+        for (int chunkId = 0; chunkId < MAX_CHUNK_ID; chunkId++) {
+            String chunkName = StreamSegmentNameUtils.getPackChunkName(PACK_NAME, chunkId);
+            if (baseStorage.exists(chunkName)) {
+                storedLength += baseStorage.getStreamSegmentInfo(chunkName).getLength();
+            }
+        }
+
+        AssertExtensions.assertLessThanOrEqual("Too much data left behind after compaction.",
+                totalLength / 2 + MAX_CHUNK_LENGTH, storedLength);
+        checkData(segments, s);
+
+        // Verify the same data can be read after recovery, and that we can keep writing to it.
+        @Cleanup
+        val newOwner = createPackedStorage(baseStorage);
+        checkData(segments, newOwner);
+        populate(newOwner, segments);
+        checkData(segments, newOwner);
+    }
+
+    /**
+     * Tests that an instance is fenced out once another instance takes over the Pack, and that it cannot take it back.
+     */
+    @Override
+    @Test
+    public void testFencing() throws Exception {
+        final String segmentName = "Segment";
+        final byte[] data = "data".getBytes();
+        @Cleanup
+        val baseStorage = new InMemoryStorage();
+        @Cleanup
+        val s1 = createPackedStorage(baseStorage);
+        s1.initialize(DEFAULT_EPOCH);
+        s1.create(segmentName);
+        val handle1 = s1.openWrite(segmentName);
+        s1.write(handle1, 0, new ByteArrayInputStream(data), data.length);
+
+        // Another instance takes over the Pack. The base Storage has already been initialized by the first instance.
+        baseStorage.changeOwner();
+        @Cleanup
+        val s2 = createPackedStorage(baseStorage);
+        val handle2 = s2.openWrite(segmentName);
+        AssertExtensions.assertThrows(
+                "write() was allowed after the Pack was taken over.",
+                () -> s1.write(handle1, data.length, new ByteArrayInputStream(data), data.length),
+                ex -> ex instanceof StorageNotPrimaryException);
+
+        // Once fenced out, every modify operation must be rejected; none of them may take the Pack back.
+        AssertExtensions.assertThrows(
+                "openWrite() was allowed after the Pack was taken over.",
+                () -> s1.openWrite(segmentName),
+                ex -> ex instanceof StorageNotPrimaryException);
+        AssertExtensions.assertThrows(
+                "create() was allowed after the Pack was taken over.",
+                () -> s1.create(segmentName + "2"),
+                ex -> ex instanceof StorageNotPrimaryException);
+        AssertExtensions.assertThrows(
+                "seal() was allowed after the Pack was taken over.",
+                () -> s1.seal(handle1),
+                ex -> ex instanceof StorageNotPrimaryException);
+        AssertExtensions.assertThrows(
+                "truncate() was allowed after the Pack was taken over.",
+                () -> s1.truncate(handle1, 1),
+                ex -> ex instanceof StorageNotPrimaryException);
+        AssertExtensions.assertThrows(
+                "delete() was allowed after the Pack was taken over.",
+                () -> s1.delete(handle1),
+                ex -> ex instanceof StorageNotPrimaryException);
+
+        // The new owner should have all the data (and nothing that was rejected) and be able to continue writing.
+        Assert.assertFalse("Segment created by a fenced out instance.", s2.exists(segmentName + "2"));
+        s2.write(handle2, data.length, new ByteArrayInputStream(data), data.length);
+        val expected = new ByteArrayOutputStream();
+        expected.write(data);
+        expected.write(data);
+        val segments = new HashMap<String, ByteArrayOutputStream>();
+        segments.put(segmentName, expected);
+        checkData(segments, s2);
+
+        // The fenced out instance can still read (it catches up with the new owner).
+        checkData(segments, s1);
+    }
+
+    /**
+     * Tests that a new owner compacts the garbage left behind by the previous one, and that the previous one is fenced
+     * out even if its Active Chunk is compacted away.
+     */
+    @Test
+    public void testCompactionAfterFailover() throws Exception {
+        @Cleanup
+        val baseStorage = new InMemoryStorage();
+
+        // The first owner only deletes Chunks that have no live data at all; it never compacts anything.
+        @Cleanup
+        val s1 = new PackedStorage(baseStorage, PACK_NAME, MAX_CHUNK_LENGTH, 0);
+        s1.initialize(DEFAULT_EPOCH);
+        val segments = createSegments(s1);
+        populate(s1, segments);
+        int chunkCount = getChunkCount(baseStorage);
+        long totalLength = segments.values().stream().mapToLong(ByteArrayOutputStream::size).sum();
+
+        // Delete 3/4 of the Segments. Since the data is interleaved, every Chunk still has some live data.
+        int index = 0;
+        val iterator = segments.entrySet().iterator();
+        while (iterator.hasNext()) {
+            val e = iterator.next();
+            if (index % 4 != 0) {
+                s1.delete(s1.openWrite(e.getKey()));
+                iterator.remove();
+            }
+
+            index++;
+        }
+
+        Assert.assertEquals("Not expecting any Chunk to have been deleted or compacted.", chunkCount, getChunkCount(baseStorage));
+        val remaining = segments.keySet().iterator().next();
+        val handle1 = s1.openWrite(remaining);
+
+        // Another instance takes over the Pack, which must compact all the Chunks left behind by the first one.
+        baseStorage.changeOwner();
+        @Cleanup
+        val s2 = createPackedStorage(baseStorage);
+        val handle2 = s2.openWrite(remaining);
+        Assert.assertFalse("Expected the first Chunk to have been compacted.",
+                baseStorage.exists(StreamSegmentNameUtils.getPackChunkName(PACK_NAME, 0)));
+        Assert.assertFalse("Expected the previous owner's Active Chunk to have been compacted.",
+                baseStorage.exists(StreamSegmentNameUtils.getPackChunkName(PACK_NAME, chunkCount - 1)));
+        long storedLength = 0;
+        for (int chunkId = 0; chunkId < MAX_CHUNK_ID; chunkId++) {
+            String chunkName = StreamSegmentNameUtils.getPackChunkName(PACK_NAME, chunkId);
+            if (baseStorage.exists(chunkName)) {
+                storedLength += baseStorage.getStreamSegmentInfo(chunkName).getLength();
+            }
+        }
+
+        AssertExtensions.assertLessThanOrEqual("Too much data left behind after compaction.",
+                totalLength / 2 + MAX_CHUNK_LENGTH, storedLength);
+        checkData(segments, s2);
+
+        // The first owner's Active Chunk is gone, so it must find out that it has been fenced out when writing to it.
+        final byte[] data = "data".getBytes();
+        long length = segments.get(remaining).size();
+        AssertExtensions.assertThrows(
+                "write() was allowed after the Pack was taken over.",
+                () -> s1.write(handle1, length, new ByteArrayInputStream(data), data.length),
+                ex -> ex instanceof StorageNotPrimaryException);
+
+        // The new owner can continue writing, and everything can be recovered by yet another instance.
+        s2.write(handle2, length, new ByteArrayInputStream(data), data.length);
+        segments.get(remaining).write(data);
+        populate(s2, segments);
+        @Cleanup
+        val s3 = createPackedStorage(baseStorage);
+        checkData(segments, s3);
+    }
+
+    @Override
+    protected Storage createStorage() {
+        return new AsyncStorageWrapper(createPackedStorage(new InMemoryStorage()), executorService());
+    }
+
+    //region Helpers
+
+    private PackedStorage createPackedStorage(SyncStorage baseStorage) {
+        return new PackedStorage(baseStorage, PACK_NAME, MAX_CHUNK_LENGTH, COMPACTION_THRESHOLD);
+    }
+
+    private HashMap<String, ByteArrayOutputStream> createSegments(SyncStorage s) throws Exception {
+        val result = new HashMap<String, ByteArrayOutputStream>();
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            String segmentName = "Segment_" + i;
+            s.create(segmentName);
+            result.put(segmentName, new ByteArrayOutputStream());
+        }
+
+        return result;
+    }
+
+    private void populate(SyncStorage s, Map<String, ByteArrayOutputStream> segments) throws Exception {
+        // Interleave the writes so that the Segments' data is spread across the Chunks.
+        for (int i = 0; i < APPENDS_PER_SEGMENT; i++) {
+            for (val e : segments.entrySet()) {
+                byte[] writeData = String.format(APPEND_FORMAT, e.getKey(), i).getBytes();
+                s.write(s.openWrite(e.getKey()), e.getValue().size(), new ByteArrayInputStream(writeData), writeData.length);
+                e.getValue().write(writeData);
+            }
+        }
+    }
+
+    private void checkData(Map<String, ByteArrayOutputStream> segments, SyncStorage s) throws Exception {
+        for (val e : segments.entrySet()) {
+            byte[] expectedData = e.getValue().toByteArray();
+            val si = s.getStreamSegmentInfo(e.getKey());
+            Assert.assertEquals("Unexpected length for " + e.getKey(), expectedData.length, si.getLength());
+            int startOffset = (int) si.getStartOffset();
+            byte[] readBuffer = new byte[expectedData.length - startOffset];
+            int bytesRead = s.read(s.openRead(e.getKey()), startOffset, readBuffer, 0, readBuffer.length);
+            Assert.assertEquals("Unexpected number of bytes read from " + e.getKey(), readBuffer.length, bytesRead);
+            AssertExtensions.assertArrayEquals("Unexpected data read from " + e.getKey(), expectedData, startOffset,
+                    readBuffer, 0, readBuffer.length);
+        }
+    }
+
+    private int getChunkCount(SyncStorage baseStorage) {
+        int count = 0;
+        while (baseStorage.exists(StreamSegmentNameUtils.getPackChunkName(PACK_NAME, count))) {
+            count++;
+        }
+
+        return count;
+    }
+
+    //endregion
+}
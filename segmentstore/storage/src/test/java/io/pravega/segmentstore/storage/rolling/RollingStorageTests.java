@@ -284,6 +284,46 @@ public class RollingStorageTests extends RollingStorageTestBase {
         checkWrittenData(writeStream.toByteArray(), s.openRead(SEGMENT_NAME), s);
     }
 
+    /**
+     * Tests the ability to concat using the header file for those cases when native concat could be used, but the source
+     * Segment is larger than the maximum length for native concats. No data should be copied in this case.
+     */
+    @Test
+    public void testConcatHeaderAboveNativeLength() throws Exception {
+        final int initialTargetLength = (int) DEFAULT_ROLLING_POLICY.getMaxLength() / 2;
+        final int initialSourceLength = (int) DEFAULT_ROLLING_POLICY.getMaxLength() - initialTargetLength;
+        final String sourceSegmentName = "SourceSegment";
+        @Cleanup
+        val baseStorage = new InMemoryStorage();
+        @Cleanup
+        val s = new RollingStorage(baseStorage, DEFAULT_ROLLING_POLICY, initialSourceLength - 1);
+        s.initialize(1);
+
+        // Create a Target Segment and a Source Segment that would otherwise be eligible for a native concat.
+        s.create(SEGMENT_NAME);
+        val targetHandle = (RollingSegmentHandle) s.openWrite(SEGMENT_NAME);
+        val writeStream = new ByteArrayOutputStream();
+        populate(s, targetHandle, 1, initialTargetLength, initialTargetLength, writeStream);
+        s.create(sourceSegmentName);
+        val sourceHandle = (RollingSegmentHandle) s.openWrite(sourceSegmentName);
+        populate(s, sourceHandle, 1, initialSourceLength, initialSourceLength, writeStream);
+        s.seal(sourceHandle);
+        val sourceChunk = sourceHandle.lastChunk();
+
+        // Concat and verify the Source's SegmentChunk has been linked into the Target, as opposed to being copied.
+        s.concat(targetHandle, initialTargetLength, sourceSegmentName);
+        checkConcatResult(s, targetHandle, sourceSegmentName, 2, initialTargetLength + initialSourceLength);
+        Assert.assertEquals("Unexpected first SegmentChunk length.",
+                initialTargetLength, baseStorage.getStreamSegmentInfo(targetHandle.chunks().get(0).getName()).getLength());
+        Assert.assertEquals("Expected the Source's SegmentChunk to be the Target's last SegmentChunk.",
+                sourceChunk.getName(), targetHandle.lastChunk().getName());
+        checkWrittenData(writeStream.toByteArray(), s.openRead(SEGMENT_NAME), s);
+
+        // The Target should still be writable.
+        populate(s, targetHandle, 1, initialTargetLength, initialTargetLength, writeStream);
+        checkWrittenData(writeStream.toByteArray(), s.openRead(SEGMENT_NAME), s);
+    }
+
     /**
      * Tests the ability to concat using the header file for those cases when native concat cannot be used because the
      * source Segment has a single SegmentChunk, but it's too large to fit into the Target's active SegmentChunk.
@@ -15,6 +15,7 @@ public final class MetricsNames {
     public static final String SEGMENT_CREATE_LATENCY = "segment_create_latency_ms"; // Timer
     public static final String SEGMENT_READ_LATENCY = "segment_read_latency_ms";     // Timer
     public static final String SEGMENT_WRITE_LATENCY = "segment_write_latency_ms";   // Timer
+    public static final String SEGMENT_WRITE_PAUSED_TIME = "segment_write_paused_ms"; // Timer
     public static final String SEGMENT_READ_BYTES = "segmentstore.segment_read_bytes";            // Dynamic Counter
     public static final String SEGMENT_WRITE_BYTES = "segmentstore.segment_write_bytes";          // Dynamic Counter
     public static final String SEGMENT_WRITE_EVENTS = "segmentstore.segment_write_events";        // Dynamic Counter
@@ -24,6 +25,7 @@ public final class MetricsNames {
     public static final String STORAGE_WRITE_LATENCY = "tier2_write_latency_ms"; // Timer
     public static final String STORAGE_READ_BYTES = "tier2_read_bytes";          // Counter
     public static final String STORAGE_WRITE_BYTES = "tier2_write_bytes";        // Counter
+    public static final String STORAGE_RANGE_READ_LATENCY = "tier2_range_read_latency_ms"; // Timer
 
     //Cache (RocksDB) stats
     public static final String CACHE_INSERT_LATENCY = "cache_insert_latency";
@@ -60,6 +62,7 @@ public final class MetricsNames {
     public static final String OPERATION_COMMIT_METADATA_TXN_COUNT = "operation_commit_metadata_txn_count";
     public static final String OPERATION_COMMIT_MEMORY_LATENCY = "operation_commit_memory_latency_ms";
     public static final String OPERATION_LOG_SIZE = "operation_log_size";
+    public static final String OPERATION_LOG_RECOVERY_LATENCY = "operation_log_recovery_latency_ms";
     public static final String ACTIVE_SEGMENT_COUNT = "active_segments";
 
     // General metrics
@@ -14,6 +14,13 @@ import java.util.UUID;
 import io.netty.buffer.ByteBuf;
 import lombok.Data;
 
+/**
+ * An append of one or more events to a segment.
+ *
+ * If eventCount is 1, data holds the event itself. If it is greater than 1, data holds that many events, each already
+ * serialized as a {@link WireCommands.Event} (Type, Length, Data), so that they can be copied into an append block
+ * as-is.
+ */
 @Data
 public class Append implements Request, Comparable<Append> {
     final String segment;
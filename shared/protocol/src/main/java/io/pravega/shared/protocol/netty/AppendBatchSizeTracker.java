@@ -9,22 +9,27 @@
  */
 package io.pravega.shared.protocol.netty;
 
+import java.util.UUID;
+
 public interface AppendBatchSizeTracker {
 
     /**
-     * Records that an append has been sent.
+     * Records that an append has been sent. Event numbers are per writer, and a connection may carry appends from
+     * more than one writer.
      * 
+     * @param writerId the id of the writer that sent the event
      * @param eventNumber the number of the event
      * @param size the size of the event
      */
-    void recordAppend(long eventNumber, int size);
+    void recordAppend(UUID writerId, long eventNumber, int size);
 
     /**
      * Records that one or more events have been acked.
      * 
+     * @param writerId the id of the writer whose events have been acked
      * @param eventNumber the number of the last event
      */
-    void recordAck(long eventNumber);
+    void recordAck(UUID writerId, long eventNumber);
 
     /**
      * Returns the size that should be used for the next append block.
@@ -45,7 +45,8 @@ public class AppendDecoder extends MessageToMessageDecoder<WireCommand> {
     @Override
     public boolean acceptInboundMessage(Object msg) throws Exception {
         return msg instanceof WireCommands.SetupAppend || msg instanceof WireCommands.AppendBlock || msg instanceof WireCommands.AppendBlockEnd
-                || msg instanceof WireCommands.Padding || msg instanceof WireCommands.ConditionalAppend;
+                || msg instanceof WireCommands.Padding || msg instanceof WireCommands.ConditionalAppend
+                || msg instanceof WireCommands.RemoveWriter;
     }
 
     @Override
@@ -72,6 +73,11 @@ public class AppendDecoder extends MessageToMessageDecoder<WireCommand> {
             appendingSegments.put(append.getWriterId(), new Segment(append.getSegment()));
             result = append;
             break;
+        case REMOVE_WRITER:
+            WireCommands.RemoveWriter remove = (WireCommands.RemoveWriter) command;
+            appendingSegments.remove(remove.getWriterId());
+            result = remove;
+            break;
         case CONDITIONAL_APPEND:
             WireCommands.ConditionalAppend ca = (WireCommands.ConditionalAppend) command;
             segment = getSegment(ca.getWriterId());
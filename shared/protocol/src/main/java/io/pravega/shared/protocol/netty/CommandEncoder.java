@@ -16,6 +16,7 @@ import io.pravega.shared.protocol.netty.WireCommands.Event;
 import io.pravega.shared.protocol.netty.WireCommands.Flush;
 import io.pravega.shared.protocol.netty.WireCommands.Padding;
 import io.pravega.shared.protocol.netty.WireCommands.PartialEvent;
+import io.pravega.shared.protocol.netty.WireCommands.RemoveWriter;
 import io.pravega.shared.protocol.netty.WireCommands.SetupAppend;
 import com.google.common.base.Preconditions;
 import java.io.ByteArrayOutputStream;
@@ -71,14 +72,15 @@ public class CommandEncoder extends MessageToByteEncoder<Object> {
     private static final byte[] LENGTH_PLACEHOLDER = new byte[4];
 
     private final AppendBatchSizeTracker blockSizeSupplier;
-    private final HashMap<String, Session> setupSegments = new HashMap<>();
-    private String segmentBeingAppendedTo;
+    private final HashMap<UUID, Session> setupWriters = new HashMap<>();
+    private UUID writerBeingAppendedFor;
     private int currentBlockSize;
     private int bytesLeftInBlock;
 
     @Data
     private static final class Session {
         private final UUID id;
+        private final String segment;
         private long lastEventNumber = -1L;
         private int eventCount;
     }
@@ -88,8 +90,8 @@ public class CommandEncoder extends MessageToByteEncoder<Object> {
         log.trace("Encoding message to send over the wire {}", msg);
         if (msg instanceof Append) {
             Append append = (Append) msg;
-            Session session = setupSegments.get(append.segment);
-            if (session == null || !session.id.equals(append.getWriterId())) {
+            Session session = setupWriters.get(append.getWriterId());
+            if (session == null || !session.segment.equals(append.getSegment())) {
                 throw new InvalidMessageException("Sending appends without setting up the append.");
             }
             if (append.getEventNumber() <= session.lastEventNumber) {
@@ -106,13 +108,13 @@ public class CommandEncoder extends MessageToByteEncoder<Object> {
             } else {
                 Preconditions.checkState(bytesLeftInBlock == 0 || bytesLeftInBlock > TYPE_PLUS_LENGTH_SIZE,
                         "Bug in CommandEncoder.encode, block is too small.");
-                if (append.segment != segmentBeingAppendedTo) {
+                if (!append.getWriterId().equals(writerBeingAppendedFor)) {
                     breakFromAppend(out);
                 }
                 if (bytesLeftInBlock == 0) {
                     currentBlockSize = Math.max(TYPE_PLUS_LENGTH_SIZE, blockSizeSupplier.getAppendBlockSize());
                     bytesLeftInBlock = currentBlockSize;
-                    segmentBeingAppendedTo = append.segment;
+                    writerBeingAppendedFor = append.getWriterId();
                     writeMessage(new AppendBlock(session.id), out);
                     if (ctx != null) {
                         ctx.executor().schedule(new Flusher(ctx.channel(), currentBlockSize),
@@ -122,14 +124,21 @@ public class CommandEncoder extends MessageToByteEncoder<Object> {
                 }
 
                 session.lastEventNumber = append.getEventNumber();
-                session.eventCount++;
+                session.eventCount += append.getEventCount();
                 ByteBuf data = append.getData();
-                int msgSize = TYPE_PLUS_LENGTH_SIZE + data.readableBytes();
+                // A batch of events is already serialized as a sequence of Events.
+                boolean serialized = append.getEventCount() > 1;
+                int msgSize = serialized ? data.readableBytes() : TYPE_PLUS_LENGTH_SIZE + data.readableBytes();
                 // Is there enough space for a subsequent message after this one?
                 if (bytesLeftInBlock - msgSize > TYPE_PLUS_LENGTH_SIZE) {
-                    bytesLeftInBlock -= writeMessage(new Event(data), out);
+                    if (serialized) {
+                        out.writeBytes(data, data.readerIndex(), msgSize);
+                        bytesLeftInBlock -= msgSize;
+                    } else {
+                        bytesLeftInBlock -= writeMessage(new Event(data), out);
+                    }
                 } else {
-                    byte[] serializedMessage = serializeMessage(new Event(data));
+                    byte[] serializedMessage = serialized ? toArray(data) : serializeMessage(new Event(data));
                     int bytesInBlock = bytesLeftInBlock - TYPE_PLUS_LENGTH_SIZE;
                     ByteBuf dataInsideBlock = wrappedBuffer(serializedMessage, 0, bytesInBlock);
                     ByteBuf dataRemainging = wrappedBuffer(serializedMessage,
@@ -150,7 +159,11 @@ public class CommandEncoder extends MessageToByteEncoder<Object> {
             breakFromAppend(out);
             writeMessage((SetupAppend) msg, out);
             SetupAppend setup = (SetupAppend) msg;
-            setupSegments.put(setup.getSegment(), new Session(setup.getWriterId()));
+            setupWriters.put(setup.getWriterId(), new Session(setup.getWriterId(), setup.getSegment()));
+        } else if (msg instanceof RemoveWriter) {
+            breakFromAppend(out);
+            writeMessage((RemoveWriter) msg, out);
+            setupWriters.remove(((RemoveWriter) msg).getWriterId());
         } else if (msg instanceof Flush) {
             Flush flush = (Flush) msg;
             if (currentBlockSize == flush.getBlockSize()) {
@@ -167,7 +180,7 @@ public class CommandEncoder extends MessageToByteEncoder<Object> {
     private void breakFromAppend(ByteBuf out) {
         if (bytesLeftInBlock != 0) {
             writeMessage(new Padding(bytesLeftInBlock - TYPE_PLUS_LENGTH_SIZE), out);
-            Session session = setupSegments.get(segmentBeingAppendedTo);
+            Session session = setupWriters.get(writerBeingAppendedFor);
             writeMessage(new AppendBlockEnd(session.id,
                     currentBlockSize - bytesLeftInBlock,
                     null,
@@ -177,7 +190,13 @@ public class CommandEncoder extends MessageToByteEncoder<Object> {
             currentBlockSize = 0;
             session.eventCount = 0;
         }
-        segmentBeingAppendedTo = null;
+        writerBeingAppendedFor = null;
+    }
+
+    private byte[] toArray(ByteBuf data) {
+        byte[] result = new byte[data.readableBytes()];
+        data.getBytes(data.readerIndex(), result);
+        return result;
     }
 
     @SneakyThrows(IOException.class)
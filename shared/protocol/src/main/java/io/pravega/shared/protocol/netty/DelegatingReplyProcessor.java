@@ -65,10 +65,20 @@ public abstract class DelegatingReplyProcessor implements ReplyProcessor {
         getNextReplyProcessor().conditionalCheckFailed(dataNotAppended);
     }
 
+    @Override
+    public void writerRemoved(WireCommands.WriterRemoved writerRemoved) {
+        getNextReplyProcessor().writerRemoved(writerRemoved);
+    }
+
     @Override
     public void segmentRead(WireCommands.SegmentRead data) {
         getNextReplyProcessor().segmentRead(data);
     }
+
+    @Override
+    public void segmentsRead(WireCommands.SegmentsRead segmentsRead) {
+        getNextReplyProcessor().segmentsRead(segmentsRead);
+    }
     
     @Override
     public void segmentAttributeUpdated(WireCommands.SegmentAttributeUpdated segmentAttributeUpdated) {
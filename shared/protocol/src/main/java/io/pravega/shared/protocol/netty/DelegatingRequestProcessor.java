@@ -17,10 +17,14 @@ import io.pravega.shared.protocol.netty.WireCommands.DeleteSegment;
 import io.pravega.shared.protocol.netty.WireCommands.GetSegmentAttribute;
 import io.pravega.shared.protocol.netty.WireCommands.GetStreamSegmentInfo;
 import io.pravega.shared.protocol.netty.WireCommands.GetTransactionInfo;
+import io.pravega.shared.protocol.netty.WireCommands.GrantReadCredit;
 import io.pravega.shared.protocol.netty.WireCommands.KeepAlive;
 import io.pravega.shared.protocol.netty.WireCommands.ReadSegment;
+import io.pravega.shared.protocol.netty.WireCommands.ReadSegments;
+import io.pravega.shared.protocol.netty.WireCommands.RemoveWriter;
 import io.pravega.shared.protocol.netty.WireCommands.SealSegment;
 import io.pravega.shared.protocol.netty.WireCommands.SetupAppend;
+import io.pravega.shared.protocol.netty.WireCommands.SubscribeSegment;
 import io.pravega.shared.protocol.netty.WireCommands.TruncateSegment;
 import io.pravega.shared.protocol.netty.WireCommands.UpdateSegmentAttribute;
 import io.pravega.shared.protocol.netty.WireCommands.UpdateSegmentPolicy;
@@ -43,11 +47,31 @@ public abstract class DelegatingRequestProcessor implements RequestProcessor {
         getNextRequestProcessor().append(append);
     }
 
+    @Override
+    public void removeWriter(RemoveWriter removeWriter) {
+        getNextRequestProcessor().removeWriter(removeWriter);
+    }
+
     @Override
     public void readSegment(ReadSegment readSegment) {
         getNextRequestProcessor().readSegment(readSegment);
     }
 
+    @Override
+    public void readSegments(ReadSegments readSegments) {
+        getNextRequestProcessor().readSegments(readSegments);
+    }
+
+    @Override
+    public void subscribeSegment(SubscribeSegment subscribeSegment) {
+        getNextRequestProcessor().subscribeSegment(subscribeSegment);
+    }
+
+    @Override
+    public void grantReadCredit(GrantReadCredit grantReadCredit) {
+        getNextRequestProcessor().grantReadCredit(grantReadCredit);
+    }
+
     @Override
     public void updateSegmentAttribute(UpdateSegmentAttribute updateSegmentAttribute) {
         getNextRequestProcessor().updateSegmentAttribute(updateSegmentAttribute);
@@ -108,10 +108,20 @@ public abstract class FailingReplyProcessor implements ReplyProcessor {
         throw new IllegalStateException("Conditional check failed for event: " + dataNotAppended.eventNumber);
     }
 
+    @Override
+    public void writerRemoved(WireCommands.WriterRemoved writerRemoved) {
+        throw new IllegalStateException("Unexpected operation: " + writerRemoved);
+    }
+
     @Override
     public void segmentRead(SegmentRead data) {
         throw new IllegalStateException("Unexpected operation: " + data);
     }
+
+    @Override
+    public void segmentsRead(WireCommands.SegmentsRead segmentsRead) {
+        segmentsRead.getReads().forEach(this::segmentRead);
+    }
     
     @Override
     public void segmentAttributeUpdated(WireCommands.SegmentAttributeUpdated segmentAttributeUpdated) {
@@ -17,11 +17,15 @@ import io.pravega.shared.protocol.netty.WireCommands.DeleteSegment;
 import io.pravega.shared.protocol.netty.WireCommands.GetSegmentAttribute;
 import io.pravega.shared.protocol.netty.WireCommands.GetStreamSegmentInfo;
 import io.pravega.shared.protocol.netty.WireCommands.GetTransactionInfo;
+import io.pravega.shared.protocol.netty.WireCommands.GrantReadCredit;
 import io.pravega.shared.protocol.netty.WireCommands.Hello;
 import io.pravega.shared.protocol.netty.WireCommands.KeepAlive;
 import io.pravega.shared.protocol.netty.WireCommands.ReadSegment;
+import io.pravega.shared.protocol.netty.WireCommands.ReadSegments;
+import io.pravega.shared.protocol.netty.WireCommands.RemoveWriter;
 import io.pravega.shared.protocol.netty.WireCommands.SealSegment;
 import io.pravega.shared.protocol.netty.WireCommands.SetupAppend;
+import io.pravega.shared.protocol.netty.WireCommands.SubscribeSegment;
 import io.pravega.shared.protocol.netty.WireCommands.TruncateSegment;
 import io.pravega.shared.protocol.netty.WireCommands.UpdateSegmentAttribute;
 import io.pravega.shared.protocol.netty.WireCommands.UpdateSegmentPolicy;
@@ -48,10 +52,30 @@ public class FailingRequestProcessor implements RequestProcessor {
         throw new IllegalStateException("Unexpected operation");
     }
 
+    @Override
+    public void removeWriter(RemoveWriter removeWriter) {
+        throw new IllegalStateException("Unexpected operation");
+    }
+
     @Override
     public void readSegment(ReadSegment readSegment) {
         throw new IllegalStateException("Unexpected operation");
     }
+
+    @Override
+    public void readSegments(ReadSegments readSegments) {
+        throw new IllegalStateException("Unexpected operation");
+    }
+
+    @Override
+    public void subscribeSegment(SubscribeSegment subscribeSegment) {
+        throw new IllegalStateException("Unexpected operation");
+    }
+
+    @Override
+    public void grantReadCredit(GrantReadCredit grantReadCredit) {
+        throw new IllegalStateException("Unexpected operation");
+    }
     
     @Override
     public void updateSegmentAttribute(UpdateSegmentAttribute updateSegmentAttribute) {
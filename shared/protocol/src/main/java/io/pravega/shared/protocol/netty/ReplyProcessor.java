@@ -37,7 +37,11 @@ public interface ReplyProcessor {
     
     void conditionalCheckFailed(WireCommands.ConditionalCheckFailed dataNotAppended);
 
+    void writerRemoved(WireCommands.WriterRemoved writerRemoved);
+
     void segmentRead(WireCommands.SegmentRead segmentRead);
+
+    void segmentsRead(WireCommands.SegmentsRead segmentsRead);
     
     void segmentAttributeUpdated(WireCommands.SegmentAttributeUpdated segmentAttributeUpdated);
     
@@ -17,11 +17,15 @@ import io.pravega.shared.protocol.netty.WireCommands.DeleteSegment;
 import io.pravega.shared.protocol.netty.WireCommands.GetSegmentAttribute;
 import io.pravega.shared.protocol.netty.WireCommands.GetStreamSegmentInfo;
 import io.pravega.shared.protocol.netty.WireCommands.GetTransactionInfo;
+import io.pravega.shared.protocol.netty.WireCommands.GrantReadCredit;
 import io.pravega.shared.protocol.netty.WireCommands.Hello;
 import io.pravega.shared.protocol.netty.WireCommands.KeepAlive;
 import io.pravega.shared.protocol.netty.WireCommands.ReadSegment;
+import io.pravega.shared.protocol.netty.WireCommands.ReadSegments;
+import io.pravega.shared.protocol.netty.WireCommands.RemoveWriter;
 import io.pravega.shared.protocol.netty.WireCommands.SealSegment;
 import io.pravega.shared.protocol.netty.WireCommands.SetupAppend;
+import io.pravega.shared.protocol.netty.WireCommands.SubscribeSegment;
 import io.pravega.shared.protocol.netty.WireCommands.TruncateSegment;
 import io.pravega.shared.protocol.netty.WireCommands.UpdateSegmentAttribute;
 import io.pravega.shared.protocol.netty.WireCommands.UpdateSegmentPolicy;
@@ -36,7 +40,15 @@ public interface RequestProcessor {
 
     void append(Append append);
 
+    void removeWriter(RemoveWriter removeWriter);
+
     void readSegment(ReadSegment readSegment);
+
+    void readSegments(ReadSegments readSegments);
+
+    void subscribeSegment(SubscribeSegment subscribeSegment);
+
+    void grantReadCredit(GrantReadCredit grantReadCredit);
     
     void updateSegmentAttribute(UpdateSegmentAttribute updateSegmentAttribute);
     
@@ -78,6 +78,15 @@ public enum WireCommandType {
     TRUNCATE_SEGMENT(38, WireCommands.TruncateSegment::readFrom),
     SEGMENT_TRUNCATED(39, WireCommands.SegmentTruncated::readFrom),
 
+    SUBSCRIBE_SEGMENT(40, WireCommands.SubscribeSegment::readFrom),
+    GRANT_READ_CREDIT(41, WireCommands.GrantReadCredit::readFrom),
+
+    READ_SEGMENTS(42, WireCommands.ReadSegments::readFrom),
+    SEGMENTS_READ(43, WireCommands.SegmentsRead::readFrom),
+
+    REMOVE_WRITER(44, WireCommands.RemoveWriter::readFrom),
+    WRITER_REMOVED(45, WireCommands.WriterRemoved::readFrom),
+
     WRONG_HOST(50, WireCommands.WrongHost::readFrom),
     SEGMENT_IS_SEALED(51, WireCommands.SegmentIsSealed::readFrom),
     SEGMENT_ALREADY_EXISTS(52, WireCommands.SegmentAlreadyExists::readFrom),
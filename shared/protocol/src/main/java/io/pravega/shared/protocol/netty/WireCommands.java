@@ -12,19 +12,26 @@ package io.pravega.shared.protocol.netty;
 import com.google.common.base.Preconditions;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.util.ReferenceCounted;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.experimental.Accessors;
 
 import static io.netty.buffer.Unpooled.wrappedBuffer;
@@ -43,7 +50,7 @@ import static io.netty.buffer.Unpooled.wrappedBuffer;
  * Incompatible changes should instead create a new WireCommand object.
  */
 public final class WireCommands {
-    public static final int WIRE_VERSION = 4;
+    public static final int WIRE_VERSION = 7;
     public static final int OLDEST_COMPATIBLE_VERSION = 1;
     public static final int TYPE_SIZE = 4;
     public static final int TYPE_PLUS_LENGTH_SIZE = 8;
@@ -589,6 +596,62 @@ public final class WireCommands {
         }
     }
 
+    /**
+     * Tells the server that a Writer will no longer append on this connection, so that it may discard any state it has
+     * for it. Any of the Writer's appends that were received but not yet written are dropped (the Writer is expected
+     * to resend them after setting up appends again). WriterRemoved is sent in reply once any append for this Writer
+     * that was already being written has completed; no replies for this Writer follow it.
+     */
+    @Data
+    public static final class RemoveWriter implements Request, WireCommand {
+        final WireCommandType type = WireCommandType.REMOVE_WRITER;
+        final UUID writerId;
+        final String segment;
+
+        @Override
+        public void process(RequestProcessor cp) {
+            cp.removeWriter(this);
+        }
+
+        @Override
+        public void writeFields(DataOutput out) throws IOException {
+            out.writeLong(writerId.getMostSignificantBits());
+            out.writeLong(writerId.getLeastSignificantBits());
+            out.writeUTF(segment);
+        }
+
+        public static WireCommand readFrom(DataInput in, int length) throws IOException {
+            UUID writerId = new UUID(in.readLong(), in.readLong());
+            String segment = in.readUTF();
+            return new RemoveWriter(writerId, segment);
+        }
+    }
+
+    @Data
+    public static final class WriterRemoved implements Reply, WireCommand {
+        final WireCommandType type = WireCommandType.WRITER_REMOVED;
+        final UUID writerId;
+        final String segment;
+
+        @Override
+        public void process(ReplyProcessor cp) {
+            cp.writerRemoved(this);
+        }
+
+        @Override
+        public void writeFields(DataOutput out) throws IOException {
+            out.writeLong(writerId.getMostSignificantBits());
+            out.writeLong(writerId.getLeastSignificantBits());
+            out.writeUTF(segment);
+        }
+
+        public static WireCommand readFrom(DataInput in, int length) throws IOException {
+            UUID writerId = new UUID(in.readLong(), in.readLong());
+            String segment = in.readUTF();
+            return new WriterRemoved(writerId, segment);
+        }
+    }
+
     @Data
     public static final class ConditionalCheckFailed implements Reply, WireCommand {
         final WireCommandType type = WireCommandType.CONDITIONAL_CHECK_FAILED;
@@ -642,13 +705,50 @@ public final class WireCommands {
     }
 
     @Data
-    public static final class SegmentRead implements Reply, WireCommand {
+    public static final class SegmentRead implements Reply, WireCommand, ReferenceCounted {
         final WireCommandType type = WireCommandType.SEGMENT_READ;
         final String segment;
         final long offset;
         final boolean atTail; //TODO: Is sometimes false when actual state is unknown.
         final boolean endOfSegment;
-        final ByteBuffer data;
+        final ByteBuf data;
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        private transient ByteBuffer nioData;
+
+        public SegmentRead(String segment, long offset, boolean atTail, boolean endOfSegment, ByteBuffer data) {
+            this(segment, offset, atTail, endOfSegment, wrappedBuffer(data));
+            this.nioData = data;
+        }
+
+        /**
+         * Creates a new SegmentRead backed by the given ByteBuf. The ByteBuf is not copied; this reply takes over the
+         * reference held by the caller and releases it once it has been written out.
+         */
+        public SegmentRead(String segment, long offset, boolean atTail, boolean endOfSegment, ByteBuf data) {
+            this.segment = segment;
+            this.offset = offset;
+            this.atTail = atTail;
+            this.endOfSegment = endOfSegment;
+            this.data = data;
+        }
+
+        /**
+         * Gets a ByteBuffer representing the data in this reply. The same ByteBuffer is returned on every invocation.
+         */
+        public ByteBuffer getData() {
+            if (nioData == null) {
+                nioData = data.nioBuffer();
+            }
+            return nioData;
+        }
+
+        /**
+         * Gets the number of bytes of data in this reply, without materializing a ByteBuffer for it.
+         */
+        public int getDataLength() {
+            return data.readableBytes();
+        }
 
         @Override
         public void process(ReplyProcessor cp) {
@@ -661,9 +761,18 @@ public final class WireCommands {
             out.writeLong(offset);
             out.writeBoolean(atTail);
             out.writeBoolean(endOfSegment);
-            int dataLength = data.remaining();
+            int dataLength = data.readableBytes();
             out.writeInt(dataLength);
-            out.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            if (out instanceof ByteBufOutputStream) {
+                // Copy straight into the outbound buffer; data may be off-heap and not have a backing array.
+                ((ByteBufOutputStream) out).buffer().writeBytes(data, data.readerIndex(), dataLength);
+            } else if (data.hasArray()) {
+                out.write(data.array(), data.arrayOffset() + data.readerIndex(), dataLength);
+            } else {
+                byte[] array = new byte[dataLength];
+                data.getBytes(data.readerIndex(), array);
+                out.write(array);
+            }
         }
 
         public static WireCommand readFrom(DataInput in, int length) throws IOException {
@@ -679,6 +788,218 @@ public final class WireCommands {
             in.readFully(data);
             return new SegmentRead(segment, offset, atTail, endOfSegment, ByteBuffer.wrap(data));
         }
+
+        @Override
+        public int refCnt() {
+            return data.refCnt();
+        }
+
+        @Override
+        public ReferenceCounted retain() {
+            data.retain();
+            return this;
+        }
+
+        @Override
+        public ReferenceCounted retain(int increment) {
+            data.retain(increment);
+            return this;
+        }
+
+        @Override
+        public ReferenceCounted touch() {
+            data.touch();
+            return this;
+        }
+
+        @Override
+        public ReferenceCounted touch(Object hint) {
+            data.touch(hint);
+            return this;
+        }
+
+        @Override
+        public boolean release() {
+            return data.release();
+        }
+
+        @Override
+        public boolean release(int decrement) {
+            return data.release(decrement);
+        }
+    }
+
+    /**
+     * Subscribes to a Segment starting at the given offset. The server will push SegmentRead replies (in order) as data
+     * becomes available in the Segment, as long as the client has credits left. Each byte pushed consumes one credit;
+     * more credits can be granted using GrantReadCredit. A new SubscribeSegment for the same Segment replaces the
+     * existing subscription. The subscription ends when the end of the Segment is reached, upon any error reply or when
+     * the connection is closed.
+     */
+    @Data
+    public static final class SubscribeSegment implements Request, WireCommand {
+        final WireCommandType type = WireCommandType.SUBSCRIBE_SEGMENT;
+        final String segment;
+        final long offset;
+        final int credits;
+
+        @Override
+        public void process(RequestProcessor cp) {
+            cp.subscribeSegment(this);
+        }
+
+        @Override
+        public void writeFields(DataOutput out) throws IOException {
+            out.writeUTF(segment);
+            out.writeLong(offset);
+            out.writeInt(credits);
+        }
+
+        public static WireCommand readFrom(DataInput in, int length) throws IOException {
+            String segment = in.readUTF();
+            long offset = in.readLong();
+            int credits = in.readInt();
+            return new SubscribeSegment(segment, offset, credits);
+        }
+    }
+
+    /**
+     * Grants additional credits (in bytes) to an existing Segment subscription (see SubscribeSegment).
+     */
+    @Data
+    public static final class GrantReadCredit implements Request, WireCommand {
+        final WireCommandType type = WireCommandType.GRANT_READ_CREDIT;
+        final String segment;
+        final int credits;
+
+        @Override
+        public void process(RequestProcessor cp) {
+            cp.grantReadCredit(this);
+        }
+
+        @Override
+        public void writeFields(DataOutput out) throws IOException {
+            out.writeUTF(segment);
+            out.writeInt(credits);
+        }
+
+        public static WireCommand readFrom(DataInput in, int length) throws IOException {
+            String segment = in.readUTF();
+            int credits = in.readInt();
+            return new GrantReadCredit(segment, credits);
+        }
+    }
+
+    /**
+     * Reads from multiple Segments (owned by the same Segment Store) in one request. Whatever data is readily available
+     * for these reads is returned in a single SegmentsRead reply; reads that need to wait for data (or fail) are replied
+     * to individually, exactly as if they had been sent as separate ReadSegment requests.
+     */
+    @Data
+    public static final class ReadSegments implements Request, WireCommand {
+        final WireCommandType type = WireCommandType.READ_SEGMENTS;
+        final List<ReadSegment> reads;
+
+        @Override
+        public void process(RequestProcessor cp) {
+            cp.readSegments(this);
+        }
+
+        @Override
+        public void writeFields(DataOutput out) throws IOException {
+            out.writeInt(reads.size());
+            for (ReadSegment read : reads) {
+                read.writeFields(out);
+            }
+        }
+
+        public static WireCommand readFrom(DataInput in, int length) throws IOException {
+            int count = in.readInt();
+            List<ReadSegment> reads = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                reads.add((ReadSegment) ReadSegment.readFrom(in, length));
+            }
+            return new ReadSegments(reads);
+        }
+    }
+
+    /**
+     * Contains the replies to multiple reads from a ReadSegments request. Processing this reply is equivalent to
+     * processing each of the contained SegmentReads, in order.
+     */
+    @Data
+    public static final class SegmentsRead implements Reply, WireCommand, ReferenceCounted {
+        final WireCommandType type = WireCommandType.SEGMENTS_READ;
+        final List<SegmentRead> reads;
+
+        @Override
+        public void process(ReplyProcessor cp) {
+            cp.segmentsRead(this);
+        }
+
+        @Override
+        public void writeFields(DataOutput out) throws IOException {
+            out.writeInt(reads.size());
+            for (SegmentRead read : reads) {
+                read.writeFields(out);
+            }
+        }
+
+        public static WireCommand readFrom(DataInput in, int length) throws IOException {
+            int count = in.readInt();
+            List<SegmentRead> reads = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                reads.add((SegmentRead) SegmentRead.readFrom(in, length));
+            }
+            return new SegmentsRead(reads);
+        }
+
+        @Override
+        public int refCnt() {
+            return reads.isEmpty() ? 1 : reads.get(0).refCnt();
+        }
+
+        @Override
+        public ReferenceCounted retain() {
+            reads.forEach(SegmentRead::retain);
+            return this;
+        }
+
+        @Override
+        public ReferenceCounted retain(int increment) {
+            reads.forEach(read -> read.retain(increment));
+            return this;
+        }
+
+        @Override
+        public ReferenceCounted touch() {
+            reads.forEach(SegmentRead::touch);
+            return this;
+        }
+
+        @Override
+        public ReferenceCounted touch(Object hint) {
+            reads.forEach(read -> read.touch(hint));
+            return this;
+        }
+
+        @Override
+        public boolean release() {
+            boolean released = false;
+            for (SegmentRead read : reads) {
+                released |= read.release();
+            }
+            return released;
+        }
+
+        @Override
+        public boolean release(int decrement) {
+            boolean released = false;
+            for (SegmentRead read : reads) {
+                released |= read.release(decrement);
+            }
+            return released;
+        }
     }
 
     @Data
@@ -10,6 +10,7 @@
 package io.pravega.shared.protocol.netty;
 
 import io.pravega.shared.protocol.netty.WireCommands.KeepAlive;
+import io.pravega.shared.protocol.netty.WireCommands.RemoveWriter;
 import io.pravega.shared.protocol.netty.WireCommands.SetupAppend;
 
 import java.util.ArrayList;
@@ -25,6 +26,7 @@ import static io.pravega.shared.protocol.netty.WireCommandType.EVENT;
 import static io.pravega.shared.protocol.netty.WireCommands.TYPE_PLUS_LENGTH_SIZE;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
@@ -67,12 +69,12 @@ public class AppendEncodeDecodeTest {
         }
 
         @Override
-        public void recordAppend(long eventNumber, int size) {
+        public void recordAppend(UUID writerId, long eventNumber, int size) {
 
         }
 
         @Override
-        public void recordAck(long eventNumber) {
+        public void recordAck(UUID writerId, long eventNumber) {
         }
 
         @Override
@@ -262,6 +264,62 @@ public class AppendEncodeDecodeTest {
         sendAndVerifyEvents(streamName, writerId, 2, size, 2);
     }
 
+    @Test
+    public void testBatchedAppend() throws Exception {
+        int numEvents = 3;
+        int size = 10;
+        @Cleanup("release")
+        ByteBuf fakeNetwork = ByteBufAllocator.DEFAULT.buffer();
+        ArrayList<Object> received = setupAppend(streamName, writerId, fakeNetwork);
+
+        // The events in a batch are already serialized.
+        ByteBuf batch = Unpooled.buffer();
+        for (int i = 0; i < numEvents; i++) {
+            byte[] content = new byte[size];
+            Arrays.fill(content, (byte) i);
+            batch.writeInt(EVENT.getCode());
+            batch.writeInt(size);
+            batch.writeBytes(content);
+        }
+        encoder.encode(null, new Append(streamName, writerId, numEvents - 1, numEvents, batch, null), fakeNetwork);
+        encoder.encode(null, new KeepAlive(), fakeNetwork);
+        read(fakeNetwork, received);
+        assertEquals(2, received.size());
+
+        Append append = (Append) received.get(0);
+        assertEquals(numEvents, append.getEventCount());
+        verify(received.subList(0, 1), numEvents, size);
+    }
+
+    @Test
+    public void testRemoveWriter() throws Exception {
+        int size = 10;
+        @Cleanup("release")
+        ByteBuf fakeNetwork = ByteBufAllocator.DEFAULT.buffer();
+        ArrayList<Object> received = setupAppend(streamName, writerId, fakeNetwork);
+        append(streamName, writerId, size, 0, size, fakeNetwork);
+
+        // Removing the writer closes its open block first, and both sides forget about it.
+        RemoveWriter remove = new RemoveWriter(writerId, streamName);
+        encoder.encode(null, remove, fakeNetwork);
+        read(fakeNetwork, received);
+        assertEquals(2, received.size());
+        verify(received.subList(0, 1), 1, size);
+        assertEquals(remove, received.get(1));
+        try {
+            append(streamName, writerId, 2 * size, 1, size, fakeNetwork);
+            fail("Append was encoded for a removed writer.");
+        } catch (InvalidMessageException ex) {
+            // Expected.
+        }
+        try {
+            appendDecoder.processCommand(new WireCommands.AppendBlock(writerId));
+            fail("Append was decoded for a removed writer.");
+        } catch (InvalidMessageException ex) {
+            // Expected.
+        }
+    }
+
     private ArrayList<Object> setupAppend(String testStream, UUID writerId, ByteBuf fakeNetwork) throws Exception {
         SetupAppend setupAppend = new SetupAppend(1, writerId, testStream);
         encoder.encode(null, setupAppend, fakeNetwork);
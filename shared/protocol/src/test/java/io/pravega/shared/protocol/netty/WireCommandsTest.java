@@ -17,6 +17,7 @@ import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.UUID;
 import lombok.Data;
 import org.junit.Test;
@@ -27,6 +28,7 @@ public class WireCommandsTest {
 
     private final UUID uuid = UUID.randomUUID();
     private final String testString1 = "testString1";
+    private final String testString2 = "testString2";
     private final ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5 });
     private final ByteBuf buf = Unpooled.wrappedBuffer(buffer);
     private final byte b = -1;
@@ -107,6 +109,16 @@ public class WireCommandsTest {
         testCommand(new WireCommands.ConditionalCheckFailed(uuid, l));
     }
 
+    @Test
+    public void testRemoveWriter() throws IOException {
+        testCommand(new WireCommands.RemoveWriter(uuid, testString1));
+    }
+
+    @Test
+    public void testWriterRemoved() throws IOException {
+        testCommand(new WireCommands.WriterRemoved(uuid, testString1));
+    }
+
     @Test
     public void testReadSegment() throws IOException {
         testCommand(new WireCommands.ReadSegment(testString1, l, i));
@@ -116,6 +128,28 @@ public class WireCommandsTest {
     public void testSegmentRead() throws IOException {
         testCommand(new WireCommands.SegmentRead(testString1, l, true, false, buffer));
     }
+
+    @Test
+    public void testReadSegments() throws IOException {
+        testCommand(new WireCommands.ReadSegments(Arrays.asList(new WireCommands.ReadSegment(testString1, l, i),
+                new WireCommands.ReadSegment(testString2, l + 1, i + 1))));
+    }
+
+    @Test
+    public void testSegmentsRead() throws IOException {
+        testCommand(new WireCommands.SegmentsRead(Arrays.asList(new WireCommands.SegmentRead(testString1, l, true, false, buffer),
+                new WireCommands.SegmentRead(testString2, l + 1, false, true, ByteBuffer.allocate(0)))));
+    }
+
+    @Test
+    public void testSubscribeSegment() throws IOException {
+        testCommand(new WireCommands.SubscribeSegment(testString1, l, i));
+    }
+
+    @Test
+    public void testGrantReadCredit() throws IOException {
+        testCommand(new WireCommands.GrantReadCredit(testString1, i));
+    }
     
     @Test
     public void testUpdateSegmentAttribute() throws IOException {
@@ -33,6 +33,21 @@ public final class StreamSegmentNameUtils {
      */
     private static final String OFFSET_SUFFIX = "$offset.";
 
+    /**
+     * This is appended to the end of a Pack name to indicate it stores the Pack's index (or one generation of it).
+     */
+    private static final String PACK_INDEX_SUFFIX = "$index";
+
+    /**
+     * This is appended to the end of a Pack name to indicate it represents a shared chunk in that Pack.
+     */
+    private static final String PACK_CHUNK_SUFFIX = "$chunk.";
+
+    /**
+     * This is the prefix of the name of the Pack that holds the Segments of a Segment Container, if packing is enabled.
+     */
+    private static final String CONTAINER_PACK_PREFIX = "_system/containers/pack_";
+
     /**
      * This is appended to the end of the Parent Segment Name, then we append a unique identifier.
      */
@@ -134,4 +149,49 @@ public final class StreamSegmentNameUtils {
         Preconditions.checkArgument(!segmentName.contains(OFFSET_SUFFIX), "segmentName is already a SegmentChunk name");
         return segmentName + OFFSET_SUFFIX + Long.toString(offset);
     }
+
+    /**
+     * Gets the name of the Segment that points to the current generation of the index for the given Pack.
+     *
+     * @param packName The name of the Pack.
+     * @return The result.
+     */
+    public static String getPackIndexName(String packName) {
+        Preconditions.checkArgument(!packName.contains(PACK_INDEX_SUFFIX), "packName is already a pack index name");
+        return packName + PACK_INDEX_SUFFIX;
+    }
+
+    /**
+     * Gets the name of the Segment that stores the given generation of the index for the given Pack.
+     *
+     * @param packName   The name of the Pack.
+     * @param generation The index generation.
+     * @return The result.
+     */
+    public static String getPackIndexName(String packName, long generation) {
+        return getPackIndexName(packName) + "." + Long.toString(generation);
+    }
+
+    /**
+     * Gets the name of the Pack that holds the Segments of the given Segment Container.
+     *
+     * @param containerId The Id of the Segment Container.
+     * @return The Pack name.
+     */
+    public static String getContainerPackName(int containerId) {
+        Preconditions.checkArgument(containerId >= 0, "containerId must be a non-negative number.");
+        return CONTAINER_PACK_PREFIX + Integer.toString(containerId);
+    }
+
+    /**
+     * Gets the name of the shared chunk with the given id in the given Pack.
+     *
+     * @param packName The name of the Pack.
+     * @param chunkId  The id of the chunk.
+     * @return The chunk name.
+     */
+    public static String getPackChunkName(String packName, long chunkId) {
+        Preconditions.checkArgument(!packName.contains(PACK_CHUNK_SUFFIX), "packName is already a pack chunk name");
+        return packName + PACK_CHUNK_SUFFIX + Long.toString(chunkId);
+    }
 }
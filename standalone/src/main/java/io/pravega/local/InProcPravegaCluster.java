@@ -243,7 +243,7 @@ public class InProcPravegaCluster implements AutoCloseable {
                         .with(ServiceConfig.CLUSTER_NAME, this.clusterName)
                         .with(ServiceConfig.DATALOG_IMPLEMENTATION, isInMemStorage ?
                                 ServiceConfig.DataLogType.INMEMORY :
-                                ServiceConfig.DataLogType.BOOKKEEPER)
+                                ServiceConfig.DataLogType.FILESYSTEM)
                         .with(ServiceConfig.STORAGE_IMPLEMENTATION, isInMemStorage ?
                                 ServiceConfig.StorageType.INMEMORY :
                                 ServiceConfig.StorageType.FILESYSTEM))